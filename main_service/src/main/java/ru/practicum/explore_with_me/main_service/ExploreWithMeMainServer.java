@@ -2,9 +2,16 @@ package ru.practicum.explore_with_me.main_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.ComponentScan;
 
+import ru.practicum.explore_with_me.main_service.config.EventSearchProperties;
+import ru.practicum.explore_with_me.main_service.config.PagingProperties;
+import ru.practicum.explore_with_me.main_service.config.StatsIntegrationProperties;
+
 @SpringBootApplication
+@EnableConfigurationProperties({StatsIntegrationProperties.class, EventSearchProperties.class,
+        PagingProperties.class})
 @ComponentScan(basePackages = {
         "ru.practicum.explore_with_me.main_service",
         "ru.practicum.explore_with_me.stats_service"})
@@ -0,0 +1,41 @@
+package ru.practicum.explore_with_me.main_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import ru.practicum.explore_with_me.main_service.repository.EventRepository;
+import ru.practicum.explore_with_me.main_service.search.EventTextSearch;
+import ru.practicum.explore_with_me.main_service.search.InMemoryEventTextSearch;
+import ru.practicum.explore_with_me.main_service.search.PostgresEventTextSearch;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+@Configuration
+@Slf4j
+public class EventSearchConfig {
+
+    @Bean
+    public EventTextSearch eventTextSearch(EventSearchProperties eventSearchProperties, DataSource dataSource,
+                                           EventRepository eventRepository) {
+        EventSearchProperties.Engine engine = eventSearchProperties.getEngine();
+        if (engine == EventSearchProperties.Engine.AUTO) {
+            engine = isPostgreSql(dataSource) ?
+                    EventSearchProperties.Engine.POSTGRESQL : EventSearchProperties.Engine.IN_MEMORY;
+        }
+        log.info("Full-text search of events uses '{}' engine", engine);
+        return engine == EventSearchProperties.Engine.POSTGRESQL ?
+                new PostgresEventTextSearch(eventRepository) : new InMemoryEventTextSearch(eventRepository);
+    }
+
+    private boolean isPostgreSql(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException exception) {
+            throw new IllegalStateException("Failed to detect database for full-text search of events", exception);
+        }
+    }
+
+}
@@ -0,0 +1,19 @@
+package ru.practicum.explore_with_me.main_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "ewm.search")
+@Getter
+@Setter
+public class EventSearchProperties {
+    private Engine engine = Engine.AUTO;
+
+    public enum Engine {
+        AUTO,        // PostgreSQL - полнотекстовый индекс базы, иначе индекс в памяти
+        POSTGRESQL,
+        IN_MEMORY
+    }
+
+}
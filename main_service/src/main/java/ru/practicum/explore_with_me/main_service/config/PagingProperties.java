@@ -0,0 +1,21 @@
+package ru.practicum.explore_with_me.main_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "ewm.paging")
+@Getter
+@Setter
+public class PagingProperties {
+    private TotalCount totalCount = new TotalCount();
+
+    @Getter
+    @Setter
+    public static class TotalCount {
+        private long maximumSize = 1_000L;            // столько разных наборов фильтров храним одновременно
+        private long expireAfterWriteMs = 30_000L;    // настолько общее число может отставать от базы
+
+    }
+
+}
@@ -0,0 +1,30 @@
+package ru.practicum.explore_with_me.main_service.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import ru.practicum.explore_with_me.stats_service.client_submodule.AsyncStatsClient;
+
+import java.time.Clock;
+import java.time.Duration;
+
+@Configuration
+public class StatsClientConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "ewm.stats.client.type", havingValue = "async")
+    public AsyncStatsClient asyncStatsClient(StatsIntegrationProperties statsIntegrationProperties) {
+        StatsIntegrationProperties.Client properties = statsIntegrationProperties.getClient();
+        return new AsyncStatsClient(properties.getBaseUrl(),
+                Duration.ofMillis(properties.getConnectTimeoutMs()),
+                Duration.ofMillis(properties.getReadTimeoutMs()),
+                properties.getMaxConcurrentRequests());
+    }
+
+    @Bean
+    public Clock statsClock() {  // Предохранитель отсчитывает по нему время открытого состояния
+        return Clock.systemUTC();
+    }
+
+}
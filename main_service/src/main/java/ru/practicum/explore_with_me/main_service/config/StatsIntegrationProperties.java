@@ -0,0 +1,81 @@
+package ru.practicum.explore_with_me.main_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import ru.practicum.explore_with_me.stats_service.client_submodule.StatsClient;
+
+@ConfigurationProperties(prefix = "ewm.stats")
+@Getter
+@Setter
+public class StatsIntegrationProperties {
+    private Client client = new Client();
+    private Hits hits = new Hits();
+    private Views views = new Views();
+    private Resilience resilience = new Resilience();
+
+    public enum ClientType {
+        BLOCKING,
+        ASYNC
+    }
+
+    public enum Protocol {
+        JSON,
+        BINARY
+    }
+
+    @Getter
+    @Setter
+    public static class Client {
+        private ClientType type = ClientType.BLOCKING;
+        private Protocol protocol = Protocol.JSON;   // binary: хиты и просмотры событий передаются компактным телом POST
+        private String baseUrl = StatsClient.DEFAULT_BASE_URL;
+        private long connectTimeoutMs = 2_000L;
+        private long readTimeoutMs = 5_000L;
+        private int maxConcurrentRequests = 32;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Hits {
+        private int bufferCapacity = 10_000;
+        private int batchSize = 500;
+        private long flushIntervalMs = 500L;
+        private int maxAttempts = 5;
+        private long retryBackoffMs = 1_000L;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Views {
+        private boolean approximateUnique = false;  // оценка по HyperLogLog вместо точного числа уникальных IP
+        private long batchWindowMs = 5L;   // столько ждём другие запросы просмотров, чтобы отправить их одним запросом
+        private int maxBatchSize = 100;    // больше URI в один запрос не кладём, чтобы не упереться в длину URL
+        private long syncIntervalMs = 60_000L;  // так часто просмотры копируются в events.event_views, 0 - никогда
+        private Cache cache = new Cache();
+
+    }
+
+    @Getter
+    @Setter
+    public static class Resilience {
+        private long viewsTimeoutMs = 1_000L;    // дольше этого ответ просмотров не ждём и отдаём события без них
+        private int failureThreshold = 5;        // после стольких сбоев подряд запросы к Stats_service прекращаются
+        private long openStateMs = 30_000L;      // через этот срок пробуем снова одним запросом
+
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+        private boolean enabled = true;
+        private long maximumSize = 10_000L;
+        private long refreshAfterWriteMs = 10_000L;   // после этого срока значение отдаётся, но обновляется в фоне
+        private long expireAfterWriteMs = 300_000L;   // дольше этого срока устаревшее значение не отдаётся
+
+    }
+
+}
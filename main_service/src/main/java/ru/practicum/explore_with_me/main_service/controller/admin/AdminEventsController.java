@@ -4,11 +4,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 
+import ru.practicum.explore_with_me.main_service.model.rest_dto.CursorPage;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.event.EventRestCommand;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.event.EventRestView;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.event.HttpAdminGetAllRequestParamsHolder;
 import ru.practicum.explore_with_me.main_service.service.EventService;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 
 @RestController
@@ -26,7 +28,10 @@ public class AdminEventsController {
             @RequestParam(name = "rangeStart", required = false) String rangeStart,
             @RequestParam(name = "rangeEnd", required = false) String rangeEnd,
             @RequestParam(name = "from", defaultValue = "0") int from,
-            @RequestParam(name = "size", defaultValue = "10") int size) {
+            @RequestParam(name = "size", defaultValue = "10") int size,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal,
+            HttpServletResponse response) {
         HttpAdminGetAllRequestParamsHolder httpParams = HttpAdminGetAllRequestParamsHolder.builder()
                 .users(users)
                 .states(states)
@@ -35,8 +40,20 @@ public class AdminEventsController {
                 .rangeEnd(rangeEnd)
                 .from(from)
                 .size(size)
+                .cursor(cursor)
                 .build();
         log.debug("New admin request to get events with parameters '{}' was received", httpParams);
+        if (includeTotal) {
+            response.setHeader(CursorPage.TOTAL_COUNT_HEADER,
+                    String.valueOf(eventService.countEventsByParametersForAdmin(httpParams)));
+        }
+        if (cursor != null) {
+            CursorPage<EventRestView> events = eventService.getEventsPageByParametersForAdmin(httpParams);
+            if (events.getNextCursor() != null) {
+                response.setHeader(CursorPage.NEXT_CURSOR_HEADER, events.getNextCursor());
+            }
+            return events.getItems();
+        }
         return eventService.getAllEventsByParametersForAdmin(httpParams);
     }
 
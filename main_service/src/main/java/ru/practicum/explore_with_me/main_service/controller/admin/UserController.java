@@ -5,10 +5,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import ru.practicum.explore_with_me.main_service.model.rest_dto.CursorPage;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.user.UserRestCommand;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.user.UserRestView;
 import ru.practicum.explore_with_me.main_service.service.UserService;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 
 @RestController
@@ -28,7 +30,23 @@ public class UserController {
     @GetMapping
     public List<UserRestView> getUsersByIds(@RequestParam(name = "ids", defaultValue = "-1") long[] ids,
                                             @RequestParam(name = "from", defaultValue = "0") int from,
-                                            @RequestParam(name = "size", defaultValue = "10") int size) {
+                                            @RequestParam(name = "size", defaultValue = "10") int size,
+                                            @RequestParam(name = "cursor", required = false) String cursor,
+                                            @RequestParam(name = "includeTotal", defaultValue = "false")
+                                            boolean includeTotal,
+                                            HttpServletResponse response) {
+        if (includeTotal) {
+            response.setHeader(CursorPage.TOTAL_COUNT_HEADER, String.valueOf(userService.countUsersByIds(ids)));
+        }
+        if (cursor != null) {
+            log.debug("New request for page of users with size '{}' after cursor '{}' was received. " +
+                    "Requested users ids: {}", size, cursor, ids);
+            CursorPage<UserRestView> users = userService.getUsersByIdsAfterCursor(ids, cursor, size);
+            if (users.getNextCursor() != null) {
+                response.setHeader(CursorPage.NEXT_CURSOR_HEADER, users.getNextCursor());
+            }
+            return users.getItems();
+        }
         log.debug("New request for page of users with size '{}' from index '{}' was received. " +
                 "Requested users ids: {}", size, from, ids);
         return userService.getUsersByIds(ids, from, size);
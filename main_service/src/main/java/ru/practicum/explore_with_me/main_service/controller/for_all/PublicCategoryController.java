@@ -3,9 +3,11 @@ package ru.practicum.explore_with_me.main_service.controller.for_all;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.explore_with_me.main_service.model.rest_dto.CursorPage;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.category.CategoryRestView;
 import ru.practicum.explore_with_me.main_service.service.CategoryService;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 
 @RestController
@@ -17,7 +19,22 @@ public class PublicCategoryController {
 
     @GetMapping
     public List<CategoryRestView> getAllCategories(@RequestParam(name = "from", defaultValue = "0") int from,
-                                                  @RequestParam(name = "size", defaultValue = "10") int size) {
+                                                  @RequestParam(name = "size", defaultValue = "10") int size,
+                                                  @RequestParam(name = "cursor", required = false) String cursor,
+                                                  @RequestParam(name = "includeTotal", defaultValue = "false")
+                                                  boolean includeTotal,
+                                                  HttpServletResponse response) {
+        if (includeTotal) {
+            response.setHeader(CursorPage.TOTAL_COUNT_HEADER, String.valueOf(categoryService.countCategories()));
+        }
+        if (cursor != null) {
+            log.debug("New request for page of categories with size '{}' after cursor '{}' was received", size, cursor);
+            CursorPage<CategoryRestView> categories = categoryService.getCategoriesAfterCursor(cursor, size);
+            if (categories.getNextCursor() != null) {
+                response.setHeader(CursorPage.NEXT_CURSOR_HEADER, categories.getNextCursor());
+            }
+            return categories.getItems();
+        }
         log.debug("New request for page of categories with size '{}' from index '{}' was received", size, from);
         return categoryService.getAllCategories(from, size);
     }
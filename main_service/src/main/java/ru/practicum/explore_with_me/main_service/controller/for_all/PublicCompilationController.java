@@ -4,9 +4,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 
+import ru.practicum.explore_with_me.main_service.model.rest_dto.CursorPage;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.compilation.CompilationRestView;
 import ru.practicum.explore_with_me.main_service.service.CompilationService;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 
 @RestController
@@ -19,7 +21,25 @@ public class PublicCompilationController {
     @GetMapping
     public List<CompilationRestView> getAllCompilations(@RequestParam(name = "pinned", required = false) Boolean pinned,
                                                         @RequestParam(name = "from", defaultValue = "0") int from,
-                                                        @RequestParam(name = "size", defaultValue = "10") int size) {
+                                                        @RequestParam(name = "size", defaultValue = "10") int size,
+                                                        @RequestParam(name = "cursor", required = false) String cursor,
+                                                        @RequestParam(name = "includeTotal", defaultValue = "false")
+                                                        boolean includeTotal,
+                                                        HttpServletResponse response) {
+        if (includeTotal) {
+            response.setHeader(CursorPage.TOTAL_COUNT_HEADER,
+                    String.valueOf(compilationService.countCompilations(pinned)));
+        }
+        if (cursor != null) {
+            log.debug("New request for page of compilations with size '{}' after cursor '{}' was received. " +
+                    "Value of pinned is '{}'", size, cursor, pinned);
+            CursorPage<CompilationRestView> compilations = compilationService.getCompilationsAfterCursor(pinned,
+                    cursor, size);
+            if (compilations.getNextCursor() != null) {
+                response.setHeader(CursorPage.NEXT_CURSOR_HEADER, compilations.getNextCursor());
+            }
+            return compilations.getItems();
+        }
         log.debug("New request for page of compilations with size '{}' from index '{}' was received. " +
                 "Value of pinned is '{}'", size, from, pinned);
         return compilationService.getAllCompilations(pinned, from, size);
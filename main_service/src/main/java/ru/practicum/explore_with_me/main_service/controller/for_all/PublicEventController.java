@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 
+import ru.practicum.explore_with_me.main_service.model.rest_dto.CursorPage;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.event.HttpPublicGetAllRequestParamsHolder;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.event.EventRestView;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.event.EventRestViewShort;
@@ -11,6 +12,7 @@ import ru.practicum.explore_with_me.main_service.service.EventService;
 import ru.practicum.explore_with_me.main_service.util.StatsServiceIntegrator;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 
 @RestController
@@ -25,7 +27,7 @@ public class PublicEventController {
     public EventRestView getEventById(@PathVariable(name = "event_id") long eventId, HttpServletRequest request) {
         log.debug("New public request to get event with id'{}' was received", eventId);
         EventRestView event = eventService.getEventById(eventId);
-        statsServiceIntegrator.saveStatHitFromThisRequests(request.getRemoteAddr(), request.getRequestURI());
+        statsServiceIntegrator.recordStatHit(request.getRemoteAddr(), request.getRequestURI());
         return event;
     }
 
@@ -40,7 +42,10 @@ public class PublicEventController {
             @RequestParam(name = "sort", defaultValue = "EVENT_DATE") String sort,
             @RequestParam(name = "from", defaultValue = "0") int from,
             @RequestParam(name = "size", defaultValue = "10") int size,
-            HttpServletRequest request) {
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal,
+            HttpServletRequest request,
+            HttpServletResponse response) {
         HttpPublicGetAllRequestParamsHolder httpParams = HttpPublicGetAllRequestParamsHolder.builder()
                 .text(text)
                 .categories(categories)
@@ -51,10 +56,24 @@ public class PublicEventController {
                 .sort(sort)
                 .from(from)
                 .size(size)
+                .cursor(cursor)
                 .build();
         log.debug("New public request to get events with parameters '{}' was received", httpParams);
-        List<EventRestViewShort> events = eventService.getAllEventsByParametersForAnyone(httpParams);
-        statsServiceIntegrator.saveStatHitFromThisRequests(request.getRemoteAddr(), request.getRequestURI());
+        List<EventRestViewShort> events;
+        if (cursor != null) {
+            CursorPage<EventRestViewShort> eventsPage = eventService.getEventsPageByParametersForAnyone(httpParams);
+            if (eventsPage.getNextCursor() != null) {
+                response.setHeader(CursorPage.NEXT_CURSOR_HEADER, eventsPage.getNextCursor());
+            }
+            events = eventsPage.getItems();
+        } else {
+            events = eventService.getAllEventsByParametersForAnyone(httpParams);
+        }
+        if (includeTotal) {
+            response.setHeader(CursorPage.TOTAL_COUNT_HEADER,
+                    String.valueOf(eventService.countEventsByParametersForAnyone(httpParams)));
+        }
+        statsServiceIntegrator.recordStatHit(request.getRemoteAddr(), request.getRequestURI());
         return events;
     }
 
@@ -0,0 +1,9 @@
+package ru.practicum.explore_with_me.main_service.exception;
+
+public class StatsServiceUnavailableException extends StatsServiceProblemException {
+
+    public StatsServiceUnavailableException(String message) {
+        super(message);
+    }
+
+}
\ No newline at end of file
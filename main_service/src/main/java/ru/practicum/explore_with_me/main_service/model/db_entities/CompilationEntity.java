@@ -14,13 +14,23 @@ import java.util.Set;
 @NoArgsConstructor
 @Getter
 @Setter
-@EqualsAndHashCode(exclude = { "events" })
+// Подборка лежит в наборах compilations событий: hashCode по изменяемым названию и закреплению после
+// обновления подборки не находит её в наборе, и Hibernate повторно вставляет строку связи
+@EqualsAndHashCode(of = "id")
+@NamedEntityGraph(name = CompilationEntity.VIEW_GRAPH,
+        attributeNodes = @NamedAttributeNode(value = "events", subgraph = "events"),
+        subgraphs = @NamedSubgraph(name = "events", attributeNodes = {
+                @NamedAttributeNode("initiator"),
+                @NamedAttributeNode("category")
+        }))
 public class CompilationEntity {
+    public static final String VIEW_GRAPH = "CompilationEntity.view";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "compilation_id")
     private long id;
-    @ManyToMany(fetch = FetchType.EAGER, mappedBy = "compilations")
+    @ManyToMany(fetch = FetchType.LAZY, mappedBy = "compilations")
     private Set<EventEntity> events;
     @Column(name = "compilation_title")
     private String title;
@@ -17,7 +17,15 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @EqualsAndHashCode
+@NamedEntityGraph(name = LikeEntity.EVENT_VIEW_GRAPH,
+        attributeNodes = @NamedAttributeNode(value = "event", subgraph = "event"),
+        subgraphs = @NamedSubgraph(name = "event", attributeNodes = {
+                @NamedAttributeNode("initiator"),
+                @NamedAttributeNode("category")
+        }))
 public class LikeEntity {
+    public static final String EVENT_VIEW_GRAPH = "LikeEntity.eventView";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "like_id")
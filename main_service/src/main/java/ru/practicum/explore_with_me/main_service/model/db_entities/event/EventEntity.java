@@ -16,7 +16,15 @@ import java.util.Set;
 @EqualsAndHashCode(exclude = { "compilations" })
 @Getter
 @Setter
+@NamedEntityGraph(name = EventEntity.VIEW_GRAPH, attributeNodes = {
+        @NamedAttributeNode("initiator"),
+        @NamedAttributeNode("category")
+})
 public class EventEntity {
+    // Краткое, полное и административное представления события выводят инициатора и категорию, поэтому
+    // списки событий для клиента читаются с ними одним запросом вместо отдельного запроса на каждое событие
+    public static final String VIEW_GRAPH = "EventEntity.view";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "event_id")
@@ -41,6 +49,9 @@ public class EventEntity {
     private int rating;
     @Column(name = "number_of_likes")
     private int numberOfLikes;
+    // Копия просмотров из Stats_service для сортировки в запросе, её обновляет только EventViewsSynchronizer
+    @Column(name = "event_views", insertable = false, updatable = false)
+    private long views;
     @Column(name = "paid")
     private boolean paid;
     @Column(name = "request_moderation")
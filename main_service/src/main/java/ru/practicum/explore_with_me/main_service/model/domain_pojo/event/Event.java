@@ -30,5 +30,6 @@ public class Event {
     LocalDateTime createdOn;
     LocalDateTime publishedOn;
     long views;
+    boolean viewsUnknown;  // Просмотры не удалось получить из Stats_service
 
 }
\ No newline at end of file
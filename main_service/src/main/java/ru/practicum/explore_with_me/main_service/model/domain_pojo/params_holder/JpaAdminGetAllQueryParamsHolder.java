@@ -6,7 +6,7 @@ import lombok.Value;
 import java.time.LocalDateTime;
 
 @Value
-@Builder
+@Builder(toBuilder = true)
 public class JpaAdminGetAllQueryParamsHolder {
     long[] users;
     String[] states;
@@ -15,5 +15,6 @@ public class JpaAdminGetAllQueryParamsHolder {
     LocalDateTime rangeEnd;
     int from;
     int size;
+    PageCursor cursor;  // null, если страница запрошена по from
 
 }
\ No newline at end of file
@@ -6,7 +6,7 @@ import lombok.Value;
 import java.time.LocalDateTime;
 
 @Value
-@Builder
+@Builder(toBuilder = true)
 public class JpaPublicGetAllQueryParamsHolder {
     String text;
     long[] categories;
@@ -17,5 +17,6 @@ public class JpaPublicGetAllQueryParamsHolder {
     SortBy sort;
     int from;
     int size;
+    PageCursor cursor;  // null, если страница запрошена по from
 
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class PageCursor {
+    public static final String ID_SORT = "ID";
+
+    String sort;     // Курсор подходит только к той сортировке, для которой выдан
+    String lastKey;  // Ключ сортировки последнего отданного элемента, null для первой страницы и сортировки по id
+    long lastId;     // id последнего отданного элемента, 0 для первой страницы
+
+    public boolean isFirstPage() {
+        return lastId == 0L;
+    }
+
+}
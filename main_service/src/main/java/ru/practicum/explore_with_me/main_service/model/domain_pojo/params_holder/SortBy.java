@@ -3,6 +3,7 @@ package ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holde
 public enum SortBy {
     EVENT_DATE,
     VIEWS,
-    RATING
+    RATING,
+    RELEVANCE  // Только вместе с text: события идут по убыванию релевантности тексту
 
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package ru.practicum.explore_with_me.main_service.model.rest_dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class CursorPage<T> {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";  // Только по запросу с includeTotal=true
+
+    List<T> items;
+    String nextCursor;  // null, если страница последняя
+
+}
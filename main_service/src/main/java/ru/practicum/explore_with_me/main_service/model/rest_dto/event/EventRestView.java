@@ -54,5 +54,8 @@ public class EventRestView {
     LocalDateTime publishedOn;
     @JsonProperty("views")
     long views;
+    @JsonProperty("viewsUnknown")
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    boolean viewsUnknown;
 
 }
\ No newline at end of file
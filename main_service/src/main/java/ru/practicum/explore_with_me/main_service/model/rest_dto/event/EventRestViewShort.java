@@ -1,6 +1,7 @@
 package ru.practicum.explore_with_me.main_service.model.rest_dto.event;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Builder;
 import lombok.Value;
@@ -34,5 +35,8 @@ public class EventRestViewShort {
     boolean paid;
     @JsonProperty("views")
     long views;
+    @JsonProperty("viewsUnknown")
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    boolean viewsUnknown;
 
 }
\ No newline at end of file
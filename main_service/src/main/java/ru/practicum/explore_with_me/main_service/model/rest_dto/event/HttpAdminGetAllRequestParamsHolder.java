@@ -17,5 +17,6 @@ public class HttpAdminGetAllRequestParamsHolder {
     int from;
     @Positive
     int size;
+    String cursor;  // Если передан, страница ищется после курсора, а from не учитывается
 
 }
\ No newline at end of file
@@ -23,5 +23,6 @@ public class HttpPublicGetAllRequestParamsHolder {
     int from;
     @Positive
     int size;
+    String cursor;  // Если передан, страница ищется после курсора, а from не учитывается
 
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package ru.practicum.explore_with_me.main_service.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.practicum.explore_with_me.main_service.model.db_entities.CategoryEntity;
@@ -7,4 +9,8 @@ import ru.practicum.explore_with_me.main_service.model.db_entities.CategoryEntit
 @Repository
 public interface CategoryRepository extends JpaRepository<CategoryEntity, Long> {
 
-}
\ No newline at end of file
+    Slice<CategoryEntity> findAllBy(Pageable page);
+
+    Slice<CategoryEntity> findAllByIdGreaterThan(long id, Pageable page);
+
+}
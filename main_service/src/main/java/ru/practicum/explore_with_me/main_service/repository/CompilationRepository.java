@@ -1,14 +1,34 @@
 package ru.practicum.explore_with_me.main_service.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.practicum.explore_with_me.main_service.model.db_entities.CompilationEntity;
 
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
 @Repository
 public interface CompilationRepository extends JpaRepository<CompilationEntity, Long> {
 
-    Page<CompilationEntity> findAllByPinned(boolean pinned, Pageable page);
+    Slice<CompilationEntity> findAllBy(Pageable page);
+
+    Slice<CompilationEntity> findAllByPinned(boolean pinned, Pageable page);
+
+    Slice<CompilationEntity> findAllByIdGreaterThan(long id, Pageable page);
+
+    Slice<CompilationEntity> findAllByPinnedAndIdGreaterThan(boolean pinned, long id, Pageable page);
+
+    long countByPinned(boolean pinned);
+
+    @EntityGraph(CompilationEntity.VIEW_GRAPH)
+    Optional<CompilationEntity> findWithEventsById(long id);
+
+    // Страница подборок читается без событий: join коллекции не даёт ограничить выборку в запросе
+    @EntityGraph(CompilationEntity.VIEW_GRAPH)
+    Set<CompilationEntity> findWithEventsByIdIn(Collection<Long> ids);
 
 }
\ No newline at end of file
@@ -1,19 +1,26 @@
 package ru.practicum.explore_with_me.main_service.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.stereotype.Repository;
 
 import ru.practicum.explore_with_me.main_service.model.db_entities.event.EventEntity;
 
+import java.util.Optional;
 import java.util.Set;
 
 @Repository
-public interface EventRepository extends JpaRepository<EventEntity, Long>, QuerydslPredicateExecutor<EventEntity> {
+public interface EventRepository extends JpaRepository<EventEntity, Long>, QuerydslPredicateExecutor<EventEntity>,
+        EventSliceRepository {
 
-    Page<EventEntity> findAllByInitiatorId(long initiatorId, Pageable page);
+    @EntityGraph(EventEntity.VIEW_GRAPH)
+    Slice<EventEntity> findAllByInitiatorId(long initiatorId, Pageable page);
+
+    @EntityGraph(EventEntity.VIEW_GRAPH)
+    Optional<EventEntity> findWithInitiatorAndCategoryById(long id);
 
     Set<EventEntity> findAllByIdIn(Set<Long> eventsIds);
 
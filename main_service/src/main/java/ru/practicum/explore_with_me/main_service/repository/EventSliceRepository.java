@@ -0,0 +1,22 @@
+package ru.practicum.explore_with_me.main_service.repository;
+
+import com.querydsl.core.types.Predicate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import ru.practicum.explore_with_me.main_service.model.db_entities.event.EventEntity;
+
+import java.util.List;
+
+public interface EventSliceRepository {
+
+    // В отличие от findAll(Predicate, Pageable) не считает count(*): запрашивается на одну строку больше страницы.
+    // Общее число событий по фильтру при необходимости берётся из ApproximateCountCache
+    Slice<EventEntity> findSlice(Predicate predicate, Pageable page);
+
+    // Варианты для выдачи событий клиенту: инициатор и категория читаются тем же запросом по EventEntity.VIEW_GRAPH
+    Slice<EventEntity> findSliceForView(Predicate predicate, Pageable page);
+
+    List<EventEntity> findAllForView(Predicate predicate);
+
+}
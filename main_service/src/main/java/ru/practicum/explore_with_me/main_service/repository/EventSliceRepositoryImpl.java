@@ -0,0 +1,62 @@
+package ru.practicum.explore_with_me.main_service.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.support.Querydsl;
+
+import ru.practicum.explore_with_me.main_service.model.db_entities.event.EventEntity;
+import ru.practicum.explore_with_me.main_service.model.db_entities.event.QEventEntity;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+public class EventSliceRepositoryImpl implements EventSliceRepository {
+    private static final QEventEntity EVENT = QEventEntity.eventEntity;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<EventEntity> findSlice(Predicate predicate, Pageable page) {
+        return findSlice(createQuery(predicate), page);
+    }
+
+    @Override
+    public Slice<EventEntity> findSliceForView(Predicate predicate, Pageable page) {
+        return findSlice(withViewGraph(createQuery(predicate)), page);
+    }
+
+    @Override
+    public List<EventEntity> findAllForView(Predicate predicate) {
+        return withViewGraph(createQuery(predicate)).fetch();
+    }
+
+    private Slice<EventEntity> findSlice(JPAQuery<EventEntity> query, Pageable page) {
+        Querydsl querydsl = new Querydsl(entityManager, new PathBuilder<>(EventEntity.class, EVENT.getMetadata()));
+        List<EventEntity> events = querydsl.applySorting(page.getSort(), query)
+                .offset(page.getOffset())
+                .limit(page.getPageSize() + 1L)
+                .fetch();
+        boolean hasNext = events.size() > page.getPageSize();
+        return new SliceImpl<>(hasNext ? events.subList(0, page.getPageSize()) : events, page, hasNext);
+    }
+
+    private JPAQuery<EventEntity> createQuery(Predicate predicate) {
+        return new JPAQuery<EventEntity>(entityManager)
+                .select(EVENT)
+                .from(EVENT)
+                .where(predicate);
+    }
+
+    private JPAQuery<EventEntity> withViewGraph(JPAQuery<EventEntity> query) {
+        return query.setHint(EntityGraph.EntityGraphType.FETCH.getKey(),
+                entityManager.getEntityGraph(EventEntity.VIEW_GRAPH));
+    }
+
+}
@@ -1,5 +1,6 @@
 package ru.practicum.explore_with_me.main_service.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.practicum.explore_with_me.main_service.model.db_entities.LikeEntity;
@@ -14,6 +15,7 @@ public interface LikeRepository extends JpaRepository<LikeEntity, BigInteger> {
 
     Optional<LikeEntity> findByUserIdAndEventId(long userId, long eventId);
 
+    @EntityGraph(LikeEntity.EVENT_VIEW_GRAPH)
     List<LikeEntity> findAllByUserId(long userId);
 
     List<LikeEntity> findAllByEventId(long eventId);
@@ -1,7 +1,7 @@
 package ru.practicum.explore_with_me.main_service.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.stereotype.Repository;
@@ -11,8 +11,16 @@ import ru.practicum.explore_with_me.main_service.model.db_entities.UserEntity;
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity, Long>, QuerydslPredicateExecutor<UserEntity> {
 
-    Page<UserEntity> findAllByIdIn(long[] ids, Pageable page);
+    Slice<UserEntity> findAllBy(Pageable page);
 
-    Page<UserEntity> findAllDistinctByEventsNotNull(Pageable page);
+    Slice<UserEntity> findAllByIdIn(long[] ids, Pageable page);
+
+    Slice<UserEntity> findAllByIdGreaterThan(long id, Pageable page);
+
+    Slice<UserEntity> findAllByIdInAndIdGreaterThan(long[] ids, long id, Pageable page);
+
+    Slice<UserEntity> findAllDistinctByEventsNotNull(Pageable page);
+
+    long countByIdIn(long[] ids);
 
 }
\ No newline at end of file
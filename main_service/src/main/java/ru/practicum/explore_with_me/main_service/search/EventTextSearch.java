@@ -0,0 +1,20 @@
+package ru.practicum.explore_with_me.main_service.search;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+
+import ru.practicum.explore_with_me.main_service.model.db_entities.event.EventEntity;
+
+import java.util.List;
+
+public interface EventTextSearch {
+
+    // Условие на события, в аннотации или описании которых есть все слова текста. Проверяется тем же запросом,
+    // что и остальные фильтры, поэтому число найденных по тексту событий ничем не ограничено
+    BooleanExpression createTextCondition(String text);
+
+    // Страница событий, подходящих под условия и текст, по убыванию релевантности, при равной - по id
+    List<EventEntity> findPageOrderedByRelevance(String text, BooleanExpression conditions, int from, int size);
+
+    void onEventSaved(EventEntity eventEntity);
+
+}
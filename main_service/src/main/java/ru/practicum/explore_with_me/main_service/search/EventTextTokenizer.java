@@ -0,0 +1,32 @@
+package ru.practicum.explore_with_me.main_service.search;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Разбивает текст на слова так же, как парсер PostgreSQL с конфигурацией simple: словом считается последовательность
+// букв и цифр, регистр не учитывается, словоформы не приводятся к основе
+@UtilityClass
+public class EventTextTokenizer {
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordCharacter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordCharacter && start < 0) {
+                start = i;
+            } else if (!wordCharacter && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+}
@@ -0,0 +1,200 @@
+package ru.practicum.explore_with_me.main_service.search;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import ru.practicum.explore_with_me.main_service.model.db_entities.event.EventEntity;
+import ru.practicum.explore_with_me.main_service.model.db_entities.event.QEventEntity;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.event.EventState;
+import ru.practicum.explore_with_me.main_service.repository.EventRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+// Обратный индекс опубликованных событий: для каждого слова хранится список событий с весом вхождений.
+// Слово аннотации весит вдвое больше слова описания, как веса A и B в PostgreSQL. Релевантность считается по BM25
+@Slf4j
+public class InMemoryEventTextSearch implements EventTextSearch {
+    private static final int ANNOTATION_WEIGHT = 2;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int REBUILD_PAGE_SIZE = 500;
+    private static final int RELEVANCE_CHUNK_SIZE = 500;
+    private static final QEventEntity EVENT = QEventEntity.eventEntity;
+
+    private final EventRepository eventRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, Map<String, Integer>> eventTerms = new HashMap<>();
+    private final Map<Long, Integer> eventLengths = new HashMap<>();
+    private long totalLength;
+
+    public InMemoryEventTextSearch(EventRepository eventRepository) {
+        this.eventRepository = eventRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Slice<EventEntity> page;
+        int pageNumber = 0;
+        int indexedEvents = 0;
+        do {
+            page = eventRepository.findSlice(EVENT.state.eq(EventState.PUBLISHED.name()),
+                    PageRequest.of(pageNumber++, REBUILD_PAGE_SIZE, Sort.by("id")));
+            page.forEach(eventEntity -> updateIndex(eventEntity.getId(), getTerms(eventEntity)));
+            indexedEvents += page.getNumberOfElements();
+        } while (page.hasNext());
+        log.info("'{}' published events were added to in-memory full-text index", indexedEvents);
+    }
+
+    // Найденные события передаются базе списком id целиком: индекс в памяти используется без PostgreSQL,
+    // где столько событий, чтобы список стал проблемой, не ожидается
+    @Override
+    public BooleanExpression createTextCondition(String text) {
+        List<Long> eventIds = findPublishedEventIds(text, Integer.MAX_VALUE);
+        return eventIds.isEmpty() ? EVENT.id.isNull() : EVENT.id.in(eventIds);  // id не бывает null: ничего не найдено
+    }
+
+    // События читаются из базы порциями в порядке релевантности, пока не наберётся страница после from
+    @Override
+    public List<EventEntity> findPageOrderedByRelevance(String text, BooleanExpression conditions, int from,
+                                                        int size) {
+        List<Long> rankedEventIds = findPublishedEventIds(text, Integer.MAX_VALUE);
+        List<EventEntity> page = new ArrayList<>(size);
+        int eventsToSkip = from;
+        for (int chunkStart = 0; chunkStart < rankedEventIds.size() && page.size() < size;
+             chunkStart += RELEVANCE_CHUNK_SIZE) {
+            List<Long> chunk = rankedEventIds.subList(chunkStart,
+                    Math.min(chunkStart + RELEVANCE_CHUNK_SIZE, rankedEventIds.size()));
+            Map<Long, Integer> ranks = new HashMap<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                ranks.put(chunk.get(i), i);
+            }
+            List<EventEntity> chunkEvents = eventRepository.findAllForView(EVENT.id.in(chunk).and(conditions));
+            chunkEvents.sort(Comparator.comparingInt(eventEntity -> ranks.get(eventEntity.getId())));
+            for (EventEntity eventEntity : chunkEvents) {
+                if (eventsToSkip > 0) {
+                    eventsToSkip--;
+                } else if (page.size() < size) {
+                    page.add(eventEntity);
+                }
+            }
+        }
+        return page;
+    }
+
+    // Id опубликованных событий, в аннотации или описании которых есть все слова текста, по убыванию релевантности
+    public List<Long> findPublishedEventIds(String text, int limit) {
+        List<String> queryTerms = EventTextTokenizer.tokenize(text).stream()
+                .distinct()
+                .collect(Collectors.toList());
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> termPostings = new ArrayList<>(queryTerms.size());
+            for (String term : queryTerms) {
+                Map<Long, Integer> eventWeights = postings.get(term);
+                if (eventWeights == null) {  // Нужны все слова запроса, как в plainto_tsquery
+                    return List.of();
+                }
+                termPostings.add(eventWeights);
+            }
+            termPostings.sort(Comparator.comparingInt(Map::size));  // Пересечение начинается с самого редкого слова
+            double averageLength = (double) totalLength / eventTerms.size();
+            Map<Long, Double> scores = new HashMap<>();
+            termPostings.get(0).keySet().forEach(eventId -> {
+                double score = 0;
+                int length = eventLengths.get(eventId);
+                for (Map<Long, Integer> eventWeights : termPostings) {
+                    Integer weight = eventWeights.get(eventId);
+                    if (weight == null) {
+                        return;
+                    }
+                    double idf = Math.log(1 + (eventTerms.size() - eventWeights.size() + 0.5) /
+                            (eventWeights.size() + 0.5));
+                    score += idf * weight * (K1 + 1) / (weight + K1 * (1 - B + B * length / averageLength));
+                }
+                scores.put(eventId, score);
+            });
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Индекс меняется только после коммита: иначе поиск находил бы изменения откаченной транзакции
+    @Override
+    public void onEventSaved(EventEntity eventEntity) {
+        long eventId = eventEntity.getId();
+        Map<String, Integer> terms = getTerms(eventEntity);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            updateIndex(eventId, terms);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                updateIndex(eventId, terms);
+            }
+        });
+    }
+
+    private Map<String, Integer> getTerms(EventEntity eventEntity) {
+        Map<String, Integer> terms = new HashMap<>();
+        if (EventState.PUBLISHED.name().equals(eventEntity.getState())) {
+            EventTextTokenizer.tokenize(eventEntity.getAnnotation())
+                    .forEach(term -> terms.merge(term, ANNOTATION_WEIGHT, Integer::sum));
+            EventTextTokenizer.tokenize(eventEntity.getDescription())
+                    .forEach(term -> terms.merge(term, 1, Integer::sum));
+        }
+        return terms;
+    }
+
+    private void updateIndex(long eventId, Map<String, Integer> terms) {
+        lock.writeLock().lock();
+        try {
+            Map<String, Integer> previousTerms = eventTerms.remove(eventId);
+            if (previousTerms != null) {
+                totalLength -= eventLengths.remove(eventId);
+                previousTerms.forEach((term, weight) -> {
+                    Map<Long, Integer> eventWeights = postings.get(term);
+                    eventWeights.remove(eventId);
+                    if (eventWeights.isEmpty()) {
+                        postings.remove(term);
+                    }
+                });
+            }
+            if (!terms.isEmpty()) {
+                int length = terms.values().stream().mapToInt(Integer::intValue).sum();
+                eventTerms.put(eventId, terms);
+                eventLengths.put(eventId, length);
+                totalLength += length;
+                terms.forEach((term, weight) -> postings.computeIfAbsent(term, key -> new HashMap<>())
+                        .put(eventId, weight));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+}
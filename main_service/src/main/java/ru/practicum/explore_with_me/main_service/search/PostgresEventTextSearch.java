@@ -0,0 +1,43 @@
+package ru.practicum.explore_with_me.main_service.search;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.querydsl.QSort;
+
+import ru.practicum.explore_with_me.main_service.model.db_entities.event.EventEntity;
+import ru.practicum.explore_with_me.main_service.model.db_entities.event.QEventEntity;
+import ru.practicum.explore_with_me.main_service.repository.EventRepository;
+
+import java.util.List;
+
+// Столбец search_vector вычисляет сама база (schema-postgresql.sql), поиск идёт по его GIN-индексу
+// через функции из PostgresEventTextSearchFunctions
+@RequiredArgsConstructor
+public class PostgresEventTextSearch implements EventTextSearch {
+    private static final QEventEntity EVENT = QEventEntity.eventEntity;
+
+    private final EventRepository eventRepository;
+
+    @Override
+    public BooleanExpression createTextCondition(String text) {
+        return Expressions.booleanTemplate("function('" + PostgresEventTextSearchFunctions.TEXT_MATCH_FUNCTION +
+                "', {0}, {1}) = true", EVENT.id, text);
+    }
+
+    @Override
+    public List<EventEntity> findPageOrderedByRelevance(String text, BooleanExpression conditions, int from,
+                                                        int size) {
+        QSort byRelevance = new QSort(Expressions.numberTemplate(Double.class, "function('" +
+                        PostgresEventTextSearchFunctions.TEXT_RANK_FUNCTION + "', {0}, {1})", EVENT.id, text).desc(),
+                EVENT.id.asc());
+        return eventRepository.findSliceForView(conditions.and(createTextCondition(text)),
+                PageRequest.of(from / size, size, byRelevance)).getContent();
+    }
+
+    @Override
+    public void onEventSaved(EventEntity eventEntity) {
+    }
+
+}
@@ -0,0 +1,24 @@
+package ru.practicum.explore_with_me.main_service.search;
+
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+// Функции полнотекстового поиска для JPQL: search_vector не отображается в EventEntity, поэтому условие и
+// релевантность считаются подзапросами к events по id события. Подзапрос условия идёт по GIN-индексу search_vector
+public class PostgresEventTextSearchFunctions implements MetadataBuilderContributor {
+    public static final String TEXT_MATCH_FUNCTION = "event_text_match";
+    public static final String TEXT_RANK_FUNCTION = "event_text_rank";
+
+    @Override
+    public void contribute(MetadataBuilder metadataBuilder) {
+        metadataBuilder.applySqlFunction(TEXT_MATCH_FUNCTION, new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN,
+                "(?1 in (select matched.event_id from events matched " +
+                        "where matched.search_vector @@ plainto_tsquery('simple', ?2)))"));
+        metadataBuilder.applySqlFunction(TEXT_RANK_FUNCTION, new SQLFunctionTemplate(StandardBasicTypes.DOUBLE,
+                "(select ts_rank(ranked.search_vector, plainto_tsquery('simple', ?2)) from events ranked " +
+                        "where ranked.event_id = ?1)"));
+    }
+
+}
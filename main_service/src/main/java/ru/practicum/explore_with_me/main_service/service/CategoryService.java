@@ -4,6 +4,7 @@ import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 
+import ru.practicum.explore_with_me.main_service.model.rest_dto.CursorPage;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.category.CategoryRestCommand;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.category.CategoryRestView;
 
@@ -15,6 +16,10 @@ public interface CategoryService {
 
     List<CategoryRestView> getAllCategories(@PositiveOrZero int from, @Positive int size);
 
+    CursorPage<CategoryRestView> getCategoriesAfterCursor(String cursor, @Positive int size);
+
+    long countCategories();
+
     CategoryRestView getCategoryById(@Positive long categoryId);
 
     CategoryRestView updateCategory(@Positive long categoryId, @Valid CategoryRestCommand categoryRestCommand);
@@ -1,5 +1,6 @@
 package ru.practicum.explore_with_me.main_service.service;
 
+import ru.practicum.explore_with_me.main_service.model.rest_dto.CursorPage;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.compilation.CompilationRestCommand;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.compilation.CompilationRestView;
 
@@ -15,6 +16,10 @@ public interface CompilationService {
 
     List<CompilationRestView> getAllCompilations(Boolean pinned, @PositiveOrZero int from, @Positive int size);
 
+    CursorPage<CompilationRestView> getCompilationsAfterCursor(Boolean pinned, String cursor, @Positive int size);
+
+    long countCompilations(Boolean pinned);
+
     CompilationRestView getCompilationById(@Positive long compId);
 
     CompilationRestView updateCompilation(@Positive long compId, CompilationRestCommand compilationRestCommand);
@@ -1,5 +1,6 @@
 package ru.practicum.explore_with_me.main_service.service;
 
+import ru.practicum.explore_with_me.main_service.model.rest_dto.CursorPage;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.event.*;
 
 import javax.validation.Valid;
@@ -17,8 +18,17 @@ public interface EventService {
 
     List<EventRestViewShort> getAllEventsByParametersForAnyone(@Valid HttpPublicGetAllRequestParamsHolder httpParams);
 
+    CursorPage<EventRestViewShort> getEventsPageByParametersForAnyone(
+            @Valid HttpPublicGetAllRequestParamsHolder httpParams);
+
     List<EventRestView> getAllEventsByParametersForAdmin(@Valid HttpAdminGetAllRequestParamsHolder httpParams);
 
+    CursorPage<EventRestView> getEventsPageByParametersForAdmin(@Valid HttpAdminGetAllRequestParamsHolder httpParams);
+
+    long countEventsByParametersForAnyone(@Valid HttpPublicGetAllRequestParamsHolder httpParams);
+
+    long countEventsByParametersForAdmin(@Valid HttpAdminGetAllRequestParamsHolder httpParams);
+
     List<EventRestViewShort> getAllEventsByUserId(@Positive long userId, @PositiveOrZero int from, @Positive int size);
 
     EventRestView updateEventFromInitiator(@Positive long userId, @Positive long eventId,
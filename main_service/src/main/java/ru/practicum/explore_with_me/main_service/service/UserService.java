@@ -1,5 +1,6 @@
 package ru.practicum.explore_with_me.main_service.service;
 
+import ru.practicum.explore_with_me.main_service.model.rest_dto.CursorPage;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.user.UserRestCommand;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.user.UserRestView;
 
@@ -14,6 +15,10 @@ public interface UserService {
 
     List<UserRestView> getUsersByIds(long[] ids, @PositiveOrZero int from, @Positive int size);
 
+    CursorPage<UserRestView> getUsersByIdsAfterCursor(long[] ids, String cursor, @Positive int size);
+
+    long countUsersByIds(long[] ids);
+
     List<UserRestView> getInitiatorsSortedByRating(@PositiveOrZero int from, @Positive int size, boolean asc);
 
     void deleteUserById(@Positive long id);
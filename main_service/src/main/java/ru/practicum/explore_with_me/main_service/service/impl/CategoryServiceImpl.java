@@ -2,9 +2,9 @@ package ru.practicum.explore_with_me.main_service.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
@@ -13,10 +13,14 @@ import ru.practicum.explore_with_me.main_service.exception.ObjectNotFoundExcepti
 import ru.practicum.explore_with_me.main_service.mapper.CategoryMapper;
 import ru.practicum.explore_with_me.main_service.model.db_entities.CategoryEntity;
 import ru.practicum.explore_with_me.main_service.model.domain_pojo.Category;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder.PageCursor;
+import ru.practicum.explore_with_me.main_service.model.rest_dto.CursorPage;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.category.CategoryRestCommand;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.category.CategoryRestView;
 import ru.practicum.explore_with_me.main_service.repository.CategoryRepository;
 import ru.practicum.explore_with_me.main_service.service.CategoryService;
+import ru.practicum.explore_with_me.main_service.util.ApproximateCountCache;
+import ru.practicum.explore_with_me.main_service.util.PageCursorCodec;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
@@ -30,6 +34,7 @@ import java.util.List;
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final ApproximateCountCache approximateCountCache;
 
     public CategoryRestView saveNewCategory(@Valid CategoryRestCommand categoryRestCommand) {
         CategoryEntity categoryEntity = categoryMapper.toDbEntity(categoryMapper.fromRestCommand(categoryRestCommand));
@@ -42,13 +47,30 @@ public class CategoryServiceImpl implements CategoryService {
 
     public List<CategoryRestView> getAllCategories(@PositiveOrZero int from, @Positive int size) {
         Pageable page = PageRequest.of(from / size, size, Sort.by(Sort.Direction.ASC, "id"));
-        Page<CategoryEntity> categoriesPage = categoryRepository.findAll(page);
+        Slice<CategoryEntity> categoriesPage = categoryRepository.findAllBy(page);
         log.info("Page of {} categories started with index {} was sent to the client",
-                categoriesPage.getTotalElements(), from);
+                categoriesPage.getNumberOfElements(), from);
         return categoriesPage.map(categoryEntity ->
                 categoryMapper.toRestView(categoryMapper.fromDbEntity(categoryEntity))).toList();
     }
 
+    public CursorPage<CategoryRestView> getCategoriesAfterCursor(String cursor, @Positive int size) {
+        PageCursor pageCursor = PageCursorCodec.decode(cursor, PageCursor.ID_SORT);
+        Pageable page = PageRequest.of(0, size, Sort.by(Sort.Direction.ASC, "id"));
+        Slice<CategoryEntity> categoriesSlice = categoryRepository.findAllByIdGreaterThan(pageCursor.getLastId(), page);
+        log.info("Page of {} categories after id'{}' was sent to the client", categoriesSlice.getNumberOfElements(),
+                pageCursor.getLastId());
+        return CursorPage.<CategoryRestView>builder()
+                .items(categoriesSlice.map(categoryEntity ->
+                        categoryMapper.toRestView(categoryMapper.fromDbEntity(categoryEntity))).getContent())
+                .nextCursor(categoriesSlice.hasNext() ? createNextCursor(categoriesSlice) : null)
+                .build();
+    }
+
+    public long countCategories() {
+        return approximateCountCache.getCount("categories", categoryRepository::count);
+    }
+
     public CategoryRestView getCategoryById(@Positive long categoryId) {
         CategoryEntity categoryEntity = categoryRepository.findById(categoryId).orElseThrow(() ->
                 new ObjectNotFoundException("Failed to get category with id'" + categoryId +
@@ -77,4 +99,11 @@ public class CategoryServiceImpl implements CategoryService {
         log.info("Category {} with id'{}' was deleted", categoryEntity.getName(), categoryEntity.getId());
     }
 
-}
\ No newline at end of file
+    private String createNextCursor(Slice<CategoryEntity> categoriesSlice) {
+        return PageCursorCodec.encode(PageCursor.builder()
+                .sort(PageCursor.ID_SORT)
+                .lastId(categoriesSlice.getContent().get(categoriesSlice.getNumberOfElements() - 1).getId())
+                .build());
+    }
+
+}
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,12 +19,16 @@ import ru.practicum.explore_with_me.main_service.model.db_entities.CompilationEn
 import ru.practicum.explore_with_me.main_service.model.db_entities.event.EventEntity;
 import ru.practicum.explore_with_me.main_service.model.domain_pojo.Compilation;
 import ru.practicum.explore_with_me.main_service.model.domain_pojo.event.Event;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder.PageCursor;
+import ru.practicum.explore_with_me.main_service.model.rest_dto.CursorPage;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.compilation.CompilationRestCommand;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.compilation.CompilationRestView;
 import ru.practicum.explore_with_me.main_service.repository.CompilationRepository;
 import ru.practicum.explore_with_me.main_service.repository.EventRepository;
 import ru.practicum.explore_with_me.main_service.service.CompilationService;
+import ru.practicum.explore_with_me.main_service.util.ApproximateCountCache;
 import ru.practicum.explore_with_me.main_service.util.MethodParameterValidator;
+import ru.practicum.explore_with_me.main_service.util.PageCursorCodec;
 import ru.practicum.explore_with_me.main_service.util.StatsServiceIntegrator;
 
 import java.util.*;
@@ -39,6 +44,7 @@ public class CompilationServiceImpl implements CompilationService {
     private final EventRepository eventRepository;
     private final CompilationMapper compilationMapper;
     private final StatsServiceIntegrator statsServiceIntegrator;
+    private final ApproximateCountCache approximateCountCache;
 
     @Override
     public CompilationRestView saveNewCompilation(@Valid CompilationRestCommand compilationRestCommand) {
@@ -72,9 +78,9 @@ public class CompilationServiceImpl implements CompilationService {
         Pageable page = PageRequest.of(from / size, size, Sort.by(Sort.Direction.ASC, "id"));
         List<CompilationEntity> compilationEntities;
         if (pinned == null) {
-            compilationEntities = compilationRepository.findAll(page).toList();
+            compilationEntities = compilationRepository.findAllBy(page).getContent();
         } else {
-            compilationEntities = compilationRepository.findAllByPinned(pinned, page).toList();
+            compilationEntities = compilationRepository.findAllByPinned(pinned, page).getContent();
         }
         List<Compilation> compilations = getListOfCompilationsWithEventsWithViews(compilationEntities);
         log.info("List of {} compilations was sent to client. Page params: from={}, size={}",
@@ -84,6 +90,38 @@ public class CompilationServiceImpl implements CompilationService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public CursorPage<CompilationRestView> getCompilationsAfterCursor(Boolean pinned, String cursor,
+                                                                      @Positive int size) {
+        PageCursor pageCursor = PageCursorCodec.decode(cursor, PageCursor.ID_SORT);
+        Pageable page = PageRequest.of(0, size, Sort.by(Sort.Direction.ASC, "id"));
+        Slice<CompilationEntity> compilationsSlice;
+        if (pinned == null) {
+            compilationsSlice = compilationRepository.findAllByIdGreaterThan(pageCursor.getLastId(), page);
+        } else {
+            compilationsSlice = compilationRepository.findAllByPinnedAndIdGreaterThan(pinned,
+                    pageCursor.getLastId(), page);
+        }
+        List<Compilation> compilations = getListOfCompilationsWithEventsWithViews(compilationsSlice.getContent());
+        log.info("List of {} compilations after id'{}' was sent to client", compilations.size(),
+                pageCursor.getLastId());
+        return CursorPage.<CompilationRestView>builder()
+                .items(compilations.stream()
+                        .map(compilationMapper::toRestView)
+                        .collect(Collectors.toList()))
+                .nextCursor(compilationsSlice.hasNext() ? createNextCursor(compilationsSlice) : null)
+                .build();
+    }
+
+    @Override
+    public long countCompilations(Boolean pinned) {
+        if (pinned == null) {
+            return approximateCountCache.getCount("compilations", compilationRepository::count);
+        }
+        return approximateCountCache.getCount("compilations:pinned=" + pinned, () ->
+                compilationRepository.countByPinned(pinned));
+    }
+
     @Override
     public CompilationRestView getCompilationById(@Positive long compId) {
         CompilationEntity compilationEntity = getCompilationIfExists(compId);
@@ -134,7 +172,7 @@ public class CompilationServiceImpl implements CompilationService {
     }
 
     private CompilationEntity getCompilationIfExists(long compilationId) {
-        return compilationRepository.findById(compilationId).orElseThrow(() -> new ObjectNotFoundException(
+        return compilationRepository.findWithEventsById(compilationId).orElseThrow(() -> new ObjectNotFoundException(
                 "Failed to make operation with compilation: the compilation with id'"
                         + compilationId + "' was not saved"));
     }
@@ -143,6 +181,14 @@ public class CompilationServiceImpl implements CompilationService {
         if (compilationEntities == null || compilationEntities.isEmpty()) {
             return new ArrayList<>();
         }
+        Map<Long, CompilationEntity> compilationsWithEvents = compilationRepository.findWithEventsByIdIn(
+                        compilationEntities.stream()
+                                .map(CompilationEntity::getId)
+                                .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(CompilationEntity::getId, compilationEntity -> compilationEntity));
+        compilationEntities = compilationEntities.stream()
+                .map(compilationEntity -> compilationsWithEvents.get(compilationEntity.getId()))
+                .collect(Collectors.toList());
         Map<Long, Event> mapOfEvents = new HashMap<>();
         List<Event> allEventsFromCompilationEntitiesWithViews = statsServiceIntegrator
                 .mapEventEntitiesToEventsWithViews(compilationEntities.stream()
@@ -173,4 +219,11 @@ public class CompilationServiceImpl implements CompilationService {
                 .build();
     }
 
-}
\ No newline at end of file
+    private String createNextCursor(Slice<CompilationEntity> compilationsSlice) {
+        return PageCursorCodec.encode(PageCursor.builder()
+                .sort(PageCursor.ID_SORT)
+                .lastId(compilationsSlice.getContent().get(compilationsSlice.getNumberOfElements() - 1).getId())
+                .build());
+    }
+
+}
@@ -3,9 +3,9 @@ package ru.practicum.explore_with_me.main_service.service.impl;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
@@ -25,14 +25,20 @@ import ru.practicum.explore_with_me.main_service.model.domain_pojo.event.Event;
 import ru.practicum.explore_with_me.main_service.model.domain_pojo.event.EventState;
 import ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder.JpaAdminGetAllQueryParamsHolder;
 import ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder.JpaPublicGetAllQueryParamsHolder;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder.PageCursor;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder.SortBy;
+import ru.practicum.explore_with_me.main_service.model.rest_dto.CursorPage;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.event.HttpPublicGetAllRequestParamsHolder;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.event.*;
 import ru.practicum.explore_with_me.main_service.repository.CategoryRepository;
 import ru.practicum.explore_with_me.main_service.repository.EventRepository;
 import ru.practicum.explore_with_me.main_service.repository.UserRepository;
+import ru.practicum.explore_with_me.main_service.search.EventTextSearch;
 import ru.practicum.explore_with_me.main_service.service.EventService;
+import ru.practicum.explore_with_me.main_service.util.ApproximateCountCache;
 import ru.practicum.explore_with_me.main_service.util.QueryDslExpressionCreator;
 import ru.practicum.explore_with_me.main_service.util.MethodParameterValidator;
+import ru.practicum.explore_with_me.main_service.util.PageCursorCodec;
 import ru.practicum.explore_with_me.main_service.util.StatsServiceIntegrator;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EwmConstants;
 
@@ -50,6 +56,8 @@ public class EventServiceImpl implements EventService {
     private final CategoryRepository categoryRepository;
     private final EventMapper eventMapper;
     private final StatsServiceIntegrator statsServiceIntegrator;
+    private final EventTextSearch eventTextSearch;
+    private final ApproximateCountCache approximateCountCache;
 
     @Override
     public EventRestView saveNewEvent(@Positive long userId, @Valid EventRestCommand eventRestCommand) {
@@ -65,6 +73,7 @@ public class EventServiceImpl implements EventService {
         eventEntity.setCategory(category);
         eventEntity.setCreatedOn(LocalDateTime.now());
         eventEntity = eventRepository.save(eventEntity);
+        eventTextSearch.onEventSaved(eventEntity);
         List<EventEntity> initiatorsEvents = initiator.getEvents();
         if (initiatorsEvents == null) {
             initiatorsEvents = new ArrayList<>();
@@ -86,9 +95,7 @@ public class EventServiceImpl implements EventService {
             throw new ObjectNotFoundException("Requested event with id'" + eventId + "' not published");
         }
 
-        Event event = eventMapper.fromDbEntity(eventEntity).toBuilder()
-                .views(statsServiceIntegrator.getViewsForOneUri("/events/" + eventId))
-                .build();
+        Event event = statsServiceIntegrator.mapEventEntityToEventWithViews(eventEntity);
         log.info("Event {} was sent to client", event);
         return eventMapper.toRestView(event);
     }
@@ -102,9 +109,7 @@ public class EventServiceImpl implements EventService {
                     "event with id'%d' and can't receive information about it by private API", userId, eventId));
         }
 
-        Event event = eventMapper.fromDbEntity(eventEntity).toBuilder()
-                .views(statsServiceIntegrator.getViewsForOneUri("/events/" + eventId))
-                .build();
+        Event event = statsServiceIntegrator.mapEventEntityToEventWithViews(eventEntity);
         log.info("{} was sent to its initiator with id'{}'", event, userId);
         return eventMapper.toRestView(event);
     }
@@ -112,38 +117,47 @@ public class EventServiceImpl implements EventService {
     @Override
     public List<EventRestViewShort> getAllEventsByParametersForAnyone(
             @Valid HttpPublicGetAllRequestParamsHolder httpParams) {
+        return getEventsPageByParametersForAnyone(httpParams).getItems();
+    }
+
+    @Override
+    public CursorPage<EventRestViewShort> getEventsPageByParametersForAnyone(
+            @Valid HttpPublicGetAllRequestParamsHolder httpParams) {
         JpaPublicGetAllQueryParamsHolder paramsHolder = MethodParameterValidator
                 .getValidJpaQueryParamsFromHttpRequest(httpParams);
-        BooleanExpression preparedConditions = QueryDslExpressionCreator.prepareConditionsForQuery(paramsHolder);
-        Sort sort = Sort.by(Sort.Direction.ASC, "eventDate", "id");
-        Pageable page = PageRequest.of(paramsHolder.getFrom() / paramsHolder.getSize(), paramsHolder.getSize(), sort);
-        List<EventEntity> eventsEntities = eventRepository.findAll(preparedConditions, page).getContent();
+        List<EventEntity> eventsEntities;
+        String nextCursor = null;
+        if (paramsHolder.getSort() == SortBy.RELEVANCE) {  // Без текста такая сортировка не проходит валидацию
+            eventsEntities = eventTextSearch.findPageOrderedByRelevance(paramsHolder.getText(),
+                    QueryDslExpressionCreator.prepareConditionsForQuery(paramsHolder, null),
+                    paramsHolder.getFrom(), paramsHolder.getSize());
+        } else if (paramsHolder.getCursor() == null) {
+            Pageable page = PageRequest.of(paramsHolder.getFrom() / paramsHolder.getSize(), paramsHolder.getSize(),
+                    getPublicSearchSort(paramsHolder.getSort()));
+            eventsEntities = eventRepository.findSliceForView(prepareConditionsForQuery(paramsHolder), page)
+                    .getContent();
+        } else {  // Страница после курсора ищется по индексу без OFFSET и без подсчёта всех подходящих событий
+            Pageable page = PageRequest.of(0, paramsHolder.getSize(), getPublicSearchSort(paramsHolder.getSort()));
+            Slice<EventEntity> eventsSlice = eventRepository.findSliceForView(prepareConditionsForQuery(paramsHolder),
+                    page);
+            eventsEntities = eventsSlice.getContent();
+            if (eventsSlice.hasNext()) {
+                nextCursor = createNextCursor(paramsHolder.getSort(), eventsEntities.get(eventsEntities.size() - 1));
+            }
+        }
         if (eventsEntities.size() == 0) {
-            return Collections.emptyList();
+            return CursorPage.<EventRestViewShort>builder().items(Collections.emptyList()).build();
         }
 
         List<Event> events = statsServiceIntegrator.mapEventEntitiesToEventsWithViews(eventsEntities);
         log.info("List of events with size '{}' requested with parameters '{}' was sent to client",
                 events.size(), httpParams);
-        switch (paramsHolder.getSort()) {
-            case EVENT_DATE:
-                return events.stream()
-                        .map(eventMapper::mapEventRestViewShortFromEvent)
-                        .collect(Collectors.toList());
-            case RATING:
-                return events.stream()
-                        .sorted(Comparator.comparingInt(Event::getRating).reversed())
-                        .map(eventMapper::mapEventRestViewShortFromEvent)
-                        .collect(Collectors.toList());
-            case VIEWS:
-                return events.stream()
-                        .sorted(Comparator.comparingLong(Event::getViews).reversed())
+        return CursorPage.<EventRestViewShort>builder()
+                .items(events.stream()
                         .map(eventMapper::mapEventRestViewShortFromEvent)
-                        .collect(Collectors.toList());
-            default:
-                throw new IllegalArgumentException("There is no sort logic for parameter SortBy."
-                        + paramsHolder.getSort());
-        }
+                        .collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
     }
 
     @Override
@@ -151,7 +165,7 @@ public class EventServiceImpl implements EventService {
                                                          @PositiveOrZero int from,
                                                          @Positive int size) {
         Pageable page = PageRequest.of(from / size, size, Sort.by(Sort.Direction.ASC, "id"));
-        Page<EventEntity> eventEntitiesPage = eventRepository.findAllByInitiatorId(userId, page);
+        Slice<EventEntity> eventEntitiesPage = eventRepository.findAllByInitiatorId(userId, page);
         List<Event> events = statsServiceIntegrator.mapEventEntitiesToEventsWithViews(eventEntitiesPage.getContent());
         log.info("List of {} events requested by user with id'{}' was sent to client. Page parameters: " +
                         "from='{}', size='{}'", events.size(), userId, from, size);
@@ -162,21 +176,75 @@ public class EventServiceImpl implements EventService {
 
     @Override
     public List<EventRestView> getAllEventsByParametersForAdmin(@Valid HttpAdminGetAllRequestParamsHolder httpParams) {
+        return getEventsPageByParametersForAdmin(httpParams).getItems();
+    }
+
+    @Override
+    public CursorPage<EventRestView> getEventsPageByParametersForAdmin(
+            @Valid HttpAdminGetAllRequestParamsHolder httpParams) {
         JpaAdminGetAllQueryParamsHolder paramsHolder = MethodParameterValidator
                 .getValidJpaQueryParamsFromHttpRequest(httpParams);
         BooleanExpression preparedConditions = QueryDslExpressionCreator.prepareConditionsForQuery(paramsHolder);
         Sort sort = Sort.by(Sort.Direction.ASC, "id");
-        Pageable page = PageRequest.of(paramsHolder.getFrom() / paramsHolder.getSize(), paramsHolder.getSize(), sort);
-        List<EventEntity> eventsEntities = eventRepository.findAll(preparedConditions, page).getContent();
+        List<EventEntity> eventsEntities;
+        String nextCursor = null;
+        if (paramsHolder.getCursor() == null) {
+            Pageable page = PageRequest.of(paramsHolder.getFrom() / paramsHolder.getSize(), paramsHolder.getSize(),
+                    sort);
+            eventsEntities = eventRepository.findSliceForView(preparedConditions, page).getContent();
+        } else {
+            Slice<EventEntity> eventsSlice = eventRepository.findSliceForView(preparedConditions,
+                    PageRequest.of(0, paramsHolder.getSize(), sort));
+            eventsEntities = eventsSlice.getContent();
+            if (eventsSlice.hasNext()) {
+                nextCursor = createNextCursor(null, eventsEntities.get(eventsEntities.size() - 1));
+            }
+        }
         if (eventsEntities.size() == 0) {
-            return Collections.emptyList();
+            return CursorPage.<EventRestView>builder().items(Collections.emptyList()).build();
         }
         List<Event> events = statsServiceIntegrator.mapEventEntitiesToEventsWithViews(eventsEntities);
         log.info("List of events with size '{}' requested with parameters '{}' was sent to client",
                 events.size(), httpParams);
-        return events.stream()
-                .map(eventMapper::toRestView)
-                .collect(Collectors.toList());
+        return CursorPage.<EventRestView>builder()
+                .items(events.stream()
+                        .map(eventMapper::toRestView)
+                        .collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    public long countEventsByParametersForAnyone(@Valid HttpPublicGetAllRequestParamsHolder httpParams) {
+        // Общее число считается по всем фильтрам без курсора: оно общее для всех страниц и так же лежит в кэше
+        JpaPublicGetAllQueryParamsHolder paramsHolder = MethodParameterValidator
+                .getValidJpaQueryParamsFromHttpRequest(httpParams).toBuilder()
+                .cursor(null)
+                .build();
+        // Без rangeStart фильтр зависит от текущего времени, поэтому такое число может отставать и по этой причине
+        String filterShape = String.join(":", "events", "public", String.valueOf(httpParams.getText()),
+                sortedToString(httpParams.getCategories()), String.valueOf(httpParams.getPaid()),
+                String.valueOf(httpParams.getRangeStart()), String.valueOf(httpParams.getRangeEnd()),
+                String.valueOf(httpParams.isOnlyAvailable()));
+        return approximateCountCache.getCount(filterShape, () ->
+                eventRepository.count(prepareConditionsForQuery(paramsHolder)));
+    }
+
+    @Override
+    public long countEventsByParametersForAdmin(@Valid HttpAdminGetAllRequestParamsHolder httpParams) {
+        JpaAdminGetAllQueryParamsHolder paramsHolder = MethodParameterValidator
+                .getValidJpaQueryParamsFromHttpRequest(httpParams).toBuilder()
+                .cursor(null)
+                .build();
+        String[] states = httpParams.getStates() == null ? null : httpParams.getStates().clone();
+        if (states != null) {
+            Arrays.sort(states);
+        }
+        String filterShape = String.join(":", "events", "admin", sortedToString(httpParams.getUsers()),
+                Arrays.toString(states), sortedToString(httpParams.getCategories()),
+                String.valueOf(httpParams.getRangeStart()), String.valueOf(httpParams.getRangeEnd()));
+        return approximateCountCache.getCount(filterShape, () ->
+                eventRepository.count(QueryDslExpressionCreator.prepareConditionsForQuery(paramsHolder)));
     }
 
     @Override
@@ -193,9 +261,8 @@ public class EventServiceImpl implements EventService {
                 .getEventRestCommandCheckedForSpecificLogic(eventRestCommand, false);
         eventEntity = updateEventEntityInformationFromRestCommand(eventEntity, eventRestCommand, false);
         eventEntity = eventRepository.save(eventEntity);
-        Event event = eventMapper.fromDbEntity(eventEntity).toBuilder()
-                .views(statsServiceIntegrator.getViewsForOneUri("/events/" + eventId))
-                .build();
+        eventTextSearch.onEventSaved(eventEntity);
+        Event event = statsServiceIntegrator.mapEventEntityToEventWithViews(eventEntity);
         log.info("User with id'{}' updated his event with id'{}'. Updated {}", userId, eventId, event);
         return eventMapper.toRestView(event);
     }
@@ -207,16 +274,52 @@ public class EventServiceImpl implements EventService {
                 .getEventRestCommandCheckedForSpecificLogic(eventRestCommand, true);
         eventEntity = updateEventEntityInformationFromRestCommand(eventEntity, eventRestCommand, true);
         eventEntity = eventRepository.save(eventEntity);
-        Event event = eventMapper.fromDbEntity(eventEntity).toBuilder()
-                .views(statsServiceIntegrator.getViewsForOneUri("/events/" + eventId))
-                .build();
+        eventTextSearch.onEventSaved(eventEntity);
+        Event event = statsServiceIntegrator.mapEventEntityToEventWithViews(eventEntity);
         log.info("Admin updated event with id'{}'. Updated {}", eventId, event);
         return eventMapper.toRestView(event);
     }
 
+    // Просмотры сортируются по копии в events.event_views: у страницы могут быть чуть более свежие просмотры
+    // из Stats_service, но порядок и границы страниц задаёт база
+    private Sort getPublicSearchSort(SortBy sortBy) {
+        switch (sortBy) {
+            case EVENT_DATE:
+                return Sort.by(Sort.Direction.ASC, "eventDate", "id");
+            case RATING:
+                return Sort.by(Sort.Order.desc("rating"), Sort.Order.asc("id"));
+            case VIEWS:
+                return Sort.by(Sort.Order.desc("views"), Sort.Order.asc("id"));
+            default:
+                throw new IllegalArgumentException("There is no sort logic for parameter SortBy." + sortBy);
+        }
+    }
+
+    // sort == null - курсор для сортировки только по id
+    private String createNextCursor(SortBy sort, EventEntity lastEvent) {
+        PageCursor.PageCursorBuilder cursor = PageCursor.builder()
+                .sort(sort == null ? PageCursor.ID_SORT : sort.name())
+                .lastId(lastEvent.getId());
+        if (sort == SortBy.EVENT_DATE) {
+            cursor.lastKey(lastEvent.getEventDate().format(EwmConstants.FORMATTER));
+        } else if (sort == SortBy.VIEWS) {
+            cursor.lastKey(String.valueOf(lastEvent.getViews()));
+        } else if (sort == SortBy.RATING) {
+            cursor.lastKey(String.valueOf(lastEvent.getRating()));
+        }
+        return PageCursorCodec.encode(cursor.build());
+    }
+
+    private BooleanExpression prepareConditionsForQuery(JpaPublicGetAllQueryParamsHolder paramsHolder) {
+        String text = paramsHolder.getText();
+        return QueryDslExpressionCreator.prepareConditionsForQuery(paramsHolder,
+                text == null || text.isBlank() ? null : eventTextSearch.createTextCondition(text));
+    }
+
     private EventEntity getEventEntityIfExists(long eventId) {
-        return eventRepository.findById(eventId).orElseThrow(() ->  new ObjectNotFoundException(
-                "Failed to save/update/get event: event with id'" + eventId + "' was not saved"));
+        return eventRepository.findWithInitiatorAndCategoryById(eventId).orElseThrow(() ->
+                new ObjectNotFoundException("Failed to save/update/get event: event with id'" + eventId +
+                        "' was not saved"));
     }
 
     private UserEntity getInitiatorIfExists(long userId) {
@@ -327,4 +430,14 @@ public class EventServiceImpl implements EventService {
         }
     }
 
+    // Порядок идентификаторов в запросе не меняет выборку, поэтому для ключа кэша они сортируются
+    private String sortedToString(long[] ids) {
+        if (ids == null) {
+            return "null";
+        }
+        long[] sortedIds = Arrays.copyOf(ids, ids.length);
+        Arrays.sort(sortedIds);
+        return Arrays.toString(sortedIds);
+    }
+
 }
\ No newline at end of file
@@ -142,9 +142,7 @@ public class LikeServiceImpl implements LikeService {
     }
 
     private Event getEventWithViewsFromEventEntity(EventEntity eventEntity) {
-        return eventMapper.fromDbEntity(eventEntity).toBuilder()
-                .views(statsServiceIntegrator.getViewsForOneUri("/events/" + eventEntity.getId()))
-                .build();
+        return statsServiceIntegrator.mapEventEntityToEventWithViews(eventEntity);
     }
 
     private void saveInitiatorWithNewRatingAfterLike(UserEntity userEntity) {
@@ -2,9 +2,9 @@ package ru.practicum.explore_with_me.main_service.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import javax.validation.Valid;
@@ -16,10 +16,14 @@ import ru.practicum.explore_with_me.main_service.exception.ObjectNotFoundExcepti
 import ru.practicum.explore_with_me.main_service.mapper.UserMapper;
 import ru.practicum.explore_with_me.main_service.model.db_entities.UserEntity;
 import ru.practicum.explore_with_me.main_service.model.domain_pojo.User;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder.PageCursor;
+import ru.practicum.explore_with_me.main_service.model.rest_dto.CursorPage;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.user.UserRestCommand;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.user.UserRestView;
 import ru.practicum.explore_with_me.main_service.repository.UserRepository;
 import ru.practicum.explore_with_me.main_service.service.UserService;
+import ru.practicum.explore_with_me.main_service.util.ApproximateCountCache;
+import ru.practicum.explore_with_me.main_service.util.PageCursorCodec;
 
 import java.util.Arrays;
 import java.util.List;
@@ -31,6 +35,7 @@ import java.util.List;
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final ApproximateCountCache approximateCountCache;
 
     @Override
     public UserRestView saveNewUser(@Valid UserRestCommand userRestCommand) {
@@ -44,9 +49,9 @@ public class UserServiceImpl implements UserService {
     @Override
     public List<UserRestView> getUsersByIds(long[] ids, @PositiveOrZero int from, @Positive int size) {
         Pageable page = PageRequest.of(from / size, size, Sort.by(Sort.Direction.ASC, "id"));
-        Page<UserEntity> usersPage;
+        Slice<UserEntity> usersPage;
         if (ids.length == 1 && ids[0] == -1) {
-            usersPage = userRepository.findAll(page);
+            usersPage = userRepository.findAllBy(page);
         } else {
             Arrays.sort(ids);
             usersPage = userRepository.findAllByIdIn(ids, page);
@@ -56,6 +61,36 @@ public class UserServiceImpl implements UserService {
         return usersPage.map(userEntity -> userMapper.toRestView(userMapper.fromDbEntity(userEntity))).toList();
     }
 
+    @Override
+    public CursorPage<UserRestView> getUsersByIdsAfterCursor(long[] ids, String cursor, @Positive int size) {
+        PageCursor pageCursor = PageCursorCodec.decode(cursor, PageCursor.ID_SORT);
+        Pageable page = PageRequest.of(0, size, Sort.by(Sort.Direction.ASC, "id"));
+        Slice<UserEntity> usersSlice;
+        if (ids.length == 1 && ids[0] == -1) {
+            usersSlice = userRepository.findAllByIdGreaterThan(pageCursor.getLastId(), page);
+        } else {
+            usersSlice = userRepository.findAllByIdInAndIdGreaterThan(ids, pageCursor.getLastId(), page);
+        }
+        log.info("Page of {} users after id'{}' was sent to the client", usersSlice.getNumberOfElements(),
+                pageCursor.getLastId());
+        return CursorPage.<UserRestView>builder()
+                .items(usersSlice.map(userEntity -> userMapper.toRestView(userMapper.fromDbEntity(userEntity)))
+                        .getContent())
+                .nextCursor(usersSlice.hasNext() ? createNextCursor(usersSlice) : null)
+                .build();
+    }
+
+    @Override
+    public long countUsersByIds(long[] ids) {
+        if (ids.length == 1 && ids[0] == -1) {
+            return approximateCountCache.getCount("users", userRepository::count);
+        }
+        long[] sortedIds = Arrays.copyOf(ids, ids.length);
+        Arrays.sort(sortedIds);
+        return approximateCountCache.getCount("users:ids=" + Arrays.toString(sortedIds), () ->
+                userRepository.countByIdIn(sortedIds));
+    }
+
     @Override
     public List<UserRestView> getInitiatorsSortedByRating(@PositiveOrZero int from, @Positive int size, boolean asc) {
         Pageable page;
@@ -64,10 +99,10 @@ public class UserServiceImpl implements UserService {
         } else {
             page = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "rating"));
         }
-        Page<UserEntity> usersPage = userRepository.findAllDistinctByEventsNotNull(page);
+        Slice<UserEntity> usersPage = userRepository.findAllDistinctByEventsNotNull(page);
         log.info("Page of {} initiators sorted {} by rating was sent to the client. " +
                         "Paging parameters: from={}, size={}",
-                usersPage.getTotalElements(), asc ? "ascending" : "descending", from, size);
+                usersPage.getNumberOfElements(), asc ? "ascending" : "descending", from, size);
         return usersPage.map(userEntity -> userMapper.toRestView(userMapper.fromDbEntity(userEntity))).toList();
     }
 
@@ -79,4 +114,11 @@ public class UserServiceImpl implements UserService {
         log.info("User with id'{}' was deleted", userEntity.getId());
     }
 
-}
\ No newline at end of file
+    private String createNextCursor(Slice<UserEntity> usersSlice) {
+        return PageCursorCodec.encode(PageCursor.builder()
+                .sort(PageCursor.ID_SORT)
+                .lastId(usersSlice.getContent().get(usersSlice.getNumberOfElements() - 1).getId())
+                .build());
+    }
+
+}
@@ -0,0 +1,35 @@
+package ru.practicum.explore_with_me.main_service.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import ru.practicum.explore_with_me.main_service.config.PagingProperties;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+// Страницы списков больше не считают count(*). Клиентам, которым нужно общее число элементов, оно отдаётся
+// из кэша по набору фильтров запроса и может отставать от базы не больше чем на ewm.paging.total-count
+@Component
+public class ApproximateCountCache {
+    private final Cache<String, Long> counts;
+
+    public ApproximateCountCache(PagingProperties pagingProperties, MeterRegistry meterRegistry) {
+        PagingProperties.TotalCount properties = pagingProperties.getTotalCount();
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(Duration.ofMillis(properties.getExpireAfterWriteMs()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "ewm.paging.total_count");
+    }
+
+    // filterShape должен однозначно описывать фильтры запроса без from, size и курсора
+    public long getCount(String filterShape, LongSupplier counter) {
+        return counts.get(filterShape, key -> counter.getAsLong());
+    }
+
+}
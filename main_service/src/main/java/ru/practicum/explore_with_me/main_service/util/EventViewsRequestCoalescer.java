@@ -0,0 +1,148 @@
+package ru.practicum.explore_with_me.main_service.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import ru.practicum.explore_with_me.main_service.exception.StatsServiceProblemException;
+import ru.practicum.explore_with_me.main_service.exception.StatsServiceUnavailableException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+@Slf4j
+public class EventViewsRequestCoalescer {
+    private final Function<Collection<Long>, CompletableFuture<Map<Long, Long>>> viewsLoader;
+    private final long batchWindowMs;
+    private final int maxBatchSize;
+    private final long timeoutMs;
+    private final Map<Long, CompletableFuture<Long>> inFlightRequests = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService loader;
+    private final Object pendingLock = new Object();
+    private List<Long> pendingEventIds = new ArrayList<>();  // Доступ только под pendingLock
+
+    public EventViewsRequestCoalescer(Function<Collection<Long>, CompletableFuture<Map<Long, Long>>> viewsLoader,
+                                      long batchWindowMs,
+                                      int maxBatchSize,
+                                      long timeoutMs) {
+        this.viewsLoader = viewsLoader;
+        this.batchWindowMs = batchWindowMs;
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutMs = timeoutMs;
+        // Запросы к Stats_service отправляет один поток. С блокирующим клиентом, пока предыдущий запрос в пути,
+        // новые идентификаторы копятся и уходят следующим общим запросом
+        this.loader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-views-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<Long> getViews(long eventId) {
+        CompletableFuture<Long> request = new CompletableFuture<>();
+        CompletableFuture<Long> inFlightRequest = inFlightRequests.putIfAbsent(eventId, request);
+        if (inFlightRequest != null) {
+            return inFlightRequest;  // Такой же запрос уже ждёт ответа - делим его результат
+        }
+        int pendingCount;
+        synchronized (pendingLock) {
+            pendingEventIds.add(eventId);
+            pendingCount = pendingEventIds.size();
+        }
+        if (pendingCount >= maxBatchSize) {
+            loader.execute(this::loadPendingViews);
+        } else if (pendingCount == 1) {
+            loader.schedule(this::loadPendingViews, batchWindowMs, TimeUnit.MILLISECONDS);
+        }
+        return request;
+    }
+
+    public Map<Long, Long> getViews(Collection<Long> eventIds) {
+        Map<Long, CompletableFuture<Long>> requests = new LinkedHashMap<>();
+        eventIds.forEach(eventId -> requests.put(eventId, getViews(eventId)));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        Map<Long, Long> viewsStatistics = new LinkedHashMap<>();
+        requests.forEach((eventId, request) -> viewsStatistics.put(eventId,
+                await(request, deadline - System.nanoTime())));
+        return viewsStatistics;
+    }
+
+    private static <T> T await(CompletableFuture<T> request, long timeoutNanos) {
+        try {  // Общий запрос ждут и другие вызовы, поэтому по таймауту бросаем ожидание, а не сам запрос
+            return request.get(Math.max(timeoutNanos, 0L), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException exception) {
+            throw new StatsServiceUnavailableException("Stats_service did not respond with views of events in time");
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw new StatsServiceProblemException("Failed to get views of events from Stats_service: " +
+                    exception.getCause().getMessage());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new StatsServiceProblemException("Waiting for views of events from Stats_service was interrupted");
+        }
+    }
+
+    public static <T> T await(CompletableFuture<T> request) {
+        try {
+            return request.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw exception;
+        }
+    }
+
+    public void shutdown() {
+        loader.shutdownNow();
+        inFlightRequests.values().forEach(request -> request.completeExceptionally(
+                new IllegalStateException("Loading of event views was stopped")));
+    }
+
+    void loadPendingViews() {
+        List<Long> eventIds;
+        synchronized (pendingLock) {
+            if (pendingEventIds.isEmpty()) {
+                return;  // Пачку уже забрал запуск, вызванный переполнением
+            }
+            eventIds = pendingEventIds;
+            pendingEventIds = new ArrayList<>();
+        }
+        for (int from = 0; from < eventIds.size(); from += maxBatchSize) {
+            loadViews(eventIds.subList(from, Math.min(from + maxBatchSize, eventIds.size())));
+        }
+    }
+
+    private void loadViews(List<Long> eventIds) {
+        CompletableFuture<Map<Long, Long>> loading;
+        try {
+            loading = viewsLoader.apply(eventIds);
+        } catch (RuntimeException exception) {
+            loading = CompletableFuture.failedFuture(exception);
+        }
+        loading.whenComplete((viewsStatistics, exception) -> {
+            if (exception != null) {
+                Throwable cause = exception instanceof CompletionException ? exception.getCause() : exception;
+                log.warn("Failed to load views of '{}' events from Stats_service: {}", eventIds.size(),
+                        cause.getMessage());
+                eventIds.forEach(eventId -> inFlightRequests.remove(eventId).completeExceptionally(cause));
+                return;
+            }
+            eventIds.forEach(eventId -> inFlightRequests.remove(eventId)
+                    .complete(viewsStatistics.getOrDefault(eventId, 0L)));
+        });
+    }
+
+}
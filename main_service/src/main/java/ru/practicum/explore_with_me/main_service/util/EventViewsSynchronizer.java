@@ -0,0 +1,90 @@
+package ru.practicum.explore_with_me.main_service.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import ru.practicum.explore_with_me.main_service.config.StatsIntegrationProperties;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Публичный поиск сортирует события по просмотрам в самой базе, поэтому просмотры всех событий периодически
+// копируются из Stats_service в столбец events.event_views
+@Component
+@Slf4j
+public class EventViewsSynchronizer {
+    private static final String UPDATE_VIEWS_SQL = "UPDATE events SET event_views = ? " +
+            "WHERE event_id = ? AND event_views <> ?";
+    private static final int UPDATE_BATCH_SIZE = 500;
+    private static final long INITIAL_DELAY_MS = 1_000L;  // первая синхронизация не мешает прогреву после старта
+
+    private final StatsServiceIntegrator statsServiceIntegrator;
+    private final JdbcTemplate jdbcTemplate;
+    private final ScheduledExecutorService synchronizer;  // null, если синхронизация отключена
+    private final long syncIntervalMs;
+
+    public EventViewsSynchronizer(StatsServiceIntegrator statsServiceIntegrator,
+                                  JdbcTemplate jdbcTemplate,
+                                  StatsIntegrationProperties statsIntegrationProperties) {
+        this.statsServiceIntegrator = statsServiceIntegrator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.syncIntervalMs = statsIntegrationProperties.getViews().getSyncIntervalMs();
+        this.synchronizer = syncIntervalMs <= 0 ? null : Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-views-synchronizer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Синхронизация запускается, когда контекст поднят целиком: схема базы создана, клиент Stats_service
+    // и предохранитель готовы. Запущенная из конструктора, первая попытка обычно падала бы до следующего интервала
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (synchronizer != null) {
+            synchronizer.scheduleWithFixedDelay(this::synchronizeQuietly, INITIAL_DELAY_MS, syncIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public int synchronize() {
+        Map<Long, Long> viewsStatistics = statsServiceIntegrator.getViewsForAllEvents();
+        List<Map.Entry<Long, Long>> updates = new ArrayList<>(viewsStatistics.entrySet());
+        int updatedEvents = 0;
+        for (int[] batch : jdbcTemplate.batchUpdate(UPDATE_VIEWS_SQL, updates, UPDATE_BATCH_SIZE,
+                (statement, eventViews) -> {
+                    statement.setLong(1, eventViews.getValue());
+                    statement.setLong(2, eventViews.getKey());
+                    statement.setLong(3, eventViews.getValue());
+                })) {
+            for (int rows : batch) {
+                updatedEvents += Math.max(rows, 0);  // Драйвер может вернуть SUCCESS_NO_INFO вместо числа строк
+            }
+        }
+        log.debug("Views of '{}' events were changed in the database", updatedEvents);
+        return updatedEvents;
+    }
+
+    private void synchronizeQuietly() {
+        try {
+            synchronize();
+        } catch (RuntimeException exception) {  // Сортировка по просмотрам продолжает работать по прошлым значениям
+            log.warn("Failed to synchronize views of events with Stats_service: {}", exception.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (synchronizer != null) {
+            synchronizer.shutdownNow();
+        }
+    }
+
+}
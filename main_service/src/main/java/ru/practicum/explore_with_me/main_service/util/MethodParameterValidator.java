@@ -8,6 +8,7 @@ import ru.practicum.explore_with_me.main_service.model.db_entities.event.EventEn
 import ru.practicum.explore_with_me.main_service.model.domain_pojo.event.EventState;
 import ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder.JpaAdminGetAllQueryParamsHolder;
 import ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder.JpaPublicGetAllQueryParamsHolder;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder.PageCursor;
 import ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder.SortBy;
 import ru.practicum.explore_with_me.main_service.model.domain_pojo.request.RequestStatus;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.compilation.CompilationRestCommand;
@@ -78,6 +79,14 @@ public class MethodParameterValidator {
             throw new BadRequestParameterException("Wrong method parameter: " +
                     "requested sort option in unsupported format");
         }
+        if (sort == SortBy.RELEVANCE && (httpParams.getText() == null || httpParams.getText().isBlank())) {
+            throw new BadRequestParameterException("Wrong method parameter: events can be sorted by relevance " +
+                    "only when text is specified");
+        }
+        if (sort == SortBy.RELEVANCE && httpParams.getCursor() != null) {
+            throw new BadRequestParameterException("Wrong method parameter: events sorted by relevance can be paged " +
+                    "only with from and size");
+        }
 
         return JpaPublicGetAllQueryParamsHolder.builder()
                 .text(httpParams.getText())
@@ -89,6 +98,8 @@ public class MethodParameterValidator {
                 .sort(sort)
                 .from(httpParams.getFrom())
                 .size(httpParams.getSize())
+                .cursor(httpParams.getCursor() == null ? null :
+                        PageCursorCodec.decode(httpParams.getCursor(), sort.name()))
                 .build();
     }
 
@@ -127,6 +138,8 @@ public class MethodParameterValidator {
                 .rangeEnd(rangeEnd)
                 .from(httpParams.getFrom())
                 .size(httpParams.getSize())
+                .cursor(httpParams.getCursor() == null ? null :
+                        PageCursorCodec.decode(httpParams.getCursor(), PageCursor.ID_SORT))
                 .build();
     }
 
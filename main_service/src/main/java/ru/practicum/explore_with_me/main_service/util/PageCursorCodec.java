@@ -0,0 +1,50 @@
+package ru.practicum.explore_with_me.main_service.util;
+
+import lombok.experimental.UtilityClass;
+
+import ru.practicum.explore_with_me.main_service.exception.BadRequestParameterException;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder.PageCursor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Курсор для клиента непрозрачен: это base64url строки "сортировка:id:ключ". Ключ идёт последним, потому что
+// в дате события тоже есть двоеточия
+@UtilityClass
+public class PageCursorCodec {
+
+    public static String encode(PageCursor cursor) {
+        String value = cursor.getSort() + ":" + cursor.getLastId() + ":" +
+                (cursor.getLastKey() == null ? "" : cursor.getLastKey());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor, String expectedSort) {
+        if (cursor.isBlank()) {  // Пустой курсор запрашивает первую страницу
+            return PageCursor.builder()
+                    .sort(expectedSort)
+                    .build();
+        }
+        String[] parts;
+        long lastId;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+            lastId = parts.length == 3 ? Long.parseLong(parts[1]) : 0L;
+        } catch (IllegalArgumentException exception) {  // NumberFormatException тоже сюда
+            throw new BadRequestParameterException("Wrong method parameter: cursor '" + cursor + "' is malformed");
+        }
+        if (parts.length != 3 || lastId <= 0) {
+            throw new BadRequestParameterException("Wrong method parameter: cursor '" + cursor + "' is malformed");
+        }
+        if (!parts[0].equals(expectedSort)) {
+            throw new BadRequestParameterException(String.format("Wrong method parameter: cursor was issued for " +
+                    "sort '%s' and can't be used with sort '%s'", parts[0], expectedSort));
+        }
+        return PageCursor.builder()
+                .sort(parts[0])
+                .lastId(lastId)
+                .lastKey(parts[2].isEmpty() ? null : parts[2])
+                .build();
+    }
+
+}
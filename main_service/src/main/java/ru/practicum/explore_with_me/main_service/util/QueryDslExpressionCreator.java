@@ -3,25 +3,30 @@ package ru.practicum.explore_with_me.main_service.util;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import lombok.experimental.UtilityClass;
 
+import ru.practicum.explore_with_me.main_service.exception.BadRequestParameterException;
 import ru.practicum.explore_with_me.main_service.model.db_entities.event.QEventEntity;
 import ru.practicum.explore_with_me.main_service.model.domain_pojo.event.EventState;
 import ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder.JpaAdminGetAllQueryParamsHolder;
 import ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder.JpaPublicGetAllQueryParamsHolder;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder.PageCursor;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder.SortBy;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EwmConstants;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 @UtilityClass
 public class QueryDslExpressionCreator {
 
-    public static BooleanExpression prepareConditionsForQuery(JpaPublicGetAllQueryParamsHolder paramsHolder) {
+    // Условие по тексту строит EventTextSearch выбранного полнотекстового индекса, null - текст не задан
+    public static BooleanExpression prepareConditionsForQuery(JpaPublicGetAllQueryParamsHolder paramsHolder,
+                                                              BooleanExpression textCondition) {
         QEventEntity qEventEntity = QEventEntity.eventEntity;
         List<BooleanExpression> conditions = new ArrayList<>();
         conditions.add(qEventEntity.state.like(EventState.PUBLISHED.name()));
-        String text = paramsHolder.getText();
-        if (text != null && !text.isBlank()) {
-            conditions.add(qEventEntity.annotation.containsIgnoreCase(text)
-                    .or(qEventEntity.description.containsIgnoreCase(text)));
+        if (textCondition != null) {
+            conditions.add(textCondition);
         }
         long[] categories = paramsHolder.getCategories();
         if (categories != null) {
@@ -42,6 +47,10 @@ public class QueryDslExpressionCreator {
         if (paramsHolder.isOnlyAvailable()) {
             conditions.add(qEventEntity.confirmedRequests.lt(qEventEntity.participantLimit));
         }
+        PageCursor cursor = paramsHolder.getCursor();
+        if (cursor != null && !cursor.isFirstPage()) {
+            conditions.add(prepareKeysetCondition(paramsHolder.getSort(), cursor));
+        }
         return makeFinalCondition(conditions);
     }
 
@@ -68,9 +77,42 @@ public class QueryDslExpressionCreator {
         if (rangeEnd != null) {
             conditions.add(qEventEntity.eventDate.before(rangeEnd));
         }
+        PageCursor cursor = paramsHolder.getCursor();
+        if (cursor != null && !cursor.isFirstPage()) {
+            conditions.add(qEventEntity.id.gt(cursor.getLastId()));
+        }
         return makeFinalCondition(conditions);
     }
 
+    // Условие "после последнего отданного события" в порядке сортировки страницы: ключ сортировки, затем id
+    private BooleanExpression prepareKeysetCondition(SortBy sort, PageCursor cursor) {
+        QEventEntity qEventEntity = QEventEntity.eventEntity;
+        String lastKey = cursor.getLastKey();
+        long lastId = cursor.getLastId();
+        try {
+            switch (sort) {
+                case EVENT_DATE:
+                    LocalDateTime lastEventDate = LocalDateTime.parse(lastKey, EwmConstants.FORMATTER);
+                    return qEventEntity.eventDate.after(lastEventDate)
+                            .or(qEventEntity.eventDate.eq(lastEventDate).and(qEventEntity.id.gt(lastId)));
+                case VIEWS:
+                    long lastViews = Long.parseLong(lastKey);
+                    return qEventEntity.views.lt(lastViews)
+                            .or(qEventEntity.views.eq(lastViews).and(qEventEntity.id.gt(lastId)));
+                case RATING:
+                    int lastRating = Integer.parseInt(lastKey);
+                    return qEventEntity.rating.lt(lastRating)
+                            .or(qEventEntity.rating.eq(lastRating).and(qEventEntity.id.gt(lastId)));
+                default:
+                    throw new BadRequestParameterException("Wrong method parameter: there is no cursor paging for " +
+                            "sort " + sort);
+            }
+        } catch (DateTimeParseException | NumberFormatException | NullPointerException exception) {
+            throw new BadRequestParameterException("Wrong method parameter: cursor has wrong key '" + lastKey +
+                    "' for sort " + sort);
+        }
+    }
+
     private BooleanExpression makeFinalCondition(List<BooleanExpression> conditions) {
         return conditions.stream()
                 .reduce(BooleanExpression::and)
@@ -0,0 +1,83 @@
+package ru.practicum.explore_with_me.main_service.util;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import ru.practicum.explore_with_me.main_service.config.StatsIntegrationProperties;
+
+import java.time.Clock;
+
+@Component
+@Slf4j
+public class StatsCircuitBreaker {
+    private final StatsIntegrationProperties.Resilience properties;
+    private final Clock clock;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialCallInProgress;
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    public StatsCircuitBreaker(StatsIntegrationProperties statsIntegrationProperties,
+                               MeterRegistry meterRegistry,
+                               Clock clock) {
+        this.properties = statsIntegrationProperties.getResilience();
+        this.clock = clock;
+        Gauge.builder("ewm.stats.circuit_breaker.open", this, breaker -> breaker.getState() == State.CLOSED ? 0 : 1)
+                .description("Whether requests to Stats_service are suspended after repeated failures")
+                .register(meterRegistry);
+    }
+
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && clock.millis() - openedAt >= properties.getOpenStateMs()) {
+            state = State.HALF_OPEN;
+            trialCallInProgress = false;
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && !trialCallInProgress) {  // Пробный запрос проверяет, восстановился ли сервер
+            trialCallInProgress = true;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Stats_service is available again, circuit breaker is closed");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialCallInProgress = false;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= properties.getFailureThreshold()) {
+            if (state != State.OPEN) {
+                log.warn("Circuit breaker for Stats_service is opened after '{}' failures in a row, requests are " +
+                        "suspended for '{}' ms", consecutiveFailures, properties.getOpenStateMs());
+            }
+            state = State.OPEN;
+            openedAt = clock.millis();
+            trialCallInProgress = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+}
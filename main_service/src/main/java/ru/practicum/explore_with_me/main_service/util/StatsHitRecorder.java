@@ -0,0 +1,189 @@
+package ru.practicum.explore_with_me.main_service.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import ru.practicum.explore_with_me.main_service.config.StatsIntegrationProperties;
+import ru.practicum.explore_with_me.stats_service.client_submodule.AsyncStatsClient;
+import ru.practicum.explore_with_me.stats_service.client_submodule.StatsClient;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EwmConstants;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitAcceptanceRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestCommand;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Slf4j
+public class StatsHitRecorder {
+    public static final String APPLICATION_NAME = "ewm-main-service";
+
+    private final StatsClient statsClient;
+    private final AsyncStatsClient asyncStatsClient;  // null, если выбран блокирующий клиент
+    private final StatsIntegrationProperties.Hits properties;
+    private final boolean binaryProtocol;
+    private final BlockingQueue<HitRestCommand> buffer;
+    private final ScheduledExecutorService shipper;
+    private final Counter shippedHitsCounter;
+    private final Counter rejectedHitsCounter;
+    private final Counter droppedOnOverflowCounter;
+    private final Counter droppedAfterRetriesCounter;
+    // Поля ниже читает и меняет только поток shipper, поэтому синхронизация не нужна
+    private List<HitRestCommand> failedBatch = new ArrayList<>();
+    private int failedAttempts;
+    private long nextRetryAt;
+
+    public StatsHitRecorder(StatsClient statsClient,
+                            Optional<AsyncStatsClient> asyncStatsClient,
+                            StatsIntegrationProperties statsIntegrationProperties,
+                            MeterRegistry meterRegistry) {
+        this.statsClient = statsClient;
+        this.asyncStatsClient = asyncStatsClient.orElse(null);
+        this.properties = statsIntegrationProperties.getHits();
+        this.binaryProtocol = statsIntegrationProperties.getClient().getProtocol() ==
+                StatsIntegrationProperties.Protocol.BINARY;
+        this.buffer = new ArrayBlockingQueue<>(properties.getBufferCapacity());
+        Gauge.builder("ewm.stats.hits.buffered", buffer, BlockingQueue::size)
+                .description("Number of hits waiting for shipping to Stats_service")
+                .register(meterRegistry);
+        this.shippedHitsCounter = meterRegistry.counter("ewm.stats.hits", "result", "shipped");
+        this.rejectedHitsCounter = meterRegistry.counter("ewm.stats.hits", "result", "rejected");
+        this.droppedOnOverflowCounter = meterRegistry.counter("ewm.stats.hits", "result", "dropped_overflow");
+        this.droppedAfterRetriesCounter = meterRegistry.counter("ewm.stats.hits", "result", "dropped_retries");
+        this.shipper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-hit-shipper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        shipper.scheduleWithFixedDelay(this::shipBufferedHits, properties.getFlushIntervalMs(),
+                properties.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    public void record(String ip, String uri) {
+        HitRestCommand hit = HitRestCommand.builder()
+                .application(APPLICATION_NAME)
+                .uri(uri)
+                .ip(ip)
+                .timestamp(LocalDateTime.now().format(EwmConstants.FORMATTER))
+                .build();
+        if (!buffer.offer(hit)) {
+            droppedOnOverflowCounter.increment();
+            log.warn("Buffer of hits for Stats_service is full, hit '{}' was dropped", hit);
+        }
+    }
+
+    public int getBufferedHitsCount() {
+        return buffer.size() + failedBatch.size();
+    }
+
+    public double getDroppedHitsCount() {
+        return droppedOnOverflowCounter.count() + droppedAfterRetriesCounter.count();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shipper.shutdown();
+        try {
+            if (!shipper.awaitTermination(properties.getFlushIntervalMs() * 2, TimeUnit.MILLISECONDS)) {
+                shipper.shutdownNow();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        nextRetryAt = 0L;  // При остановке делаем последнюю попытку отправить всё, что накопилось
+        shipBufferedHits();
+        if (getBufferedHitsCount() > 0) {
+            log.warn("'{}' hits were not shipped to Stats_service before shutdown", getBufferedHitsCount());
+        }
+    }
+
+    void shipBufferedHits() {
+        try {
+            if (!failedBatch.isEmpty()) {
+                if (System.currentTimeMillis() < nextRetryAt || !retryFailedBatch()) {
+                    return;
+                }
+            }
+            List<HitRestCommand> batch = new ArrayList<>(properties.getBatchSize());
+            while (buffer.drainTo(batch, properties.getBatchSize()) > 0) {
+                if (!ship(batch)) {
+                    failedBatch = batch;
+                    failedAttempts = 1;
+                    scheduleRetry();
+                    return;
+                }
+                batch = new ArrayList<>(properties.getBatchSize());
+            }
+        } catch (RuntimeException exception) {  // Исключение остановило бы все последующие запуски задачи
+            log.error("Unexpected problem while shipping hits to Stats_service: {}", exception.getMessage());
+        }
+    }
+
+    private boolean retryFailedBatch() {
+        if (ship(failedBatch)) {
+            failedBatch = new ArrayList<>();
+            failedAttempts = 0;
+            return true;
+        }
+        failedAttempts++;
+        if (failedAttempts >= properties.getMaxAttempts()) {
+            droppedAfterRetriesCounter.increment(failedBatch.size());
+            log.warn("Failed to ship '{}' hits to Stats_service after '{}' attempts, hits were dropped",
+                    failedBatch.size(), failedAttempts);
+            failedBatch = new ArrayList<>();
+            failedAttempts = 0;
+            return true;
+        }
+        scheduleRetry();
+        return false;
+    }
+
+    private void scheduleRetry() {
+        nextRetryAt = System.currentTimeMillis() + properties.getRetryBackoffMs() * (1L << (failedAttempts - 1));
+    }
+
+    private boolean ship(List<HitRestCommand> batch) {
+        ResponseEntity<HitAcceptanceRestView[]> response;
+        try {
+            // Ответ ждёт только поток shipper, поэтому неблокирующий клиент даёт здесь лишь пул соединений и таймауты
+            if (asyncStatsClient == null) {
+                response = binaryProtocol ? statsClient.addNewHitsBinary(batch) : statsClient.addNewHits(batch);
+            } else {
+                response = EventViewsRequestCoalescer.await(binaryProtocol ?
+                        asyncStatsClient.addNewHitsBinary(batch) : asyncStatsClient.addNewHits(batch));
+            }
+        } catch (RuntimeException exception) {
+            log.warn("Failed to ship '{}' hits to Stats_service: {}", batch.size(), exception.getMessage());
+            return false;
+        }
+        HitAcceptanceRestView[] results = response == null ? null : response.getBody();
+        if (results == null || !response.getStatusCode().is2xxSuccessful()) {
+            log.warn("Failed to ship '{}' hits to Stats_service: {}", batch.size(),
+                    results == null || results.length == 0 ? "there is no body in the response" : results[0].getReason());
+            return false;
+        }
+        long rejected = Arrays.stream(results)
+                .filter(result -> !result.isAccepted())
+                .count();
+        if (rejected > 0) {  // Повторная отправка отклонённых сервером хитов ничего не изменит
+            rejectedHitsCounter.increment(rejected);
+            log.warn("Stats_service rejected '{}' of '{}' shipped hits", rejected, batch.size());
+        }
+        shippedHitsCounter.increment(batch.size() - rejected);
+        return true;
+    }
+
+}
@@ -0,0 +1,27 @@
+package ru.practicum.explore_with_me.main_service.util;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+@Component("statsService")
+@RequiredArgsConstructor
+public class StatsServiceHealthIndicator implements HealthIndicator {
+    public static final Status DEGRADED = new Status("DEGRADED", "Views of events are served from the last known " +
+            "values because Stats_service is unavailable");
+
+    private final StatsCircuitBreaker statsCircuitBreaker;
+
+    @Override
+    public Health health() {
+        StatsCircuitBreaker.State state = statsCircuitBreaker.getState();
+        // Без Stats_service основной сервис продолжает работать, поэтому DOWN здесь не возвращается
+        Health.Builder health = state == StatsCircuitBreaker.State.CLOSED ? Health.up() : Health.status(DEGRADED);
+        return health.withDetail("circuitBreaker", state)
+                .withDetail("consecutiveFailures", statsCircuitBreaker.getConsecutiveFailures())
+                .build();
+    }
+
+}
@@ -1,57 +1,157 @@
 package ru.practicum.explore_with_me.main_service.util;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.explore_with_me.main_service.config.StatsIntegrationProperties;
 import ru.practicum.explore_with_me.main_service.exception.StatsServiceProblemException;
+import ru.practicum.explore_with_me.main_service.exception.StatsServiceUnavailableException;
 import ru.practicum.explore_with_me.main_service.mapper.EventMapper;
 import ru.practicum.explore_with_me.main_service.model.db_entities.event.EventEntity;
 import ru.practicum.explore_with_me.main_service.model.domain_pojo.event.Event;
+import ru.practicum.explore_with_me.stats_service.client_submodule.AsyncStatsClient;
 import ru.practicum.explore_with_me.stats_service.client_submodule.StatsClient;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EventViewsQuery;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EwmConstants;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestView;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatsQuery;
 
+import javax.annotation.PreDestroy;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Component
-@RequiredArgsConstructor
+@Slf4j
 public class StatsServiceIntegrator {
+    private static final String EVENT_URI_PREFIX = EventViewsQuery.EVENT_URI_PREFIX;
+
     private final StatsClient statsClient;
+    private final AsyncStatsClient asyncStatsClient;  // null, если выбран блокирующий клиент
+    private final ExecutorService blockingClientExecutor;  // null, если выбран неблокирующий клиент
     private final EventMapper eventMapper;
+    private final StatsHitRecorder statsHitRecorder;
+    private final StatsIntegrationProperties statsIntegrationProperties;
+    private final StatsCircuitBreaker statsCircuitBreaker;
+    private final EventViewsRequestCoalescer eventViewsRequestCoalescer;
+    private final LoadingCache<Long, Long> eventViewsCache;  // null, если кэширование просмотров отключено
+    private final Cache<Long, Long> lastKnownViews;          // источник просмотров, пока Stats_service недоступен
+
+    public StatsServiceIntegrator(StatsClient statsClient,
+                                  Optional<AsyncStatsClient> asyncStatsClient,
+                                  EventMapper eventMapper,
+                                  StatsHitRecorder statsHitRecorder,
+                                  StatsIntegrationProperties statsIntegrationProperties,
+                                  StatsCircuitBreaker statsCircuitBreaker,
+                                  MeterRegistry meterRegistry) {
+        this.statsClient = statsClient;
+        this.asyncStatsClient = asyncStatsClient.orElse(null);
+        // Запросы блокирующего клиента выполняются в своих потоках, чтобы ожидание просмотров можно было бросить
+        // по таймауту, не дожидаясь таймаута чтения клиента
+        this.blockingClientExecutor = this.asyncStatsClient != null ? null : Executors.newFixedThreadPool(
+                statsIntegrationProperties.getClient().getMaxConcurrentRequests(), runnable -> {
+                    Thread thread = new Thread(runnable, "stats-blocking-client");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.eventMapper = eventMapper;
+        this.statsHitRecorder = statsHitRecorder;
+        this.statsIntegrationProperties = statsIntegrationProperties;
+        this.statsCircuitBreaker = statsCircuitBreaker;
+        this.eventViewsRequestCoalescer = new EventViewsRequestCoalescer(this::getViewsForEventsFromService,
+                statsIntegrationProperties.getViews().getBatchWindowMs(),
+                statsIntegrationProperties.getViews().getMaxBatchSize(),
+                statsIntegrationProperties.getResilience().getViewsTimeoutMs());
+        StatsIntegrationProperties.Cache cacheProperties = statsIntegrationProperties.getViews().getCache();
+        this.eventViewsCache = cacheProperties.isEnabled() ?
+                createEventViewsCache(cacheProperties, meterRegistry) : null;
+        this.lastKnownViews = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getMaximumSize())
+                .build();
+    }
+
+    public void recordStatHit(String ip, String uri) {
+        statsHitRecorder.record(ip, uri);
+    }  // Хит только кладётся в буфер, отправка в Stats_service происходит в отдельном потоке
 
     public void saveStatHitFromThisRequests(String ip, String uri) {
-        ResponseEntity<HitRestView> statsServiceResponse = statsClient.addNewHit(ip, uri);
+        ResponseEntity<HitRestView> statsServiceResponse = asyncStatsClient == null ?
+                statsClient.addNewHit(ip, uri) : EventViewsRequestCoalescer.await(asyncStatsClient.addNewHit(ip, uri));
         HitRestView hitUri = statsServiceResponse.getBody();
         if (hitUri == null) {
             throw new StatsServiceProblemException("Failed to get data from Stats_sever: there is null hit body " +
                     "in the response from server");
         }
-        if (statsServiceResponse.getStatusCode().is4xxClientError()) {
+        if (statsServiceResponse.getStatusCode().isError()) {
             throw new StatsServiceProblemException(hitUri.getApplication());
         }  // Клиент записывает информацию об ошибке в поле application объекта HitRestView, если происходит ошибка
     }
 
     public UriStatRestView[] getUriStatsFromService(String[] uris) {
-        ResponseEntity<UriStatRestView[]> statsServerResponse = statsClient.getUriStats(
-                EwmConstants.DEFAULT_DATE_TIME,
-                LocalDateTime.now(),
-                uris,
-                true);
+        return getUriStatsFromService(createUriStatsQuery().uris(List.of(uris)).build());
+    }
+
+    private UriStatRestView[] getUriStatsFromService(UriStatsQuery uriStatsQuery) {
+        if (asyncStatsClient != null) {
+            return EventViewsRequestCoalescer.await(getUriStatsFromServiceAsync(uriStatsQuery));
+        }
+        return checkUriStatsResponse(statsClient.queryUriStats(uriStatsQuery));
+    }
+
+    private CompletableFuture<UriStatRestView[]> getUriStatsFromServiceAsync(UriStatsQuery uriStatsQuery) {
+        if (asyncStatsClient == null) {
+            return callBlockingClient(() -> checkUriStatsResponse(statsClient.queryUriStats(uriStatsQuery)));
+        }
+        return asyncStatsClient.queryUriStats(uriStatsQuery).thenApply(this::checkUriStatsResponse);
+    }
+
+    private UriStatsQuery.UriStatsQueryBuilder createUriStatsQuery() {
+        // Запрос уходит POST-ом: сотни URI подборки или поиска событий не помещаются в строку GET-запроса
+        return UriStatsQuery.builder()
+                .start(EwmConstants.DEFAULT_DATE_TIME.format(EwmConstants.FORMATTER))
+                .end(LocalDateTime.now().format(EwmConstants.FORMATTER))
+                .unique(true)
+                .approximate(statsIntegrationProperties.getViews().isApproximateUnique());
+    }
+
+    private UriStatRestView[] checkUriStatsResponse(ResponseEntity<UriStatRestView[]> statsServerResponse) {
         UriStatRestView[] uriStats = statsServerResponse.getBody();
         if (uriStats == null) {
             throw new StatsServiceProblemException("Failed to get data from Stats_sever: there is null statistics " +
                     "array in the response from server");
         }
-        if (statsServerResponse.getStatusCode().is4xxClientError()) {
-            throw new StatsServiceProblemException(uriStats[0].getApplication());
+        if (statsServerResponse.getStatusCode().isError()) {
+            throw createStatsServerErrorException(statsServerResponse.getStatusCode(), uriStats[0].getApplication());
         }  // Клиент записывает информацию об ошибке в поле application объекта UriStatRestView, если происходит ошибка
         return uriStats;
     }
 
+    private static StatsServiceProblemException createStatsServerErrorException(HttpStatus status, String message) {
+        // Только ошибка на стороне сервера означает, что Stats_service недоступен: ответ 4xx - ошибка в самом запросе
+        return status.is5xxServerError() ?
+                new StatsServiceUnavailableException(message) : new StatsServiceProblemException(message);
+    }
+
     public long getViewsForOneUri(String uri) {
         UriStatRestView[] uriStats = getUriStatsFromService(new String[] {uri});
         if (uriStats.length == 0) {
@@ -64,29 +164,216 @@ public class StatsServiceIntegrator {
         }
     }
 
+    public long getViewsForEvent(long eventId) {
+        return getViewsWithFallback(Set.of(eventId)).getOrDefault(eventId, 0L);
+    }
+
+    public Map<Long, Long> getViewsForAllEvents() {
+        // Stats_service находит URI событий одним диапазонным поиском по префиксу и сам возвращает их id
+        UriStatRestView[] uriStats = getUriStatsFromService(createUriStatsQuery().uriPrefix(EVENT_URI_PREFIX).build());
+        Map<Long, Long> viewsStatistics = new HashMap<>();
+        Arrays.stream(uriStats)
+                .filter(uriStat -> uriStat.getUriSuffix() != null)  // URI вида /events/{id}/... событиями не считаются
+                .forEach(uriStat -> viewsStatistics.put(uriStat.getUriSuffix(), uriStat.getHits()));
+        lastKnownViews.putAll(viewsStatistics);
+        log.debug("Views of all '{}' viewed events were loaded from Stats_service", viewsStatistics.size());
+        return viewsStatistics;
+    }
+
+    public Event mapEventEntityToEventWithViews(EventEntity entity) {
+        return mapEventEntitiesToEventsWithViews(List.of(entity)).get(0);
+    }
+
     public List<Event> mapEventEntitiesToEventsWithViews(Collection<EventEntity> entities) {
-        String[] uris = entities.stream()
+        Set<Long> eventIds = entities.stream()
                 .map(EventEntity::getId)
-                .map(entityId -> "/events/" + entityId)
-                .collect(Collectors.toList()).toArray(new String[] {});
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, Long> viewsStatistics = getViewsWithFallback(eventIds);
+        return entities.stream()
+                .map(eventEntity -> eventMapper.fromDbEntity(eventEntity).toBuilder()
+                        .views(viewsStatistics.getOrDefault(eventEntity.getId(), 0L))
+                        .viewsUnknown(!viewsStatistics.containsKey(eventEntity.getId()))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, Long> getViewsWithFallback(Set<Long> eventIds) {
+        try {
+            // Промахи кэша по всем событиям страницы загружаются одним запросом к Stats_service вместе с промахами
+            // параллельных запросов
+            return eventViewsCache == null ?
+                    eventViewsRequestCoalescer.getViews(eventIds) : eventViewsCache.getAll(eventIds);
+        } catch (RuntimeException exception) {
+            if (!isStatsServiceUnavailable(exception)) {
+                throw exception;  // Ошибки разбора ответа и прочие ошибки кода не маскируются под недоступность сервиса
+            }  // События отдаются и без Stats_service, просмотры без значения помечаются
+            log.warn("Views of '{}' events are served from the last known values: {}", eventIds.size(),
+                    exception.getMessage());
+            return lastKnownViews.getAllPresent(eventIds);
+        }
+    }
+
+    private static boolean isStatsServiceUnavailable(Throwable exception) {
+        Throwable cause = exception instanceof CompletionException && exception.getCause() != null ?
+                exception.getCause() : exception;
+        // Предохранитель открыт, ответ не пришёл вовремя, сбой соединения или чтения, ответ 5xx
+        return cause instanceof StatsServiceUnavailableException
+                || cause instanceof TimeoutException
+                || cause instanceof ResourceAccessException;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        eventViewsRequestCoalescer.shutdown();
+        if (blockingClientExecutor != null) {
+            blockingClientExecutor.shutdownNow();
+        }
+    }
+
+    private <T> CompletableFuture<T> callBlockingClient(Supplier<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            blockingClientExecutor.execute(() -> {
+                if (result.isDone()) {
+                    return;  // Ожидание ответа уже брошено по таймауту, пока запрос стоял в очереди
+                }
+                try {
+                    result.complete(call.get());
+                } catch (RuntimeException exception) {
+                    result.completeExceptionally(exception);
+                }
+            });
+        } catch (RejectedExecutionException exception) {
+            result.completeExceptionally(new StatsServiceUnavailableException("Requests to Stats_service are " +
+                    "stopped"));
+        }
+        return result;
+    }
+
+    private LoadingCache<Long, Long> createEventViewsCache(StatsIntegrationProperties.Cache cacheProperties,
+                                                           MeterRegistry meterRegistry) {
+        // После refreshAfterWrite значение обновляется в фоне при следующем обращении, а до конца обновления
+        // (или при его ошибке) клиент получает прежнее значение, не дожидаясь медленного Stats_service
+        LoadingCache<Long, Long> cache = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getMaximumSize())
+                .refreshAfterWrite(Duration.ofMillis(cacheProperties.getRefreshAfterWriteMs()))
+                .expireAfterWrite(Duration.ofMillis(cacheProperties.getExpireAfterWriteMs()))
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public Long load(Long eventId) {
+                        return eventViewsRequestCoalescer.getViews(List.of(eventId)).get(eventId);
+                    }
+
+                    @Override
+                    public Map<Long, Long> loadAll(Iterable<? extends Long> eventIds) {
+                        List<Long> ids = new ArrayList<>();
+                        eventIds.forEach(ids::add);
+                        return eventViewsRequestCoalescer.getViews(ids);
+                    }
+
+                    @Override
+                    public CompletableFuture<Long> asyncReload(Long eventId, Long oldViews, Executor executor) {
+                        // Пока Stats_service недоступен, в кэше остаётся последнее известное значение
+                        return eventViewsRequestCoalescer.getViews(eventId).exceptionally(exception -> oldViews);
+                    }  // Фоновые обновления не занимают потоки ожиданием и тоже собираются в общие запросы
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "ewm.stats.views");
+        return cache;
+    }
+
+    private CompletableFuture<Map<Long, Long>> getViewsForEventsFromService(Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+        if (!statsCircuitBreaker.tryAcquirePermission()) {
+            return CompletableFuture.failedFuture(new StatsServiceUnavailableException("Requests to Stats_service " +
+                    "are suspended by circuit breaker after repeated failures"));
+        }
+        CompletableFuture<Map<Long, Long>> viewsRequest;
+        if (statsIntegrationProperties.getClient().getProtocol() == StatsIntegrationProperties.Protocol.BINARY) {
+            viewsRequest = getEventViewsFromServiceAsync(eventIds);
+        } else {
+            String[] uris = eventIds.stream()
+                    .map(eventId -> EVENT_URI_PREFIX + eventId)
+                    .toArray(String[]::new);
+            viewsRequest = getUriStatsFromServiceAsync(createUriStatsQuery().uris(List.of(uris)).build())
+                    .thenApply(uriStats -> mapUriStatsToEventViews(eventIds, uriStats));
+        }
+        long viewsTimeoutMs = statsIntegrationProperties.getResilience().getViewsTimeoutMs();
+        CompletableFuture<Map<Long, Long>> result = new CompletableFuture<>();
+        viewsRequest
+                .orTimeout(viewsTimeoutMs, TimeUnit.MILLISECONDS)
+                .whenComplete((viewsStatistics, exception) -> {
+                    if (exception == null) {
+                        statsCircuitBreaker.onSuccess();
+                        lastKnownViews.putAll(viewsStatistics);
+                        result.complete(viewsStatistics);
+                        return;
+                    }
+                    Throwable cause = exception instanceof CompletionException && exception.getCause() != null ?
+                            exception.getCause() : exception;
+                    if (cause instanceof TimeoutException) {
+                        cause = new StatsServiceUnavailableException(String.format("Stats_service did not respond " +
+                                "with views of events in '%d' ms", viewsTimeoutMs));
+                    }
+                    if (isStatsServiceUnavailable(cause)) {
+                        statsCircuitBreaker.onFailure();
+                    } else {  // Сервер ответил, ошибка в запросе или разборе ответа не повод прекращать запросы
+                        statsCircuitBreaker.onSuccess();
+                    }
+                    result.completeExceptionally(cause);
+                });
+        return result;
+    }
+
+    private CompletableFuture<Map<Long, Long>> getEventViewsFromServiceAsync(Collection<Long> eventIds) {
+        EventViewsQuery eventViewsQuery = EventViewsQuery.builder()
+                .start(EwmConstants.DEFAULT_DATE_TIME)
+                .end(LocalDateTime.now())
+                .eventIds(new ArrayList<>(eventIds))
+                .unique(true)
+                .approximate(statsIntegrationProperties.getViews().isApproximateUnique())
+                .build();
+        CompletableFuture<ResponseEntity<Map<Long, Long>>> response;
+        if (asyncStatsClient == null) {
+            response = callBlockingClient(() -> statsClient.getEventViews(eventViewsQuery));
+        } else {
+            response = asyncStatsClient.getEventViews(eventViewsQuery);
+        }
+        return response.thenApply(statsServerResponse -> {
+            Map<Long, Long> eventViews = statsServerResponse.getBody();
+            if (eventViews == null || !statsServerResponse.getStatusCode().is2xxSuccessful()) {
+                throw createStatsServerErrorException(statsServerResponse.getStatusCode(), "Failed to get views of " +
+                        "events from Stats_sever: server responded with status " +
+                        statsServerResponse.getStatusCodeValue());
+            }
+            Map<Long, Long> viewsStatistics = new HashMap<>();
+            eventIds.forEach(eventId -> viewsStatistics.put(eventId, eventViews.getOrDefault(eventId, 0L)));
+            return viewsStatistics;
+        });
+    }
+
+    private Map<Long, Long> mapUriStatsToEventViews(Collection<Long> eventIds, UriStatRestView[] uriStats) {
         Map<Long, Long> viewsStatistics = new HashMap<>();
-        Arrays.stream(getUriStatsFromService(uris))
+        eventIds.forEach(eventId -> viewsStatistics.put(eventId, 0L));
+        Arrays.stream(uriStats)
                 .filter(uriStat -> !(uriStat.getUri().equals("/events")))
                 .forEach(uriStat -> {
+                    if (uriStat.getUriSuffix() != null) {  // При запросе по префиксу id события уже разобран сервером
+                        viewsStatistics.put(uriStat.getUriSuffix(), uriStat.getHits());
+                        return;
+                    }
                     long eventId;
                     try {
-                        eventId = Long.parseLong(uriStat.getUri().substring(8));
-                    } catch (NumberFormatException exception) {
+                        eventId = Long.parseLong(uriStat.getUri().substring(EVENT_URI_PREFIX.length()));
+                    } catch (NumberFormatException | IndexOutOfBoundsException exception) {
                         throw new StatsServiceProblemException("Unsupported URI format found in response from " +
                                 "Stats_service: " + uriStat.getUri());
                     }
                     viewsStatistics.put(eventId, uriStat.getHits());
                 });
-        return entities.stream()
-                .map(eventEntity -> eventMapper.fromDbEntity(eventEntity).toBuilder()
-                        .views(viewsStatistics.getOrDefault(eventEntity.getId(), 0L))
-                        .build())
-                .collect(Collectors.toList());
+        return viewsStatistics;
     }
 
 }
@@ -0,0 +1,5 @@
+ALTER TABLE events ADD COLUMN IF NOT EXISTS search_vector TSVECTOR GENERATED ALWAYS AS (
+  setweight(to_tsvector('simple', event_annotation), 'A') ||
+  setweight(to_tsvector('simple', event_description), 'B')) STORED;
+
+CREATE INDEX IF NOT EXISTS IDX_EVENTS_SEARCH_VECTOR ON events USING GIN (search_vector);
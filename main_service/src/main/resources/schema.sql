@@ -42,12 +42,17 @@ CREATE TABLE events (
   published_on TIMESTAMP,
   event_rating INTEGER,
   number_of_likes INTEGER,
+  event_views BIGINT DEFAULT 0 NOT NULL,
   CONSTRAINT pk_events PRIMARY KEY (event_id),
   CONSTRAINT fk_initiator_id FOREIGN KEY (initiator_id) REFERENCES users(user_id) ON DELETE CASCADE,
   CONSTRAINT fk_category_id FOREIGN KEY (category_id) REFERENCES categories(category_id) ON DELETE RESTRICT,
   CONSTRAINT UQ_INITIATOR_TITLE_EVENT_DATE UNIQUE (initiator_id, event_title, event_date)
 );
 
+CREATE INDEX IDX_EVENTS_STATE_DATE ON events (event_state, event_date, event_id);
+CREATE INDEX IDX_EVENTS_STATE_VIEWS ON events (event_state, event_views DESC, event_id);
+CREATE INDEX IDX_EVENTS_STATE_RATING ON events (event_state, event_rating DESC, event_id);
+
 CREATE TABLE compilations (
   compilation_id INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   compilation_title VARCHAR(50) NOT NULL,
@@ -0,0 +1,136 @@
+package ru.practicum.explore_with_me.main_service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.event.EventState;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder.PageCursor;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder.SortBy;
+import ru.practicum.explore_with_me.main_service.model.rest_dto.event.EventRestViewShort;
+import ru.practicum.explore_with_me.main_service.model.rest_dto.event.HttpPublicGetAllRequestParamsHolder;
+import ru.practicum.explore_with_me.main_service.service.EventService;
+import ru.practicum.explore_with_me.main_service.util.PageCursorCodec;
+import ru.practicum.explore_with_me.stats_service.client_submodule.StatsClient;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EwmConstants;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatsQuery;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.when;
+
+// Запуск: mvn test -Dbenchmarks=true -Dtest=EventPagingBenchmarkTest
+@Slf4j
+@Transactional
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class EventPagingBenchmarkTest {
+    private static final int EVENTS_COUNT = 100_000;
+    private static final int PAGE_SIZE = 10;
+    private static final int MEASUREMENTS_COUNT = 50;
+    private final EventService eventService;
+    private final JdbcTemplate jdbcTemplate;
+    @MockBean
+    StatsClient statsClient;
+
+    @Test
+    public void compareOffsetAndCursorPagingOnDeepPages() {
+        when(statsClient.queryUriStats(Mockito.any(UriStatsQuery.class)))
+                .thenReturn(ResponseEntity.ok(new UriStatRestView[] {}));
+        long initiatorId = insertAndGetId("INSERT INTO users (user_name, email, user_rating) " +
+                        "VALUES ('initiator', 'i@email.com', 0)",
+                "SELECT user_id FROM users WHERE email = 'i@email.com'");
+        long categoryId = insertAndGetId("INSERT INTO categories (category_name) VALUES ('benchmark')",
+                "SELECT category_id FROM categories WHERE category_name = 'benchmark'");
+        LocalDateTime firstEventDate = LocalDateTime.now().plusYears(1).truncatedTo(ChronoUnit.SECONDS);
+        List<Object[]> events = new ArrayList<>(EVENTS_COUNT);
+        for (int i = 0; i < EVENTS_COUNT; i++) {
+            events.add(new Object[] {"title_" + i, "annotation_" + i, "description_" + i,
+                    Timestamp.valueOf(firstEventDate.plusMinutes(i / 3)), EventState.PUBLISHED.name(), initiatorId,
+                    categoryId, i % 1_000});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO events (event_title, event_annotation, event_description, event_date, " +
+                "event_state, initiator_id, category_id, event_views, geo_latitude, geo_longitude, " +
+                "participant_limit, confirmed_requests, paid, request_moderation, event_rating, number_of_likes) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, 0, 0, 0, FALSE, FALSE, 0, 0)", events);
+
+        for (int from : new int[] {0, EVENTS_COUNT / 10, EVENTS_COUNT - PAGE_SIZE}) {
+            for (SortBy sort : new SortBy[] {SortBy.EVENT_DATE, SortBy.VIEWS}) {
+                String cursor = from == 0 ? "" : getCursorBefore(sort, from);
+                List<Long> offsetIds = measure(String.format("offset %s page from %d", sort, from), () ->
+                        getEventIds(createParams(sort, from, null)));
+                List<Long> cursorIds = measure(String.format("cursor %s page from %d", sort, from), () ->
+                        getEventIds(createParams(sort, 0, cursor)));
+                assertThat(cursorIds, equalTo(offsetIds));
+            }
+        }
+    }
+
+    private long insertAndGetId(String insert, String select) {
+        jdbcTemplate.update(insert);
+        return jdbcTemplate.queryForObject(select, Long.class);
+    }
+
+    // Курсор, который выдали бы клиенту вместе с предыдущей страницей
+    private String getCursorBefore(SortBy sort, int from) {
+        String orderBy = sort == SortBy.VIEWS ? "event_views DESC, event_id" : "event_date, event_id";
+        Map<String, Object> lastEvent = jdbcTemplate.queryForMap("SELECT event_id, event_date, event_views " +
+                "FROM events ORDER BY " + orderBy + " LIMIT 1 OFFSET ?", from - 1);
+        String lastKey = sort == SortBy.VIEWS ? String.valueOf(lastEvent.get("event_views")) :
+                ((Timestamp) lastEvent.get("event_date")).toLocalDateTime().format(EwmConstants.FORMATTER);
+        return PageCursorCodec.encode(PageCursor.builder()
+                .sort(sort.name())
+                .lastKey(lastKey)
+                .lastId(((Number) lastEvent.get("event_id")).longValue())
+                .build());
+    }
+
+    private HttpPublicGetAllRequestParamsHolder createParams(SortBy sort, int from, String cursor) {
+        return HttpPublicGetAllRequestParamsHolder.builder()
+                .sort(sort.name())
+                .from(from)
+                .size(PAGE_SIZE)
+                .cursor(cursor)
+                .build();
+    }
+
+    private List<Long> getEventIds(HttpPublicGetAllRequestParamsHolder params) {
+        List<EventRestViewShort> events = params.getCursor() == null ?
+                eventService.getAllEventsByParametersForAnyone(params) :
+                eventService.getEventsPageByParametersForAnyone(params).getItems();
+        return events.stream()
+                .map(EventRestViewShort::getId)
+                .collect(Collectors.toList());
+    }
+
+    private <T> T measure(String mode, Supplier<T> request) {
+        T result = request.get();  // Прогрев
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < MEASUREMENTS_COUNT; i++) {
+            result = request.get();
+        }
+        log.info("Mean latency of {} request: {} ms", mode,
+                (System.nanoTime() - startNanos) / MEASUREMENTS_COUNT / 1_000_000.0D);
+        return result;
+    }
+
+}
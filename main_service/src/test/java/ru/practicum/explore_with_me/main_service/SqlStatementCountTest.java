@@ -0,0 +1,162 @@
+package ru.practicum.explore_with_me.main_service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+import ru.practicum.explore_with_me.main_service.model.db_entities.CategoryEntity;
+import ru.practicum.explore_with_me.main_service.model.db_entities.CompilationEntity;
+import ru.practicum.explore_with_me.main_service.model.db_entities.LikeEntity;
+import ru.practicum.explore_with_me.main_service.model.db_entities.UserEntity;
+import ru.practicum.explore_with_me.main_service.model.db_entities.event.EventEntity;
+import ru.practicum.explore_with_me.main_service.model.db_entities.event.GeoLocationEntity;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.event.EventState;
+import ru.practicum.explore_with_me.main_service.util.SqlStatementCounter;
+import ru.practicum.explore_with_me.stats_service.client_submodule.StatsClient;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatsQuery;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Число запросов не должно зависеть от размера страницы: у каждого события свои инициатор и категория,
+// поэтому их ленивая загрузка по одному сразу увеличит счётчик
+@Transactional
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+public class SqlStatementCountTest {
+    private static final int EVENTS_COUNT = 6;
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @MockBean
+    private StatsClient statsClient;
+    private SqlStatementCounter sqlStatementCounter;
+    private final List<EventEntity> events = new ArrayList<>();
+    private long compilationId;
+
+    @BeforeEach
+    public void prepareDbForTest() {
+        when(statsClient.queryUriStats(Mockito.any(UriStatsQuery.class)))
+                .thenReturn(ResponseEntity.ok(new UriStatRestView[] {}));
+        LocalDateTime eventDate = LocalDateTime.now().plusYears(1).truncatedTo(ChronoUnit.SECONDS);
+        CompilationEntity compilation = new CompilationEntity();
+        compilation.setTitle("compilation");
+        entityManager.persist(compilation);
+        compilationId = compilation.getId();
+        for (int i = 0; i < EVENTS_COUNT; i++) {
+            UserEntity initiator = new UserEntity();
+            initiator.setName("initiator_" + i);
+            initiator.setEmail("initiator_" + i + "@email.com");
+            entityManager.persist(initiator);
+            CategoryEntity category = new CategoryEntity();
+            category.setName("category_" + i);
+            entityManager.persist(category);
+            EventEntity event = new EventEntity();
+            event.setTitle("title_" + i);
+            event.setAnnotation("annotation_of_event_" + i);
+            event.setDescription("description_of_event_" + i);
+            event.setEventDate(eventDate.plusDays(i));
+            event.setState(EventState.PUBLISHED.name());
+            event.setLocation(new GeoLocationEntity());
+            event.setInitiator(initiator);
+            event.setCategory(category);
+            event.setCompilations(new HashSet<>(Set.of(compilation)));
+            entityManager.persist(event);
+            events.add(event);
+            LikeEntity like = new LikeEntity();
+            like.setUser(events.get(0).getInitiator());
+            like.setEvent(event);
+            like.setLike(true);
+            like.setClickedOn(LocalDateTime.now());
+            entityManager.persist(like);
+        }
+        CompilationEntity anotherCompilation = new CompilationEntity();
+        anotherCompilation.setTitle("another_compilation");
+        entityManager.persist(anotherCompilation);
+        events.get(1).getCompilations().add(anotherCompilation);
+        entityManager.flush();
+        entityManager.clear();  // Иначе инициаторы и категории возьмутся из контекста без запросов
+        sqlStatementCounter = new SqlStatementCounter(entityManagerFactory);
+    }
+
+    @Test
+    public void getPublicEvents_whenPageOfEvents_thenOneStatement() throws Exception {
+        assertThat(countStatements(get("/events").param("size", "10")), equalTo(1L));
+        assertThat(countStatements(get("/events").param("cursor", "").param("size", "10")), equalTo(1L));
+        assertThat(countStatements(get("/events").param("sort", "VIEWS").param("size", "10")), equalTo(1L));
+    }
+
+    @Test
+    public void getEventById_whenPublishedEvent_thenOneStatement() throws Exception {
+        assertThat(countStatements(get("/events/{event_id}", events.get(0).getId()), false), equalTo(1L));
+    }
+
+    @Test
+    public void getAdminEvents_whenPageOfEvents_thenOneStatement() throws Exception {
+        assertThat(countStatements(get("/admin/events").param("size", "10")), equalTo(1L));
+        assertThat(countStatements(get("/admin/events").param("cursor", "").param("size", "10")), equalTo(1L));
+    }
+
+    @Test
+    public void getEventsOfUser_whenPageOfEvents_thenOneStatement() throws Exception {
+        assertThat(countStatements(get("/users/{user_id}/events", events.get(0).getInitiator().getId())),
+                equalTo(1L));
+    }
+
+    @Test
+    public void getCompilations_whenPageOfCompilations_thenStatementForPageAndStatementForEvents() throws Exception {
+        assertThat(countStatements(get("/compilations").param("size", "10")), equalTo(2L));
+        assertThat(countStatements(get("/compilations/{compilation_id}", compilationId), false), equalTo(1L));
+    }
+
+    @Test
+    public void getLikedEvents_whenUserLikedEvents_thenStatementForUserAndStatementForLikes() throws Exception {
+        assertThat(countStatements(get("/users/{user_id}/likes", events.get(0).getInitiator().getId()), false),
+                equalTo(2L));
+    }
+
+    private long countStatements(MockHttpServletRequestBuilder request) throws Exception {
+        return countStatements(request, true);
+    }
+
+    private long countStatements(MockHttpServletRequestBuilder request, boolean isList) throws Exception {
+        long statementsCount = sqlStatementCounter.count(() -> {
+            if (isList) {
+                mvc.perform(request)
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$", not(empty())));
+            } else {
+                mvc.perform(request)
+                        .andExpect(status().isOk());
+            }
+        });
+        entityManager.clear();  // Следующий запрос не должен получить сущности из контекста предыдущего
+        return statementsCount;
+    }
+
+}
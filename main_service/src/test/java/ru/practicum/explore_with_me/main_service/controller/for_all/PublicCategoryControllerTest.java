@@ -13,6 +13,7 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
 
 import ru.practicum.explore_with_me.main_service.controller.ExploreWithMeExceptionHandler;
+import ru.practicum.explore_with_me.main_service.model.rest_dto.CursorPage;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.category.CategoryRestView;
 import ru.practicum.explore_with_me.main_service.service.*;
 
@@ -24,6 +25,7 @@ import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -68,6 +70,54 @@ public class PublicCategoryControllerTest {
                 .getAllCategories(Mockito.anyInt(), Mockito.anyInt());
     }
 
+    @Test
+    public void getAllCategories_whenGetCursor_thenReturnPageAfterCursorAndNextCursorInHeader() throws Exception {
+        List<CategoryRestView> listOfCategories = List.of(CategoryRestView.builder()
+                .id(2L)
+                .name("category")
+                .build());
+        when(categoryService.getCategoriesAfterCursor("cursor_1", 1))
+                .thenReturn(CursorPage.<CategoryRestView>builder()
+                        .items(listOfCategories)
+                        .nextCursor("cursor_2")
+                        .build());
+
+        mvc.perform(get("/categories")
+                        .param("cursor", "cursor_1")
+                        .param("size", "1")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CursorPage.NEXT_CURSOR_HEADER, "cursor_2"))
+                .andExpect(jsonPath("$[0].id", is(2)));
+
+        verify(categoryService, Mockito.never()).getAllCategories(Mockito.anyInt(), Mockito.anyInt());
+    }
+
+    @Test
+    public void getAllCategories_whenIncludeTotal_thenReturnTotalCountInHeader() throws Exception {
+        when(categoryService.getAllCategories(0, 10)).thenReturn(Collections.emptyList());
+        when(categoryService.countCategories()).thenReturn(42L);
+
+        mvc.perform(get("/categories")
+                        .param("includeTotal", "true")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CursorPage.TOTAL_COUNT_HEADER, "42"));
+
+        mvc.perform(get("/categories")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(CursorPage.TOTAL_COUNT_HEADER));
+
+        verify(categoryService, Mockito.times(1)).countCategories();
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"1L", "0.1234", "foo", "0.1234F", "/", " ", "\n", "\r", "\t", "true"})
     public void getCategoriesByIds_whenGetIncorrectRequestParameters_thenThrowException(String value) throws Exception {
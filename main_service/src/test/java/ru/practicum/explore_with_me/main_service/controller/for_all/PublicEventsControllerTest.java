@@ -1,26 +1,29 @@
 package ru.practicum.explore_with_me.main_service.controller.for_all;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
 
+import ru.practicum.explore_with_me.main_service.config.StatsClientConfig;
+import ru.practicum.explore_with_me.main_service.config.StatsIntegrationProperties;
 import ru.practicum.explore_with_me.main_service.mapper.EventMapperImpl;
 import ru.practicum.explore_with_me.main_service.model.domain_pojo.event.EventState;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.category.CategoryRestView;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.event.*;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.user.UserShort;
 import ru.practicum.explore_with_me.main_service.service.*;
+import ru.practicum.explore_with_me.main_service.util.StatsCircuitBreaker;
+import ru.practicum.explore_with_me.main_service.util.StatsHitRecorder;
 import ru.practicum.explore_with_me.main_service.util.StatsServiceIntegrator;
 import ru.practicum.explore_with_me.stats_service.client_submodule.StatsClient;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EwmConstants;
-import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestView;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
@@ -33,7 +36,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = {PublicEventController.class})
-@ContextConfiguration(classes = { PublicEventController.class, StatsServiceIntegrator.class, EventMapperImpl.class })
+@ContextConfiguration(classes = { PublicEventController.class, StatsServiceIntegrator.class, EventMapperImpl.class,
+        StatsIntegrationProperties.class, StatsClientConfig.class, StatsCircuitBreaker.class,
+        SimpleMeterRegistry.class })
 public class PublicEventsControllerTest {
     @Autowired
     ObjectMapper objectMapper;
@@ -41,6 +46,8 @@ public class PublicEventsControllerTest {
     EventService eventService;
     @MockBean
     StatsClient statsClient;
+    @MockBean
+    StatsHitRecorder statsHitRecorder;
     @Autowired
     private MockMvc mvc;
 
@@ -92,8 +99,6 @@ public class PublicEventsControllerTest {
     public void getEventById_whenReceiveCorrectParameters_thenReturnEventRestView() throws Exception {
         when(eventService.getEventById(Mockito.anyLong()))
                 .thenReturn(event);
-        when(statsClient.addNewHit(Mockito.anyString(), Mockito.anyString()))
-                .thenReturn(ResponseEntity.ok(HitRestView.builder().build()));
 
         mvc.perform(get("/events/1")
                         .characterEncoding(StandardCharsets.UTF_8)
@@ -123,7 +128,9 @@ public class PublicEventsControllerTest {
 
         verify(eventService, Mockito.times(1))
                 .getEventById(Mockito.anyLong());
-        verify(statsClient, Mockito.times(1))
+        verify(statsHitRecorder, Mockito.times(1))
+                .record(Mockito.anyString(), Mockito.anyString());
+        verify(statsClient, Mockito.never())
                 .addNewHit(Mockito.anyString(), Mockito.anyString());
     }
 
@@ -131,9 +138,6 @@ public class PublicEventsControllerTest {
     public void getAllEventsByParameters_whenDoNotReceiveParameters_thenReturnListOfEventRestView() throws Exception {
         when(eventService.getAllEventsByParametersForAnyone(Mockito.any(HttpPublicGetAllRequestParamsHolder.class)))
                 .thenReturn(List.of(eventShort));
-        when(statsClient.addNewHit(Mockito.anyString(), Mockito.anyString()))
-                .thenReturn(ResponseEntity.ok(HitRestView.builder().build()));
-
 
         mvc.perform(get("/events")
                         .characterEncoding(StandardCharsets.UTF_8)
@@ -145,7 +149,9 @@ public class PublicEventsControllerTest {
 
         verify(eventService, Mockito.times(1))
                 .getAllEventsByParametersForAnyone(Mockito.any(HttpPublicGetAllRequestParamsHolder.class));
-        verify(statsClient, Mockito.times(1))
+        verify(statsHitRecorder, Mockito.times(1))
+                .record(Mockito.anyString(), Mockito.anyString());
+        verify(statsClient, Mockito.never())
                 .addNewHit(Mockito.anyString(), Mockito.anyString());
     }
 
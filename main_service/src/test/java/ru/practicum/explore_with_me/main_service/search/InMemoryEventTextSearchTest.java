@@ -0,0 +1,79 @@
+package ru.practicum.explore_with_me.main_service.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.explore_with_me.main_service.model.db_entities.event.EventEntity;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.event.EventState;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class InMemoryEventTextSearchTest {
+    private final InMemoryEventTextSearch eventTextSearch = new InMemoryEventTextSearch(null);
+
+    @Test
+    public void findPublishedEventIds_whenWordsInAnnotationAndDescription_thenAnnotationMatchesRankHigher() {
+        eventTextSearch.onEventSaved(createEventEntity(1L, "Evening concert", "Jazz music in the park",
+                EventState.PUBLISHED));
+        eventTextSearch.onEventSaved(createEventEntity(2L, "Jazz concert festival", "Open air",
+                EventState.PUBLISHED));
+        eventTextSearch.onEventSaved(createEventEntity(3L, "Jazz lecture", "History of the genre",
+                EventState.PUBLISHED));
+
+        assertThat(eventTextSearch.findPublishedEventIds("JAZZ concert", 10), contains(2L, 1L));
+        assertThat(eventTextSearch.findPublishedEventIds("jazz", 10), hasSize(3));
+        assertThat(eventTextSearch.findPublishedEventIds("jazz", 1), hasSize(1));
+        assertThat(eventTextSearch.findPublishedEventIds("jazz opera", 10), empty());
+        assertThat(eventTextSearch.findPublishedEventIds(" ,. ", 10), empty());
+    }
+
+    @Test
+    public void onEventSaved_whenEventChangedOrNotPublished_thenIndexFollowsIt() {
+        eventTextSearch.onEventSaved(createEventEntity(1L, "Chess tournament", "Blitz games", EventState.PUBLISHED));
+        eventTextSearch.onEventSaved(createEventEntity(2L, "Chess lesson", "For beginners", EventState.PENDING));
+        assertThat(eventTextSearch.findPublishedEventIds("chess", 10), contains(1L));
+
+        eventTextSearch.onEventSaved(createEventEntity(1L, "Go tournament", "Blitz games", EventState.PUBLISHED));
+        eventTextSearch.onEventSaved(createEventEntity(2L, "Chess lesson", "For beginners", EventState.PUBLISHED));
+        assertThat(eventTextSearch.findPublishedEventIds("chess", 10), contains(2L));
+        assertThat(eventTextSearch.findPublishedEventIds("tournament", 10), contains(1L));
+
+        eventTextSearch.onEventSaved(createEventEntity(2L, "Chess lesson", "For beginners", EventState.CANCELED));
+        assertThat(eventTextSearch.findPublishedEventIds("chess", 10), empty());
+    }
+
+    @Test
+    public void onEventSaved_whenTransactionIsActive_thenIndexChangesOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            eventTextSearch.onEventSaved(createEventEntity(1L, "Chess tournament", "Blitz games",
+                    EventState.PUBLISHED));
+            assertThat(eventTextSearch.findPublishedEventIds("chess", 10), empty());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(eventTextSearch.findPublishedEventIds("chess", 10), contains(1L));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {  // Без afterCommit, как при откате транзакции, индекс остаётся прежним
+            eventTextSearch.onEventSaved(createEventEntity(1L, "Chess tournament", "Blitz games",
+                    EventState.CANCELED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(eventTextSearch.findPublishedEventIds("chess", 10), contains(1L));
+    }
+
+    private EventEntity createEventEntity(long id, String annotation, String description, EventState state) {
+        EventEntity eventEntity = new EventEntity();
+        eventEntity.setId(id);
+        eventEntity.setAnnotation(annotation);
+        eventEntity.setDescription(description);
+        eventEntity.setState(state.name());
+        return eventEntity;
+    }
+
+}
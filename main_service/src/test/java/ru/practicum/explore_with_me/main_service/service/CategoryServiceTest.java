@@ -10,9 +10,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.explore_with_me.main_service.exception.BadRequestParameterException;
 import ru.practicum.explore_with_me.main_service.exception.ObjectNotFoundException;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder.PageCursor;
+import ru.practicum.explore_with_me.main_service.model.rest_dto.CursorPage;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.category.CategoryRestCommand;
 import ru.practicum.explore_with_me.main_service.model.rest_dto.category.CategoryRestView;
+import ru.practicum.explore_with_me.main_service.util.PageCursorCodec;
 
 import javax.validation.ConstraintViolationException;
 
@@ -186,6 +190,39 @@ public class CategoryServiceTest {
                 "': category is not found"));
     }
 
+    @Test
+    public void getCategoriesAfterCursor_whenFollowNextCursors_thenReturnEveryCategoryOnce() {
+        CategoryRestView thirdCategory = categoryService.saveNewCategory(initializeCategoryRestCommand("category_3"));
+
+        CursorPage<CategoryRestView> page = categoryService.getCategoriesAfterCursor("", 2);
+        assertThat(page.getItems(), contains(firstCategory, secondCategory));
+        assertThat(page.getNextCursor(), notNullValue());
+
+        page = categoryService.getCategoriesAfterCursor(page.getNextCursor(), 2);
+        assertThat(page.getItems(), contains(thirdCategory));
+        assertThat(page.getNextCursor(), nullValue());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"foo", "Zm9vOmJhcjo", "SUQ6MDo", "SUQ6LTE6"})
+    public void getCategoriesAfterCursor_whenGetMalformedCursor_thenThrowException(String cursor) {
+        assertThrows(BadRequestParameterException.class, () -> categoryService.getCategoriesAfterCursor(cursor, 2));
+    }
+
+    @Test
+    public void getCategoriesAfterCursor_whenGetCursorOfAnotherSort_thenThrowException() {
+        String cursor = PageCursorCodec.encode(PageCursor.builder()
+                .sort("VIEWS")
+                .lastKey("10")
+                .lastId(firstCategory.getId())
+                .build());
+
+        BadRequestParameterException exception = assertThrows(BadRequestParameterException.class, () ->
+                categoryService.getCategoriesAfterCursor(cursor, 2));
+        assertThat(exception.getMessage(), equalTo("Wrong method parameter: cursor was issued for sort 'VIEWS' " +
+                "and can't be used with sort 'ID'"));
+    }
+
     private CategoryRestCommand initializeCategoryRestCommand(String name) {
         CategoryRestCommand categoryRestCommand = new CategoryRestCommand();
         categoryRestCommand.setName(name);
@@ -0,0 +1,192 @@
+package ru.practicum.explore_with_me.main_service.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import ru.practicum.explore_with_me.main_service.exception.BadRequestParameterException;
+import ru.practicum.explore_with_me.main_service.model.db_entities.CategoryEntity;
+import ru.practicum.explore_with_me.main_service.model.db_entities.UserEntity;
+import ru.practicum.explore_with_me.main_service.model.db_entities.event.EventEntity;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.event.EventState;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.params_holder.SortBy;
+import ru.practicum.explore_with_me.main_service.model.rest_dto.CursorPage;
+import ru.practicum.explore_with_me.main_service.model.rest_dto.event.EventRestViewShort;
+import ru.practicum.explore_with_me.main_service.model.rest_dto.event.HttpAdminGetAllRequestParamsHolder;
+import ru.practicum.explore_with_me.main_service.model.rest_dto.event.HttpPublicGetAllRequestParamsHolder;
+import ru.practicum.explore_with_me.main_service.repository.CategoryRepository;
+import ru.practicum.explore_with_me.main_service.repository.EventRepository;
+import ru.practicum.explore_with_me.main_service.repository.UserRepository;
+import ru.practicum.explore_with_me.stats_service.client_submodule.StatsClient;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EwmConstants;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatsQuery;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Transactional
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class EventCursorPagingTest {
+    private static final int EVENTS_COUNT = 7;
+    private final EventService eventService;
+    private final EventRepository eventRepository;
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    @MockBean
+    StatsClient statsClient;
+
+    @BeforeEach
+    public void prepareDbForTest() {
+        when(statsClient.queryUriStats(Mockito.any(UriStatsQuery.class)))
+                .thenReturn(ResponseEntity.ok(new UriStatRestView[] {}));
+        UserEntity initiator = new UserEntity();
+        initiator.setName("initiator");
+        initiator.setEmail("initiator@email.com");
+        initiator = userRepository.save(initiator);
+        CategoryEntity category = new CategoryEntity();
+        category.setName("category");
+        category = categoryRepository.save(category);
+        LocalDateTime eventDate = LocalDateTime.now().plusYears(1).truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < EVENTS_COUNT; i++) {
+            EventEntity eventEntity = new EventEntity();
+            eventEntity.setTitle("title_" + i);
+            eventEntity.setAnnotation("annotation_of_event_" + i);
+            eventEntity.setDescription("description_of_event_" + i);
+            eventEntity.setEventDate(eventDate.plusDays(i / 2));  // У пар событий одинаковая дата
+            eventEntity.setState(EventState.PUBLISHED.name());
+            eventEntity.setRating(i % 3);
+            eventEntity.setInitiator(initiator);
+            eventEntity.setCategory(category);
+            long eventId = eventRepository.save(eventEntity).getId();
+            jdbcTemplate.update("UPDATE events SET event_views = ? WHERE event_id = ?", (i * 5L) % 4, eventId);
+        }
+        entityManager.flush();
+        entityManager.clear();  // Иначе сервис получит сохранённые сущности без просмотров, записанных мимо JPA
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SortBy.class, names = {"EVENT_DATE", "VIEWS", "RATING"})
+    public void getEventsPageByParametersForAnyone_whenFollowNextCursors_thenReturnSameOrderAsOffsetPaging(
+            SortBy sort) {
+        List<Long> expectedIds = eventService.getAllEventsByParametersForAnyone(createPublicParams(sort, null, 0,
+                        EVENTS_COUNT)).stream()
+                .map(EventRestViewShort::getId)
+                .collect(Collectors.toList());
+        assertThat(expectedIds, hasSize(EVENTS_COUNT));
+
+        List<Long> pagedIds = new ArrayList<>();
+        String cursor = "";
+        int pagesCount = 0;
+        while (cursor != null) {
+            CursorPage<EventRestViewShort> page = eventService.getEventsPageByParametersForAnyone(
+                    createPublicParams(sort, cursor, 0, 2));
+            page.getItems().forEach(event -> pagedIds.add(event.getId()));
+            cursor = page.getNextCursor();
+            pagesCount++;
+        }
+        assertThat(pagedIds, equalTo(expectedIds));
+        assertThat(pagesCount, equalTo(4));
+    }
+
+    @Test
+    public void getEventsPageByParametersForAdmin_whenFollowNextCursor_thenReturnEventsAfterLastId() {
+        CursorPage<?> firstPage = eventService.getEventsPageByParametersForAdmin(createAdminParams("", 4));
+        CursorPage<?> lastPage = eventService.getEventsPageByParametersForAdmin(
+                createAdminParams(firstPage.getNextCursor(), 4));
+
+        assertThat(firstPage.getItems(), hasSize(4));
+        assertThat(lastPage.getItems(), hasSize(EVENTS_COUNT - 4));
+        assertThat(lastPage.getNextCursor(), nullValue());
+    }
+
+    @Test
+    public void countEventsByParameters_whenGetCursorOfSecondPage_thenReturnTotalOfAllPages() {
+        // Своё начало диапазона, чтобы не получить из кэша число, посчитанное другим тестом
+        String rangeStart = LocalDateTime.now().format(EwmConstants.FORMATTER);
+        String publicCursor = eventService.getEventsPageByParametersForAnyone(createPublicParams(rangeStart, ""))
+                .getNextCursor();
+        String adminCursor = eventService.getEventsPageByParametersForAdmin(createAdminParams(rangeStart, ""))
+                .getNextCursor();
+
+        assertThat(eventService.countEventsByParametersForAnyone(createPublicParams(rangeStart, publicCursor)),
+                equalTo((long) EVENTS_COUNT));
+        assertThat(eventService.countEventsByParametersForAnyone(createPublicParams(rangeStart, null)),
+                equalTo((long) EVENTS_COUNT));
+        assertThat(eventService.countEventsByParametersForAdmin(createAdminParams(rangeStart, adminCursor)),
+                equalTo((long) EVENTS_COUNT));
+        assertThat(eventService.countEventsByParametersForAdmin(createAdminParams(rangeStart, null)),
+                equalTo((long) EVENTS_COUNT));
+    }
+
+    @Test
+    public void getEventsPageByParametersForAnyone_whenCursorOfAnotherSortOrRelevance_thenThrowException() {
+        String cursor = eventService.getEventsPageByParametersForAnyone(createPublicParams(SortBy.VIEWS, "", 0, 2))
+                .getNextCursor();
+
+        assertThrows(BadRequestParameterException.class, () ->
+                eventService.getEventsPageByParametersForAnyone(createPublicParams(SortBy.RATING, cursor, 0, 2)));
+        assertThrows(BadRequestParameterException.class, () ->
+                eventService.getEventsPageByParametersForAnyone(HttpPublicGetAllRequestParamsHolder.builder()
+                        .text("annotation")
+                        .sort(SortBy.RELEVANCE.name())
+                        .size(2)
+                        .cursor("")
+                        .build()));
+    }
+
+    private HttpPublicGetAllRequestParamsHolder createPublicParams(SortBy sort, String cursor, int from, int size) {
+        return HttpPublicGetAllRequestParamsHolder.builder()
+                .sort(sort.name())
+                .from(from)
+                .size(size)
+                .cursor(cursor)
+                .build();
+    }
+
+    private HttpPublicGetAllRequestParamsHolder createPublicParams(String rangeStart, String cursor) {
+        return HttpPublicGetAllRequestParamsHolder.builder()
+                .rangeStart(rangeStart)
+                .sort(SortBy.VIEWS.name())
+                .size(2)
+                .cursor(cursor)
+                .build();
+    }
+
+    private HttpAdminGetAllRequestParamsHolder createAdminParams(String rangeStart, String cursor) {
+        return HttpAdminGetAllRequestParamsHolder.builder()
+                .rangeStart(rangeStart)
+                .size(2)
+                .cursor(cursor)
+                .build();
+    }
+
+    private HttpAdminGetAllRequestParamsHolder createAdminParams(String cursor, int size) {
+        return HttpAdminGetAllRequestParamsHolder.builder()
+                .size(size)
+                .cursor(cursor)
+                .build();
+    }
+
+}
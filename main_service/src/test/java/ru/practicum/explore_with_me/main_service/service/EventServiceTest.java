@@ -12,6 +12,8 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.explore_with_me.main_service.exception.ObjectModificationException;
 import ru.practicum.explore_with_me.main_service.exception.BadRequestParameterException;
 import ru.practicum.explore_with_me.main_service.exception.ObjectNotFoundException;
@@ -26,8 +28,10 @@ import ru.practicum.explore_with_me.main_service.model.rest_dto.user.UserRestVie
 import ru.practicum.explore_with_me.stats_service.client_submodule.StatsClient;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EwmConstants;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatsQuery;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
@@ -39,7 +43,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Transactional
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "ewm.stats.views.cache.enabled=false")  // Без кэша просмотров каждый запрос доходит до клиента
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class EventServiceTest {
     private final EventService eventService;
@@ -48,7 +53,7 @@ public class EventServiceTest {
     @MockBean
     StatsClient statsClient;
 
-    private static final LocalDateTime DEFAULT_EVENT_DATE = EwmConstants.DEFAULT_DATE_TIME.plusYears(2);
+    private static final LocalDateTime DEFAULT_EVENT_DATE = LocalDateTime.now().plusYears(2).truncatedTo(ChronoUnit.SECONDS);
     private static final GeoLocation DEFAULT_LOCATION = GeoLocation.builder()
             .latitude(7.7D)
             .longitude(7.7D)
@@ -105,8 +110,7 @@ public class EventServiceTest {
         assertTrue(firstEvent.getId() >= 1);
         assertTrue(secondEvent.getId() >= 2);
 
-        when(statsClient.getUriStats(Mockito.any(LocalDateTime.class), Mockito.any(LocalDateTime.class),
-                Mockito.any(String[].class), Mockito.anyBoolean()))
+        when(statsClient.queryUriStats(Mockito.any(UriStatsQuery.class)))
                 .thenReturn(ResponseEntity.ok(new UriStatRestView[] {}));
     }
 
@@ -153,8 +157,7 @@ public class EventServiceTest {
         assertThat(secondEventFromList.getPublishedOn(), nullValue());
 
         verify(statsClient, Mockito.times(1))
-                .getUriStats(Mockito.any(LocalDateTime.class), Mockito.any(LocalDateTime.class),
-                        Mockito.any(String[].class), Mockito.anyBoolean());
+                .queryUriStats(Mockito.any(UriStatsQuery.class));
     }
 
     @Test
@@ -190,8 +193,7 @@ public class EventServiceTest {
                 .build()).get(0)));
 
         verify(statsClient, Mockito.times(4))
-                .getUriStats(Mockito.any(LocalDateTime.class), Mockito.any(LocalDateTime.class),
-                        Mockito.any(String[].class), Mockito.anyBoolean());
+                .queryUriStats(Mockito.any(UriStatsQuery.class));
     }
 
     @Test
@@ -211,8 +213,7 @@ public class EventServiceTest {
         assertThat(events, emptyIterable());
 
         verify(statsClient, Mockito.never())
-                .getUriStats(Mockito.any(LocalDateTime.class), Mockito.any(LocalDateTime.class),
-                        Mockito.any(String[].class), Mockito.anyBoolean());
+                .queryUriStats(Mockito.any(UriStatsQuery.class));
     }
 
     @Test
@@ -253,8 +254,7 @@ public class EventServiceTest {
                 .build()).get(1)));
 
         verify(statsClient, Mockito.times(4))
-                .getUriStats(Mockito.any(LocalDateTime.class), Mockito.any(LocalDateTime.class),
-                        Mockito.any(String[].class), Mockito.anyBoolean());
+                .queryUriStats(Mockito.any(UriStatsQuery.class));
     }
 
     @Test
@@ -273,6 +273,8 @@ public class EventServiceTest {
         eventService.updateEventFromAdmin(secondEvent.getId() + 1, EventRestCommand.builder()
                 .stateAction(StateAction.PUBLISH_EVENT.name())
                 .build());
+        // Транзакция теста откатывается, а индекс текста в памяти меняется только после коммита
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
 
         List<EventRestViewShort> events = eventService.getAllEventsByParametersForAnyone(HttpPublicGetAllRequestParamsHolder
                 .builder()
@@ -291,8 +293,7 @@ public class EventServiceTest {
         assertThat(events.get(1).getId(), equalTo(secondEvent.getId() + 1));
 
         verify(statsClient, Mockito.times(3))
-                .getUriStats(Mockito.any(LocalDateTime.class), Mockito.any(LocalDateTime.class),
-                        Mockito.any(String[].class), Mockito.anyBoolean());
+                .queryUriStats(Mockito.any(UriStatsQuery.class));
     }
 
     @Test
@@ -310,8 +311,7 @@ public class EventServiceTest {
         assertThat(eventFromService, equalTo(firstEvent));
 
         verify(statsClient, Mockito.times(3))
-                .getUriStats(Mockito.any(LocalDateTime.class), Mockito.any(LocalDateTime.class),
-                        Mockito.any(String[].class), Mockito.anyBoolean());
+                .queryUriStats(Mockito.any(UriStatsQuery.class));
     }
 
     @Test
@@ -328,8 +328,7 @@ public class EventServiceTest {
         assertThat(firstEvent.getPublishedOn(), nullValue());
 
         verify(statsClient, Mockito.times(2))
-                .getUriStats(Mockito.any(LocalDateTime.class), Mockito.any(LocalDateTime.class),
-                        Mockito.any(String[].class), Mockito.anyBoolean());
+                .queryUriStats(Mockito.any(UriStatsQuery.class));
     }
 
     @ParameterizedTest
@@ -430,8 +429,7 @@ public class EventServiceTest {
                         .build()));
 
         verify(statsClient, Mockito.never())
-                .getUriStats(Mockito.any(LocalDateTime.class), Mockito.any(LocalDateTime.class),
-                        Mockito.any(String[].class), Mockito.anyBoolean());
+                .queryUriStats(Mockito.any(UriStatsQuery.class));
     }
 
     @Test
@@ -452,8 +450,7 @@ public class EventServiceTest {
                         .build()));
 
         verify(statsClient, Mockito.never())
-                .getUriStats(Mockito.any(LocalDateTime.class), Mockito.any(LocalDateTime.class),
-                        Mockito.any(String[].class), Mockito.anyBoolean());
+                .queryUriStats(Mockito.any(UriStatsQuery.class));
     }
 
     @Test
@@ -481,8 +478,7 @@ public class EventServiceTest {
         assertThat(events.get(1).getId(), equalTo(secondEvent.getId() + 1));
 
         verify(statsClient, Mockito.times(3))
-                .getUriStats(Mockito.any(LocalDateTime.class), Mockito.any(LocalDateTime.class),
-                        Mockito.any(String[].class), Mockito.anyBoolean());
+                .queryUriStats(Mockito.any(UriStatsQuery.class));
     }
 
     @Test
@@ -504,14 +500,12 @@ public class EventServiceTest {
         assertThat(firstEvent.getState(), equalTo(EventState.PENDING.name()));
 
         verify(statsClient, Mockito.times(4))
-                .getUriStats(Mockito.any(LocalDateTime.class), Mockito.any(LocalDateTime.class),
-                        Mockito.any(String[].class), Mockito.anyBoolean());
+                .queryUriStats(Mockito.any(UriStatsQuery.class));
     }
 
     @Test
     public void mapEventEntitiesToEventsWithViews_whenStatsServiceReturnNotCorrectResponse_thenThrowException() {
-        when(statsClient.getUriStats(Mockito.any(LocalDateTime.class), Mockito.any(LocalDateTime.class),
-                Mockito.any(String[].class), Mockito.anyBoolean()))
+        when(statsClient.queryUriStats(Mockito.any(UriStatsQuery.class)))
                 .thenReturn(ResponseEntity.ok(new UriStatRestView[] {UriStatRestView.builder()
                         .application("application")
                         .uri("/events/requests/57")
@@ -27,9 +27,11 @@ import ru.practicum.explore_with_me.main_service.model.rest_dto.user.UserRestVie
 import ru.practicum.explore_with_me.stats_service.client_submodule.StatsClient;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EwmConstants;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatsQuery;
 
 import javax.validation.ConstraintViolationException;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -40,7 +42,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
 @Transactional
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "ewm.stats.views.cache.enabled=false")  // Без кэша просмотров каждый запрос доходит до клиента
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class LikeServiceTest {
     private final LikeService likeService;
@@ -50,7 +53,7 @@ public class LikeServiceTest {
     @MockBean
     StatsClient statsClient;
 
-    private static final LocalDateTime DEFAULT_EVENT_DATE = EwmConstants.DEFAULT_DATE_TIME.plusYears(2);
+    private static final LocalDateTime DEFAULT_EVENT_DATE = LocalDateTime.now().plusYears(2).truncatedTo(ChronoUnit.SECONDS);
     private static final GeoLocation DEFAULT_LOCATION = GeoLocation.builder()
             .latitude(7.7D)
             .longitude(7.7D)
@@ -65,8 +68,7 @@ public class LikeServiceTest {
 
     @BeforeEach
     public void prepareStatsClient() {
-        when(statsClient.getUriStats(Mockito.any(LocalDateTime.class), Mockito.any(LocalDateTime.class),
-                Mockito.any(String[].class), Mockito.anyBoolean()))
+        when(statsClient.queryUriStats(Mockito.any(UriStatsQuery.class)))
                 .thenReturn(ResponseEntity.ok(new UriStatRestView[] {}));
     }
 
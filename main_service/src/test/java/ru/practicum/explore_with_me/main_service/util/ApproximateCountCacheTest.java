@@ -0,0 +1,48 @@
+package ru.practicum.explore_with_me.main_service.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import ru.practicum.explore_with_me.main_service.config.PagingProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ApproximateCountCacheTest {
+    private final AtomicInteger countQueries = new AtomicInteger();
+
+    @Test
+    public void getCount_whenSameFilterShape_thenCountOnceUntilExpiration() throws InterruptedException {
+        ApproximateCountCache cache = createCache(200L);
+
+        assertThat(cache.getCount("categories", this::countCategories), equalTo(1L));
+        assertThat(cache.getCount("categories", this::countCategories), equalTo(1L));
+        assertThat(countQueries.get(), equalTo(1));
+
+        Thread.sleep(300L);
+        assertThat(cache.getCount("categories", this::countCategories), equalTo(2L));
+        assertThat(countQueries.get(), equalTo(2));
+    }
+
+    @Test
+    public void getCount_whenDifferentFilterShapes_thenCountEachOfThem() {
+        ApproximateCountCache cache = createCache(60_000L);
+
+        assertThat(cache.getCount("compilations:pinned=true", () -> 3L), equalTo(3L));
+        assertThat(cache.getCount("compilations:pinned=false", () -> 5L), equalTo(5L));
+        assertThat(cache.getCount("compilations:pinned=true", () -> 100L), equalTo(3L));
+    }
+
+    private ApproximateCountCache createCache(long expireAfterWriteMs) {
+        PagingProperties pagingProperties = new PagingProperties();
+        pagingProperties.getTotalCount().setExpireAfterWriteMs(expireAfterWriteMs);
+        return new ApproximateCountCache(pagingProperties, new SimpleMeterRegistry());
+    }
+
+    private long countCategories() {
+        return countQueries.incrementAndGet();
+    }
+
+}
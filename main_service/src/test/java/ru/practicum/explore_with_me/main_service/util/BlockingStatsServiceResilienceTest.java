@@ -0,0 +1,120 @@
+package ru.practicum.explore_with_me.main_service.util;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.ResponseEntity;
+
+import ru.practicum.explore_with_me.main_service.exception.StatsServiceProblemException;
+import ru.practicum.explore_with_me.main_service.exception.StatsServiceUnavailableException;
+import ru.practicum.explore_with_me.main_service.model.db_entities.event.EventEntity;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.event.Event;
+import ru.practicum.explore_with_me.stats_service.client_submodule.StatsClient;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatsQuery;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "ewm.stats.client.type=blocking",
+        "ewm.stats.views.cache.enabled=false",
+        "ewm.stats.resilience.views-timeout-ms=300",
+        "ewm.stats.resilience.failure-threshold=2",
+        "ewm.stats.resilience.open-state-ms=500"})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BlockingStatsServiceResilienceTest {
+    private final StatsServiceIntegrator integrator;
+    private final StatsCircuitBreaker statsCircuitBreaker;
+    private final StatsServiceHealthIndicator statsServiceHealthIndicator;
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private volatile int stubStatus = 200;
+    private volatile long stubLatencyMs = 0L;
+    @MockBean
+    StatsClient statsClient;
+    @MockBean(name = "statsClock")
+    Clock statsClock;
+
+    @BeforeEach
+    void setUpStubs() {
+        when(statsClock.millis()).thenAnswer(invocation -> now.get());
+        when(statsClient.queryUriStats(Mockito.any(UriStatsQuery.class))).thenAnswer(invocation -> {
+            Thread.sleep(stubLatencyMs);  // Блокирующий клиент держит поток, пока сервер не ответит
+            UriStatsQuery uriStatsQuery = invocation.getArgument(0);
+            if (stubStatus != 200) {
+                return ResponseEntity.status(stubStatus).body(new UriStatRestView[] {UriStatRestView.builder()
+                        .application("Stats_service is broken")
+                        .build()});
+            }
+            return ResponseEntity.ok(uriStatsQuery.getUris().stream()
+                    .map(uri -> UriStatRestView.builder()
+                            .application("ewm-main-service")
+                            .uri(uri)
+                            .hits(5L)
+                            .build())
+                    .toArray(UriStatRestView[]::new));
+        });
+    }
+
+    @Test
+    public void mapEventEntitiesToEventsWithViews_whenBlockingClientWaitsTooLong_thenAbandonRequestAndOpenBreaker() {
+        // Первый запрос может не уложиться в таймаут, пока прогреваются клиент и заглушка сервера
+        await().atMost(Duration.ofSeconds(5L)).until(() -> integrator.mapEventEntitiesToEventsWithViews(
+                List.of(createEventEntity(1L))).get(0).isViewsUnknown(), is(false));
+        List<Event> events = integrator.mapEventEntitiesToEventsWithViews(List.of(createEventEntity(1L)));
+        assertThat(events.get(0).getViews(), equalTo(5L));
+
+        stubLatencyMs = 1_000L;  // Сервер отвечает дольше таймаута просмотров, но быстрее таймаута чтения клиента
+        long startedAt = System.nanoTime();
+        events = integrator.mapEventEntitiesToEventsWithViews(List.of(createEventEntity(1L), createEventEntity(2L)));
+        assertThat(Duration.ofNanos(System.nanoTime() - startedAt), lessThan(Duration.ofMillis(stubLatencyMs)));
+        assertThat(events.get(0).getViews(), equalTo(5L));
+        assertThat(events.get(1).isViewsUnknown(), is(true));
+        await().atMost(Duration.ofSeconds(5L))
+                .until(statsCircuitBreaker::getConsecutiveFailures, equalTo(1));
+
+        stubLatencyMs = 0L;
+        stubStatus = 503;
+        events = integrator.mapEventEntitiesToEventsWithViews(List.of(createEventEntity(3L)));
+        assertThat(events.get(0).isViewsUnknown(), is(true));
+        assertThat(statsCircuitBreaker.getState(), equalTo(StatsCircuitBreaker.State.OPEN));
+        assertThat(statsServiceHealthIndicator.health().getStatus(), equalTo(StatsServiceHealthIndicator.DEGRADED));
+
+        stubStatus = 200;
+        now.addAndGet(500L);
+        events = integrator.mapEventEntitiesToEventsWithViews(List.of(createEventEntity(2L)));
+        assertThat(events.get(0).getViews(), equalTo(5L));
+        assertThat(statsCircuitBreaker.getState(), equalTo(StatsCircuitBreaker.State.CLOSED));
+        assertThat(statsServiceHealthIndicator.health().getStatus(), equalTo(Status.UP));
+    }
+
+    @Test
+    public void mapEventEntitiesToEventsWithViews_whenStatsServerRejectsRequest_thenDoNotHideError() {
+        stubStatus = 400;
+
+        StatsServiceProblemException exception = assertThrows(StatsServiceProblemException.class, () ->
+                integrator.mapEventEntitiesToEventsWithViews(List.of(createEventEntity(4L))));
+        assertThat(exception, not(instanceOf(StatsServiceUnavailableException.class)));
+        assertThat(statsCircuitBreaker.getState(), equalTo(StatsCircuitBreaker.State.CLOSED));
+    }
+
+    private EventEntity createEventEntity(long id) {
+        EventEntity eventEntity = new EventEntity();
+        eventEntity.setId(id);
+        return eventEntity;
+    }
+
+}
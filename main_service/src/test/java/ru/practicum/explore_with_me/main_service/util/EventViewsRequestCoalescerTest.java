@@ -0,0 +1,92 @@
+package ru.practicum.explore_with_me.main_service.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.explore_with_me.main_service.exception.StatsServiceProblemException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class EventViewsRequestCoalescerTest {
+    private final List<List<Long>> loadedBatches = new CopyOnWriteArrayList<>();
+    private final Function<Collection<Long>, CompletableFuture<Map<Long, Long>>> viewsLoader = eventIds -> {
+        loadedBatches.add(new ArrayList<>(eventIds));
+        return CompletableFuture.completedFuture(eventIds.stream()
+                .collect(Collectors.toMap(eventId -> eventId, eventId -> eventId * 10)));
+    };
+    private EventViewsRequestCoalescer coalescer;
+
+    @AfterEach
+    public void shutdown() {
+        coalescer.shutdown();
+    }
+
+    @Test
+    public void getViews_whenConcurrentRequestsForSameAndDifferentEvents_thenLoadThemByOneRequest() throws Exception {
+        coalescer = new EventViewsRequestCoalescer(viewsLoader, 200L, 100, 5_000L);
+        ExecutorService requesters = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> results = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            long eventId = i % 4 + 1;
+            results.add(requesters.submit(() -> {
+                start.await();
+                return EventViewsRequestCoalescer.await(coalescer.getViews(eventId));
+            }));
+        }
+        start.countDown();
+
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i).get(), equalTo((i % 4 + 1) * 10L));
+        }
+        requesters.shutdown();
+        assertThat(loadedBatches, hasSize(1));
+        assertThat(loadedBatches.get(0), containsInAnyOrder(1L, 2L, 3L, 4L));
+    }
+
+    @Test
+    public void getViews_whenBatchIsFull_thenSplitRequests() {
+        coalescer = new EventViewsRequestCoalescer(viewsLoader, 200L, 2, 5_000L);
+
+        Map<Long, Long> views = coalescer.getViews(List.of(1L, 2L, 3L));
+
+        assertThat(views, equalTo(Map.of(1L, 10L, 2L, 20L, 3L, 30L)));
+        assertThat(loadedBatches, everyItem(hasSize(lessThanOrEqualTo(2))));
+        assertThat(loadedBatches.stream().mapToInt(List::size).sum(), equalTo(3));
+    }
+
+    @Test
+    public void getViews_whenLoaderFails_thenFailAllWaitingRequestsAndRetryNextTime() {
+        coalescer = new EventViewsRequestCoalescer(eventIds -> {
+            if (loadedBatches.isEmpty()) {
+                loadedBatches.add(new ArrayList<>(eventIds));
+                throw new StatsServiceProblemException("Stats_service is unavailable");
+            }
+            return viewsLoader.apply(eventIds);
+        }, 50L, 100, 5_000L);
+
+        CompletableFuture<Long> first = coalescer.getViews(1L);
+        CompletableFuture<Long> second = coalescer.getViews(1L);
+
+        StatsServiceProblemException exception = assertThrows(StatsServiceProblemException.class, () ->
+                EventViewsRequestCoalescer.await(first));
+        assertThat(exception.getMessage(), equalTo("Stats_service is unavailable"));
+        assertThat(second, sameInstance(first));
+        assertThat(EventViewsRequestCoalescer.await(coalescer.getViews(1L)), equalTo(10L));
+    }
+
+}
@@ -0,0 +1,105 @@
+package ru.practicum.explore_with_me.main_service.util;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+
+import ru.practicum.explore_with_me.main_service.model.db_entities.CategoryEntity;
+import ru.practicum.explore_with_me.main_service.model.db_entities.UserEntity;
+import ru.practicum.explore_with_me.main_service.model.db_entities.event.EventEntity;
+import ru.practicum.explore_with_me.main_service.model.db_entities.event.QEventEntity;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.event.EventState;
+import ru.practicum.explore_with_me.main_service.repository.CategoryRepository;
+import ru.practicum.explore_with_me.main_service.repository.EventRepository;
+import ru.practicum.explore_with_me.main_service.repository.UserRepository;
+import ru.practicum.explore_with_me.stats_service.client_submodule.StatsClient;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EwmConstants;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatsQuery;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class EventViewsSynchronizerTest {
+    private final EventViewsSynchronizer eventViewsSynchronizer;
+    private final EventRepository eventRepository;
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    @MockBean
+    StatsClient statsClient;
+
+    @AfterEach
+    public void clearDb() {
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    public void synchronize_whenStatsServiceReturnsViews_thenEventsArePagedByViewsInDb() {
+        UserEntity initiator = new UserEntity();
+        initiator.setName("initiator");
+        initiator.setEmail("initiator@email.com");
+        initiator = userRepository.save(initiator);
+        CategoryEntity category = new CategoryEntity();
+        category.setName("category");
+        category = categoryRepository.save(category);
+        long firstEventId = eventRepository.save(createEventEntity("first", initiator, category)).getId();
+        long secondEventId = eventRepository.save(createEventEntity("second", initiator, category)).getId();
+        long thirdEventId = eventRepository.save(createEventEntity("third", initiator, category)).getId();
+        when(statsClient.queryUriStats(Mockito.any(UriStatsQuery.class)))
+                .thenReturn(ResponseEntity.ok(new UriStatRestView[] {
+                        createUriStat(secondEventId, 7L),
+                        createUriStat(thirdEventId, 3L)}));
+
+        assertThat(eventViewsSynchronizer.synchronize(), equalTo(2));
+        assertThat(eventViewsSynchronizer.synchronize(), equalTo(0));  // Неизменившиеся просмотры не перезаписываются
+
+        Sort byViews = Sort.by(Sort.Order.desc("views"), Sort.Order.asc("id"));
+        List<Long> eventIds = eventRepository.findAll(QEventEntity.eventEntity.state.eq(EventState.PUBLISHED.name()),
+                        PageRequest.of(0, 2, byViews)).stream()
+                .map(EventEntity::getId)
+                .collect(Collectors.toList());
+        assertThat(eventIds, contains(secondEventId, thirdEventId));
+        eventIds = eventRepository.findAll(QEventEntity.eventEntity.state.eq(EventState.PUBLISHED.name()),
+                        PageRequest.of(1, 2, byViews)).stream()
+                .map(EventEntity::getId)
+                .collect(Collectors.toList());
+        assertThat(eventIds, contains(firstEventId));
+        assertThat(eventRepository.findById(secondEventId).orElseThrow().getViews(), equalTo(7L));
+    }
+
+    private EventEntity createEventEntity(String title, UserEntity initiator, CategoryEntity category) {
+        EventEntity eventEntity = new EventEntity();
+        eventEntity.setTitle(title);
+        eventEntity.setAnnotation("annotation_of_" + title + "_event");
+        eventEntity.setDescription("description_of_" + title + "_event");
+        eventEntity.setEventDate(EwmConstants.DEFAULT_DATE_TIME.plusYears(2));
+        eventEntity.setState(EventState.PUBLISHED.name());
+        eventEntity.setInitiator(initiator);
+        eventEntity.setCategory(category);
+        return eventEntity;
+    }
+
+    private UriStatRestView createUriStat(long eventId, long hits) {
+        return UriStatRestView.builder()
+                .uri("/events/" + eventId)
+                .uriSuffix(eventId)
+                .hits(hits)
+                .build();
+    }
+
+}
@@ -0,0 +1,126 @@
+package ru.practicum.explore_with_me.main_service.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.ResponseEntity;
+
+import ru.practicum.explore_with_me.main_service.config.StatsIntegrationProperties;
+import ru.practicum.explore_with_me.stats_service.client_submodule.AsyncStatsClient;
+import ru.practicum.explore_with_me.stats_service.client_submodule.StatsClient;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitAcceptanceRestView;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StatsHitRecorderTest {
+    private final StatsClient statsClient = Mockito.mock(StatsClient.class);
+    private StatsHitRecorder recorder;
+
+    @BeforeEach
+    public void setUp() {
+        StatsIntegrationProperties properties = new StatsIntegrationProperties();
+        properties.getHits().setBufferCapacity(3);
+        properties.getHits().setBatchSize(2);
+        properties.getHits().setFlushIntervalMs(60_000L);  // Отправку в тестах запускаем вручную
+        properties.getHits().setMaxAttempts(2);
+        properties.getHits().setRetryBackoffMs(0L);
+        recorder = new StatsHitRecorder(statsClient, Optional.empty(), properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Mockito.reset(statsClient);
+        recorder.shutdown();
+    }
+
+    @Test
+    public void record_whenBufferIsFull_thenDropHitAndIncrementCounter() {
+        recorder.record("ip", "/events/1");
+        recorder.record("ip", "/events/2");
+        recorder.record("ip", "/events/3");
+        recorder.record("ip", "/events/4");
+
+        assertThat(recorder.getBufferedHitsCount(), is(3));
+        assertThat(recorder.getDroppedHitsCount(), is(1.0D));
+        Mockito.verifyNoInteractions(statsClient);
+    }
+
+    @Test
+    public void shipBufferedHits_whenServerAcceptsHits_thenShipThemInBatches() {
+        when(statsClient.addNewHits(anyList()))
+                .thenReturn(ResponseEntity.ok(new HitAcceptanceRestView[] {
+                        HitAcceptanceRestView.builder().index(0).accepted(true).build()}));
+        recorder.record("ip", "/events/1");
+        recorder.record("ip", "/events/2");
+        recorder.record("ip", "/events");
+
+        recorder.shipBufferedHits();
+
+        assertThat(recorder.getBufferedHitsCount(), is(0));
+        verify(statsClient, times(2)).addNewHits(anyList());
+    }
+
+    @Test
+    public void shipBufferedHits_whenServerIsUnavailable_thenRetryAndDropAfterMaxAttempts() {
+        when(statsClient.addNewHits(anyList()))
+                .thenThrow(new IllegalStateException("Connection refused"));
+        recorder.record("ip", "/events/1");
+
+        recorder.shipBufferedHits();
+        assertThat(recorder.getBufferedHitsCount(), is(1));
+        assertThat(recorder.getDroppedHitsCount(), is(0.0D));
+
+        recorder.shipBufferedHits();
+        assertThat(recorder.getBufferedHitsCount(), is(0));
+        assertThat(recorder.getDroppedHitsCount(), is(1.0D));
+        verify(statsClient, times(2)).addNewHits(anyList());
+    }
+
+    @Test
+    public void shipBufferedHits_whenServerRecoversBeforeMaxAttempts_thenShipFailedBatch() {
+        when(statsClient.addNewHits(anyList()))
+                .thenReturn(ResponseEntity.badRequest().body(new HitAcceptanceRestView[] {
+                        HitAcceptanceRestView.builder().index(0).accepted(false).reason("Server error").build()}))
+                .thenReturn(ResponseEntity.ok(new HitAcceptanceRestView[] {
+                        HitAcceptanceRestView.builder().index(0).accepted(true).build()}));
+        recorder.record("ip", "/events/1");
+
+        recorder.shipBufferedHits();
+        recorder.shipBufferedHits();
+
+        assertThat(recorder.getBufferedHitsCount(), is(0));
+        assertThat(recorder.getDroppedHitsCount(), is(0.0D));
+        verify(statsClient, times(2)).addNewHits(anyList());
+    }
+
+    @Test
+    public void shipBufferedHits_whenAsyncClientIsConfigured_thenShipHitsThroughIt() {
+        AsyncStatsClient asyncStatsClient = Mockito.mock(AsyncStatsClient.class);
+        when(asyncStatsClient.addNewHits(anyList()))
+                .thenReturn(CompletableFuture.completedFuture(ResponseEntity.ok(new HitAcceptanceRestView[] {
+                        HitAcceptanceRestView.builder().index(0).accepted(true).build()})));
+        StatsIntegrationProperties properties = new StatsIntegrationProperties();
+        properties.getHits().setFlushIntervalMs(60_000L);
+        StatsHitRecorder asyncRecorder = new StatsHitRecorder(statsClient, Optional.of(asyncStatsClient),
+                properties, new SimpleMeterRegistry());
+        asyncRecorder.record("ip", "/events/1");
+
+        asyncRecorder.shipBufferedHits();
+
+        assertThat(asyncRecorder.getBufferedHitsCount(), is(0));
+        verify(asyncStatsClient, times(1)).addNewHits(anyList());
+        Mockito.verifyNoInteractions(statsClient);
+        asyncRecorder.shutdown();
+    }
+
+}
@@ -2,6 +2,7 @@ package ru.practicum.explore_with_me.main_service.util;
 
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -9,11 +10,16 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 
 import org.springframework.http.ResponseEntity;
 import ru.practicum.explore_with_me.main_service.exception.StatsServiceProblemException;
+import ru.practicum.explore_with_me.main_service.model.db_entities.event.EventEntity;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.event.Event;
 import ru.practicum.explore_with_me.stats_service.client_submodule.StatsClient;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestView;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatsQuery;
 
-import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.mockito.Mockito.when;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -52,8 +58,7 @@ public class StatsServiceIntegratorTest {
 
     @Test
     public void getUriStatsFromService_whenGetNullUriStats_thenThrowException() {
-        when(statsClient.getUriStats(Mockito.any(LocalDateTime.class), Mockito.any(LocalDateTime.class),
-                Mockito.any(String[].class), Mockito.anyBoolean()))
+        when(statsClient.queryUriStats(Mockito.any(UriStatsQuery.class)))
                 .thenReturn(ResponseEntity.badRequest().body(null));
 
         StatsServiceProblemException exception = assertThrows(StatsServiceProblemException.class, () ->
@@ -64,8 +69,7 @@ public class StatsServiceIntegratorTest {
 
     @Test
     public void getUriStatsFromService_whenGetUriStatWithCode400_thenThrowException() {
-        when(statsClient.getUriStats(Mockito.any(LocalDateTime.class), Mockito.any(LocalDateTime.class),
-                Mockito.any(String[].class), Mockito.anyBoolean()))
+        when(statsClient.queryUriStats(Mockito.any(UriStatsQuery.class)))
                 .thenReturn(ResponseEntity.badRequest().body(new UriStatRestView[] {UriStatRestView.builder()
                         .application("Wow! There is exception in Stats_service!")
                         .build()}));
@@ -81,8 +85,7 @@ public class StatsServiceIntegratorTest {
         ResponseEntity<UriStatRestView[]> response = ResponseEntity.ok().body(new UriStatRestView[] {UriStatRestView.builder()
                 .uri("incorrect_uri")
                 .build()});
-        when(statsClient.getUriStats(Mockito.any(LocalDateTime.class), Mockito.any(LocalDateTime.class),
-                Mockito.any(String[].class), Mockito.anyBoolean()))
+        when(statsClient.queryUriStats(Mockito.any(UriStatsQuery.class)))
                 .thenReturn(response);
 
         StatsServiceProblemException exception = assertThrows(StatsServiceProblemException.class, () ->
@@ -91,4 +94,63 @@ public class StatsServiceIntegratorTest {
                 "Stats_service: expected stats for URI '%s', but was for '%s", uri, response.getBody()[0].getUri())));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void getViewsForEvent_whenViewsAreCached_thenDoNotRequestStatsServiceAgain() {
+        when(statsClient.queryUriStats(Mockito.any(UriStatsQuery.class)))
+                .thenReturn(ResponseEntity.ok(new UriStatRestView[] {UriStatRestView.builder()
+                        .uri("/events/1001")
+                        .hits(7L)
+                        .build()}));
+
+        assertThat(integrator.getViewsForEvent(1001L), equalTo(7L));
+        assertThat(integrator.getViewsForEvent(1001L), equalTo(7L));
+
+        Mockito.verify(statsClient, Mockito.times(1)).queryUriStats(Mockito.any(UriStatsQuery.class));
+    }
+
+    @Test
+    public void mapEventEntitiesToEventsWithViews_whenSomeViewsAreNotCached_thenLoadThemByOneRequest() {
+        when(statsClient.queryUriStats(Mockito.any(UriStatsQuery.class)))
+                .thenReturn(ResponseEntity.ok(new UriStatRestView[] {UriStatRestView.builder()
+                        .uri("/events/2001")
+                        .hits(5L)
+                        .build()}))
+                .thenReturn(ResponseEntity.ok(new UriStatRestView[] {UriStatRestView.builder()
+                        .uri("/events/2003")
+                        .hits(3L)
+                        .build()}));
+        integrator.getViewsForEvent(2001L);
+
+        List<Event> events = integrator.mapEventEntitiesToEventsWithViews(List.of(
+                createEventEntity(2001L), createEventEntity(2002L), createEventEntity(2003L)));
+
+        assertThat(events.stream().map(Event::getViews).collect(Collectors.toList()), contains(5L, 0L, 3L));
+        ArgumentCaptor<UriStatsQuery> queryCaptor = ArgumentCaptor.forClass(UriStatsQuery.class);
+        Mockito.verify(statsClient, Mockito.times(2)).queryUriStats(queryCaptor.capture());
+        assertThat(queryCaptor.getAllValues().get(1).getUris(), containsInAnyOrder("/events/2002", "/events/2003"));
+    }
+
+    @Test
+    public void getViewsForAllEvents_whenStatsServiceReturnsUriSuffixes_thenRequestByPrefixAndUseSuffixesAsIds() {
+        when(statsClient.queryUriStats(Mockito.any(UriStatsQuery.class)))
+                .thenReturn(ResponseEntity.ok(new UriStatRestView[] {
+                        UriStatRestView.builder().uri("/events/3001").uriSuffix(3001L).hits(4L).build(),
+                        UriStatRestView.builder().uri("/events/3002").uriSuffix(3002L).hits(2L).build(),
+                        UriStatRestView.builder().uri("/events/3002/comments").hits(9L).build()}));
+
+        Map<Long, Long> views = integrator.getViewsForAllEvents();
+
+        assertThat(views, equalTo(Map.of(3001L, 4L, 3002L, 2L)));
+        ArgumentCaptor<UriStatsQuery> queryCaptor = ArgumentCaptor.forClass(UriStatsQuery.class);
+        Mockito.verify(statsClient).queryUriStats(queryCaptor.capture());
+        assertThat(queryCaptor.getValue().getUriPrefix(), equalTo("/events/"));
+        assertThat(queryCaptor.getValue().getUris(), nullValue());
+    }
+
+    private EventEntity createEventEntity(long id) {
+        EventEntity eventEntity = new EventEntity();
+        eventEntity.setId(id);
+        return eventEntity;
+    }
+
+}
@@ -0,0 +1,151 @@
+package ru.practicum.explore_with_me.main_service.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import ru.practicum.explore_with_me.main_service.model.db_entities.event.EventEntity;
+import ru.practicum.explore_with_me.main_service.model.domain_pojo.event.Event;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "ewm.stats.client.type=async",
+        "ewm.stats.views.cache.enabled=false",
+        "ewm.stats.resilience.views-timeout-ms=300",
+        "ewm.stats.resilience.failure-threshold=2",
+        "ewm.stats.resilience.open-state-ms=500"})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class StatsServiceResilienceTest {
+    private static final HttpServer STUB_STATS_SERVER = startStubStatsServer();
+    private static final AtomicInteger RECEIVED_REQUESTS = new AtomicInteger();
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static volatile int stubStatus = 200;
+    private static volatile long stubLatencyMs = 0L;
+    private final StatsServiceIntegrator integrator;
+    private final StatsCircuitBreaker statsCircuitBreaker;
+    private final StatsServiceHealthIndicator statsServiceHealthIndicator;
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    @MockBean(name = "statsClock")
+    Clock statsClock;
+
+    @DynamicPropertySource
+    static void registerStubStatsServer(DynamicPropertyRegistry registry) {
+        registry.add("ewm.stats.client.base-url", () ->
+                "http://localhost:" + STUB_STATS_SERVER.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopStubStatsServer() {
+        STUB_STATS_SERVER.stop(0);
+    }
+
+    @BeforeEach
+    void setUpClock() {  // Время открытого состояния предохранителя отсчитывается по управляемым часам
+        when(statsClock.millis()).thenAnswer(invocation -> now.get());
+    }
+
+    @Test
+    public void mapEventEntitiesToEventsWithViews_whenStatsServerFails_thenServeLastKnownViewsAndRecover() {
+        // Первый запрос может не уложиться в таймаут, пока прогреваются клиент и заглушка сервера
+        await().atMost(Duration.ofSeconds(5L)).until(() -> integrator.mapEventEntitiesToEventsWithViews(
+                List.of(createEventEntity(1L))).get(0).isViewsUnknown(), is(false));
+        List<Event> events = integrator.mapEventEntitiesToEventsWithViews(List.of(createEventEntity(1L)));
+        assertThat(events.get(0).getViews(), equalTo(5L));
+        assertThat(statsServiceHealthIndicator.health().getStatus(), equalTo(Status.UP));
+
+        stubLatencyMs = 1_000L;  // Сервер отвечает дольше таймаута
+        events = integrator.mapEventEntitiesToEventsWithViews(List.of(createEventEntity(1L), createEventEntity(2L)));
+        assertThat(events.get(0).getViews(), equalTo(5L));
+        assertThat(events.get(0).isViewsUnknown(), is(false));
+        assertThat(events.get(1).getViews(), equalTo(0L));
+        assertThat(events.get(1).isViewsUnknown(), is(true));
+
+        await().atMost(Duration.ofSeconds(5L))  // Брошенный по таймауту запрос засчитывается предохранителю как сбой
+                .until(statsCircuitBreaker::getConsecutiveFailures, equalTo(1));
+        stubLatencyMs = 0L;
+        stubStatus = 500;  // Событие 2 ещё может ждать ответа на прошлый запрос, поэтому спрашиваем другое
+        events = integrator.mapEventEntitiesToEventsWithViews(List.of(createEventEntity(3L)));
+        assertThat(events.get(0).isViewsUnknown(), is(true));
+        assertThat(statsCircuitBreaker.getState(), equalTo(StatsCircuitBreaker.State.OPEN));
+        assertThat(statsServiceHealthIndicator.health().getStatus(), equalTo(StatsServiceHealthIndicator.DEGRADED));
+
+        int receivedRequests = RECEIVED_REQUESTS.get();
+        assertThat(integrator.getViewsForEvent(1L), equalTo(5L));
+        assertThat(RECEIVED_REQUESTS.get(), equalTo(receivedRequests));  // Открытый предохранитель не пускает запросы
+
+        stubStatus = 200;
+        now.addAndGet(500L);
+        events = integrator.mapEventEntitiesToEventsWithViews(List.of(createEventEntity(2L)));
+        assertThat(events.get(0).getViews(), equalTo(5L));
+        assertThat(events.get(0).isViewsUnknown(), is(false));
+        assertThat(statsCircuitBreaker.getState(), equalTo(StatsCircuitBreaker.State.CLOSED));
+        assertThat(statsServiceHealthIndicator.health().getStatus(), equalTo(Status.UP));
+    }
+
+    private static HttpServer startStubStatsServer() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/stats/query", StatsServiceResilienceTest::handleStatsRequest);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+            return server;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static void handleStatsRequest(HttpExchange exchange) throws IOException {
+        RECEIVED_REQUESTS.incrementAndGet();
+        try {
+            Thread.sleep(stubLatencyMs);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        List<String> uris = new ArrayList<>();
+        OBJECT_MAPPER.readTree(exchange.getRequestBody()).get("uris").forEach(uri -> uris.add(uri.asText()));
+        byte[] body = (stubStatus == 200 ? uris.stream()
+                .map(uri -> String.format("{\"app\":\"ewm-main-service\",\"uri\":\"%s\",\"hits\":5}", uri))
+                .collect(Collectors.joining(",", "[", "]")) : "Stats_service is broken")
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(stubStatus, body.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+
+    private EventEntity createEventEntity(long id) {
+        EventEntity eventEntity = new EventEntity();
+        eventEntity.setId(id);
+        return eventEntity;
+    }
+
+}
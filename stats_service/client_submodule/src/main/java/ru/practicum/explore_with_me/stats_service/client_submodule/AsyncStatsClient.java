@@ -0,0 +1,207 @@
+package ru.practicum.explore_with_me.stats_service.client_submodule;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+import ru.practicum.explore_with_me.stats_service.dto_submodule.binary.StatsBinaryCodec;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EventViewsQuery;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitAcceptanceRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestCommand;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatsQuery;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+public class AsyncStatsClient {
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final String baseUrl;
+    private final Duration readTimeout;
+    private final Semaphore permits;
+    private final Queue<Runnable> waitingRequests = new ConcurrentLinkedQueue<>();
+
+    public AsyncStatsClient(String baseUrl, Duration connectTimeout, Duration readTimeout, int maxConcurrentRequests) {
+        // HttpClient держит keep-alive соединения в собственном пуле и переиспользует их между запросами
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build();
+        this.baseUrl = baseUrl;
+        this.readTimeout = readTimeout;
+        this.permits = new Semaphore(maxConcurrentRequests);
+    }
+
+    public CompletableFuture<ResponseEntity<HitRestView>> addNewHit(String ip, String uri) {
+        HitRestCommand hitRestCommand = HitRestCommand.builder()
+                .application("ewm-main-service")
+                .uri(uri)
+                .ip(ip)
+                .timestamp(LocalDateTime.now().format(StatsClient.FORMATTER))
+                .build();
+        return post("/hit", hitRestCommand, HitRestView.class, errorBody -> HitRestView.builder()
+                .application(errorBody)
+                .build());
+    }
+
+    public CompletableFuture<ResponseEntity<HitAcceptanceRestView[]>> addNewHits(List<HitRestCommand> hitRestCommands) {
+        return post("/hits", hitRestCommands, HitAcceptanceRestView[].class, errorBody ->
+                new HitAcceptanceRestView[] {HitAcceptanceRestView.builder()
+                        .reason(errorBody)
+                        .build()});
+    }
+
+    public CompletableFuture<ResponseEntity<HitAcceptanceRestView[]>> addNewHitsBinary(
+            List<HitRestCommand> hitRestCommands) {
+        return postBinary("/hits", StatsBinaryCodec.encodeHits(hitRestCommands), body ->
+                StatsBinaryCodec.decodeHitAcceptances(body).toArray(HitAcceptanceRestView[]::new), errorBody ->
+                new HitAcceptanceRestView[] {HitAcceptanceRestView.builder()
+                        .reason(errorBody)
+                        .build()});
+    }
+
+    public CompletableFuture<ResponseEntity<Map<Long, Long>>> getEventViews(EventViewsQuery eventViewsQuery) {
+        // Как и в StatsClient, просмотры при ошибке сервера возвращаются без тела, только с кодом ответа
+        return postBinary("/stats/events", StatsBinaryCodec.encodeEventViewsQuery(eventViewsQuery),
+                StatsBinaryCodec::decodeEventViews, errorBody -> null);
+    }
+
+    public CompletableFuture<ResponseEntity<UriStatRestView[]>> getUriStats(
+            LocalDateTime start, LocalDateTime end, String[] uris, boolean unique, boolean approximate, Integer limit) {
+        StringBuilder url = new StringBuilder(baseUrl)
+                .append("/stats?start=").append(encode(start != null ? start.format(StatsClient.FORMATTER) : "null"))
+                .append("&end=").append(encode(end != null ? end.format(StatsClient.FORMATTER) : "null"))
+                .append("&uris=").append(encode(uris == null ? "" : String.join(",", uris)))
+                .append("&unique=").append(unique)
+                .append("&approximate=").append(approximate);
+        if (limit != null) {
+            url.append("&limit=").append(limit);
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url.toString()))
+                .timeout(readTimeout)
+                .header("Accept", MediaType.APPLICATION_JSON_VALUE)
+                .GET()
+                .build();
+        return send(request, body -> objectMapper.readValue(body, UriStatRestView[].class), errorBody ->
+                new UriStatRestView[] {UriStatRestView.builder()
+                        .application(errorBody)
+                        .build()});
+    }
+
+    public CompletableFuture<ResponseEntity<UriStatRestView[]>> queryUriStats(UriStatsQuery uriStatsQuery) {
+        return post("/stats/query", uriStatsQuery, UriStatRestView[].class, errorBody ->
+                new UriStatRestView[] {UriStatRestView.builder()
+                        .application(errorBody)
+                        .build()});
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private <T> CompletableFuture<ResponseEntity<T>> post(String path, Object body, Class<T> responseType,
+                                                          Function<String, T> errorBodyFactory) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(readTimeout)
+                    .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                    .header("Accept", MediaType.APPLICATION_JSON_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (JsonProcessingException exception) {
+            return CompletableFuture.failedFuture(new RestClientException("Failed to write request body for " +
+                    "Stats_service", exception));
+        }
+        return send(request, responseBody -> objectMapper.readValue(responseBody, responseType), errorBodyFactory);
+    }
+
+    private <T> CompletableFuture<ResponseEntity<T>> postBinary(String path, byte[] message,
+                                                                ResponseBodyReader<T> responseBodyReader,
+                                                                Function<String, T> errorBodyFactory) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(readTimeout)
+                .header("Content-Type", StatsBinaryCodec.MEDIA_TYPE_VALUE)
+                .header("Accept", StatsBinaryCodec.MEDIA_TYPE_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(message))
+                .build();
+        return send(request, responseBodyReader, errorBodyFactory);
+    }
+
+    private <T> CompletableFuture<ResponseEntity<T>> send(HttpRequest request,
+                                                          ResponseBodyReader<T> responseBodyReader,
+                                                          Function<String, T> errorBodyFactory) {
+        // Как и StatsClient, ошибку сервера возвращаем в теле ответа с её кодом, а сбой соединения - исключением
+        return execute(request).thenApply(response -> {
+            if (response.statusCode() >= 400) {
+                return ResponseEntity.status(response.statusCode()).body(errorBodyFactory.apply(
+                        new String(response.body(), StandardCharsets.UTF_8)));
+            }
+            try {
+                return ResponseEntity.status(HttpStatus.valueOf(response.statusCode()))
+                        .body(responseBodyReader.read(response.body()));
+            } catch (IOException | IllegalArgumentException exception) {
+                throw new RestClientException("Failed to read response of Stats_service", exception);
+            }
+        });
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> execute(HttpRequest request) {
+        CompletableFuture<HttpResponse<byte[]>> result = new CompletableFuture<>();
+        waitingRequests.add(() -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, exception) -> {
+                    permits.release();
+                    startWaitingRequests();
+                    if (exception == null) {
+                        result.complete(response);
+                    } else {
+                        Throwable cause = exception instanceof CompletionException ? exception.getCause() : exception;
+                        result.completeExceptionally(new ResourceAccessException("I/O error on " +
+                                request.method() + " request for \"" + request.uri() + "\": " + cause.getMessage(),
+                                cause instanceof IOException ? (IOException) cause : new IOException(cause)));
+                    }
+                }));
+        startWaitingRequests();
+        return result;
+    }
+
+    private void startWaitingRequests() {
+        // Запросы сверх лимита не блокируют вызывающий поток, а ждут в очереди освобождения одного из слотов
+        while (!waitingRequests.isEmpty() && permits.tryAcquire()) {
+            Runnable request = waitingRequests.poll();
+            if (request == null) {
+                permits.release();  // Очередь разобрал другой поток - проверяем её ещё раз, чтобы не потерять новый запрос
+            } else {
+                request.run();
+            }
+        }
+    }
+
+    private interface ResponseBodyReader<T> {
+
+        T read(byte[] body) throws IOException;
+
+    }
+
+}
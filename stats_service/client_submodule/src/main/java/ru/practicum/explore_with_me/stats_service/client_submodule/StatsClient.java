@@ -1,45 +1,73 @@
 package ru.practicum.explore_with_me.stats_service.client_submodule;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
+import ru.practicum.explore_with_me.stats_service.dto_submodule.binary.StatsBinaryCodec;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EventViewsQuery;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitAcceptanceRestView;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestCommand;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.TimeSeriesBucket;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatsQuery;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriTimeSeriesRestView;
 
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.net.URLEncoder;
 
 @Service
 public class StatsClient {
     public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    public static final MediaType APPLICATION_EWM_STATS = MediaType.parseMediaType(StatsBinaryCodec.MEDIA_TYPE_VALUE);
+    public static final String DEFAULT_BASE_URL = "http://statserver:9090";
+    private static final ObjectReader URI_STAT_READER = new ObjectMapper().readerFor(UriStatRestView.class);
     private final RestTemplate restTemplate;
 
-    @Autowired
     public StatsClient(RestTemplateBuilder builder) {
-        this.restTemplate = builder.uriTemplateHandler(new DefaultUriBuilderFactory("http://statserver:9090"))
+        this(builder, DEFAULT_BASE_URL, 2_000L, 5_000L);
+    }
+
+    // Адрес сервера берётся из того же свойства, что и у AsyncStatsClient, чтобы клиенты не расходились
+    @Autowired
+    public StatsClient(RestTemplateBuilder builder,
+                       @Value("${ewm.stats.client.base-url:" + DEFAULT_BASE_URL + "}") String baseUrl,
+                       @Value("${ewm.stats.client.connect-timeout-ms:2000}") long connectTimeoutMs,
+                       @Value("${ewm.stats.client.read-timeout-ms:5000}") long readTimeoutMs) {
+        this.restTemplate = builder.uriTemplateHandler(new DefaultUriBuilderFactory(baseUrl))
                 .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                .setConnectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .setReadTimeout(Duration.ofMillis(readTimeoutMs))
                 .build();
     }
 
     public ResponseEntity<HitRestView> addNewHit(String ip, String uri) {
-        HttpEntity<HitRestCommand> requestHitEntity = new HttpEntity<>(HitRestCommand.builder()
-                .application("ewm-main-service")
-                .uri(uri)
-                .ip(ip)
-                .timestamp(LocalDateTime.now().format(FORMATTER))
-                .build());
+        HttpEntity<HitRestCommand> requestHitEntity = new HttpEntity<>(createHitRestCommand(ip, uri));
         try {
             return restTemplate.exchange(
                     "/hit",
@@ -47,31 +75,194 @@ public class StatsClient {
                     requestHitEntity,
                     HitRestView.class);
         } catch (HttpStatusCodeException exception) {
-            return ResponseEntity.badRequest().body(HitRestView.builder()
+            return ResponseEntity.status(exception.getStatusCode()).body(HitRestView.builder()
                     .application(exception.getResponseBodyAsString())
                     .build());
         }
     }
 
+    public ResponseEntity<HitAcceptanceRestView[]> addNewHits(List<HitRestCommand> hitRestCommands) {
+        try {
+            return restTemplate.exchange(
+                    "/hits",
+                    HttpMethod.POST,
+                    new HttpEntity<>(hitRestCommands),
+                    HitAcceptanceRestView[].class);
+        } catch (HttpStatusCodeException exception) {
+            return ResponseEntity.status(exception.getStatusCode()).body(new HitAcceptanceRestView[] {
+                    HitAcceptanceRestView.builder()
+                            .reason(exception.getResponseBodyAsString())
+                            .build()});
+        }
+    }
+
+    public ResponseEntity<HitAcceptanceRestView[]> addNewHitsBinary(List<HitRestCommand> hitRestCommands) {
+        try {
+            byte[] response = exchangeBinary("/hits", StatsBinaryCodec.encodeHits(hitRestCommands));
+            return ResponseEntity.ok(decodeBinaryResponse(StatsBinaryCodec::decodeHitAcceptances, response)
+                    .toArray(HitAcceptanceRestView[]::new));
+        } catch (HttpStatusCodeException exception) {
+            return ResponseEntity.status(exception.getStatusCode()).body(new HitAcceptanceRestView[] {
+                    HitAcceptanceRestView.builder()
+                            .reason(exception.getResponseBodyAsString())
+                            .build()});
+        }
+    }
+
+    public ResponseEntity<Map<Long, Long>> getEventViews(EventViewsQuery eventViewsQuery) {
+        try {
+            byte[] response = exchangeBinary("/stats/events", StatsBinaryCodec.encodeEventViewsQuery(eventViewsQuery));
+            return ResponseEntity.ok(decodeBinaryResponse(StatsBinaryCodec::decodeEventViews, response));
+        } catch (HttpStatusCodeException exception) {
+            return ResponseEntity.status(exception.getStatusCode()).build();
+        }
+    }
+
+    public HitRestCommand createHitRestCommand(String ip, String uri) {
+        return HitRestCommand.builder()
+                .application("ewm-main-service")
+                .uri(uri)
+                .ip(ip)
+                .timestamp(LocalDateTime.now().format(FORMATTER))
+                .build();
+    }
+
     public ResponseEntity<UriStatRestView[]> getUriStats(
             LocalDateTime start, LocalDateTime end, String[] uris, boolean unique) {
-        Map<String, Object> parameters = Map.of(
+        return getUriStats(start, end, uris, unique, false);
+    }
+
+    public ResponseEntity<UriStatRestView[]> getUriStats(
+            LocalDateTime start, LocalDateTime end, String[] uris, boolean unique, boolean approximate) {
+        return getUriStats(start, end, uris, unique, approximate, null);
+    }
+
+    public ResponseEntity<UriStatRestView[]> getUriStats(
+            LocalDateTime start, LocalDateTime end, String[] uris, boolean unique, boolean approximate, Integer limit) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "start", start != null ? URLEncoder.encode(start.format(FORMATTER), StandardCharsets.UTF_8) : "null",
                 "end", end != null ? URLEncoder.encode(end.format(FORMATTER), StandardCharsets.UTF_8) : "null",
                 "uris", uris == null ? new String[] {} : uris,
-                "unique", unique
-        );
+                "unique", unique,
+                "approximate", approximate
+        ));
+        String url = "/stats?start={start}&end={end}&uris={uris}&unique={unique}&approximate={approximate}";
+        if (limit != null) {
+            parameters.put("limit", limit);
+            url += "&limit={limit}";
+        }
         try {
             return restTemplate.exchange(
-                    "/stats?start={start}&end={end}&uris={uris}&unique={unique}",
+                    url,
                     HttpMethod.GET,
                     null,
                     UriStatRestView[].class,
                     parameters);
         } catch (HttpStatusCodeException exception) {
-            return ResponseEntity.badRequest().body(new UriStatRestView[] {UriStatRestView.builder()
-                    .application(exception.getResponseBodyAsString())
-                    .build()});
+            return ResponseEntity.status(exception.getStatusCode()).body(new UriStatRestView[] {
+                    UriStatRestView.builder()
+                            .application(exception.getResponseBodyAsString())
+                            .build()});
+        }
+    }
+
+    public ResponseEntity<UriStatRestView[]> queryUriStats(UriStatsQuery uriStatsQuery) {
+        try {  // Список URI передаётся в теле и не ограничен длиной строки запроса
+            return restTemplate.exchange(
+                    "/stats/query",
+                    HttpMethod.POST,
+                    new HttpEntity<>(uriStatsQuery),
+                    UriStatRestView[].class);
+        } catch (HttpStatusCodeException exception) {
+            return ResponseEntity.status(exception.getStatusCode()).body(new UriStatRestView[] {
+                    UriStatRestView.builder()
+                            .application(exception.getResponseBodyAsString())
+                            .build()});
+        }
+    }
+
+    public ResponseEntity<UriTimeSeriesRestView[]> getUriTimeSeries(LocalDateTime start, LocalDateTime end,
+                                                                   String[] uris, String uriPrefix,
+                                                                   TimeSeriesBucket bucket) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
+                "start", start != null ? URLEncoder.encode(start.format(FORMATTER), StandardCharsets.UTF_8) : "null",
+                "end", end != null ? URLEncoder.encode(end.format(FORMATTER), StandardCharsets.UTF_8) : "null",
+                "bucket", bucket
+        ));
+        String url = "/stats/timeseries?start={start}&end={end}&bucket={bucket}";
+        if (uris != null) {
+            parameters.put("uris", uris);
+            url += "&uris={uris}";
+        }
+        if (uriPrefix != null) {
+            parameters.put("uriPrefix", uriPrefix);
+            url += "&uriPrefix={uriPrefix}";
+        }
+        try {
+            return restTemplate.exchange(
+                    url,
+                    HttpMethod.GET,
+                    null,
+                    UriTimeSeriesRestView[].class,
+                    parameters);
+        } catch (HttpStatusCodeException exception) {
+            return ResponseEntity.status(exception.getStatusCode()).body(new UriTimeSeriesRestView[] {
+                    UriTimeSeriesRestView.builder()
+                            .application(exception.getResponseBodyAsString())
+                            .build()});
+        }
+    }
+
+    public ResponseEntity<Long> streamUriStats(LocalDateTime start, LocalDateTime end, String[] uris, boolean unique,
+                                               Consumer<UriStatRestView> consumer) {
+        Map<String, Object> parameters = Map.of(
+                "start", start != null ? URLEncoder.encode(start.format(FORMATTER), StandardCharsets.UTF_8) : "null",
+                "end", end != null ? URLEncoder.encode(end.format(FORMATTER), StandardCharsets.UTF_8) : "null",
+                "uris", uris == null ? new String[] {} : uris,
+                "unique", unique
+        );
+        try {  // Статистика читается построчно и сразу отдаётся потребителю, весь ответ в памяти не собирается
+            Long receivedStatsCount = restTemplate.execute(
+                    "/stats?start={start}&end={end}&uris={uris}&unique={unique}",
+                    HttpMethod.GET,
+                    request -> request.getHeaders().setAccept(List.of(APPLICATION_NDJSON)),
+                    response -> {
+                        long count = 0L;
+                        BufferedReader reader = new BufferedReader(
+                                new InputStreamReader(response.getBody(), StandardCharsets.UTF_8));
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            if (!line.isBlank()) {
+                                consumer.accept(URI_STAT_READER.readValue(line));
+                                count++;
+                            }
+                        }
+                        return count;
+                    },
+                    parameters);
+            return ResponseEntity.ok(receivedStatsCount);
+        } catch (HttpStatusCodeException exception) {
+            return ResponseEntity.status(exception.getStatusCode()).build();
+        }
+    }
+
+    private byte[] exchangeBinary(String url, byte[] message) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(APPLICATION_EWM_STATS);
+        headers.setAccept(List.of(APPLICATION_EWM_STATS));
+        byte[] response = restTemplate.exchange(
+                url,
+                HttpMethod.POST,
+                new HttpEntity<>(message, headers),
+                byte[].class).getBody();
+        return response == null ? new byte[0] : response;
+    }
+
+    private static <T> T decodeBinaryResponse(Function<byte[], T> decoder, byte[] response) {
+        try {
+            return decoder.apply(response);
+        } catch (IllegalArgumentException exception) {
+            throw new RestClientException("Failed to read response of Stats_service: " + exception.getMessage());
         }
     }
 
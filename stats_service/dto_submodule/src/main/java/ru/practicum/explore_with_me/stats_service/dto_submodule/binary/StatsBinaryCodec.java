@@ -0,0 +1,302 @@
+package ru.practicum.explore_with_me.stats_service.dto_submodule.binary;
+
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EventViewsQuery;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EwmConstants;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitAcceptanceRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestCommand;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Формат сообщения: байт версии, байт типа, далее поля. Числа записываются как varint (7 бит на байт), время - как
+// секунды LocalDateTime по UTC. Строка - это 0 для null, 1 с длиной и байтами UTF-8 для новой строки или номер
+// уже встречавшейся в сообщении строки, увеличенный на 2
+public final class StatsBinaryCodec {
+    public static final String MEDIA_TYPE_VALUE = "application/x-ewm-stats";
+    private static final byte VERSION = 1;
+    private static final byte HITS = 1;
+    private static final byte HIT_ACCEPTANCES = 2;
+    private static final byte EVENT_VIEWS_QUERY = 3;
+    private static final byte EVENT_VIEWS = 4;
+
+    private StatsBinaryCodec() {
+    }
+
+    public static byte[] encodeHits(List<HitRestCommand> hitRestCommands) {
+        Writer writer = new Writer(HITS);
+        writer.writeVarLong(hitRestCommands.size());
+        long previousTimestamp = 0L;
+        for (HitRestCommand hit : hitRestCommands) {
+            writer.writeString(hit.getApplication());
+            writer.writeString(hit.getUri());
+            writer.writeString(hit.getIp());
+            // Хиты пачки идут почти по порядку, поэтому разница с предыдущим временем занимает один-два байта
+            long timestamp;
+            try {
+                timestamp = toEpochSecond(LocalDateTime.parse(hit.getTimestamp(), EwmConstants.FORMATTER));
+            } catch (DateTimeParseException | NullPointerException exception) {
+                throw new IllegalArgumentException("Failed to encode hit with timestamp '" + hit.getTimestamp() +
+                        "': timestamp must be in format 'yyyy-MM-dd HH:mm:ss'");
+            }
+            writer.writeVarLong(zigZag(timestamp - previousTimestamp));
+            previousTimestamp = timestamp;
+        }
+        return writer.toByteArray();
+    }
+
+    public static List<HitRestCommand> decodeHits(byte[] message) {
+        Reader reader = new Reader(message, HITS);
+        int count = reader.readCount();
+        List<HitRestCommand> hitRestCommands = new ArrayList<>(count);
+        long timestamp = 0L;
+        for (int i = 0; i < count; i++) {
+            String application = reader.readString();
+            String uri = reader.readString();
+            String ip = reader.readString();
+            timestamp += unZigZag(reader.readVarLong());
+            hitRestCommands.add(HitRestCommand.builder()
+                    .application(application)
+                    .uri(uri)
+                    .ip(ip)
+                    .timestamp(fromEpochSecond(timestamp).format(EwmConstants.FORMATTER))
+                    .build());
+        }
+        return reader.finish(hitRestCommands);
+    }
+
+    public static byte[] encodeHitAcceptances(List<HitAcceptanceRestView> acceptances) {
+        Writer writer = new Writer(HIT_ACCEPTANCES);
+        writer.writeVarLong(acceptances.size());
+        for (HitAcceptanceRestView acceptance : acceptances) {
+            writer.writeVarLong(acceptance.getIndex());
+            writer.writeBoolean(acceptance.isAccepted());
+            if (!acceptance.isAccepted()) {
+                writer.writeString(acceptance.getReason() == null ? "" : acceptance.getReason());
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    public static List<HitAcceptanceRestView> decodeHitAcceptances(byte[] message) {
+        Reader reader = new Reader(message, HIT_ACCEPTANCES);
+        int count = reader.readCount();
+        List<HitAcceptanceRestView> acceptances = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = (int) reader.readVarLong();
+            boolean accepted = reader.readBoolean();
+            acceptances.add(HitAcceptanceRestView.builder()
+                    .index(index)
+                    .accepted(accepted)
+                    .reason(accepted ? null : reader.readString())
+                    .build());
+        }
+        return reader.finish(acceptances);
+    }
+
+    public static byte[] encodeEventViewsQuery(EventViewsQuery query) {
+        Writer writer = new Writer(EVENT_VIEWS_QUERY);
+        writer.writeVarLong(zigZag(toEpochSecond(query.getStart())));
+        writer.writeVarLong(zigZag(toEpochSecond(query.getEnd())));
+        writer.writeBoolean(query.isUnique());
+        writer.writeBoolean(query.isApproximate());
+        writer.writeVarLong(query.getEventIds().size());
+        for (Long eventId : query.getEventIds()) {
+            writer.writeVarLong(eventId);
+        }
+        return writer.toByteArray();
+    }
+
+    public static EventViewsQuery decodeEventViewsQuery(byte[] message) {
+        Reader reader = new Reader(message, EVENT_VIEWS_QUERY);
+        LocalDateTime start = fromEpochSecond(unZigZag(reader.readVarLong()));
+        LocalDateTime end = fromEpochSecond(unZigZag(reader.readVarLong()));
+        boolean unique = reader.readBoolean();
+        boolean approximate = reader.readBoolean();
+        int count = reader.readCount();
+        List<Long> eventIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            eventIds.add(reader.readVarLong());
+        }
+        return reader.finish(EventViewsQuery.builder()
+                .start(start)
+                .end(end)
+                .eventIds(eventIds)
+                .unique(unique)
+                .approximate(approximate)
+                .build());
+    }
+
+    public static byte[] encodeEventViews(Map<Long, Long> eventViews) {
+        Writer writer = new Writer(EVENT_VIEWS);
+        writer.writeVarLong(eventViews.size());
+        eventViews.forEach((eventId, views) -> {
+            writer.writeVarLong(eventId);
+            writer.writeVarLong(views);
+        });
+        return writer.toByteArray();
+    }
+
+    public static Map<Long, Long> decodeEventViews(byte[] message) {
+        Reader reader = new Reader(message, EVENT_VIEWS);
+        int count = reader.readCount();
+        Map<Long, Long> eventViews = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            eventViews.put(reader.readVarLong(), reader.readVarLong());
+        }
+        return reader.finish(eventViews);
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime fromEpochSecond(long epochSecond) {
+        try {
+            return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+        } catch (DateTimeException exception) {
+            throw new IllegalArgumentException("Wrong binary message: time is out of range " + epochSecond);
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static class Writer {
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        private final Map<String, Integer> writtenStrings = new HashMap<>();
+
+        Writer(byte type) {
+            output.write(VERSION);
+            output.write(type);
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                output.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            output.write((int) value);
+        }
+
+        void writeBoolean(boolean value) {
+            output.write(value ? 1 : 0);
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0L);
+                return;
+            }
+            Integer reference = writtenStrings.get(value);
+            if (reference != null) {
+                writeVarLong(reference + 2L);
+                return;
+            }
+            writtenStrings.put(value, writtenStrings.size());
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(1L);
+            writeVarLong(bytes.length);
+            output.write(bytes, 0, bytes.length);
+        }
+
+        byte[] toByteArray() {
+            return output.toByteArray();
+        }
+
+    }
+
+    private static class Reader {
+        private final ByteBuffer buffer;
+        private final List<String> readStrings = new ArrayList<>();
+
+        Reader(byte[] message, byte expectedType) {
+            this.buffer = ByteBuffer.wrap(message);
+            try {
+                byte version = buffer.get();
+                byte type = buffer.get();
+                if (version != VERSION || type != expectedType) {
+                    throw new IllegalArgumentException(String.format("Wrong binary message: expected version '%d' " +
+                            "and type '%d', but was '%d' and '%d'", VERSION, expectedType, version, type));
+                }
+            } catch (BufferUnderflowException exception) {
+                throw new IllegalArgumentException("Wrong binary message: there is no header");
+            }
+        }
+
+        long readVarLong() {
+            long value = 0L;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte next = readByte();
+                value |= (long) (next & 0x7F) << shift;
+                if ((next & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Wrong binary message: too long varint");
+        }
+
+        int readCount() {
+            long count = readVarLong();
+            if (count < 0 || count > buffer.remaining()) {  // Каждый элемент занимает хотя бы один байт
+                throw new IllegalArgumentException("Wrong binary message: wrong count of elements " + count);
+            }
+            return (int) count;
+        }
+
+        boolean readBoolean() {
+            return readByte() != 0;
+        }
+
+        String readString() {
+            long reference = readVarLong();
+            if (reference == 0) {
+                return null;
+            }
+            if (reference > 1) {
+                if (reference - 2 >= readStrings.size()) {
+                    throw new IllegalArgumentException("Wrong binary message: unknown string reference " + reference);
+                }
+                return readStrings.get((int) (reference - 2));
+            }
+            int length = readCount();
+            String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            readStrings.add(value);
+            return value;
+        }
+
+        <T> T finish(T result) {
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Wrong binary message: '" + buffer.remaining() +
+                        "' unexpected bytes at the end");
+            }
+            return result;
+        }
+
+        private byte readByte() {
+            try {
+                return buffer.get();
+            } catch (BufferUnderflowException exception) {
+                throw new IllegalArgumentException("Wrong binary message: unexpected end of message");
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,20 @@
+package ru.practicum.explore_with_me.stats_service.dto_submodule.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Value
+@Builder(toBuilder = true)
+public class EventViewsQuery {
+    public static final String EVENT_URI_PREFIX = "/events/";
+
+    LocalDateTime start;
+    LocalDateTime end;
+    List<Long> eventIds;  // Статистика запрашивается по URI вида /events/{id}
+    boolean unique;
+    boolean approximate;
+
+}
@@ -0,0 +1,21 @@
+package ru.practicum.explore_with_me.stats_service.dto_submodule.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder(toBuilder = true)
+@JsonDeserialize(builder = HitAcceptanceRestView.HitAcceptanceRestViewBuilder.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class HitAcceptanceRestView {
+    @JsonProperty("index")
+    int index;
+    @JsonProperty("accepted")
+    boolean accepted;
+    @JsonProperty("reason")
+    String reason;
+
+}
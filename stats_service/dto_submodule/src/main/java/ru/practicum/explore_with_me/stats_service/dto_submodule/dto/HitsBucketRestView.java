@@ -0,0 +1,17 @@
+package ru.practicum.explore_with_me.stats_service.dto_submodule.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder(toBuilder = true)
+@JsonDeserialize(builder = HitsBucketRestView.HitsBucketRestViewBuilder.class)
+public class HitsBucketRestView {
+    @JsonProperty("start")
+    String start;  // Начало корзины в формате 'yyyy-MM-dd HH:mm:ss'
+    @JsonProperty("hits")
+    long hits;
+
+}
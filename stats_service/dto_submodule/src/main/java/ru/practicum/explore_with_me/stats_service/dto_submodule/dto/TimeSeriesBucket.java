@@ -0,0 +1,20 @@
+package ru.practicum.explore_with_me.stats_service.dto_submodule.dto;
+
+import java.time.temporal.ChronoUnit;
+
+public enum TimeSeriesBucket {
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    TimeSeriesBucket(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public ChronoUnit getUnit() {
+        return unit;
+    }
+
+}
@@ -1,5 +1,6 @@
 package ru.practicum.explore_with_me.stats_service.dto_submodule.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Builder;
@@ -15,6 +16,11 @@ public class UriStatRestView {
     String uri;
     @JsonProperty("hits")
     long hits;
-
+    @JsonProperty("hitsRelativeError")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Double hitsRelativeError;  // Заполняется только для приблизительного подсчёта уникальных хитов
+    @JsonProperty("uriSuffix")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Long uriSuffix;            // Числовой остаток URI после запрошенного префикса, например id события
 
 }
\ No newline at end of file
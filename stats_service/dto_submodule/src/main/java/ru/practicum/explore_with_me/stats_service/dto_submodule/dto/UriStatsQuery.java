@@ -0,0 +1,27 @@
+package ru.practicum.explore_with_me.stats_service.dto_submodule.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder(toBuilder = true)
+public class UriStatsQuery {
+    @JsonProperty("start")
+    String start;
+    @JsonProperty("end")
+    String end;
+    @JsonProperty("uris")
+    List<String> uris;
+    @JsonProperty("uriPrefix")
+    String uriPrefix;  // Вместо списка URI можно запросить все URI, начинающиеся с этой строки
+    @JsonProperty("unique")
+    boolean unique;
+    @JsonProperty("approximate")
+    boolean approximate;
+    @JsonProperty("limit")
+    Integer limit;
+
+}
@@ -0,0 +1,27 @@
+package ru.practicum.explore_with_me.stats_service.dto_submodule.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder(toBuilder = true)
+@JsonDeserialize(builder = UriTimeSeriesRestView.UriTimeSeriesRestViewBuilder.class)
+public class UriTimeSeriesRestView {
+    @JsonProperty("app")
+    String application;
+    @JsonProperty("uri")
+    String uri;
+    @JsonProperty("uriSuffix")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Long uriSuffix;
+    @JsonProperty("hits")
+    long hits;                         // Сумма хитов по всем корзинам периода
+    @JsonProperty("buckets")
+    List<HitsBucketRestView> buckets;  // Только непустые корзины по возрастанию времени
+
+}
@@ -2,8 +2,18 @@ package ru.practicum.explore_with_me.stats_service.server_submodule;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import ru.practicum.explore_with_me.stats_service.server_submodule.ingestion.HitIngestionProperties;
+import ru.practicum.explore_with_me.stats_service.server_submodule.inmemory.InMemoryStatsProperties;
+import ru.practicum.explore_with_me.stats_service.server_submodule.partitioning.HitPartitioningProperties;
+import ru.practicum.explore_with_me.stats_service.server_submodule.topk.TopUrisProperties;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableConfigurationProperties({HitIngestionProperties.class, HitPartitioningProperties.class,
+        TopUrisProperties.class, InMemoryStatsProperties.class})
 public class ExploreWithMeStatsServer {
 
     public static void main(String[] args) {
@@ -1,20 +1,41 @@
 package ru.practicum.explore_with_me.stats_service.server_submodule.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import ru.practicum.explore_with_me.stats_service.dto_submodule.binary.StatsBinaryCodec;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitAcceptanceRestView;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestCommand;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestView;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatsQuery;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriTimeSeriesRestView;
+import ru.practicum.explore_with_me.stats_service.server_submodule.exception.BadRequestBodyException;
+import ru.practicum.explore_with_me.stats_service.server_submodule.ingestion.HitIngestionProperties;
 import ru.practicum.explore_with_me.stats_service.server_submodule.service.StatsService;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 @RestController
 @RequiredArgsConstructor
 public class StatsController {
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private final StatsService statsService;
+    private final HitIngestionProperties hitIngestionProperties;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/hit")
     @ResponseStatus(HttpStatus.CREATED)
@@ -22,13 +43,132 @@ public class StatsController {
         return statsService.saveHit(hitRestCommand);
     }
 
+    @PostMapping(value = "/hits", consumes = "application/json")
+    public List<HitAcceptanceRestView> saveNewHits(@RequestBody List<HitRestCommand> hitRestCommands) {
+        return statsService.saveHits(hitRestCommands);
+    }
+
+    @PostMapping(value = "/hits", consumes = APPLICATION_NDJSON_VALUE)
+    public List<HitAcceptanceRestView> saveNewHitsFromStream(HttpServletRequest request) throws IOException {
+        List<HitAcceptanceRestView> results = new ArrayList<>();
+        List<HitRestCommand> chunk = new ArrayList<>();
+        List<Integer> chunkIndexes = new ArrayList<>();
+        BufferedReader reader = request.getReader();
+        int index = 0;
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                chunk.add(objectMapper.readValue(line, HitRestCommand.class));
+                chunkIndexes.add(index);
+            } catch (JsonProcessingException exception) {
+                results.add(HitAcceptanceRestView.builder()
+                        .index(index)
+                        .accepted(false)
+                        .reason("Wrong request body: failed to read hit from line " + lineNumber)
+                        .build());
+            }
+            index++;
+            if (chunk.size() == hitIngestionProperties.getMaxBulkSize()) {
+                results.addAll(saveChunkOfHits(chunk, chunkIndexes));
+            }
+        }
+        results.addAll(saveChunkOfHits(chunk, chunkIndexes));
+        results.sort((first, second) -> Integer.compare(first.getIndex(), second.getIndex()));
+        return results;
+    }
+
+    @PostMapping(value = "/hits", consumes = StatsBinaryCodec.MEDIA_TYPE_VALUE,
+            produces = StatsBinaryCodec.MEDIA_TYPE_VALUE)
+    public byte[] saveNewHitsFromBinary(@RequestBody byte[] message) {
+        List<HitRestCommand> hitRestCommands = decodeBinaryMessage(StatsBinaryCodec::decodeHits, message);
+        return StatsBinaryCodec.encodeHitAcceptances(statsService.saveHits(hitRestCommands));
+    }
+
+    @PostMapping(value = "/stats/events", consumes = StatsBinaryCodec.MEDIA_TYPE_VALUE,
+            produces = StatsBinaryCodec.MEDIA_TYPE_VALUE)
+    public byte[] getEventViews(@RequestBody byte[] message) {
+        return StatsBinaryCodec.encodeEventViews(statsService.getEventViews(
+                decodeBinaryMessage(StatsBinaryCodec::decodeEventViewsQuery, message)));
+    }
+
     @GetMapping("/stats")
     public List<UriStatRestView> getUriStats(
             @RequestParam String start,
             @RequestParam String end,
             @RequestParam(required = false) String[] uris,
-            @RequestParam(required = false) Boolean unique) {
-        return statsService.getAllUriStatsOrderedByHits(start, end, uris, unique);
+            @RequestParam(required = false) String uriPrefix,
+            @RequestParam(required = false) Boolean unique,
+            @RequestParam(defaultValue = "false") boolean approximate,
+            @RequestParam(required = false) Integer limit) {
+        return statsService.getAllUriStatsOrderedByHits(start, end, uris, uriPrefix, unique, approximate, limit);
+    }
+
+    @PostMapping(value = "/stats/query", consumes = "application/json")
+    public List<UriStatRestView> queryUriStats(@RequestBody UriStatsQuery uriStatsQuery) {
+        return statsService.getUriStats(uriStatsQuery);
+    }
+
+    @GetMapping("/stats/timeseries")
+    public List<UriTimeSeriesRestView> getUriTimeSeries(
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(required = false) String[] uris,
+            @RequestParam(required = false) String uriPrefix,
+            @RequestParam(defaultValue = "HOUR") String bucket) {
+        return statsService.getUriTimeSeries(start, end, uris, uriPrefix, bucket);
+    }
+
+    @GetMapping(value = "/stats", produces = APPLICATION_NDJSON_VALUE)
+    public void streamUriStats(
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(required = false) String[] uris,
+            @RequestParam(required = false) String uriPrefix,
+            @RequestParam(required = false) Boolean unique,
+            @RequestParam(defaultValue = "false") boolean approximate,
+            @RequestParam(required = false) Integer limit,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        // Ответ пишется построчно по мере чтения из базы, ошибки параметров возникают до записи первой строки
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+        generator.setRootValueSeparator(null);
+        statsService.streamAllUriStatsOrderedByHits(start, end, uris, uriPrefix, unique, approximate, limit,
+                uriStat -> {
+                    try {
+                        generator.writeObject(uriStat);
+                        generator.writeRaw('\n');
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                });
+        generator.flush();
+    }
+
+    private <T> T decodeBinaryMessage(Function<byte[], T> decoder, byte[] message) {
+        try {
+            return decoder.apply(message);
+        } catch (IllegalArgumentException exception) {
+            throw new BadRequestBodyException(exception.getMessage());
+        }
+    }
+
+    private List<HitAcceptanceRestView> saveChunkOfHits(List<HitRestCommand> chunk, List<Integer> chunkIndexes) {
+        List<HitAcceptanceRestView> results = new ArrayList<>(chunk.size());
+        if (chunk.isEmpty()) {
+            return results;
+        }
+        statsService.saveHits(chunk).forEach(result -> results.add(result.toBuilder()
+                .index(chunkIndexes.get(result.getIndex()))  // Индекс внутри пачки заменяем номером строки потока
+                .build()));
+        chunk.clear();
+        chunkIndexes.clear();
+        return results;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,16 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@Getter
+public class BucketHitsFromDb {
+    private String application;
+    private String uri;
+    private LocalDateTime bucketStart;
+    private long hits;
+
+}
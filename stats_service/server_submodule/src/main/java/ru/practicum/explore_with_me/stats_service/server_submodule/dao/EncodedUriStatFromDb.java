@@ -0,0 +1,15 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@AllArgsConstructor
+@Getter
+@Setter
+public class EncodedUriStatFromDb {
+    private Integer applicationId;
+    private Integer uriId;
+    private long hits;
+
+}
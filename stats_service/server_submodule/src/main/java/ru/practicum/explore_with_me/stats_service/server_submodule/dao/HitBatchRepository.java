@@ -0,0 +1,29 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+@Profile("!in-memory")
+@RequiredArgsConstructor
+public class HitBatchRepository {
+    private static final String INSERT_HIT = "insert into hits (application_id, uri_id, ip, hit_timestamp) " +
+            "values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void saveAll(List<HitEntity> hits) {
+        jdbcTemplate.batchUpdate(INSERT_HIT, hits, hits.size(), (statement, hit) -> {
+            statement.setInt(1, hit.getApplicationId());
+            statement.setInt(2, hit.getUriId());
+            statement.setBytes(3, hit.getIp());
+            statement.setTimestamp(4, Timestamp.valueOf(hit.getTimestamp()));
+        });
+    }
+
+}
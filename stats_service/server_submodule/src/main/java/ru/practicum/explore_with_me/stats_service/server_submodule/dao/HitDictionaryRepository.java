@@ -0,0 +1,140 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.dao;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ru.practicum.explore_with_me.stats_service.server_submodule.util.DatabasePlatform;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Repository
+@Profile("!in-memory")
+public class HitDictionaryRepository {
+    private static final String INSERT_APPLICATION_IF_ABSENT_POSTGRESQL = "insert into applications (name) " +
+            "values (?) on conflict (name) do nothing";
+    private static final String INSERT_APPLICATION_IF_ABSENT_H2 = "merge into applications as d " +
+            "using (select cast(? as varchar(255)) as name) as s on d.name = s.name " +
+            "when not matched then insert (name) values (s.name)";
+    private static final String INSERT_URI_IF_ABSENT_POSTGRESQL = "insert into uris (uri) " +
+            "values (?) on conflict (uri) do nothing";
+    private static final String INSERT_URI_IF_ABSENT_H2 = "merge into uris as d " +
+            "using (select cast(? as varchar(1000)) as uri) as s on d.uri = s.uri " +
+            "when not matched then insert (uri) values (s.uri)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+    private final String insertApplicationIfAbsentSql;
+    private final String insertUriIfAbsentSql;
+    // Словари только пополняются, поэтому закэшированное значение никогда не устаревает
+    private final Map<String, Integer> applicationIds = new ConcurrentHashMap<>();
+    private final Map<Integer, String> applicationNames = new ConcurrentHashMap<>();
+    private final Map<String, Integer> uriIds = new ConcurrentHashMap<>();
+    private final Map<Integer, String> uris = new ConcurrentHashMap<>();
+
+    public HitDictionaryRepository(JdbcTemplate jdbcTemplate,
+                                   NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        boolean isH2 = DatabasePlatform.H2.equals(DatabasePlatform.of(dataSource));
+        this.insertApplicationIfAbsentSql = isH2 ? INSERT_APPLICATION_IF_ABSENT_H2 :
+                INSERT_APPLICATION_IF_ABSENT_POSTGRESQL;
+        this.insertUriIfAbsentSql = isH2 ? INSERT_URI_IF_ABSENT_H2 : INSERT_URI_IF_ABSENT_POSTGRESQL;
+    }
+
+    public void encode(HitEntity hitEntity) {
+        hitEntity.setApplicationId(getOrCreateApplicationId(hitEntity.getApplication()));
+        hitEntity.setUriId(getOrCreateUriId(hitEntity.getUri()));
+    }
+
+    public int getOrCreateApplicationId(String application) {
+        Integer applicationId = applicationIds.get(application);
+        if (applicationId != null) {
+            return applicationId;
+        }
+        applicationId = getOrCreateId(insertApplicationIfAbsentSql,
+                "select application_id from applications where name = ?", application);
+        cache(applicationIds, applicationNames, application, applicationId);
+        return applicationId;
+    }
+
+    public int getOrCreateUriId(String uri) {
+        Integer uriId = uriIds.get(uri);
+        if (uriId != null) {
+            return uriId;
+        }
+        uriId = getOrCreateId(insertUriIfAbsentSql, "select uri_id from uris where uri = ?", uri);
+        cache(uriIds, uris, uri, uriId);
+        return uriId;
+    }
+
+    public List<Integer> findUriIds(String[] requestedUris) {
+        List<Integer> foundIds = new ArrayList<>(requestedUris.length);
+        List<String> notCachedUris = new ArrayList<>();
+        for (String uri : requestedUris) {
+            if (uri == null) {  // Тело POST /stats/query может содержать null среди URI
+                continue;
+            }
+            Integer uriId = uriIds.get(uri);
+            if (uriId != null) {
+                foundIds.add(uriId);
+            } else {
+                notCachedUris.add(uri);
+            }
+        }
+        if (!notCachedUris.isEmpty()) {  // URI, которых нет в словаре, ещё ни разу не запрашивали - их просто пропускаем
+            namedParameterJdbcTemplate.query("select uri_id, uri from uris where uri = any(:uris)",
+                    new MapSqlParameterSource().addValue("uris", new VarcharArrayValue(notCachedUris),
+                            VarcharArrayValue.SQL_TYPE), resultSet -> {
+                        cache(uriIds, uris, resultSet.getString("uri"), resultSet.getInt("uri_id"));
+                        foundIds.add(resultSet.getInt("uri_id"));
+                    });
+        }
+        return foundIds;
+    }
+
+    public UriStatFromDb decode(EncodedUriStatFromDb encodedUriStat) {
+        return new UriStatFromDb(getApplicationName(encodedUriStat.getApplicationId()),
+                getUri(encodedUriStat.getUriId()), encodedUriStat.getHits());
+    }
+
+    public String getApplicationName(int applicationId) {
+        return applicationNames.computeIfAbsent(applicationId, id -> jdbcTemplate.queryForObject(
+                "select name from applications where application_id = ?", String.class, id));
+    }
+
+    public String getUri(int uriId) {
+        return uris.computeIfAbsent(uriId, id -> jdbcTemplate.queryForObject(
+                "select uri from uris where uri_id = ?", String.class, id));
+    }
+
+    private Integer getOrCreateId(String insertIfAbsentSql, String selectIdSql, String value) {
+        // Новое значение фиксируется в отдельной транзакции: откат записи хита не должен оставить в кэше
+        // идентификатор, которого нет в базе. Вызывать до начала транзакции записи хитов, иначе на время
+        // вызова занимается второе соединение из пула
+        return newTransactionTemplate.execute(status -> {
+            jdbcTemplate.update(insertIfAbsentSql, value);
+            return jdbcTemplate.queryForObject(selectIdSql, Integer.class, value);
+        });
+    }
+
+    private void cache(Map<String, Integer> ids, Map<Integer, String> values, String value, Integer id) {
+        ids.putIfAbsent(value, id);
+        values.putIfAbsent(id, value);
+    }
+
+}
\ No newline at end of file
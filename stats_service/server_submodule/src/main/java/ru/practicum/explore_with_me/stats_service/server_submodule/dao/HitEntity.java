@@ -18,12 +18,16 @@ public class HitEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "hit_id")
     private BigInteger id;
-    @Column(name = "application")
-    private String application;
-    @Column(name = "uri")
+    @Column(name = "application_id")
+    private Integer applicationId;
+    @Column(name = "uri_id")
+    private Integer uriId;
+    @Transient
+    private String application;  // Строковые значения хранятся в словарях, в таблице хитов только их id
+    @Transient
     private String uri;
     @Column(name = "ip")
-    private String ip;
+    private byte[] ip;
     @Column(name = "hit_timestamp")
     private LocalDateTime timestamp;
 
@@ -0,0 +1,268 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.dao;
+
+import lombok.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import ru.practicum.explore_with_me.stats_service.server_submodule.util.DatabasePlatform;
+import ru.practicum.explore_with_me.stats_service.server_submodule.util.HyperLogLog;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Repository
+@Profile("!in-memory")
+public class HitRollupRepository {
+    public static final ChronoUnit BUCKET_UNIT = ChronoUnit.HOURS;
+
+    private static final String UPSERT_ROLLUP_POSTGRESQL = "insert into hit_rollups " +
+            "(application, uri, bucket_start, hits) values (?, ?, ?, ?) " +
+            "on conflict (application, uri, bucket_start) do update set hits = hit_rollups.hits + excluded.hits";
+    private static final String UPSERT_ROLLUP_H2 = "merge into hit_rollups as r " +
+            "using (select cast(? as varchar(255)) as application, cast(? as varchar(1000)) as uri, " +
+            "cast(? as timestamp) as bucket_start, cast(? as bigint) as hits) as s " +
+            "on r.application = s.application and r.uri = s.uri and r.bucket_start = s.bucket_start " +
+            "when matched then update set r.hits = r.hits + s.hits " +
+            "when not matched then insert (application, uri, bucket_start, hits) " +
+            "values (s.application, s.uri, s.bucket_start, s.hits)";
+    private static final String INSERT_SKETCH_IF_ABSENT_POSTGRESQL = "insert into hit_ip_sketches " +
+            "(application, uri, bucket_start, registers) values (?, ?, ?, ?) " +
+            "on conflict (application, uri, bucket_start) do nothing";
+    private static final String INSERT_SKETCH_IF_ABSENT_H2 = "merge into hit_ip_sketches as r " +
+            "using (select cast(? as varchar(255)) as application, cast(? as varchar(1000)) as uri, " +
+            "cast(? as timestamp) as bucket_start, cast(? as bytea) as registers) as s " +
+            "on r.application = s.application and r.uri = s.uri and r.bucket_start = s.bucket_start " +
+            "when not matched then insert (application, uri, bucket_start, registers) " +
+            "values (s.application, s.uri, s.bucket_start, s.registers)";
+    // Ключи передаются тремя массивами одинаковой длины, unnest собирает из них строки ключей
+    private static final String SELECT_SKETCHES_FOR_UPDATE = "select application, uri, bucket_start, registers " +
+            "from hit_ip_sketches " +
+            "where (application, uri, bucket_start) in " +
+            "(select * from unnest(:applications, :uris, :bucketStarts)) " +
+            "order by application, uri, bucket_start for update";
+    private static final String UPDATE_SKETCH = "update hit_ip_sketches set registers = ? " +
+            "where application = ? and uri = ? and bucket_start = ?";
+    private static final String SELECT_SKETCHES_FROM_BUCKETS = "select application, uri, registers " +
+            "from hit_ip_sketches " +
+            "where bucket_start >= :firstBucket and bucket_start < :bucketsEnd ";
+    private static final String SELECT_HITS_FROM_BUCKETS = "select application, uri, sum(hits) as hits " +
+            "from hit_rollups " +
+            "where bucket_start >= :firstBucket and bucket_start < :bucketsEnd ";
+    private static final String SELECT_BUCKETS = "select application, uri, bucket_start, hits " +
+            "from hit_rollups " +
+            "where bucket_start >= :firstBucket and bucket_start < :bucketsEnd ";
+    private static final String FILTER_BY_URIS = "and uri = any(:uris) ";
+    private static final String FILTER_BY_URI_RANGE_POSTGRESQL = "and uri collate \"C\" >= :uriPrefix " +
+            "and uri collate \"C\" < :uriPrefixUpperBound ";
+    private static final String FILTER_BY_URI_RANGE_H2 = "and uri >= :uriPrefix and uri < :uriPrefixUpperBound ";
+    private static final String GROUP_BY_URI = "group by application, uri";
+    private static final String ORDER_BY_HITS_LIMIT = " order by hits desc limit :limit";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final String upsertRollupSql;
+    private final String insertSketchIfAbsentSql;
+    private final String filterByUriRangeSql;
+
+    public HitRollupRepository(JdbcTemplate jdbcTemplate,
+                               NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                               DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        boolean isH2 = DatabasePlatform.H2.equals(DatabasePlatform.of(dataSource));
+        this.upsertRollupSql = isH2 ? UPSERT_ROLLUP_H2 : UPSERT_ROLLUP_POSTGRESQL;
+        this.insertSketchIfAbsentSql = isH2 ? INSERT_SKETCH_IF_ABSENT_H2 : INSERT_SKETCH_IF_ABSENT_POSTGRESQL;
+        this.filterByUriRangeSql = isH2 ? FILTER_BY_URI_RANGE_H2 : FILTER_BY_URI_RANGE_POSTGRESQL;
+    }
+
+    public static LocalDateTime toBucketStart(LocalDateTime timestamp) {
+        return timestamp.truncatedTo(BUCKET_UNIT);
+    }
+
+    public static LocalDateTime toNextBucketStart(LocalDateTime timestamp) {
+        LocalDateTime bucketStart = toBucketStart(timestamp);
+        return bucketStart.equals(timestamp) ? bucketStart : bucketStart.plus(1L, BUCKET_UNIT);
+    }
+
+    public void addHits(List<HitEntity> hits) {
+        // Ключи сортируются, чтобы параллельные транзакции блокировали строки в одном порядке и не ловили deadlock
+        Map<RollupKey, Long> increments = new TreeMap<>();
+        Map<RollupKey, HyperLogLog> sketches = new TreeMap<>();
+        hits.forEach(hit -> {
+            RollupKey rollupKey = new RollupKey(hit.getApplication(), hit.getUri(), toBucketStart(hit.getTimestamp()));
+            increments.merge(rollupKey, 1L, Long::sum);
+            sketches.computeIfAbsent(rollupKey, key -> new HyperLogLog()).add(hit.getIp());
+        });
+        List<Map.Entry<RollupKey, Long>> rollupRows = new ArrayList<>(increments.entrySet());
+        jdbcTemplate.batchUpdate(upsertRollupSql, rollupRows, rollupRows.size(), (statement, row) -> {
+            statement.setString(1, row.getKey().getApplication());
+            statement.setString(2, row.getKey().getUri());
+            statement.setTimestamp(3, Timestamp.valueOf(row.getKey().getBucketStart()));
+            statement.setLong(4, row.getValue());
+        });
+        mergeIpSketches(sketches);
+    }
+
+    public List<UriStatFromDb> getHitsCountFromBuckets(LocalDateTime firstBucket, LocalDateTime bucketsEnd,
+                                                       UriFilter uriFilter) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("firstBucket", Timestamp.valueOf(firstBucket))
+                .addValue("bucketsEnd", Timestamp.valueOf(bucketsEnd));
+        String sql = SELECT_HITS_FROM_BUCKETS;
+        if (uriFilter != null) {
+            sql += addUriFilter(parameters, uriFilter);
+        }
+        return namedParameterJdbcTemplate.query(sql + GROUP_BY_URI, parameters, (resultSet, rowNumber) ->
+                new UriStatFromDb(resultSet.getString("application"), resultSet.getString("uri"),
+                        resultSet.getLong("hits")));
+    }
+
+    // Самые посещаемые URI по сумме целых корзин периода: база отдаёт только limit строк
+    public List<UriStatFromDb> getTopHitsCountFromBuckets(LocalDateTime firstBucket, LocalDateTime bucketsEnd,
+                                                          UriFilter uriFilter, int limit) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("firstBucket", Timestamp.valueOf(firstBucket))
+                .addValue("bucketsEnd", Timestamp.valueOf(bucketsEnd))
+                .addValue("limit", limit);
+        String sql = SELECT_HITS_FROM_BUCKETS;
+        if (uriFilter != null) {
+            sql += addUriFilter(parameters, uriFilter);
+        }
+        return namedParameterJdbcTemplate.query(sql + GROUP_BY_URI + ORDER_BY_HITS_LIMIT, parameters,
+                (resultSet, rowNumber) -> new UriStatFromDb(resultSet.getString("application"),
+                        resultSet.getString("uri"), resultSet.getLong("hits")));
+    }
+
+    public List<BucketHitsFromDb> getBuckets(LocalDateTime firstBucket, LocalDateTime bucketsEnd,
+                                             UriFilter uriFilter) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("firstBucket", Timestamp.valueOf(firstBucket))
+                .addValue("bucketsEnd", Timestamp.valueOf(bucketsEnd));
+        String sql = SELECT_BUCKETS;
+        if (uriFilter != null) {
+            sql += addUriFilter(parameters, uriFilter);
+        }
+        return namedParameterJdbcTemplate.query(sql, parameters, (resultSet, rowNumber) ->
+                new BucketHitsFromDb(resultSet.getString("application"), resultSet.getString("uri"),
+                        resultSet.getTimestamp("bucket_start").toLocalDateTime(), resultSet.getLong("hits")));
+    }
+
+    public Map<List<String>, HyperLogLog> getIpSketchesFromBuckets(LocalDateTime firstBucket,
+                                                                  LocalDateTime bucketsEnd,
+                                                                  UriFilter uriFilter) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("firstBucket", Timestamp.valueOf(firstBucket))
+                .addValue("bucketsEnd", Timestamp.valueOf(bucketsEnd));
+        String sql = SELECT_SKETCHES_FROM_BUCKETS;
+        if (uriFilter != null) {
+            sql += addUriFilter(parameters, uriFilter);
+        }
+        Map<List<String>, HyperLogLog> sketches = new HashMap<>();
+        namedParameterJdbcTemplate.query(sql, parameters, resultSet -> {
+            HyperLogLog sketch = new HyperLogLog(resultSet.getBytes("registers"));
+            sketches.merge(List.of(resultSet.getString("application"), resultSet.getString("uri")), sketch,
+                    (first, second) -> {
+                        first.merge(second);
+                        return first;
+                    });
+        });
+        return sketches;
+    }
+
+    private String addUriFilter(MapSqlParameterSource parameters, UriFilter uriFilter) {
+        if (uriFilter.isByPrefix()) {
+            parameters.addValue("uriPrefix", uriFilter.getUriPrefix())
+                    .addValue("uriPrefixUpperBound", uriFilter.getUriPrefixUpperBound());
+            return filterByUriRangeSql;
+        }
+        parameters.addValue("uris", new VarcharArrayValue(Arrays.asList(uriFilter.getUris())),
+                VarcharArrayValue.SQL_TYPE);
+        return FILTER_BY_URIS;
+    }
+
+    // Новые скетчи вставляются одной пачкой. Уже существующие блокируются одним запросом, объединяются в памяти
+    // и записываются пачкой, только если регистры изменились
+    private void mergeIpSketches(Map<RollupKey, HyperLogLog> sketches) {
+        List<Map.Entry<RollupKey, HyperLogLog>> sketchRows = new ArrayList<>(sketches.entrySet());
+        int[][] insertedCounts = jdbcTemplate.batchUpdate(insertSketchIfAbsentSql, sketchRows, sketchRows.size(),
+                (statement, row) -> {
+                    statement.setString(1, row.getKey().getApplication());
+                    statement.setString(2, row.getKey().getUri());
+                    statement.setTimestamp(3, Timestamp.valueOf(row.getKey().getBucketStart()));
+                    statement.setBytes(4, row.getValue().toBytes());
+                });
+        // Драйвер может не сообщить число строк (SUCCESS_NO_INFO), такой ключ считается конфликтным:
+        // объединение со своим же скетчем ничего не меняет и не приводит к лишней записи
+        Map<RollupKey, HyperLogLog> conflictingSketches = new TreeMap<>();
+        int index = 0;
+        for (int[] batchCounts : insertedCounts) {
+            for (int insertedCount : batchCounts) {
+                Map.Entry<RollupKey, HyperLogLog> row = sketchRows.get(index++);
+                if (insertedCount <= 0) {
+                    conflictingSketches.put(row.getKey(), row.getValue());
+                }
+            }
+        }
+        if (conflictingSketches.isEmpty()) {
+            return;
+        }
+        List<String> applications = new ArrayList<>(conflictingSketches.size());
+        List<String> uris = new ArrayList<>(conflictingSketches.size());
+        List<Timestamp> bucketStarts = new ArrayList<>(conflictingSketches.size());
+        conflictingSketches.keySet().forEach(key -> {
+            applications.add(key.getApplication());
+            uris.add(key.getUri());
+            bucketStarts.add(Timestamp.valueOf(key.getBucketStart()));
+        });
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("applications", new VarcharArrayValue(applications), VarcharArrayValue.SQL_TYPE)
+                .addValue("uris", new VarcharArrayValue(uris), VarcharArrayValue.SQL_TYPE)
+                .addValue("bucketStarts", new TimestampArrayValue(bucketStarts), TimestampArrayValue.SQL_TYPE);
+        List<Map.Entry<RollupKey, HyperLogLog>> changedSketches = new ArrayList<>();
+        namedParameterJdbcTemplate.query(SELECT_SKETCHES_FOR_UPDATE, parameters, resultSet -> {
+            RollupKey key = new RollupKey(resultSet.getString("application"), resultSet.getString("uri"),
+                    resultSet.getTimestamp("bucket_start").toLocalDateTime());
+            HyperLogLog storedSketch = new HyperLogLog(resultSet.getBytes("registers"));
+            if (storedSketch.merge(conflictingSketches.get(key))) {
+                changedSketches.add(Map.entry(key, storedSketch));
+            }
+        });
+        jdbcTemplate.batchUpdate(UPDATE_SKETCH, changedSketches, changedSketches.size(), (statement, row) -> {
+            statement.setBytes(1, row.getValue().toBytes());
+            statement.setString(2, row.getKey().getApplication());
+            statement.setString(3, row.getKey().getUri());
+            statement.setTimestamp(4, Timestamp.valueOf(row.getKey().getBucketStart()));
+        });
+    }
+
+    @Value
+    private static class RollupKey implements Comparable<RollupKey> {
+        private static final Comparator<RollupKey> ORDER = Comparator
+                .comparing(RollupKey::getApplication)
+                .thenComparing(RollupKey::getUri)
+                .thenComparing(RollupKey::getBucketStart);
+
+        String application;
+        String uri;
+        LocalDateTime bucketStart;
+
+        @Override
+        public int compareTo(RollupKey other) {
+            return ORDER.compare(this, other);
+        }
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.dao;
+
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
+
+// Список идентификаторов передаётся одним параметром-массивом по той же причине, что и в VarcharArrayValue
+class IntegerArrayValue extends AbstractSqlTypeValue {
+    static final int SQL_TYPE = Types.ARRAY;
+
+    private final Integer[] values;
+
+    IntegerArrayValue(Collection<Integer> values) {
+        this.values = values.toArray(Integer[]::new);
+    }
+
+    @Override
+    protected Object createTypeValue(Connection connection, int sqlType, String typeName) throws SQLException {
+        return connection.createArrayOf("integer", values);
+    }
+
+}
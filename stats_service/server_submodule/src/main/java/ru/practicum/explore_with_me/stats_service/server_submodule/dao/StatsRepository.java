@@ -1,51 +1,83 @@
 package ru.practicum.explore_with_me.stats_service.server_submodule.dao;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigInteger;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface StatsRepository extends JpaRepository<HitEntity, BigInteger> {
 
-    @Query("select new ru.practicum.explore_with_me.stats_service.server_submodule.dao.UriStatFromDb(" +
-            "h.application, h.uri, count(h.id)) " +
+    @Query("select new ru.practicum.explore_with_me.stats_service.server_submodule.dao.EncodedUriStatFromDb(" +
+            "h.applicationId, h.uriId, count(h.id)) " +
             "from HitEntity as h " +
             "where (h.timestamp between ?1 and ?2) " +
-            "group by (h.uri,h.application) " +
+            "group by (h.uriId,h.applicationId) " +
             "order by count(h.id) desc")
-    List<UriStatFromDb> getAllUriStatsOrderedByHitsCount(
-            LocalDateTime start, LocalDateTime end);
+    List<EncodedUriStatFromDb> getAllUriStatsOrderedByHitsCount(
+            LocalDateTime start, LocalDateTime end, Pageable page);
 
-    @Query("select new ru.practicum.explore_with_me.stats_service.server_submodule.dao.UriStatFromDb(" +
-            "h.application, h.uri, count(h.id)) " +
+    @Query("select new ru.practicum.explore_with_me.stats_service.server_submodule.dao.EncodedUriStatFromDb(" +
+            "h.applicationId, h.uriId, count(distinct h.ip)) " +
             "from HitEntity as h " +
-            "where h.uri in ?3 and " +
-            "(h.timestamp between ?1 and ?2) " +
-            "group by (h.uri,h.application) " +
-            "order by count(h.id) desc")
-    List<UriStatFromDb> getAllUriStatsOrderedByHitsCountWithUrisArray(
-            LocalDateTime start, LocalDateTime end, String[] uris);
+            "where (h.timestamp between ?1 and ?2) " +
+            "group by (h.uriId, h.applicationId) " +
+            "order by count(distinct h.ip) desc")
+    List<EncodedUriStatFromDb> getUniqueUriStatsOrderedByHitsCount(LocalDateTime start, LocalDateTime end,
+                                                                   Pageable page);
+
+    @Query("select new ru.practicum.explore_with_me.stats_service.server_submodule.dao.EncodedUriStatFromDb(" +
+            "h.applicationId, h.uriId, count(h.id)) " +
+            "from HitEntity as h " +
+            "where (h.timestamp >= ?1 and h.timestamp < ?2) or " +
+            "(h.timestamp >= ?3 and h.timestamp <= ?4) " +
+            "group by (h.uriId,h.applicationId)")
+    List<EncodedUriStatFromDb> getUriStatsOutsideRollupBuckets(
+            LocalDateTime start, LocalDateTime firstBucket, LocalDateTime bucketsEnd, LocalDateTime end);
 
-    @Query("select new ru.practicum.explore_with_me.stats_service.server_submodule.dao.UriStatFromDb(" +
-            "h.application, h.uri, count(distinct h.ip)) " +
+    @Query("select distinct h.applicationId, h.uriId, h.ip " +
+            "from HitEntity as h " +
+            "where (h.timestamp >= ?1 and h.timestamp < ?2) or " +
+            "(h.timestamp >= ?3 and h.timestamp <= ?4)")
+    List<Object[]> getUniqueIpsOutsideRollupBuckets(
+            LocalDateTime start, LocalDateTime firstBucket, LocalDateTime bucketsEnd, LocalDateTime end);
+
+    // Хиты по минутам считаются одним сгруппированным проходом по периоду, date_trunc есть и в PostgreSQL, и в H2
+    @Query(value = "select application_id, uri_id, date_trunc('minute', hit_timestamp) as minute_start, " +
+            "count(*) as hits " +
+            "from hits " +
+            "where (hit_timestamp >= ?1 and hit_timestamp < ?2) or (hit_timestamp >= ?3 and hit_timestamp <= ?4) " +
+            "group by application_id, uri_id, date_trunc('minute', hit_timestamp)", nativeQuery = true)
+    List<Object[]> getHitsPerMinuteOutsideRollupBuckets(
+            LocalDateTime start, LocalDateTime firstBucket, LocalDateTime bucketsEnd, LocalDateTime end);
+
+    // Потоковые варианты читают результат курсором порциями по 500 строк, не загружая его в память целиком
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.explore_with_me.stats_service.server_submodule.dao.EncodedUriStatFromDb(" +
+            "h.applicationId, h.uriId, count(h.id)) " +
             "from HitEntity as h " +
             "where (h.timestamp between ?1 and ?2) " +
-            "group by (h.uri, h.application) " +
-            "order by count(distinct h.ip) desc")
-    List<UriStatFromDb> getUniqueUriStatsOrderedByHitsCount(LocalDateTime start, LocalDateTime end);
+            "group by (h.uriId,h.applicationId) " +
+            "order by count(h.id) desc")
+    Stream<EncodedUriStatFromDb> streamAllUriStatsOrderedByHitsCount(LocalDateTime start, LocalDateTime end);
 
-    @Query("select new ru.practicum.explore_with_me.stats_service.server_submodule.dao.UriStatFromDb(" +
-            "h.application, h.uri, count(distinct h.ip)) " +
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.explore_with_me.stats_service.server_submodule.dao.EncodedUriStatFromDb(" +
+            "h.applicationId, h.uriId, count(distinct h.ip)) " +
             "from HitEntity as h " +
-            "where h.uri in ?3 and " +
-            "(h.timestamp between ?1 and ?2) " +
-            "group by (h.uri, h.application) " +
+            "where (h.timestamp between ?1 and ?2) " +
+            "group by (h.uriId, h.applicationId) " +
             "order by count(distinct h.ip) desc")
-    List<UriStatFromDb> getUniqueUriStatsOrderedByHitsCountWithUrisArray(
-            LocalDateTime start, LocalDateTime end, String[] uris);
+    Stream<EncodedUriStatFromDb> streamUniqueUriStatsOrderedByHitsCount(LocalDateTime start, LocalDateTime end);
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.dao;
+
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collection;
+
+// Список моментов времени передаётся одним параметром-массивом по той же причине, что и в VarcharArrayValue
+class TimestampArrayValue extends AbstractSqlTypeValue {
+    static final int SQL_TYPE = Types.ARRAY;
+
+    private final Timestamp[] values;
+
+    TimestampArrayValue(Collection<Timestamp> values) {
+        this.values = values.toArray(Timestamp[]::new);
+    }
+
+    @Override
+    protected Object createTypeValue(Connection connection, int sqlType, String typeName) throws SQLException {
+        return connection.createArrayOf("timestamp", values);
+    }
+
+}
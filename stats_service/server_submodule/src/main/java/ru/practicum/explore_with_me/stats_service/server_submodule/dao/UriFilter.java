@@ -0,0 +1,41 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.dao;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+// Фильтр запросов статистики: либо список URI с их идентификаторами из словаря, либо префикс URI.
+// Префикс не раскрывается в список: запросы ищут URI диапазоном [prefix, следующая за префиксом строка)
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class UriFilter {
+    private final String[] uris;
+    private final List<Integer> uriIds;
+    private final String uriPrefix;
+
+    public static UriFilter ofUris(String[] uris, List<Integer> uriIds) {
+        return new UriFilter(uris, uriIds, null);
+    }
+
+    public static UriFilter ofUriPrefix(String uriPrefix) {
+        return new UriFilter(null, null, uriPrefix);
+    }
+
+    public boolean isByPrefix() {
+        return uriPrefix != null;
+    }
+
+    String getUriPrefixUpperBound() {
+        int end = uriPrefix.length();
+        while (end > 0 && uriPrefix.charAt(end - 1) == Character.MAX_VALUE) {
+            end--;
+        }
+        if (end == 0) {  // Строки больше префикса из одних максимальных символов в URI не встречаются
+            return uriPrefix + Character.MAX_VALUE;
+        }
+        return uriPrefix.substring(0, end - 1) + (char) (uriPrefix.charAt(end - 1) + 1);
+    }
+
+}
@@ -0,0 +1,142 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.dao;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import ru.practicum.explore_with_me.stats_service.server_submodule.util.DatabasePlatform;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Запросы статистики с фильтром по URI. JPQL раскрывает коллекцию в отдельный параметр на каждый идентификатор,
+// поэтому эти запросы идут через JDBC: идентификаторы передаются одним параметром-массивом, а префикс
+// соединяется со словарём URI диапазоном, не превращаясь в список
+@Repository
+@Profile("!in-memory")
+public class UriFilteredStatsRepository {
+    private static final String SELECT_HITS_COUNT = "select application_id, uri_id, count(hit_id) as hits " +
+            "from hits ";
+    private static final String SELECT_UNIQUE_IPS_COUNT = "select application_id, uri_id, " +
+            "count(distinct ip) as hits " +
+            "from hits ";
+    private static final String SELECT_UNIQUE_IPS = "select distinct application_id, uri_id, ip " +
+            "from hits ";
+    private static final String SELECT_HITS_PER_MINUTE = "select application_id, uri_id, " +
+            "date_trunc('minute', hit_timestamp) as minute_start, count(*) as hits " +
+            "from hits ";
+    private static final String WHERE_URI_ID_IN_ARRAY = "where uri_id = any(:uriIds) ";
+    // Побайтовый порядок нужен, чтобы диапазон совпадал с префиксом и шёл по индексу uris по uri collate "C"
+    private static final String WHERE_URI_IN_RANGE_POSTGRESQL = "where uri_id in (select uri_id from uris " +
+            "where uri collate \"C\" >= :uriPrefix and uri collate \"C\" < :uriPrefixUpperBound) ";
+    private static final String WHERE_URI_IN_RANGE_H2 = "where uri_id in (select uri_id from uris " +
+            "where uri >= :uriPrefix and uri < :uriPrefixUpperBound) ";
+    private static final String AND_IN_PERIOD = "and hit_timestamp between :start and :end ";
+    private static final String AND_OUTSIDE_ROLLUP_BUCKETS = "and ((hit_timestamp >= :start " +
+            "and hit_timestamp < :firstBucket) or (hit_timestamp >= :bucketsEnd and hit_timestamp <= :end)) ";
+    private static final String GROUP_BY_URI = "group by application_id, uri_id ";
+    private static final String GROUP_BY_URI_AND_MINUTE = "group by application_id, uri_id, " +
+            "date_trunc('minute', hit_timestamp)";
+    private static final String ORDER_BY_HITS = "order by hits desc ";
+    private static final String LIMIT = "limit :limit";
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final RowMapper<EncodedUriStatFromDb> ENCODED_URI_STAT_MAPPER = (resultSet, rowNumber) ->
+            new EncodedUriStatFromDb(resultSet.getInt("application_id"), resultSet.getInt("uri_id"),
+                    resultSet.getLong("hits"));
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+    private final String whereUriInRangeSql;
+
+    public UriFilteredStatsRepository(NamedParameterJdbcTemplate namedParameterJdbcTemplate, DataSource dataSource) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.whereUriInRangeSql = DatabasePlatform.H2.equals(DatabasePlatform.of(dataSource)) ?
+                WHERE_URI_IN_RANGE_H2 : WHERE_URI_IN_RANGE_POSTGRESQL;
+        // Потоковые запросы читают результат курсором порциями, не загружая его в память целиком
+        JdbcTemplate streamingTemplate = new JdbcTemplate(dataSource);
+        streamingTemplate.setFetchSize(STREAM_FETCH_SIZE);
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(streamingTemplate);
+    }
+
+    public List<EncodedUriStatFromDb> getUriStatsOrderedByHitsCount(LocalDateTime start, LocalDateTime end,
+                                                                    UriFilter uriFilter, boolean unique,
+                                                                    Pageable page) {
+        MapSqlParameterSource parameters = getPeriodParameters(start, end, uriFilter);
+        String sql = (unique ? SELECT_UNIQUE_IPS_COUNT : SELECT_HITS_COUNT) + getWhereUriSql(uriFilter) +
+                AND_IN_PERIOD + GROUP_BY_URI + ORDER_BY_HITS;
+        if (page.isPaged()) {
+            sql += LIMIT;
+            parameters.addValue("limit", page.getPageSize());
+        }
+        return namedParameterJdbcTemplate.query(sql, parameters, ENCODED_URI_STAT_MAPPER);
+    }
+
+    public Stream<EncodedUriStatFromDb> streamUriStatsOrderedByHitsCount(LocalDateTime start, LocalDateTime end,
+                                                                         UriFilter uriFilter, boolean unique) {
+        return streamingJdbcTemplate.queryForStream((unique ? SELECT_UNIQUE_IPS_COUNT : SELECT_HITS_COUNT) +
+                        getWhereUriSql(uriFilter) + AND_IN_PERIOD + GROUP_BY_URI + ORDER_BY_HITS,
+                getPeriodParameters(start, end, uriFilter), ENCODED_URI_STAT_MAPPER);
+    }
+
+    public List<EncodedUriStatFromDb> getUriStatsOutsideRollupBuckets(LocalDateTime start, LocalDateTime firstBucket,
+                                                                      LocalDateTime bucketsEnd, LocalDateTime end,
+                                                                      UriFilter uriFilter) {
+        return namedParameterJdbcTemplate.query(SELECT_HITS_COUNT + getWhereUriSql(uriFilter) +
+                        AND_OUTSIDE_ROLLUP_BUCKETS + GROUP_BY_URI,
+                getOutsideRollupBucketsParameters(start, firstBucket, bucketsEnd, end, uriFilter),
+                ENCODED_URI_STAT_MAPPER);
+    }
+
+    public List<Object[]> getUniqueIpsOutsideRollupBuckets(LocalDateTime start, LocalDateTime firstBucket,
+                                                           LocalDateTime bucketsEnd, LocalDateTime end,
+                                                           UriFilter uriFilter) {
+        return namedParameterJdbcTemplate.query(SELECT_UNIQUE_IPS + getWhereUriSql(uriFilter) +
+                        AND_OUTSIDE_ROLLUP_BUCKETS,
+                getOutsideRollupBucketsParameters(start, firstBucket, bucketsEnd, end, uriFilter),
+                (resultSet, rowNumber) -> new Object[] {resultSet.getInt("application_id"),
+                        resultSet.getInt("uri_id"), resultSet.getBytes("ip")});
+    }
+
+    public List<Object[]> getHitsPerMinuteOutsideRollupBuckets(LocalDateTime start, LocalDateTime firstBucket,
+                                                               LocalDateTime bucketsEnd, LocalDateTime end,
+                                                               UriFilter uriFilter) {
+        return namedParameterJdbcTemplate.query(SELECT_HITS_PER_MINUTE + getWhereUriSql(uriFilter) +
+                        AND_OUTSIDE_ROLLUP_BUCKETS + GROUP_BY_URI_AND_MINUTE,
+                getOutsideRollupBucketsParameters(start, firstBucket, bucketsEnd, end, uriFilter),
+                (resultSet, rowNumber) -> new Object[] {resultSet.getInt("application_id"),
+                        resultSet.getInt("uri_id"), resultSet.getTimestamp("minute_start"),
+                        resultSet.getLong("hits")});
+    }
+
+    private String getWhereUriSql(UriFilter uriFilter) {
+        return uriFilter.isByPrefix() ? whereUriInRangeSql : WHERE_URI_ID_IN_ARRAY;
+    }
+
+    private MapSqlParameterSource getPeriodParameters(LocalDateTime start, LocalDateTime end, UriFilter uriFilter) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("start", Timestamp.valueOf(start))
+                .addValue("end", Timestamp.valueOf(end));
+        if (uriFilter.isByPrefix()) {
+            return parameters
+                    .addValue("uriPrefix", uriFilter.getUriPrefix())
+                    .addValue("uriPrefixUpperBound", uriFilter.getUriPrefixUpperBound());
+        }
+        return parameters.addValue("uriIds", new IntegerArrayValue(uriFilter.getUriIds()), IntegerArrayValue.SQL_TYPE);
+    }
+
+    private MapSqlParameterSource getOutsideRollupBucketsParameters(LocalDateTime start, LocalDateTime firstBucket,
+                                                                    LocalDateTime bucketsEnd, LocalDateTime end,
+                                                                    UriFilter uriFilter) {
+        return getPeriodParameters(start, end, uriFilter)
+                .addValue("firstBucket", Timestamp.valueOf(firstBucket))
+                .addValue("bucketsEnd", Timestamp.valueOf(bucketsEnd));
+    }
+
+}
@@ -0,0 +1,26 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.dao;
+
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
+
+// Список строк передаётся одним параметром-массивом: текст запроса не зависит от длины списка, поэтому план
+// запроса переиспользуется, а число параметров не упирается в ограничения драйвера
+class VarcharArrayValue extends AbstractSqlTypeValue {
+    static final int SQL_TYPE = Types.ARRAY;
+
+    private final String[] values;
+
+    VarcharArrayValue(Collection<String> values) {
+        this.values = values.toArray(String[]::new);
+    }
+
+    @Override
+    protected Object createTypeValue(Connection connection, int sqlType, String typeName) throws SQLException {
+        return connection.createArrayOf("varchar", values);
+    }
+
+}
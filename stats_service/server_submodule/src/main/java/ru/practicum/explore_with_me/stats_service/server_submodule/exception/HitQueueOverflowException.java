@@ -0,0 +1,9 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.exception;
+
+public class HitQueueOverflowException extends RuntimeException {
+
+    public HitQueueOverflowException(String message) {
+        super(message);
+    }
+
+}
\ No newline at end of file
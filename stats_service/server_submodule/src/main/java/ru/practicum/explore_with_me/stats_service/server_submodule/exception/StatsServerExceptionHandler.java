@@ -26,6 +26,13 @@ public class StatsServerExceptionHandler {
         return exception.getMessage();
     }
 
+    @ExceptionHandler(HitQueueOverflowException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String handleHitQueueOverflowException(HitQueueOverflowException exception) {
+        log.warn(exception.getMessage());
+        return exception.getMessage();
+    }
+
     @ExceptionHandler(ConstraintViolationException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public String handleConstraintViolationException(ConstraintViolationException exception) {
@@ -0,0 +1,198 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.ingestion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.HitBatchRepository;
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.HitEntity;
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.HitRollupRepository;
+import ru.practicum.explore_with_me.stats_service.server_submodule.exception.HitQueueOverflowException;
+import ru.practicum.explore_with_me.stats_service.server_submodule.topk.RecentTopUrisTracker;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Profile("!in-memory")
+@Slf4j
+public class HitIngestionPipeline {
+    private final HitIngestionProperties properties;
+    private final HitBatchRepository hitBatchRepository;
+    private final HitRollupRepository hitRollupRepository;
+    private final RecentTopUrisTracker recentTopUrisTracker;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<HitEntity> queue;
+    private final Timer flushTimer;
+    private final Counter savedHitsCounter;
+    private final Counter rejectedHitsCounter;
+    private final Counter droppedHitsCounter;
+    private final Counter failedHitsCounter;
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public HitIngestionPipeline(HitIngestionProperties properties,
+                                HitBatchRepository hitBatchRepository,
+                                HitRollupRepository hitRollupRepository,
+                                RecentTopUrisTracker recentTopUrisTracker,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hitBatchRepository = hitBatchRepository;
+        this.hitRollupRepository = hitRollupRepository;
+        this.recentTopUrisTracker = recentTopUrisTracker;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        Gauge.builder("stats.ingestion.queue.depth", queue, BlockingQueue::size)
+                .description("Number of accepted hits waiting for batch saving")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("stats.ingestion.flush.latency")
+                .description("Time of saving one batch of hits to the database")
+                .register(meterRegistry);
+        this.savedHitsCounter = meterRegistry.counter("stats.ingestion.hits", "result", "saved");
+        this.rejectedHitsCounter = meterRegistry.counter("stats.ingestion.hits", "result", "rejected");
+        this.droppedHitsCounter = meterRegistry.counter("stats.ingestion.hits", "result", "dropped");
+        this.failedHitsCounter = meterRegistry.counter("stats.ingestion.hits", "result", "failed");
+    }
+
+    public boolean isAsync() {
+        return HitIngestionProperties.IngestionMode.ASYNC.equals(properties.getMode());
+    }
+
+    public boolean accept(HitEntity hitEntity) {
+        if (!running) {
+            throw new HitQueueOverflowException("Hit ingestion pipeline is not running, hit was not accepted");
+        }
+        boolean accepted;
+        switch (properties.getBackpressure()) {
+            case BLOCK:
+                try {
+                    accepted = queue.offer(hitEntity, properties.getOfferTimeoutMs(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    accepted = false;
+                }
+                break;
+            case REJECT:
+                accepted = queue.offer(hitEntity);
+                break;
+            case DROP:
+                if (!queue.offer(hitEntity)) {
+                    droppedHitsCounter.increment();
+                    log.warn("Hit ingestion queue is full, hit '{}' was dropped", hitEntity);
+                    return false;
+                }
+                return true;
+            default:
+                throw new IllegalArgumentException("There is no logic for backpressure strategy "
+                        + properties.getBackpressure());
+        }
+        if (!accepted) {
+            rejectedHitsCounter.increment();
+            throw new HitQueueOverflowException("Stats server is overloaded: hit ingestion queue is full, " +
+                    "try again later");
+        }
+        return true;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (!isAsync() || running) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::writeBatchesWhileRunning, "hit-ingestion-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Asynchronous hit ingestion started: queue capacity '{}', batch size '{}', flush interval '{}' ms",
+                properties.getQueueCapacity(), properties.getBatchSize(), properties.getFlushIntervalMs());
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;  // Новые хиты больше не принимаются, писатель дописывает то, что уже лежит в очереди
+        try {
+            writerThread.join(properties.getShutdownTimeoutMs());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            log.warn("Hit ingestion writer did not drain the queue in '{}' ms, '{}' hits are lost",
+                    properties.getShutdownTimeoutMs(), queue.size());
+            writerThread.interrupt();
+        } else {
+            log.info("Asynchronous hit ingestion stopped, the queue was drained");
+        }
+    }
+
+    private void writeBatchesWhileRunning() {
+        int batchSize = properties.getBatchSize();
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(properties.getFlushIntervalMs());
+        List<HitEntity> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                HitEntity first = queue.poll(properties.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    HitEntity next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                flush(batch);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<HitEntity> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                hitBatchRepository.saveAll(batch);
+                hitRollupRepository.addHits(batch);
+                recentTopUrisTracker.record(batch);
+            }));
+            savedHitsCounter.increment(batch.size());
+            log.debug("Batch of '{}' hits was saved", batch.size());
+        } catch (RuntimeException exception) {
+            failedHitsCounter.increment(batch.size());
+            log.error("Failed to save batch of '{}' hits: {}", batch.size(), exception.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.ingestion;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "stats-server.ingestion")
+@Getter
+@Setter
+public class HitIngestionProperties {
+    private IngestionMode mode = IngestionMode.SYNC;
+    private int queueCapacity = 10_000;
+    private int batchSize = 500;
+    private long flushIntervalMs = 200L;
+    private BackpressureStrategy backpressure = BackpressureStrategy.BLOCK;
+    private long offerTimeoutMs = 100L;
+    private long shutdownTimeoutMs = 10_000L;
+    private int maxBulkSize = 5_000;
+
+    public enum IngestionMode {
+        SYNC,
+        ASYNC
+
+    }
+
+    public enum BackpressureStrategy {
+        BLOCK,   // ждём освобождения места в очереди не дольше offerTimeoutMs, затем отклоняем хит
+        REJECT,  // сразу отклоняем хит, если очередь заполнена
+        DROP     // молча отбрасываем хит, увеличивая счётчик отброшенных
+
+    }
+
+}
@@ -0,0 +1,340 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.inmemory;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.HitEntity;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Хиты хранятся по столбцам в секциях фиксированной ширины по времени: секунда хита и id приложения, URI и IP
+// лежат в отдельных примитивных массивах, строки - только в словарях. Запись идёт одним потоком под блокировкой,
+// чтение не блокируется: читатель берёт размер секции и видит все строки до него. Если задан каталог сегментов,
+// вместо секций в куче хиты хранятся в HitSegmentLog
+@Component
+@Profile("in-memory")
+@Slf4j
+public class HitColumnStore implements HitWriteAheadLog.Replayer {
+    private static final int SCAN_CHUNK_ROWS = 1 << 16;
+
+    private final InMemoryStatsProperties properties;
+    private final long partitionSeconds;
+    private final Dictionary<String> applications = new Dictionary<>(new ConcurrentHashMap<>());
+    private final Dictionary<String> uris = new Dictionary<>(new ConcurrentSkipListMap<>());  // Для поиска по префиксу
+    private final Dictionary<ByteBuffer> ips = new Dictionary<>(new ConcurrentHashMap<>());
+    private final ConcurrentSkipListMap<Long, Partition> partitions = new ConcurrentSkipListMap<>();
+    private final ForkJoinPool scanPool;
+    private final HitWriteAheadLog writeAheadLog;
+    private final HitSegmentLog segmentLog;
+    private long hitsCount;
+
+    @FunctionalInterface
+    public interface RowConsumer<A> {
+
+        void accept(A accumulator, int applicationId, int uriId, int ipId, long epochSecond);
+
+    }
+
+    interface Rows {
+
+        <A> void scan(int from, int to, long startSecond, long endSecond, IntPredicate uriFilter, A accumulator,
+                      RowConsumer<A> rowConsumer);
+
+    }
+
+    @Value
+    static class RowRange {
+        Rows rows;
+        int from;
+        int to;
+
+    }
+
+    public HitColumnStore(InMemoryStatsProperties properties) {
+        this.properties = properties;
+        this.partitionSeconds = TimeUnit.HOURS.toSeconds(properties.getPartitionHours());
+        this.scanPool = new ForkJoinPool(properties.getScanParallelism());
+        if (properties.getSegmentLogPath() != null && !properties.getSegmentLogPath().isBlank()) {
+            Path directory = Path.of(properties.getSegmentLogPath());
+            // Словари должны попасть на диск раньше сегментов, которые ссылаются на их id
+            this.writeAheadLog = HitWriteAheadLog.open(directory.resolve("dictionaries.wal"),
+                    properties.isSegmentLogFsync(), this);
+            this.segmentLog = HitSegmentLog.open(directory, properties);
+            this.hitsCount = segmentLog.size();
+        } else if (properties.getWalPath() == null || properties.getWalPath().isBlank()) {
+            log.warn("Write-ahead log of hits is not configured, hits will be lost after restart");
+            this.writeAheadLog = null;
+            this.segmentLog = null;
+        } else {
+            this.writeAheadLog = HitWriteAheadLog.open(Path.of(properties.getWalPath()), properties.isWalFsync(),
+                    this);
+            this.segmentLog = null;
+        }
+    }
+
+    // Пачка сначала пишется в журнал и сбрасывается на диск, только потом становится видна запросам
+    public synchronized void append(List<HitEntity> hitEntities) {
+        int[][] rows = new int[hitEntities.size()][];
+        for (int i = 0; i < hitEntities.size(); i++) {
+            HitEntity hitEntity = hitEntities.get(i);
+            int applicationId = intern(applications, hitEntity.getApplication());
+            int uriId = intern(uris, hitEntity.getUri());
+            int ipId = intern(ips, ByteBuffer.wrap(hitEntity.getIp()));
+            rows[i] = new int[] {applicationId, uriId, ipId};
+            if (writeAheadLog != null && segmentLog == null) {
+                writeAheadLog.writeHit(applicationId, uriId, ipId, toEpochSecond(hitEntity.getTimestamp()));
+            }
+        }
+        if (writeAheadLog != null) {
+            writeAheadLog.sync();
+        }
+        for (int i = 0; i < hitEntities.size(); i++) {
+            HitEntity hitEntity = hitEntities.get(i);
+            hitEntity.setApplicationId(rows[i][0]);
+            hitEntity.setUriId(rows[i][1]);
+            if (segmentLog == null) {
+                onHit(rows[i][0], rows[i][1], rows[i][2], toEpochSecond(hitEntity.getTimestamp()));
+            } else {
+                segmentLog.append(rows[i][0], rows[i][1], rows[i][2], toEpochSecond(hitEntity.getTimestamp()));
+                hitsCount++;
+            }
+            hitEntity.setId(BigInteger.valueOf(hitsCount));
+        }
+        if (segmentLog != null) {
+            segmentLog.sync();
+        }
+    }
+
+    // Строки секций или блоков сегментов, пересекающихся с периодом, делятся на куски и просматриваются
+    // параллельно. Каждый кусок копит результат в своём аккумуляторе, после чего аккумуляторы сливаются
+    public <A> A scan(LocalDateTime start, LocalDateTime end, IntPredicate uriFilter, Supplier<A> accumulatorFactory,
+                      RowConsumer<A> rowConsumer, BinaryOperator<A> combiner) {
+        long startSecond = toEpochSecond(start);
+        long endSecond = toEpochSecond(end);
+        List<Runnable> chunks = new ArrayList<>();
+        List<A> accumulators = new ArrayList<>();
+        for (RowRange range : segmentLog != null ? segmentLog.findRanges(startSecond, endSecond) :
+                findPartitionRanges(startSecond, endSecond)) {
+            for (int from = range.getFrom(); from < range.getTo(); from += SCAN_CHUNK_ROWS) {
+                A accumulator = accumulatorFactory.get();
+                accumulators.add(accumulator);
+                int chunkFrom = from;
+                int chunkTo = Math.min(range.getTo(), from + SCAN_CHUNK_ROWS);
+                chunks.add(() -> range.getRows().scan(chunkFrom, chunkTo, startSecond, endSecond, uriFilter,
+                        accumulator, rowConsumer));
+            }
+        }
+        if (chunks.size() == 1) {
+            chunks.get(0).run();
+        } else if (!chunks.isEmpty()) {
+            scanPool.submit(() -> chunks.parallelStream().forEach(Runnable::run)).join();
+        }
+        return accumulators.stream().reduce(combiner).orElseGet(accumulatorFactory);
+    }
+
+    public String getApplication(int applicationId) {
+        return applications.get(applicationId);
+    }
+
+    public String getUri(int uriId) {
+        return uris.get(uriId);
+    }
+
+    public Integer findUriId(String uri) {
+        return uris.ids.get(uri);
+    }
+
+    public List<String> findUrisByPrefix(String uriPrefix) {
+        return ((ConcurrentNavigableMap<String, Integer>) uris.ids).tailMap(uriPrefix).keySet().stream()
+                .takeWhile(uri -> uri.startsWith(uriPrefix))
+                .collect(Collectors.toList());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        scanPool.shutdown();
+        if (segmentLog != null) {
+            segmentLog.close();
+        }
+        if (writeAheadLog != null) {
+            writeAheadLog.close();
+        }
+    }
+
+    @Override
+    public void onApplication(int id, String application) {
+        applications.put(id, application);
+    }
+
+    @Override
+    public void onUri(int id, String uri) {
+        uris.put(id, uri);
+    }
+
+    @Override
+    public void onIp(int id, byte[] ip) {
+        ips.put(id, ByteBuffer.wrap(ip));
+    }
+
+    @Override
+    public void onHit(int applicationId, int uriId, int ipId, long epochSecond) {
+        partitions.computeIfAbsent(Math.floorDiv(epochSecond, partitionSeconds),
+                        key -> new Partition(properties.getInitialPartitionCapacity()))
+                .add(applicationId, uriId, ipId, epochSecond);
+        hitsCount++;  // Id хита - его номер в журнале, поэтому после восстановления id не меняются
+    }
+
+    public static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static LocalDateTime fromEpochSecond(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    private List<RowRange> findPartitionRanges(long startSecond, long endSecond) {
+        List<RowRange> ranges = new ArrayList<>();
+        for (Partition partition : partitions.subMap(Math.floorDiv(startSecond, partitionSeconds), true,
+                Math.floorDiv(endSecond, partitionSeconds), true).values()) {
+            int size = partition.size;  // Размер читается первым, прочитанные после него столбцы не короче
+            ranges.add(new RowRange(partition.columns, 0, size));
+        }
+        return ranges;
+    }
+
+    private <K> int intern(Dictionary<K> dictionary, K value) {
+        Integer id = dictionary.ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        id = dictionary.size;
+        dictionary.put(id, value);
+        if (writeAheadLog != null) {
+            if (dictionary == applications) {
+                writeAheadLog.writeApplication(id, (String) value);
+            } else if (dictionary == uris) {
+                writeAheadLog.writeUri(id, (String) value);
+            } else {
+                writeAheadLog.writeIp(id, ((ByteBuffer) value).array());
+            }
+        }
+        return id;
+    }
+
+    private static class Dictionary<K> {
+        private final ConcurrentMap<K, Integer> ids;
+        private volatile K[] values;
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        Dictionary(ConcurrentMap<K, Integer> ids) {
+            this.ids = ids;
+            this.values = (K[]) new Object[16];
+        }
+
+        K get(int id) {
+            return values[id];
+        }
+
+        void put(int id, K value) {
+            if (id != size) {
+                throw new IllegalStateException(String.format("Dictionary id '%d' is out of order, expected '%d'",
+                        id, size));
+            }
+            K[] current = values;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[size++] = value;
+            values = current;  // Значение публикуется раньше id, поэтому найденный в ids id всегда разрешается
+            ids.put(value, id);
+        }
+
+    }
+
+    private static class Partition {
+        private volatile Columns columns;
+        private volatile int size;
+
+        Partition(int initialCapacity) {
+            this.columns = new Columns(Math.max(initialCapacity, 1));
+        }
+
+        void add(int applicationId, int uriId, int ipId, long epochSecond) {
+            Columns current = columns;
+            if (size == current.epochSeconds.length) {
+                current = current.grow(size);
+                columns = current;
+            }
+            current.epochSeconds[size] = epochSecond;
+            current.applicationIds[size] = applicationId;
+            current.uriIds[size] = uriId;
+            current.ipIds[size] = ipId;
+            size = size + 1;
+        }
+
+    }
+
+    private static class Columns implements Rows {
+        private final long[] epochSeconds;
+        private final int[] applicationIds;
+        private final int[] uriIds;
+        private final int[] ipIds;
+
+        Columns(int capacity) {
+            this(new long[capacity], new int[capacity], new int[capacity], new int[capacity]);
+        }
+
+        private Columns(long[] epochSeconds, int[] applicationIds, int[] uriIds, int[] ipIds) {
+            this.epochSeconds = epochSeconds;
+            this.applicationIds = applicationIds;
+            this.uriIds = uriIds;
+            this.ipIds = ipIds;
+        }
+
+        Columns grow(int size) {
+            int capacity = size * 2;
+            return new Columns(Arrays.copyOf(epochSeconds, capacity), Arrays.copyOf(applicationIds, capacity),
+                    Arrays.copyOf(uriIds, capacity), Arrays.copyOf(ipIds, capacity));
+        }
+
+        @Override
+        public <A> void scan(int from, int to, long startSecond, long endSecond, IntPredicate uriFilter,
+                             A accumulator, RowConsumer<A> rowConsumer) {
+            for (int row = from; row < to; row++) {
+                long epochSecond = epochSeconds[row];
+                // Сначала проверяется время: столбец секунд лежит подряд и не требует обращения к другим столбцам
+                if (epochSecond < startSecond || epochSecond > endSecond) {
+                    continue;
+                }
+                if (uriFilter != null && !uriFilter.test(uriIds[row])) {
+                    continue;
+                }
+                rowConsumer.accept(accumulator, applicationIds[row], uriIds[row], ipIds[row], epochSecond);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,293 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.inmemory;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Хиты пишутся подряд в сегменты фиксированного размера, отображённые в память. Запись занимает 24 байта:
+// секунда (8), id приложения (4), id URI (4), id IP (4) и CRC32C первых 20 байт (4). Сегмент называется по номеру
+// своей первой записи. Для каждого блока из index-interval записей хранятся минимальная и максимальная секунда,
+// по ним запрос пропускает блоки и сегменты вне своего периода. Запросы читают записи прямо из отображения
+@Slf4j
+class HitSegmentLog implements Closeable {
+    static final int RECORD_SIZE = 24;
+    private static final int CHECKSUMMED_BYTES = 20;
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final String INDEX_SUFFIX = ".index";
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final int indexInterval;
+    private final boolean fsync;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final ByteBuffer checksummedBytes = ByteBuffer.allocate(CHECKSUMMED_BYTES);
+    private final CRC32C checksum = new CRC32C();
+    private final List<Segment> unsyncedSegments = new ArrayList<>();
+
+    private HitSegmentLog(Path directory, int segmentRecords, int indexInterval, boolean fsync) {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.indexInterval = indexInterval;
+        this.fsync = fsync;
+    }
+
+    static HitSegmentLog open(Path directory, InMemoryStatsProperties properties) {
+        HitSegmentLog segmentLog = new HitSegmentLog(directory, properties.getSegmentRecords(),
+                properties.getSegmentIndexInterval(), properties.isSegmentLogFsync());
+        try {
+            Files.createDirectories(directory);
+            List<Path> segmentPaths;
+            try (Stream<Path> files = Files.list(directory)) {
+                segmentPaths = files
+                        .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .sorted()  // Имена дополнены нулями, поэтому порядок имён совпадает с порядком записей
+                        .collect(Collectors.toList());
+            }
+            long baseOffset = 0L;
+            for (int i = 0; i < segmentPaths.size(); i++) {
+                Segment segment = segmentLog.recover(segmentPaths.get(i), baseOffset, i == segmentPaths.size() - 1);
+                segmentLog.segments.add(segment);
+                baseOffset += segment.size;
+            }
+            log.info("'{}' hits in '{}' segments were restored from {}", baseOffset, segmentPaths.size(), directory);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to open segment log of hits " + directory, exception);
+        }
+        return segmentLog;
+    }
+
+    long size() {
+        Segment last = lastSegment();
+        return last == null ? 0L : last.baseOffset + last.written;
+    }
+
+    // Запись становится видна запросам только после sync
+    void append(int applicationId, int uriId, int ipId, long epochSecond) {
+        Segment active = lastSegment();
+        if (active == null || active.written == active.capacity) {
+            if (active != null) {
+                seal(active);
+            }
+            active = createSegment(size());
+            segments.add(active);
+        }
+        checksummedBytes.clear();
+        checksummedBytes.putLong(epochSecond).putInt(applicationId).putInt(uriId).putInt(ipId).flip();
+        checksum.reset();
+        checksum.update(checksummedBytes);
+        int position = active.written * RECORD_SIZE;
+        active.buffer.putLong(position, epochSecond);
+        active.buffer.putInt(position + 8, applicationId);
+        active.buffer.putInt(position + 12, uriId);
+        active.buffer.putInt(position + 16, ipId);
+        active.buffer.putInt(position + CHECKSUMMED_BYTES, (int) checksum.getValue());
+        active.index(active.written, epochSecond);
+        active.written++;
+        if (unsyncedSegments.isEmpty() || unsyncedSegments.get(unsyncedSegments.size() - 1) != active) {
+            unsyncedSegments.add(active);
+        }
+    }
+
+    void sync() {
+        for (Segment segment : unsyncedSegments) {
+            if (fsync) {
+                segment.buffer.force();
+            }
+            segment.size = segment.written;
+        }
+        unsyncedSegments.clear();
+    }
+
+    // Диапазоны записей, блоки которых пересекаются с периодом. Соседние подходящие блоки сливаются в один диапазон
+    List<HitColumnStore.RowRange> findRanges(long startSecond, long endSecond) {
+        List<HitColumnStore.RowRange> ranges = new ArrayList<>();
+        for (Segment segment : segments) {
+            int size = segment.size;
+            int from = -1;
+            for (int block = 0; block * indexInterval < size; block++) {
+                boolean overlaps = segment.blockMinSeconds[block] <= endSecond &&
+                        segment.blockMaxSeconds[block] >= startSecond;
+                if (overlaps && from < 0) {
+                    from = block * indexInterval;
+                } else if (!overlaps && from >= 0) {
+                    ranges.add(new HitColumnStore.RowRange(segment, from, block * indexInterval));
+                    from = -1;
+                }
+            }
+            if (from >= 0) {
+                ranges.add(new HitColumnStore.RowRange(segment, from, size));
+            }
+        }
+        return ranges;
+    }
+
+    @Override
+    public void close() {
+        sync();
+    }
+
+    private Segment lastSegment() {
+        return segments.isEmpty() ? null : segments.get(segments.size() - 1);
+    }
+
+    private Segment createSegment(long baseOffset) {
+        Path path = directory.resolve(String.format("%020d%s", baseOffset, SEGMENT_SUFFIX));
+        log.debug("New segment of hits {} was created", path);
+        return new Segment(baseOffset, map(path), segmentRecords, indexInterval);
+    }
+
+    // Заполненный сегмент больше не меняется, поэтому он сбрасывается на диск и его индекс сохраняется рядом
+    private void seal(Segment segment) {
+        segment.buffer.force();
+        segment.size = segment.written;
+        unsyncedSegments.remove(segment);
+        Path indexPath = directory.resolve(String.format("%020d%s", segment.baseOffset, INDEX_SUFFIX));
+        try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(indexPath))) {
+            output.writeInt(segment.written);
+            for (int block = 0; block < segment.blockMinSeconds.length; block++) {
+                output.writeLong(segment.blockMinSeconds[block]);
+                output.writeLong(segment.blockMaxSeconds[block]);
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to write index of segment " + indexPath, exception);
+        }
+    }
+
+    private Segment recover(Path path, long baseOffset, boolean last) throws IOException {
+        Segment segment = new Segment(baseOffset, map(path), segmentRecords, indexInterval);
+        Path indexPath = Path.of(path.toString().replace(SEGMENT_SUFFIX, INDEX_SUFFIX));
+        if (!last && Files.exists(indexPath) && loadIndex(segment, indexPath)) {
+            return segment;
+        }
+        // Индекса нет только у сегмента, в который шла запись. Его записи проверяются до первой битой: она и всё
+        // после неё могли не дойти до диска, поэтому хвост обнуляется и следующие хиты пишутся на его место
+        ByteBuffer record = segment.buffer.duplicate();
+        while (segment.written < segment.capacity) {
+            int position = segment.written * RECORD_SIZE;
+            checksum.reset();
+            checksum.update(record.limit(position + CHECKSUMMED_BYTES).position(position));
+            if ((int) checksum.getValue() != segment.buffer.getInt(position + CHECKSUMMED_BYTES)) {
+                break;
+            }
+            segment.index(segment.written, segment.buffer.getLong(position));
+            segment.written++;
+        }
+        if (segment.written < segment.capacity) {
+            int tailStart = segment.written * RECORD_SIZE;
+            if (segment.buffer.getLong(tailStart) != 0L || segment.buffer.getLong(tailStart + 8) != 0L ||
+                    segment.buffer.getLong(tailStart + 16) != 0L) {
+                log.warn("Segment of hits {} ends with incomplete or corrupted record, it is truncated to '{}' " +
+                        "records", path, segment.written);
+            }
+            record.clear().position(tailStart);
+            byte[] zeros = new byte[Math.min(record.remaining(), 1 << 16)];
+            while (record.hasRemaining()) {
+                record.put(zeros, 0, Math.min(zeros.length, record.remaining()));
+            }
+            segment.buffer.force();
+            if (!last) {
+                log.warn("Segment of hits {} is not the last one, but contains only '{}' records",
+                        path, segment.written);
+            }
+        }
+        segment.size = segment.written;
+        return segment;
+    }
+
+    private boolean loadIndex(Segment segment, Path indexPath) throws IOException {
+        try (DataInputStream input = new DataInputStream(Files.newInputStream(indexPath))) {
+            int written = input.readInt();
+            if (written != segment.capacity) {
+                return false;
+            }
+            for (int block = 0; block < segment.blockMinSeconds.length; block++) {
+                segment.blockMinSeconds[block] = input.readLong();
+                segment.blockMaxSeconds[block] = input.readLong();
+            }
+            segment.written = written;
+            segment.size = written;
+            return true;
+        } catch (IOException exception) {  // Индекс всегда можно перестроить по самому сегменту
+            log.warn("Index of segment {} is unreadable and will be rebuilt", indexPath, exception);
+            Arrays.fill(segment.blockMinSeconds, Long.MAX_VALUE);
+            Arrays.fill(segment.blockMaxSeconds, Long.MIN_VALUE);
+            return false;
+        }
+    }
+
+    private MappedByteBuffer map(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // Отображение остаётся действительным и после закрытия канала, файл растягивается до размера сегмента
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0L, (long) segmentRecords * RECORD_SIZE);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to map segment of hits " + path, exception);
+        }
+    }
+
+    static class Segment implements HitColumnStore.Rows {
+        private final long baseOffset;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private final int indexInterval;
+        private final long[] blockMinSeconds;
+        private final long[] blockMaxSeconds;
+        private int written;         // Меняется только писателем
+        private volatile int size;   // Записи, видимые запросам
+
+        Segment(long baseOffset, MappedByteBuffer buffer, int capacity, int indexInterval) {
+            this.baseOffset = baseOffset;
+            this.buffer = buffer;
+            this.capacity = capacity;
+            this.indexInterval = indexInterval;
+            int blocks = (capacity + indexInterval - 1) / indexInterval;
+            this.blockMinSeconds = new long[blocks];
+            this.blockMaxSeconds = new long[blocks];
+            Arrays.fill(blockMinSeconds, Long.MAX_VALUE);
+            Arrays.fill(blockMaxSeconds, Long.MIN_VALUE);
+        }
+
+        void index(int record, long epochSecond) {
+            int block = record / indexInterval;
+            blockMinSeconds[block] = Math.min(blockMinSeconds[block], epochSecond);
+            blockMaxSeconds[block] = Math.max(blockMaxSeconds[block], epochSecond);
+        }
+
+        @Override
+        public <A> void scan(int from, int to, long startSecond, long endSecond, IntPredicate uriFilter,
+                             A accumulator, HitColumnStore.RowConsumer<A> rowConsumer) {
+            for (int position = from * RECORD_SIZE; position < to * RECORD_SIZE; position += RECORD_SIZE) {
+                long epochSecond = buffer.getLong(position);  // Абсолютное чтение не меняет позицию буфера
+                if (epochSecond < startSecond || epochSecond > endSecond) {
+                    continue;
+                }
+                int uriId = buffer.getInt(position + 12);
+                if (uriFilter != null && !uriFilter.test(uriId)) {
+                    continue;
+                }
+                rowConsumer.accept(accumulator, buffer.getInt(position + 8), uriId, buffer.getInt(position + 16),
+                        epochSecond);
+            }
+        }
+
+    }
+
+}
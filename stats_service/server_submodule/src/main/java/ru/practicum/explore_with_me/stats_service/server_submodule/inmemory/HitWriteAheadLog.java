@@ -0,0 +1,222 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.inmemory;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+// Журнал хранит записи словарей (новое приложение, URI или IP с его id) и хиты в виде id и секунды времени.
+// Запись словаря всегда идёт раньше первого хита с этим id, поэтому журнал воспроизводится одним проходом.
+// Записи одной пачки пишутся на диск одним кадром: длина (4), CRC32C содержимого (4) и само содержимое.
+// Пачка применяется при восстановлении, только если кадр прочитан целиком и контрольная сумма сошлась
+@Slf4j
+class HitWriteAheadLog implements Closeable {
+    private static final byte APPLICATION = 1;
+    private static final byte URI = 2;
+    private static final byte IP = 3;
+    private static final byte HIT = 4;
+    private static final int HIT_RECORD_SIZE = 3 * Integer.BYTES + Long.BYTES;
+    private static final int FRAME_HEADER_SIZE = 2 * Integer.BYTES;
+
+    private final FileOutputStream fileOutput;
+    private final DataOutputStream output;
+    private final ByteArrayOutputStream batch = new ByteArrayOutputStream(1 << 16);
+    private final DataOutputStream batchOutput = new DataOutputStream(batch);
+    private final CRC32C checksum = new CRC32C();
+    private final boolean fsync;
+
+    interface Replayer {
+
+        void onApplication(int id, String application);
+
+        void onUri(int id, String uri);
+
+        void onIp(int id, byte[] ip);
+
+        void onHit(int applicationId, int uriId, int ipId, long epochSecond);
+
+    }
+
+    private HitWriteAheadLog(Path path, boolean fsync) throws IOException {
+        this.fileOutput = new FileOutputStream(path.toFile(), true);
+        this.output = new DataOutputStream(new BufferedOutputStream(fileOutput, 1 << 16));
+        this.fsync = fsync;
+    }
+
+    static HitWriteAheadLog open(Path path, boolean fsync, Replayer replayer) {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            if (Files.exists(path)) {
+                replay(path, replayer);
+            }
+            return new HitWriteAheadLog(path, fsync);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to open write-ahead log of hits " + path, exception);
+        }
+    }
+
+    void writeApplication(int id, String application) {
+        writeBytes(APPLICATION, id, application.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void writeUri(int id, String uri) {
+        writeBytes(URI, id, uri.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void writeIp(int id, byte[] ip) {
+        writeBytes(IP, id, ip);
+    }
+
+    void writeHit(int applicationId, int uriId, int ipId, long epochSecond) {
+        try {
+            batchOutput.writeByte(HIT);
+            batchOutput.writeInt(applicationId);
+            batchOutput.writeInt(uriId);
+            batchOutput.writeInt(ipId);
+            batchOutput.writeLong(epochSecond);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    // Накопленные с прошлого вызова записи становятся на диске одной пачкой
+    void sync() {
+        if (batch.size() == 0) {
+            return;
+        }
+        byte[] records = batch.toByteArray();
+        batch.reset();
+        checksum.reset();
+        checksum.update(records);
+        try {
+            output.writeInt(records.length);
+            output.writeInt((int) checksum.getValue());
+            output.write(records);
+            output.flush();
+            if (fsync) {
+                fileOutput.getChannel().force(false);
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+
+    private void writeBytes(byte type, int id, byte[] value) {
+        try {
+            batchOutput.writeByte(type);
+            batchOutput.writeInt(id);
+            batchOutput.writeInt(value.length);
+            batchOutput.write(value);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static void replay(Path path, Replayer replayer) throws IOException {
+        long size = Files.size(path);
+        long position = 0L;
+        long hits = 0L;
+        CRC32C checksum = new CRC32C();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path),
+                1 << 16))) {
+            while (size - position >= FRAME_HEADER_SIZE) {
+                int length = input.readInt();
+                int expectedChecksum = input.readInt();
+                if (length < 0 || length > size - position - FRAME_HEADER_SIZE) {
+                    break;  // Пачка оборвалась при падении или длина испорчена: память под неё не выделяем
+                }
+                byte[] records = new byte[length];
+                input.readFully(records);
+                checksum.reset();
+                checksum.update(records);
+                if ((int) checksum.getValue() != expectedChecksum) {
+                    break;
+                }
+                List<Consumer<Replayer>> batch = new ArrayList<>();
+                int batchHits = readRecords(records, batch);
+                if (batchHits < 0) {
+                    break;
+                }
+                batch.forEach(record -> record.accept(replayer));
+                hits += batchHits;
+                position += FRAME_HEADER_SIZE + length;
+            }
+        }
+        if (position < size) {  // Пачки после первой повреждённой не были подтверждены, восстанавливать их нельзя
+            log.warn("Write-ahead log of hits {} ends with incomplete or corrupted batch, it is truncated to " +
+                    "'{}' bytes", path, position);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(position);
+            }
+        }
+        log.info("'{}' hits were restored from write-ahead log {}", hits, path);
+    }
+
+    // Возвращает число хитов пачки или -1, если содержимое пачки не разбирается
+    private static int readRecords(byte[] records, List<Consumer<Replayer>> batch) {
+        ByteBuffer buffer = ByteBuffer.wrap(records);
+        int hits = 0;
+        try {
+            while (buffer.hasRemaining()) {
+                byte type = buffer.get();
+                if (type == HIT) {
+                    if (buffer.remaining() < HIT_RECORD_SIZE) {
+                        return -1;
+                    }
+                    int applicationId = buffer.getInt();
+                    int uriId = buffer.getInt();
+                    int ipId = buffer.getInt();
+                    long epochSecond = buffer.getLong();
+                    batch.add(replayer -> replayer.onHit(applicationId, uriId, ipId, epochSecond));
+                    hits++;
+                    continue;
+                }
+                int id = buffer.getInt();
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    return -1;
+                }
+                byte[] value = new byte[length];
+                buffer.get(value);
+                if (type == APPLICATION) {
+                    batch.add(replayer -> replayer.onApplication(id, new String(value, StandardCharsets.UTF_8)));
+                } else if (type == URI) {
+                    batch.add(replayer -> replayer.onUri(id, new String(value, StandardCharsets.UTF_8)));
+                } else if (type == IP) {
+                    batch.add(replayer -> replayer.onIp(id, value));
+                } else {
+                    return -1;
+                }
+            }
+        } catch (BufferUnderflowException exception) {
+            return -1;
+        }
+        return hits;
+    }
+
+}
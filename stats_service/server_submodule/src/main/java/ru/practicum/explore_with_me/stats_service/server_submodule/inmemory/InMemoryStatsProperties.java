@@ -0,0 +1,23 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.inmemory;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "stats-server.in-memory")
+@Getter
+@Setter
+public class InMemoryStatsProperties {
+    private int partitionHours = 24;  // Запрос просматривает только секции, пересекающиеся с его периодом
+    private int initialPartitionCapacity = 1_024;
+    private int scanParallelism = Runtime.getRuntime().availableProcessors();
+    private String walPath = "";      // Пустой путь - хиты живут только в памяти процесса
+    private boolean walFsync = false; // Без fsync пачка хитов сбрасывается в кэш ОС и переживает падение процесса,
+                                      // но не отключение питания
+    private String segmentLogPath = "";  // Каталог сегментов с хитами, отображённых в память. Если он задан, хиты
+                                         // читаются из сегментов, а журнал хранит только словари
+    private int segmentRecords = 1 << 22;
+    private int segmentIndexInterval = 4_096;
+    private boolean segmentLogFsync = false;
+
+}
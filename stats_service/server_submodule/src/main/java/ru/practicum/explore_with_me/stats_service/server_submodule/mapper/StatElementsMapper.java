@@ -8,19 +8,24 @@ import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestView;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
 import ru.practicum.explore_with_me.stats_service.server_submodule.dao.UriStatFromDb;
 import ru.practicum.explore_with_me.stats_service.server_submodule.dao.HitEntity;
+import ru.practicum.explore_with_me.stats_service.server_submodule.util.IpAddressConverter;
 
 import java.time.format.DateTimeFormatter;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", imports = IpAddressConverter.class)
 public interface StatElementsMapper {
     DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     @Mapping(target = "timestamp",
             expression = "java(java.time.LocalDateTime.parse(hitRestCommand.getTimestamp(), FORMATTER))")
+    @Mapping(target = "ip", expression = "java(IpAddressConverter.toBytes(hitRestCommand.getIp()))")
     HitEntity hitRestCommandToEntity(HitRestCommand hitRestCommand);
 
+    @Mapping(target = "ip", expression = "java(IpAddressConverter.toString(hitEntity.getIp()))")
     HitRestView hitEntityToRestView(HitEntity hitEntity);
 
+    @Mapping(target = "hitsRelativeError", ignore = true)
+    @Mapping(target = "uriSuffix", ignore = true)
     UriStatRestView uriStatFromDbToRestView(UriStatFromDb uriStatFromDb);
 
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.partitioning;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import ru.practicum.explore_with_me.stats_service.server_submodule.util.DatabasePlatform;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Component
+@Profile("!in-memory")
+@Slf4j
+public class HitPartitionManager {
+    private static final DateTimeFormatter PARTITION_NAME_FORMATTER = DateTimeFormatter.ofPattern("'hits_y'yyyy'm'MM");
+    private static final Pattern PARTITION_NAME_PATTERN = Pattern.compile("hits_y(\\d{4})m(\\d{2})");
+    private static final String SELECT_HITS_TABLE_KIND = "select c.relkind from pg_class c " +
+            "where c.relname = 'hits' and pg_table_is_visible(c.oid)";
+    private static final String SELECT_HITS_PARTITIONS = "select c.relname from pg_inherits i " +
+            "join pg_class c on c.oid = i.inhrelid " +
+            "join pg_class p on p.oid = i.inhparent " +
+            "where p.relname = 'hits' and pg_table_is_visible(p.oid)";
+    private static final String CREATE_PARTITION = "create table if not exists %s partition of hits " +
+            "for values from ('%s') to ('%s')";
+    private static final String DROP_PARTITION = "drop table if exists %s";
+
+    private final HitPartitioningProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean partitioningSupported;
+
+    public HitPartitionManager(HitPartitioningProperties properties,
+                               JdbcTemplate jdbcTemplate,
+                               DataSource dataSource) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitioningSupported = DatabasePlatform.POSTGRESQL.equals(DatabasePlatform.of(dataSource));
+        if (!partitioningSupported) {
+            log.info("Database does not support partitioning of hits, plain hits table will be used");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stats-server.partitioning.check-interval-ms:3600000}")
+    public void maintainPartitions() {
+        if (!properties.isEnabled() || !partitioningSupported) {
+            return;
+        }
+        try {
+            if (!"p".equals(jdbcTemplate.queryForObject(SELECT_HITS_TABLE_KIND, String.class))) {
+                log.warn("Table hits was created without partitioning, partitions will not be maintained");
+                return;
+            }
+            YearMonth currentMonth = YearMonth.now();
+            for (int i = 0; i <= properties.getMonthsAhead(); i++) {
+                createPartition(currentMonth.plusMonths(i));
+            }
+            if (properties.getRetentionMonths() > 0) {
+                dropPartitionsBefore(currentMonth.minusMonths(properties.getRetentionMonths()));
+            }
+        } catch (DataAccessException exception) {  // Сбой обслуживания не должен мешать записи и чтению статистики
+            log.error("Failed to maintain partitions of hits table: {}", exception.getMessage());
+        }
+    }
+
+    private static String getPartitionName(YearMonth month) {
+        return month.format(PARTITION_NAME_FORMATTER);
+    }
+
+    private void createPartition(YearMonth month) {
+        try {
+            jdbcTemplate.execute(String.format(CREATE_PARTITION, getPartitionName(month),
+                    Timestamp.valueOf(month.atDay(1).atStartOfDay()),
+                    Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay())));
+        } catch (DataAccessException exception) {  // Например, в партиции по умолчанию уже есть хиты за этот месяц
+            log.warn("Failed to create partition '{}' of hits table: {}", getPartitionName(month),
+                    exception.getMessage());
+        }
+    }
+
+    private void dropPartitionsBefore(YearMonth firstKeptMonth) {
+        List<String> partitions = jdbcTemplate.queryForList(SELECT_HITS_PARTITIONS, String.class);
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME_PATTERN.matcher(partition);
+            if (matcher.matches() && YearMonth.of(Integer.parseInt(matcher.group(1)),
+                    Integer.parseInt(matcher.group(2))).isBefore(firstKeptMonth)) {
+                jdbcTemplate.execute(String.format(DROP_PARTITION, partition));
+                log.info("Partition '{}' of hits table was dropped by retention policy", partition);
+            }
+        }
+        Timestamp retentionBorder = Timestamp.valueOf(firstKeptMonth.atDay(1).atStartOfDay());
+        jdbcTemplate.update("delete from hits_default where hit_timestamp < ?", retentionBorder);
+        jdbcTemplate.update("delete from hit_rollups where bucket_start < ?", retentionBorder);
+        jdbcTemplate.update("delete from hit_ip_sketches where bucket_start < ?", retentionBorder);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.partitioning;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "stats-server.partitioning")
+@Getter
+@Setter
+public class HitPartitioningProperties {
+    private boolean enabled = true;
+    private int monthsAhead = 2;
+    private int retentionMonths = 0;  // 0 - хиты хранятся бессрочно
+    private long checkIntervalMs = 3_600_000L;
+
+}
\ No newline at end of file
@@ -0,0 +1,303 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+import javax.validation.Valid;
+import javax.validation.Validator;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EventViewsQuery;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitAcceptanceRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestCommand;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitsBucketRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.TimeSeriesBucket;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatsQuery;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriTimeSeriesRestView;
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.HitEntity;
+import ru.practicum.explore_with_me.stats_service.server_submodule.exception.BadRequestBodyException;
+import ru.practicum.explore_with_me.stats_service.server_submodule.ingestion.HitIngestionProperties;
+import ru.practicum.explore_with_me.stats_service.server_submodule.inmemory.HitColumnStore;
+import ru.practicum.explore_with_me.stats_service.server_submodule.mapper.StatElementsMapper;
+import ru.practicum.explore_with_me.stats_service.server_submodule.util.MethodParameterValidator;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// Реализация без базы данных: хиты лежат в HitColumnStore, статистика считается полным просмотром нужных
+// временных секций. Уникальные IP всегда считаются точно, поэтому приблизительный подсчёт возвращает точное
+// значение с нулевой погрешностью
+@Service
+@Profile("in-memory")
+@Validated
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryStatsService implements StatsService {
+    private static final Comparator<UriStatRestView> BY_HITS_DESC = Comparator
+            .comparingLong(UriStatRestView::getHits).reversed()
+            .thenComparing(UriStatRestView::getApplication)
+            .thenComparing(UriStatRestView::getUri);
+
+    private final HitColumnStore hitColumnStore;
+    private final StatElementsMapper statElementsMapper;
+    private final HitIngestionProperties hitIngestionProperties;
+    private final Validator validator;
+
+    public HitRestView saveHit(@Valid HitRestCommand hitRestCommand) {
+        MethodParameterValidator.validateRequestParameters(hitRestCommand.getIp(), hitRestCommand.getUri());
+        HitEntity hitEntity = statElementsMapper.hitRestCommandToEntity(hitRestCommand);
+        hitColumnStore.append(List.of(hitEntity));
+        log.debug("New hit '{}' was saved", hitEntity);
+        return statElementsMapper.hitEntityToRestView(hitEntity);
+    }
+
+    public List<HitAcceptanceRestView> saveHits(@NotNull List<HitRestCommand> hitRestCommands) {
+        if (hitRestCommands.size() > hitIngestionProperties.getMaxBulkSize()) {
+            throw new BadRequestBodyException(String.format("Wrong request body: no more than '%d' hits can be saved " +
+                    "by one request, but there were '%d'", hitIngestionProperties.getMaxBulkSize(),
+                    hitRestCommands.size()));
+        }
+        List<HitAcceptanceRestView> results = new ArrayList<>(hitRestCommands.size());
+        List<HitEntity> hitsToSave = new ArrayList<>(hitRestCommands.size());
+        for (int i = 0; i < hitRestCommands.size(); i++) {
+            String problem = StatsRequestSupport.findProblemInHitRestCommand(validator, hitRestCommands.get(i));
+            if (problem != null) {
+                results.add(StatsRequestSupport.rejectHit(i, problem));
+                continue;
+            }
+            hitsToSave.add(statElementsMapper.hitRestCommandToEntity(hitRestCommands.get(i)));
+            results.add(HitAcceptanceRestView.builder()
+                    .index(i)
+                    .accepted(true)
+                    .build());
+        }
+        if (!hitsToSave.isEmpty()) {
+            hitColumnStore.append(hitsToSave);
+        }
+        log.debug("Batch of '{}' hits was received, '{}' of them were rejected", hitRestCommands.size(),
+                hitRestCommands.size() - hitsToSave.size());
+        return results;
+    }
+
+    public List<UriStatRestView> getAllUriStatsOrderedByHits(
+            @NotNull @NotBlank String start,
+            @NotNull @NotBlank String end,
+            String[] uris,
+            String uriPrefix,
+            Boolean ipUnique,
+            boolean approximate,
+            Integer limit) {
+        StatsRequestSupport.checkOnlyOneUriFilter(uris, uriPrefix);
+        return getUriStatsOrderedByHits(StatsRequestSupport.parseDateTime(start),
+                StatsRequestSupport.parseDateTime(end), uris, uriPrefix, ipUnique, approximate, limit);
+    }
+
+    public List<UriStatRestView> getUriStats(@NotNull UriStatsQuery uriStatsQuery) {
+        boolean withUris = uriStatsQuery.getUris() != null && !uriStatsQuery.getUris().isEmpty();
+        if (withUris && uriStatsQuery.getUriPrefix() != null) {
+            throw new BadRequestBodyException("Wrong request body: only one of uris and uriPrefix can be specified");
+        }
+        LocalDateTime startDateTime = StatsRequestSupport.parseBodyDateTime(uriStatsQuery.getStart());
+        LocalDateTime endDateTime = StatsRequestSupport.parseBodyDateTime(uriStatsQuery.getEnd());
+        return getUriStatsOrderedByHits(startDateTime, endDateTime,
+                withUris ? uriStatsQuery.getUris().toArray(String[]::new) : null, uriStatsQuery.getUriPrefix(),
+                uriStatsQuery.isUnique(), uriStatsQuery.isApproximate(), uriStatsQuery.getLimit());
+    }
+
+    public List<UriTimeSeriesRestView> getUriTimeSeries(
+            @NotNull @NotBlank String start,
+            @NotNull @NotBlank String end,
+            String[] uris,
+            String uriPrefix,
+            @NotNull @NotBlank String bucket) {
+        StatsRequestSupport.checkOnlyOneUriFilter(uris, uriPrefix);
+        TimeSeriesBucket timeSeriesBucket = StatsRequestSupport.parseTimeSeriesBucket(bucket);
+        LocalDateTime startDateTime = StatsRequestSupport.parseDateTime(start);
+        LocalDateTime endDateTime = StatsRequestSupport.parseDateTime(end);
+        MethodParameterValidator.validateRequestParameters(startDateTime, endDateTime);
+        BitSet uriFilter = findUriIds(uris, uriPrefix);
+        if (uriFilter != null && uriFilter.isEmpty()) {
+            return List.of();
+        }
+        // Время хранится в секундах UTC, поэтому начало минуты, часа и суток считается без перевода в LocalDateTime
+        long bucketSeconds = timeSeriesBucket.getUnit().getDuration().getSeconds();
+        Map<Long, TreeMap<Long, Long>> series = hitColumnStore.scan(startDateTime, endDateTime,
+                uriFilter == null ? null : uriFilter::get,
+                HashMap::new,
+                (buckets, applicationId, uriId, ipId, epochSecond) -> buckets
+                        .computeIfAbsent(toKey(applicationId, uriId), key -> new TreeMap<>())
+                        .merge(epochSecond - Math.floorMod(epochSecond, bucketSeconds), 1L, Long::sum),
+                (first, second) -> {
+                    second.forEach((key, buckets) -> buckets.forEach((bucketSecond, hits) ->
+                            first.computeIfAbsent(key, k -> new TreeMap<>()).merge(bucketSecond, hits, Long::sum)));
+                    return first;
+                });
+        log.debug("Time series of '{}' URIs with bucket '{}' was sent to client", series.size(), timeSeriesBucket);
+        return series.entrySet().stream()
+                .map(uriSeries -> {
+                    String uri = hitColumnStore.getUri(toUriId(uriSeries.getKey()));
+                    return UriTimeSeriesRestView.builder()
+                            .application(hitColumnStore.getApplication(toApplicationId(uriSeries.getKey())))
+                            .uri(uri)
+                            .uriSuffix(uriPrefix == null ? null : StatsRequestSupport.parseUriSuffix(uri, uriPrefix))
+                            .hits(uriSeries.getValue().values().stream().mapToLong(Long::longValue).sum())
+                            .buckets(uriSeries.getValue().entrySet().stream()
+                                    .map(bucketHits -> HitsBucketRestView.builder()
+                                            .start(HitColumnStore.fromEpochSecond(bucketHits.getKey())
+                                                    .format(StatsRequestSupport.FORMATTER))
+                                            .hits(bucketHits.getValue())
+                                            .build())
+                                    .collect(Collectors.toList()))
+                            .build();
+                })
+                .sorted(Comparator.comparingLong(UriTimeSeriesRestView::getHits).reversed()
+                        .thenComparing(UriTimeSeriesRestView::getUri))
+                .collect(Collectors.toList());
+    }
+
+    public long streamAllUriStatsOrderedByHits(
+            @NotNull @NotBlank String start,
+            @NotNull @NotBlank String end,
+            String[] uris,
+            String uriPrefix,
+            Boolean ipUnique,
+            boolean approximate,
+            Integer limit,
+            @NotNull Consumer<UriStatRestView> consumer) {
+        // Статистика и так собирается в памяти, поэтому поток - это обход готового списка
+        List<UriStatRestView> stats = getAllUriStatsOrderedByHits(start, end, uris, uriPrefix, ipUnique, approximate,
+                limit);
+        stats.forEach(consumer);
+        log.debug("Stream of '{}' URI hit statistics was sent to client", stats.size());
+        return stats.size();
+    }
+
+    public Map<Long, Long> getEventViews(@NotNull EventViewsQuery eventViewsQuery) {
+        if (eventViewsQuery.getStart() == null || eventViewsQuery.getEnd() == null ||
+                eventViewsQuery.getEventIds() == null) {
+            throw new BadRequestBodyException("Wrong request body: start, end and event ids must be specified");
+        }
+        Map<Long, Long> eventViews = new LinkedHashMap<>();
+        String[] uris = eventViewsQuery.getEventIds().stream()
+                .distinct()
+                .map(eventId -> EventViewsQuery.EVENT_URI_PREFIX + eventId)
+                .toArray(String[]::new);
+        if (uris.length == 0) {  // Пустой список URI означал бы статистику по всем URI
+            return eventViews;
+        }
+        getUriStatsOrderedByHits(eventViewsQuery.getStart(), eventViewsQuery.getEnd(), uris, null,
+                eventViewsQuery.isUnique(), eventViewsQuery.isApproximate(), null)
+                .forEach(uriStat -> eventViews.merge(
+                        Long.parseLong(uriStat.getUri().substring(EventViewsQuery.EVENT_URI_PREFIX.length())),
+                        uriStat.getHits(), Long::sum));  // Одно событие могут запрашивать разные приложения
+        log.debug("Views of '{}' events were sent to client", uris.length);
+        return eventViews;
+    }
+
+    private List<UriStatRestView> getUriStatsOrderedByHits(LocalDateTime startDateTime, LocalDateTime endDateTime,
+                                                           String[] uris, String uriPrefix, Boolean ipUnique,
+                                                           boolean approximate, Integer limit) {
+        MethodParameterValidator.validateRequestParameters(limit);
+        MethodParameterValidator.validateRequestParameters(startDateTime, endDateTime);
+        BitSet uriFilter = findUriIds(uris, uriPrefix);
+        if (uriFilter != null && uriFilter.isEmpty()) {  // Ни один из запрошенных URI ещё не встречался в хитах
+            log.debug("URI hit statistics was sent to client");
+            return List.of();
+        }
+        boolean unique = ipUnique != null && ipUnique;
+        Map<Long, Long> hits = new HashMap<>();
+        if (unique) {
+            hitColumnStore.scan(startDateTime, endDateTime, uriFilter == null ? null : uriFilter::get,
+                    HashMap<Long, Set<Integer>>::new,
+                    (ips, applicationId, uriId, ipId, epochSecond) -> ips
+                            .computeIfAbsent(toKey(applicationId, uriId), key -> new HashSet<>()).add(ipId),
+                    (first, second) -> {
+                        second.forEach((key, ips) -> first.merge(key, ips, (firstIps, secondIps) -> {
+                            firstIps.addAll(secondIps);
+                            return firstIps;
+                        }));
+                        return first;
+                    })
+                    .forEach((key, ips) -> hits.put(key, (long) ips.size()));
+        } else {
+            hitColumnStore.scan(startDateTime, endDateTime, uriFilter == null ? null : uriFilter::get,
+                    HashMap<Long, long[]>::new,
+                    (counters, applicationId, uriId, ipId, epochSecond) -> counters
+                            .computeIfAbsent(toKey(applicationId, uriId), key -> new long[1])[0]++,
+                    (first, second) -> {
+                        second.forEach((key, counter) -> first.merge(key, counter, (firstCounter, secondCounter) -> {
+                            firstCounter[0] += secondCounter[0];
+                            return firstCounter;
+                        }));
+                        return first;
+                    })
+                    .forEach((key, counter) -> hits.put(key, counter[0]));
+        }
+        log.debug("URI hit statistics was sent to client");
+        return hits.entrySet().stream()
+                .map(uriHits -> {
+                    String uri = hitColumnStore.getUri(toUriId(uriHits.getKey()));
+                    return UriStatRestView.builder()
+                            .application(hitColumnStore.getApplication(toApplicationId(uriHits.getKey())))
+                            .uri(uri)
+                            .hits(uriHits.getValue())
+                            .hitsRelativeError(unique && approximate ? 0.0 : null)
+                            .uriSuffix(uriPrefix == null ? null : StatsRequestSupport.parseUriSuffix(uri, uriPrefix))
+                            .build();
+                })
+                .sorted(BY_HITS_DESC)
+                .limit(limit == null ? Long.MAX_VALUE : limit)
+                .collect(Collectors.toList());
+    }
+
+    // null - фильтра по URI нет, пустой набор - ни один URI не известен
+    private BitSet findUriIds(String[] uris, String uriPrefix) {
+        List<String> filterUris;
+        if (uriPrefix != null) {
+            StatsRequestSupport.checkUriPrefix(uriPrefix);
+            filterUris = hitColumnStore.findUrisByPrefix(uriPrefix);
+        } else if (uris != null && uris.length > 0) {
+            filterUris = Arrays.asList(uris);  // List.of не допускает null среди URI
+        } else {
+            return null;
+        }
+        BitSet uriIds = new BitSet();
+        filterUris.forEach(uri -> {
+            Integer uriId = uri == null ? null : hitColumnStore.findUriId(uri);
+            if (uriId != null) {
+                uriIds.set(uriId);
+            }
+        });
+        return uriIds;
+    }
+
+    private static long toKey(int applicationId, int uriId) {
+        return ((long) applicationId << Integer.SIZE) | (uriId & 0xFFFFFFFFL);
+    }
+
+    private static int toApplicationId(long key) {
+        return (int) (key >>> Integer.SIZE);
+    }
+
+    private static int toUriId(long key) {
+        return (int) key;
+    }
+
+}
@@ -0,0 +1,108 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.service;
+
+import lombok.experimental.UtilityClass;
+
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitAcceptanceRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestCommand;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.TimeSeriesBucket;
+import ru.practicum.explore_with_me.stats_service.server_submodule.exception.BadRequestBodyException;
+import ru.practicum.explore_with_me.stats_service.server_submodule.exception.BadRequestParameterException;
+import ru.practicum.explore_with_me.stats_service.server_submodule.util.MethodParameterValidator;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Разбор и проверка параметров запросов, общие для реализаций StatsService
+@UtilityClass
+class StatsRequestSupport {
+    static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    static LocalDateTime parseDateTime(String dateTime) {
+        return dateTime.equals("null") ?
+                null : LocalDateTime.parse(URLDecoder.decode(dateTime, StandardCharsets.UTF_8), FORMATTER);
+    }
+
+    static LocalDateTime parseBodyDateTime(String dateTime) {
+        if (dateTime == null) {
+            return null;
+        }
+        try {  // В теле запроса даты не кодируются, как в строке запроса
+            return LocalDateTime.parse(dateTime, FORMATTER);
+        } catch (DateTimeParseException exception) {
+            throw new BadRequestBodyException("Wrong request body: dates must be in format 'yyyy-MM-dd HH:mm:ss'");
+        }
+    }
+
+    static void checkOnlyOneUriFilter(String[] uris, String uriPrefix) {
+        if (uris != null && uris.length > 0 && uriPrefix != null) {
+            throw new BadRequestParameterException("Wrong method parameter: only one of uris and uriPrefix " +
+                    "can be specified");
+        }
+    }
+
+    static void checkUriPrefix(String uriPrefix) {
+        if (uriPrefix.isEmpty()) {
+            throw new BadRequestParameterException("Wrong method parameter: URI prefix cannot be empty");
+        }
+    }
+
+    static TimeSeriesBucket parseTimeSeriesBucket(String bucket) {
+        try {
+            return TimeSeriesBucket.valueOf(bucket.toUpperCase());
+        } catch (IllegalArgumentException exception) {
+            throw new BadRequestParameterException("Wrong method parameter: bucket must be one of " +
+                    Arrays.toString(TimeSeriesBucket.values()));
+        }
+    }
+
+    static Long parseUriSuffix(String uri, String uriPrefix) {
+        String suffix = uri.substring(uriPrefix.length());
+        if (suffix.isEmpty() || !suffix.chars().allMatch(symbol -> symbol >= '0' && symbol <= '9')) {
+            return null;
+        }
+        try {
+            return Long.parseLong(suffix);
+        } catch (NumberFormatException exception) {  // Слишком длинное для long число считаем нечисловым остатком
+            return null;
+        }
+    }
+
+    static String findProblemInHitRestCommand(Validator validator, HitRestCommand hitRestCommand) {
+        if (hitRestCommand == null) {
+            return "Wrong request body: hit cannot be null";
+        }
+        Set<ConstraintViolation<HitRestCommand>> violations = validator.validate(hitRestCommand);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        try {
+            MethodParameterValidator.validateRequestParameters(hitRestCommand.getIp(), hitRestCommand.getUri());
+            LocalDateTime.parse(hitRestCommand.getTimestamp(), FORMATTER);
+        } catch (BadRequestBodyException exception) {
+            return exception.getMessage();
+        } catch (DateTimeParseException exception) {
+            return "Wrong method parameter: timestamp is in an unsupported format";
+        }
+        return null;
+    }
+
+    static HitAcceptanceRestView rejectHit(int index, String reason) {
+        return HitAcceptanceRestView.builder()
+                .index(index)
+                .accepted(false)
+                .reason(reason)
+                .build();
+    }
+
+}
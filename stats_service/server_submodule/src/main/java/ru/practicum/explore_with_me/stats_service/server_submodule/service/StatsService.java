@@ -1,22 +1,81 @@
 package ru.practicum.explore_with_me.stats_service.server_submodule.service;
 
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EventViewsQuery;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitAcceptanceRestView;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestCommand;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestView;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatsQuery;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriTimeSeriesRestView;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface StatsService {
 
     HitRestView saveHit(@Valid HitRestCommand hitRestCommand);
 
+    List<HitAcceptanceRestView> saveHits(@NotNull List<HitRestCommand> hitRestCommands);
+
+    default List<UriStatRestView> getAllUriStatsOrderedByHits(
+            @NotNull @NotBlank String start,
+            @NotNull @NotBlank String end,
+            String[] uris,
+            Boolean ipUnique) {
+        return getAllUriStatsOrderedByHits(start, end, uris, ipUnique, false);
+    }
+
+    default List<UriStatRestView> getAllUriStatsOrderedByHits(
+            @NotNull @NotBlank String start,
+            @NotNull @NotBlank String end,
+            String[] uris,
+            Boolean ipUnique,
+            boolean approximate) {
+        return getAllUriStatsOrderedByHits(start, end, uris, ipUnique, approximate, null);
+    }
+
+    default List<UriStatRestView> getAllUriStatsOrderedByHits(
+            @NotNull @NotBlank String start,
+            @NotNull @NotBlank String end,
+            String[] uris,
+            Boolean ipUnique,
+            boolean approximate,
+            Integer limit) {
+        return getAllUriStatsOrderedByHits(start, end, uris, null, ipUnique, approximate, limit);
+    }
+
     List<UriStatRestView> getAllUriStatsOrderedByHits(
             @NotNull @NotBlank String start,
             @NotNull @NotBlank String end,
             String[] uris,
-            Boolean ipUnique);
+            String uriPrefix,
+            Boolean ipUnique,
+            boolean approximate,
+            Integer limit);
+
+    List<UriStatRestView> getUriStats(@NotNull UriStatsQuery uriStatsQuery);
+
+    List<UriTimeSeriesRestView> getUriTimeSeries(
+            @NotNull @NotBlank String start,
+            @NotNull @NotBlank String end,
+            String[] uris,
+            String uriPrefix,
+            @NotNull @NotBlank String bucket);
+
+    long streamAllUriStatsOrderedByHits(
+            @NotNull @NotBlank String start,
+            @NotNull @NotBlank String end,
+            String[] uris,
+            String uriPrefix,
+            Boolean ipUnique,
+            boolean approximate,
+            Integer limit,
+            @NotNull Consumer<UriStatRestView> consumer);
+
+    Map<Long, Long> getEventViews(@NotNull EventViewsQuery eventViewsQuery);
 
-}
\ No newline at end of file
+}
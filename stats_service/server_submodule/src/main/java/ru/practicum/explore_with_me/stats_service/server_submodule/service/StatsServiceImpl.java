@@ -2,65 +2,240 @@ package ru.practicum.explore_with_me.stats_service.server_submodule.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.annotation.Validated;
 import javax.validation.Valid;
+import javax.validation.Validator;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EventViewsQuery;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitAcceptanceRestView;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestCommand;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitsBucketRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.TimeSeriesBucket;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatsQuery;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriTimeSeriesRestView;
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.BucketHitsFromDb;
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.EncodedUriStatFromDb;
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.HitBatchRepository;
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.HitDictionaryRepository;
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.HitRollupRepository;
 import ru.practicum.explore_with_me.stats_service.server_submodule.dao.StatsRepository;
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.UriFilter;
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.UriFilteredStatsRepository;
 import ru.practicum.explore_with_me.stats_service.server_submodule.dao.UriStatFromDb;
 import ru.practicum.explore_with_me.stats_service.server_submodule.mapper.StatElementsMapper;
 import ru.practicum.explore_with_me.stats_service.server_submodule.dao.HitEntity;
+import ru.practicum.explore_with_me.stats_service.server_submodule.exception.BadRequestBodyException;
+import ru.practicum.explore_with_me.stats_service.server_submodule.exception.HitQueueOverflowException;
+import ru.practicum.explore_with_me.stats_service.server_submodule.ingestion.HitIngestionPipeline;
+import ru.practicum.explore_with_me.stats_service.server_submodule.ingestion.HitIngestionProperties;
+import ru.practicum.explore_with_me.stats_service.server_submodule.topk.RecentTopUrisTracker;
+import ru.practicum.explore_with_me.stats_service.server_submodule.util.HyperLogLog;
 import ru.practicum.explore_with_me.stats_service.server_submodule.util.MethodParameterValidator;
 
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Profile("!in-memory")
 @Validated
 @RequiredArgsConstructor
 @Slf4j
 public class StatsServiceImpl implements StatsService {
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
     private final StatsRepository statsRepository;
+    private final UriFilteredStatsRepository uriFilteredStatsRepository;
+    private final HitBatchRepository hitBatchRepository;
+    private final HitRollupRepository hitRollupRepository;
+    private final HitDictionaryRepository hitDictionaryRepository;
+    private final RecentTopUrisTracker recentTopUrisTracker;
     private final StatElementsMapper statElementsMapper;
+    private final HitIngestionPipeline hitIngestionPipeline;
+    private final HitIngestionProperties hitIngestionProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
 
+    // Методы записи хитов не транзакционные: идентификаторы из словарей получаются до начала транзакции записи,
+    // иначе каждый хит с новым значением держал бы сразу два соединения из пула
     public HitRestView saveHit(@Valid HitRestCommand hitRestCommand) {
         MethodParameterValidator.validateRequestParameters(hitRestCommand.getIp(), hitRestCommand.getUri());
-        HitEntity hitEntity = statElementsMapper.hitRestCommandToEntity(hitRestCommand);
-        hitEntity = statsRepository.save(hitEntity);
-        log.debug("New hit '{}' was saved", hitEntity);
+        HitEntity newHitEntity = statElementsMapper.hitRestCommandToEntity(hitRestCommand);
+        hitDictionaryRepository.encode(newHitEntity);
+        HitEntity hitEntity = newHitEntity;
+        if (hitIngestionPipeline.isAsync()) {
+            hitIngestionPipeline.accept(hitEntity);  // Id хиту назначит база при пакетной записи, в ответе он будет null
+            log.debug("New hit '{}' was queued for saving", hitEntity);
+        } else {
+            hitEntity = transactionTemplate.execute(status -> {
+                HitEntity savedHitEntity = statsRepository.save(newHitEntity);
+                hitRollupRepository.addHits(List.of(savedHitEntity));
+                return savedHitEntity;
+            });
+            recentTopUrisTracker.record(List.of(hitEntity));
+            log.debug("New hit '{}' was saved", hitEntity);
+        }
         return statElementsMapper.hitEntityToRestView(hitEntity);
     }
 
+    public List<HitAcceptanceRestView> saveHits(@NotNull List<HitRestCommand> hitRestCommands) {
+        if (hitRestCommands.size() > hitIngestionProperties.getMaxBulkSize()) {
+            throw new BadRequestBodyException(String.format("Wrong request body: no more than '%d' hits can be saved " +
+                    "by one request, but there were '%d'", hitIngestionProperties.getMaxBulkSize(),
+                    hitRestCommands.size()));
+        }
+        List<HitAcceptanceRestView> results = new ArrayList<>(hitRestCommands.size());
+        List<HitEntity> hitsToSave = new ArrayList<>(hitRestCommands.size());
+        for (int i = 0; i < hitRestCommands.size(); i++) {
+            String problem = StatsRequestSupport.findProblemInHitRestCommand(validator, hitRestCommands.get(i));
+            if (problem != null) {
+                results.add(StatsRequestSupport.rejectHit(i, problem));
+                continue;
+            }
+            HitEntity hitEntity = statElementsMapper.hitRestCommandToEntity(hitRestCommands.get(i));
+            hitDictionaryRepository.encode(hitEntity);
+            if (hitIngestionPipeline.isAsync()) {
+                try {
+                    if (!hitIngestionPipeline.accept(hitEntity)) {
+                        results.add(StatsRequestSupport.rejectHit(i, "Hit was dropped: hit ingestion queue is full"));
+                        continue;
+                    }
+                } catch (HitQueueOverflowException exception) {
+                    results.add(StatsRequestSupport.rejectHit(i, exception.getMessage()));
+                    continue;
+                }
+            } else {
+                hitsToSave.add(hitEntity);
+            }
+            results.add(HitAcceptanceRestView.builder()
+                    .index(i)
+                    .accepted(true)
+                    .build());
+        }
+        if (!hitsToSave.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                hitBatchRepository.saveAll(hitsToSave);
+                hitRollupRepository.addHits(hitsToSave);
+            });
+            recentTopUrisTracker.record(hitsToSave);
+        }
+        log.debug("Batch of '{}' hits was received, '{}' of them were rejected", hitRestCommands.size(),
+                results.stream().filter(result -> !result.isAccepted()).count());
+        return results;
+    }
+
     public List<UriStatRestView> getAllUriStatsOrderedByHits(
             @NotNull @NotBlank String start,
             @NotNull @NotBlank String end,
             String[] uris,
-            Boolean ipUnique) {
-        LocalDateTime startDateTime = start.equals("null") ?
-                null : LocalDateTime.parse(URLDecoder.decode(start, StandardCharsets.UTF_8), FORMATTER);
-        LocalDateTime endDateTime = end.equals("null") ?
-                null : LocalDateTime.parse(URLDecoder.decode(end, StandardCharsets.UTF_8), FORMATTER);
+            String uriPrefix,
+            Boolean ipUnique,
+            boolean approximate,
+            Integer limit) {
+        StatsRequestSupport.checkOnlyOneUriFilter(uris, uriPrefix);
+        String[] distinctUris = uris == null ? null : Arrays.stream(uris)
+                .distinct()
+                .toArray(String[]::new);
+        return getUriStatsOrderedByHits(StatsRequestSupport.parseDateTime(start),
+                StatsRequestSupport.parseDateTime(end), distinctUris, uriPrefix, ipUnique, approximate, limit);
+    }
+
+    public List<UriStatRestView> getUriStats(@NotNull UriStatsQuery uriStatsQuery) {
+        boolean withUris = uriStatsQuery.getUris() != null && !uriStatsQuery.getUris().isEmpty();
+        if (withUris && uriStatsQuery.getUriPrefix() != null) {
+            throw new BadRequestBodyException("Wrong request body: only one of uris and uriPrefix can be specified");
+        }
+        LocalDateTime startDateTime = StatsRequestSupport.parseBodyDateTime(uriStatsQuery.getStart());
+        LocalDateTime endDateTime = StatsRequestSupport.parseBodyDateTime(uriStatsQuery.getEnd());
+        String[] uris = !withUris ? null : uriStatsQuery.getUris().stream()
+                .distinct()  // Повторы URI не меняют результат, но раздували бы параметры запросов к базе
+                .toArray(String[]::new);
+        return getUriStatsOrderedByHits(startDateTime, endDateTime, uris, uriStatsQuery.getUriPrefix(),
+                uriStatsQuery.isUnique(), uriStatsQuery.isApproximate(), uriStatsQuery.getLimit());
+    }
+
+    private List<UriStatRestView> getUriStatsOrderedByHits(LocalDateTime startDateTime, LocalDateTime endDateTime,
+                                                           String[] uris, String uriPrefix, Boolean ipUnique,
+                                                           boolean approximate, Integer limit) {
+        MethodParameterValidator.validateRequestParameters(limit);
         MethodParameterValidator.validateRequestParameters(startDateTime, endDateTime);
+        if (uriPrefix == null) {
+            return getUriStatsOfUris(startDateTime, endDateTime, uris, ipUnique, approximate, limit);
+        }
+        StatsRequestSupport.checkUriPrefix(uriPrefix);
+        return getUriStats(startDateTime, endDateTime, UriFilter.ofUriPrefix(uriPrefix),
+                uri -> uri.startsWith(uriPrefix), ipUnique, approximate, limit).stream()
+                .map(uriStat -> uriStat.toBuilder()
+                        .uriSuffix(StatsRequestSupport.parseUriSuffix(uriStat.getUri(), uriPrefix))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private List<UriStatRestView> getUriStatsOfUris(LocalDateTime startDateTime, LocalDateTime endDateTime,
+                                                    String[] uris, Boolean ipUnique, boolean approximate,
+                                                    Integer limit) {
+        if (uris == null || uris.length == 0) {
+            return getUriStats(startDateTime, endDateTime, null, null, ipUnique, approximate, limit);
+        }
+        List<Integer> uriIds = hitDictionaryRepository.findUriIds(uris);
+        if (uriIds.isEmpty()) {  // Ни один из запрошенных URI ещё не встречался в хитах
+            log.debug("URI hit statistics was sent to client");
+            return List.of();
+        }
+        Set<String> uriSet = new HashSet<>(Arrays.asList(uris));
+        return getUriStats(startDateTime, endDateTime, UriFilter.ofUris(uris, uriIds), uriSet::contains, ipUnique,
+                approximate, limit);
+    }
+
+    // uriFilter и uriPredicate описывают один и тот же набор URI для базы и для трекера топа, null - все URI
+    private List<UriStatRestView> getUriStats(LocalDateTime startDateTime, LocalDateTime endDateTime,
+                                              UriFilter uriFilter, Predicate<String> uriPredicate, Boolean ipUnique,
+                                              boolean approximate, Integer limit) {
+        if (limit != null && (ipUnique == null || !ipUnique)) {
+            Optional<List<UriStatFromDb>> recentTop = recentTopUrisTracker.getTopUris(startDateTime, endDateTime,
+                    uriPredicate, limit);
+            if (recentTop.isPresent()) {
+                log.debug("Top '{}' URI hit statistics was sent to client from memory", limit);
+                return recentTop.get().stream()
+                        .map(statElementsMapper::uriStatFromDbToRestView)
+                        .collect(Collectors.toList());
+            }
+        }
+        Pageable page = limit == null ? Pageable.unpaged() : PageRequest.of(0, limit);
         List<UriStatFromDb> stats;
         if (ipUnique == null || !ipUnique) {
-            stats = (uris == null || uris.length == 0) ?
-                    statsRepository.getAllUriStatsOrderedByHitsCount(startDateTime, endDateTime) :
-                    statsRepository.getAllUriStatsOrderedByHitsCountWithUrisArray(startDateTime, endDateTime, uris);
-        } else {
-            stats = (uris == null || uris.length == 0) ?
-                    statsRepository.getUniqueUriStatsOrderedByHitsCount(startDateTime, endDateTime) :
-                    statsRepository.getUniqueUriStatsOrderedByHitsCountWithUrisArray(startDateTime, endDateTime, uris);
+            stats = getUriStatsUsingRollups(startDateTime, endDateTime, uriFilter, page);
+        } else if (approximate) {
+            log.debug("Approximate unique URI hit statistics was sent to client");
+            return getApproximateUniqueUriStats(startDateTime, endDateTime, uriFilter, page);
+        } else {  // Точное число уникальных IP нельзя сложить по корзинам, поэтому считаем его по сырым хитам
+            stats = decode(uriFilter == null ?
+                    statsRepository.getUniqueUriStatsOrderedByHitsCount(startDateTime, endDateTime, page) :
+                    uriFilteredStatsRepository.getUriStatsOrderedByHitsCount(startDateTime, endDateTime, uriFilter,
+                            true, page));
         }
         log.debug("URI hit statistics was sent to client");
         return stats.stream()
@@ -68,4 +243,238 @@ public class StatsServiceImpl implements StatsService {
                 .collect(Collectors.toList());
     }
 
-}
\ No newline at end of file
+    public List<UriTimeSeriesRestView> getUriTimeSeries(
+            @NotNull @NotBlank String start,
+            @NotNull @NotBlank String end,
+            String[] uris,
+            String uriPrefix,
+            @NotNull @NotBlank String bucket) {
+        StatsRequestSupport.checkOnlyOneUriFilter(uris, uriPrefix);
+        TimeSeriesBucket timeSeriesBucket = StatsRequestSupport.parseTimeSeriesBucket(bucket);
+        LocalDateTime startDateTime = StatsRequestSupport.parseDateTime(start);
+        LocalDateTime endDateTime = StatsRequestSupport.parseDateTime(end);
+        MethodParameterValidator.validateRequestParameters(startDateTime, endDateTime);
+        UriFilter uriFilter = null;
+        if (uriPrefix != null) {
+            StatsRequestSupport.checkUriPrefix(uriPrefix);
+            uriFilter = UriFilter.ofUriPrefix(uriPrefix);
+        } else if (uris != null && uris.length > 0) {
+            List<Integer> uriIds = hitDictionaryRepository.findUriIds(uris);
+            if (uriIds.isEmpty()) {
+                return List.of();
+            }
+            uriFilter = UriFilter.ofUris(uris, uriIds);
+        }
+        // Целые часы берутся из часовых агрегатов, края периода и минутные корзины считаются по сырым хитам.
+        // При firstBucket = bucketsEnd = end запрос по сырым хитам покрывает весь период
+        LocalDateTime firstBucket = endDateTime;
+        LocalDateTime bucketsEnd = endDateTime;
+        if (timeSeriesBucket != TimeSeriesBucket.MINUTE &&
+                HitRollupRepository.toNextBucketStart(startDateTime)
+                        .isBefore(HitRollupRepository.toBucketStart(endDateTime))) {
+            firstBucket = HitRollupRepository.toNextBucketStart(startDateTime);
+            bucketsEnd = HitRollupRepository.toBucketStart(endDateTime);
+        }
+        Map<List<String>, TreeMap<LocalDateTime, Long>> series = new HashMap<>();
+        Consumer<BucketHitsFromDb> addHits = bucketHits -> series
+                .computeIfAbsent(List.of(bucketHits.getApplication(), bucketHits.getUri()), key -> new TreeMap<>())
+                .merge(bucketHits.getBucketStart().truncatedTo(timeSeriesBucket.getUnit()), bucketHits.getHits(),
+                        Long::sum);
+        if (firstBucket.isBefore(bucketsEnd)) {
+            hitRollupRepository.getBuckets(firstBucket, bucketsEnd, uriFilter).forEach(addHits);
+        }
+        (uriFilter != null ?
+                uriFilteredStatsRepository.getHitsPerMinuteOutsideRollupBuckets(startDateTime, firstBucket,
+                        bucketsEnd, endDateTime, uriFilter) :
+                statsRepository.getHitsPerMinuteOutsideRollupBuckets(startDateTime, firstBucket, bucketsEnd,
+                        endDateTime))
+                .forEach(row -> addHits.accept(new BucketHitsFromDb(
+                        hitDictionaryRepository.getApplicationName(((Number) row[0]).intValue()),
+                        hitDictionaryRepository.getUri(((Number) row[1]).intValue()),
+                        ((Timestamp) row[2]).toLocalDateTime(),
+                        ((Number) row[3]).longValue())));
+        log.debug("Time series of '{}' URIs with bucket '{}' was sent to client", series.size(), timeSeriesBucket);
+        return series.entrySet().stream()
+                .map(uriSeries -> UriTimeSeriesRestView.builder()
+                        .application(uriSeries.getKey().get(0))
+                        .uri(uriSeries.getKey().get(1))
+                        .uriSuffix(uriPrefix == null ?
+                                null : StatsRequestSupport.parseUriSuffix(uriSeries.getKey().get(1), uriPrefix))
+                        .hits(uriSeries.getValue().values().stream().mapToLong(Long::longValue).sum())
+                        .buckets(uriSeries.getValue().entrySet().stream()
+                                .map(bucketHits -> HitsBucketRestView.builder()
+                                        .start(bucketHits.getKey().format(StatsRequestSupport.FORMATTER))
+                                        .hits(bucketHits.getValue())
+                                        .build())
+                                .collect(Collectors.toList()))
+                        .build())
+                .sorted(Comparator.comparingLong(UriTimeSeriesRestView::getHits).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public long streamAllUriStatsOrderedByHits(
+            @NotNull @NotBlank String start,
+            @NotNull @NotBlank String end,
+            String[] uris,
+            String uriPrefix,
+            Boolean ipUnique,
+            boolean approximate,
+            Integer limit,
+            @NotNull Consumer<UriStatRestView> consumer) {
+        boolean unique = ipUnique != null && ipUnique;
+        if (unique && approximate) {  // Оценки по скетчам всё равно сливаются в памяти, поток обходит готовый список
+            List<UriStatRestView> stats = getAllUriStatsOrderedByHits(start, end, uris, uriPrefix, true, true,
+                    limit);
+            stats.forEach(consumer);
+            log.debug("Stream of '{}' approximate URI hit statistics was sent to client", stats.size());
+            return stats.size();
+        }
+        StatsRequestSupport.checkOnlyOneUriFilter(uris, uriPrefix);
+        MethodParameterValidator.validateRequestParameters(limit);
+        LocalDateTime startDateTime = StatsRequestSupport.parseDateTime(start);
+        LocalDateTime endDateTime = StatsRequestSupport.parseDateTime(end);
+        MethodParameterValidator.validateRequestParameters(startDateTime, endDateTime);
+        UriFilter uriFilter = null;
+        if (uriPrefix != null) {
+            StatsRequestSupport.checkUriPrefix(uriPrefix);
+            uriFilter = UriFilter.ofUriPrefix(uriPrefix);
+        } else if (uris != null && uris.length > 0) {
+            List<Integer> uriIds = hitDictionaryRepository.findUriIds(uris);
+            if (uriIds.isEmpty()) {
+                return 0L;
+            }
+            uriFilter = UriFilter.ofUris(uris, uriIds);
+        }
+        long sentStatsCount = 0L;
+        // Корзины агрегатов пришлось бы сливать в памяти, поэтому поток всегда строится по сырым хитам
+        try (Stream<EncodedUriStatFromDb> stats = uriFilter != null ?
+                uriFilteredStatsRepository.streamUriStatsOrderedByHitsCount(startDateTime, endDateTime, uriFilter,
+                        unique) :
+                (unique ?
+                        statsRepository.streamUniqueUriStatsOrderedByHitsCount(startDateTime, endDateTime) :
+                        statsRepository.streamAllUriStatsOrderedByHitsCount(startDateTime, endDateTime))) {
+            Iterator<EncodedUriStatFromDb> iterator = stats.iterator();
+            while (iterator.hasNext() && (limit == null || sentStatsCount < limit)) {
+                UriStatRestView uriStat = statElementsMapper.uriStatFromDbToRestView(
+                        hitDictionaryRepository.decode(iterator.next()));
+                consumer.accept(uriPrefix == null ? uriStat : uriStat.toBuilder()
+                        .uriSuffix(StatsRequestSupport.parseUriSuffix(uriStat.getUri(), uriPrefix))
+                        .build());
+                sentStatsCount++;
+            }
+        }
+        log.debug("Stream of '{}' URI hit statistics was sent to client", sentStatsCount);
+        return sentStatsCount;
+    }
+
+    private List<UriStatFromDb> getUriStatsUsingRollups(LocalDateTime start, LocalDateTime end, UriFilter uriFilter,
+                                                        Pageable page) {
+        LocalDateTime firstBucket = HitRollupRepository.toNextBucketStart(start);
+        LocalDateTime bucketsEnd = HitRollupRepository.toBucketStart(end);
+        if (!firstBucket.isBefore(bucketsEnd)) {  // В периоде нет ни одной целой корзины
+            return decode(uriFilter != null ?
+                    uriFilteredStatsRepository.getUriStatsOrderedByHitsCount(start, end, uriFilter, false, page) :
+                    statsRepository.getAllUriStatsOrderedByHitsCount(start, end, page));
+        }
+        List<UriStatFromDb> fromEdges = decode(uriFilter != null ?
+                uriFilteredStatsRepository.getUriStatsOutsideRollupBuckets(start, firstBucket, bucketsEnd, end,
+                        uriFilter) :
+                statsRepository.getUriStatsOutsideRollupBuckets(start, firstBucket, bucketsEnd, end));
+        List<UriStatFromDb> fromBuckets;
+        if (page.isUnpaged()) {
+            fromBuckets = hitRollupRepository.getHitsCountFromBuckets(firstBucket, bucketsEnd, uriFilter);
+        } else {
+            // У URI без хитов на краях периода сумма равна сумме корзин, поэтому из них в топ могут попасть только
+            // первые limit по корзинам. URI с хитами на краях добираются отдельным запросом их корзин
+            fromBuckets = new ArrayList<>(hitRollupRepository.getTopHitsCountFromBuckets(firstBucket, bucketsEnd,
+                    uriFilter, page.getPageSize()));
+            Set<List<String>> topKeys = fromBuckets.stream()
+                    .map(uriStat -> List.of(uriStat.getApplication(), uriStat.getUri()))
+                    .collect(Collectors.toSet());
+            String[] edgeUris = fromEdges.stream()
+                    .filter(uriStat -> !topKeys.contains(List.of(uriStat.getApplication(), uriStat.getUri())))
+                    .map(UriStatFromDb::getUri)
+                    .distinct()
+                    .toArray(String[]::new);
+            if (edgeUris.length > 0) {  // Агрегаты хранят URI строками, идентификаторы из словаря им не нужны
+                hitRollupRepository.getHitsCountFromBuckets(firstBucket, bucketsEnd,
+                                UriFilter.ofUris(edgeUris, List.of())).stream()
+                        .filter(uriStat -> !topKeys.contains(List.of(uriStat.getApplication(), uriStat.getUri())))
+                        .forEach(fromBuckets::add);
+            }
+        }
+        Map<List<String>, UriStatFromDb> stats = new HashMap<>();
+        Stream.concat(fromBuckets.stream(), fromEdges.stream()).forEach(uriStat -> stats.merge(
+                List.of(uriStat.getApplication(), uriStat.getUri()),
+                uriStat,
+                (first, second) -> new UriStatFromDb(first.getApplication(), first.getUri(),
+                        first.getHits() + second.getHits())));
+        return stats.values().stream()
+                .sorted(Comparator.comparingLong(UriStatFromDb::getHits).reversed())
+                .limit(page.isPaged() ? page.getPageSize() : Long.MAX_VALUE)
+                .collect(Collectors.toList());
+    }
+
+    private List<UriStatRestView> getApproximateUniqueUriStats(LocalDateTime start, LocalDateTime end,
+                                                               UriFilter uriFilter, Pageable page) {
+        LocalDateTime firstBucket = HitRollupRepository.toNextBucketStart(start);
+        LocalDateTime bucketsEnd = HitRollupRepository.toBucketStart(end);
+        if (!firstBucket.isBefore(bucketsEnd)) {  // Без целых корзин точный подсчёт по сырым хитам не дороже оценки
+            return decode(uriFilter != null ?
+                    uriFilteredStatsRepository.getUriStatsOrderedByHitsCount(start, end, uriFilter, true, page) :
+                    statsRepository.getUniqueUriStatsOrderedByHitsCount(start, end, page)).stream()
+                    .map(statElementsMapper::uriStatFromDbToRestView)
+                    .collect(Collectors.toList());
+        }
+        Map<List<String>, HyperLogLog> sketches = hitRollupRepository.getIpSketchesFromBuckets(
+                firstBucket, bucketsEnd, uriFilter);
+        (uriFilter != null ?
+                uriFilteredStatsRepository.getUniqueIpsOutsideRollupBuckets(start, firstBucket, bucketsEnd, end,
+                        uriFilter) :
+                statsRepository.getUniqueIpsOutsideRollupBuckets(start, firstBucket, bucketsEnd, end))
+                .forEach(row -> sketches.computeIfAbsent(List.of(
+                        hitDictionaryRepository.getApplicationName((Integer) row[0]),
+                        hitDictionaryRepository.getUri((Integer) row[1])),
+                        key -> new HyperLogLog()).add((byte[]) row[2]));
+        return sketches.entrySet().stream()
+                .map(sketch -> UriStatRestView.builder()
+                        .application(sketch.getKey().get(0))
+                        .uri(sketch.getKey().get(1))
+                        .hits(sketch.getValue().estimate())
+                        .hitsRelativeError(HyperLogLog.RELATIVE_STANDARD_ERROR)
+                        .build())
+                .sorted(Comparator.comparingLong(UriStatRestView::getHits).reversed())
+                .limit(page.isPaged() ? page.getPageSize() : Long.MAX_VALUE)
+                .collect(Collectors.toList());
+    }
+
+    public Map<Long, Long> getEventViews(@NotNull EventViewsQuery eventViewsQuery) {
+        if (eventViewsQuery.getStart() == null || eventViewsQuery.getEnd() == null ||
+                eventViewsQuery.getEventIds() == null) {
+            throw new BadRequestBodyException("Wrong request body: start, end and event ids must be specified");
+        }
+        Map<Long, Long> eventViews = new LinkedHashMap<>();
+        String[] uris = eventViewsQuery.getEventIds().stream()
+                .distinct()
+                .map(eventId -> EventViewsQuery.EVENT_URI_PREFIX + eventId)
+                .toArray(String[]::new);
+        if (uris.length == 0) {  // Пустой список URI означал бы статистику по всем URI
+            return eventViews;
+        }
+        getUriStatsOrderedByHits(eventViewsQuery.getStart(), eventViewsQuery.getEnd(), uris, null,
+                eventViewsQuery.isUnique(), eventViewsQuery.isApproximate(), null)
+                .forEach(uriStat -> eventViews.merge(
+                        Long.parseLong(uriStat.getUri().substring(EventViewsQuery.EVENT_URI_PREFIX.length())),
+                        uriStat.getHits(), Long::sum));  // Одно событие могут запрашивать разные приложения
+        log.debug("Views of '{}' events were sent to client", uris.length);
+        return eventViews;
+    }
+
+    private List<UriStatFromDb> decode(List<EncodedUriStatFromDb> encodedStats) {
+        return encodedStats.stream()
+                .map(hitDictionaryRepository::decode)
+                .collect(Collectors.toList());
+    }
+
+}
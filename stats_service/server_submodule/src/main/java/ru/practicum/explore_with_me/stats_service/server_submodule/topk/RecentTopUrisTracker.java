@@ -0,0 +1,142 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.topk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.HitEntity;
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.UriStatFromDb;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+@Component
+@Slf4j
+public class RecentTopUrisTracker {
+    private static final int SECONDS_IN_MINUTE = 60;
+
+    private final TopUrisProperties properties;
+    // Хиты, записанные до запуска сервера, трекер не видел, поэтому отвечать он может только за время после запуска
+    private final long trackingStartSecond;
+    // Посекундные слоты нужны для краёв периода, поминутные - чтобы не суммировать тысячи секунд в середине
+    private final ConcurrentNavigableMap<Long, Map<List<String>, LongAdder>> secondSlots =
+            new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<Long, Map<List<String>, LongAdder>> minuteSlots =
+            new ConcurrentSkipListMap<>();
+
+    public RecentTopUrisTracker(TopUrisProperties properties) {
+        this.properties = properties;
+        this.trackingStartSecond = toEpochSecond(LocalDateTime.now()) + 1;
+    }
+
+    public void record(Collection<HitEntity> hits) {
+        if (!properties.isEnabled() || hits.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            addHits(hits);
+            return;
+        }
+        List<HitEntity> hitsToAdd = List.copyOf(hits);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {  // Откаченные хиты не должны попасть в топ
+                addHits(hitsToAdd);
+            }
+        });
+    }
+
+    public Optional<List<UriStatFromDb>> getTopUris(LocalDateTime start, LocalDateTime end,
+                                                    Predicate<String> uriFilter, int limit) {
+        long fromSecond = toEpochSecond(start);
+        long toSecond = toEpochSecond(end) + 1;
+        if (!properties.isEnabled() || fromSecond < getOldestTrackedSecond() || fromSecond >= toSecond) {
+            return Optional.empty();
+        }
+        Map<List<String>, Long> hitsCounts = new HashMap<>();
+        long firstFullMinute = Math.floorDiv(fromSecond + SECONDS_IN_MINUTE - 1, SECONDS_IN_MINUTE);
+        long fullMinutesEnd = Math.floorDiv(toSecond, SECONDS_IN_MINUTE);
+        if (firstFullMinute < fullMinutesEnd) {
+            sumSlots(minuteSlots.subMap(firstFullMinute, fullMinutesEnd), uriFilter, hitsCounts);
+            sumSlots(secondSlots.subMap(fromSecond, firstFullMinute * SECONDS_IN_MINUTE), uriFilter, hitsCounts);
+            sumSlots(secondSlots.subMap(fullMinutesEnd * SECONDS_IN_MINUTE, toSecond), uriFilter, hitsCounts);
+        } else {
+            sumSlots(secondSlots.subMap(fromSecond, toSecond), uriFilter, hitsCounts);
+        }
+        PriorityQueue<UriStatFromDb> top = new PriorityQueue<>(limit + 1,
+                Comparator.comparingLong(UriStatFromDb::getHits));
+        hitsCounts.forEach((key, hits) -> {
+            if (top.size() < limit) {
+                top.add(new UriStatFromDb(key.get(0), key.get(1), hits));
+            } else if (top.peek().getHits() < hits) {
+                top.poll();
+                top.add(new UriStatFromDb(key.get(0), key.get(1), hits));
+            }
+        });
+        List<UriStatFromDb> result = new ArrayList<>(top);
+        result.sort(Comparator.comparingLong(UriStatFromDb::getHits).reversed());
+        log.debug("Top '{}' URIs for period from '{}' to '{}' were counted in memory", limit, start, end);
+        return Optional.of(result);
+    }
+
+    @Scheduled(fixedDelayString = "${stats-server.top-uris.eviction-interval-ms:60000}")
+    public void evictExpiredSlots() {
+        long oldestSecond = getOldestTrackedSecond();
+        secondSlots.headMap(oldestSecond).clear();
+        minuteSlots.headMap(Math.floorDiv(oldestSecond, SECONDS_IN_MINUTE)).clear();
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);  // Нужен только монотонный ключ слота, зона не важна
+    }
+
+    private long getOldestTrackedSecond() {
+        return Math.max(trackingStartSecond,
+                toEpochSecond(LocalDateTime.now()) - properties.getWindowMinutes() * (long) SECONDS_IN_MINUTE);
+    }
+
+    private void addHits(Collection<HitEntity> hits) {
+        long oldestSecond = getOldestTrackedSecond();
+        for (HitEntity hit : hits) {
+            long second = toEpochSecond(hit.getTimestamp());
+            if (second < oldestSecond) {
+                continue;
+            }
+            List<String> key = List.of(hit.getApplication(), hit.getUri());
+            increment(secondSlots, second, key);
+            increment(minuteSlots, Math.floorDiv(second, SECONDS_IN_MINUTE), key);
+        }
+    }
+
+    private void increment(ConcurrentNavigableMap<Long, Map<List<String>, LongAdder>> slots, long slot,
+                           List<String> key) {
+        slots.computeIfAbsent(slot, newSlot -> new ConcurrentHashMap<>())
+                .computeIfAbsent(key, newKey -> new LongAdder())
+                .increment();
+    }
+
+    private void sumSlots(Map<Long, Map<List<String>, LongAdder>> slots, Predicate<String> uriFilter,
+                          Map<List<String>, Long> hitsCounts) {
+        slots.values().forEach(slot -> slot.forEach((key, hits) -> {
+            if (uriFilter == null || uriFilter.test(key.get(1))) {
+                hitsCounts.merge(key, hits.sum(), Long::sum);
+            }
+        }));
+    }
+
+}
@@ -0,0 +1,15 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.topk;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "stats-server.top-uris")
+@Getter
+@Setter
+public class TopUrisProperties {
+    private boolean enabled = true;
+    private int windowMinutes = 60;  // Запросы с limit за последние windowMinutes минут отвечаются из памяти
+    private long evictionIntervalMs = 60_000L;
+
+}
@@ -0,0 +1,23 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.util;
+
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+public enum DatabasePlatform {
+    H2,
+    POSTGRESQL;
+
+    public static DatabasePlatform of(DataSource dataSource) {
+        String databaseName;
+        try {
+            databaseName = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException exception) {
+            throw new IllegalStateException("Failed to detect database of stats server: " + exception.getMessage());
+        }
+        return "H2".equalsIgnoreCase(databaseName) ? H2 : POSTGRESQL;
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.util;
+
+import java.nio.charset.StandardCharsets;
+
+public class HyperLogLog {
+    public static final int PRECISION = 12;
+    public static final int REGISTERS_COUNT = 1 << PRECISION;
+    public static final double RELATIVE_STANDARD_ERROR = 1.04D / Math.sqrt(REGISTERS_COUNT);
+    private static final double ALPHA = 0.7213D / (1.0D + 1.079D / REGISTERS_COUNT);
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // Регистр хранит максимальный ранг попавших в него хэшей, скетчи объединяются максимумом по каждому регистру
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTERS_COUNT];
+    }
+
+    public HyperLogLog(byte[] registers) {
+        if (registers.length != REGISTERS_COUNT) {
+            throw new IllegalArgumentException(String.format("HyperLogLog sketch must have '%d' registers, but " +
+                    "there were '%d'", REGISTERS_COUNT, registers.length));
+        }
+        this.registers = registers.clone();
+    }
+
+    public static long hash(String value) {
+        return hash(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long hash(byte[] value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte symbol : value) {
+            hash ^= symbol & 0xff;
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;  // Перемешивание из MurmurHash3 выравнивает распределение старших битов FNV
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    public static int registerIndex(long hash) {
+        return (int) (hash >>> (Long.SIZE - PRECISION));
+    }
+
+    public static int rank(long hash) {
+        return Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+    }
+
+    public void add(String value) {
+        long hash = hash(value);
+        mergeRegister(registerIndex(hash), rank(hash));
+    }
+
+    public void add(byte[] value) {
+        long hash = hash(value);
+        mergeRegister(registerIndex(hash), rank(hash));
+    }
+
+    public boolean mergeRegister(int index, int rank) {
+        if (registers[index] < rank) {
+            registers[index] = (byte) rank;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean merge(HyperLogLog other) {
+        boolean changed = false;
+        for (int i = 0; i < REGISTERS_COUNT; i++) {
+            changed |= mergeRegister(i, other.registers[i]);
+        }
+        return changed;
+    }
+
+    public byte[] toBytes() {
+        return registers.clone();
+    }
+
+    public long estimate() {
+        double sum = 0.0D;
+        int emptyRegisters = 0;
+        for (byte register : registers) {
+            sum += 1.0D / (1L << register);
+            if (register == 0) {
+                emptyRegisters++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS_COUNT * REGISTERS_COUNT / sum;
+        if (estimate <= 2.5D * REGISTERS_COUNT && emptyRegisters > 0) {  // На малых множествах точнее linear counting
+            estimate = REGISTERS_COUNT * Math.log((double) REGISTERS_COUNT / emptyRegisters);
+        }
+        return Math.round(estimate);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule.util;
+
+import lombok.experimental.UtilityClass;
+import ru.practicum.explore_with_me.stats_service.server_submodule.exception.BadRequestBodyException;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+@UtilityClass
+public class IpAddressConverter {
+    public static final int IP_BYTES_LENGTH = 16;
+
+    // IPv4 хранится как IPv4-mapped IPv6 (::ffff:a.b.c.d), поэтому у всех адресов одна длина и одно сравнение байтов
+    public static byte[] toBytes(String ip) {
+        byte[] address;
+        try {  // Строка уже проверена валидатором как литерал адреса, поэтому обращения к DNS не будет
+            address = InetAddress.getByName(ip).getAddress();
+        } catch (UnknownHostException exception) {
+            throw new BadRequestBodyException("Wrong method parameter: IP not in IPv4 or IPv6 format");
+        }
+        if (address.length == IP_BYTES_LENGTH) {
+            return address;
+        }
+        byte[] mappedAddress = new byte[IP_BYTES_LENGTH];
+        mappedAddress[10] = (byte) 0xff;
+        mappedAddress[11] = (byte) 0xff;
+        System.arraycopy(address, 0, mappedAddress, 12, address.length);
+        return mappedAddress;
+    }
+
+    public static String toString(byte[] ip) {
+        InetAddress address;
+        try {
+            address = InetAddress.getByAddress(ip);
+        } catch (UnknownHostException exception) {
+            throw new IllegalArgumentException("Stored IP has wrong length: " + ip.length);
+        }
+        if (address instanceof Inet4Address) {  // Java сама распознаёт IPv4-mapped адрес
+            return address.getHostAddress();
+        }
+        return toCompressedIpv6(ip);
+    }
+
+    // Сокращённая запись по RFC 5952: самая длинная серия нулевых групп заменяется на '::'
+    private static String toCompressedIpv6(byte[] ip) {
+        int[] groups = new int[8];
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = ((ip[2 * i] & 0xff) << 8) | (ip[2 * i + 1] & 0xff);
+        }
+        int bestStart = -1;
+        int bestLength = 1;
+        for (int i = 0; i < groups.length; i++) {
+            int length = 0;
+            while (i + length < groups.length && groups[i + length] == 0) {
+                length++;
+            }
+            if (length > bestLength) {
+                bestStart = i;
+                bestLength = length;
+            }
+            i += length;
+        }
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < groups.length; i++) {
+            if (i == bestStart) {
+                result.append("::");
+                i += bestLength - 1;
+                continue;
+            }
+            if (result.length() > 0 && result.charAt(result.length() - 1) != ':') {
+                result.append(':');
+            }
+            result.append(Integer.toHexString(groups[i]));
+        }
+        return result.toString();
+    }
+
+}
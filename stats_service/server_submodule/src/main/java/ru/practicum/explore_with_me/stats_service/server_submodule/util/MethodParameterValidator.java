@@ -34,4 +34,10 @@ public class MethodParameterValidator {
         }
     }
 
-}
\ No newline at end of file
+    public static void validateRequestParameters(Integer limit) {
+        if (limit != null && limit <= 0) {
+            throw new BadRequestParameterException("Wrong method parameter: limit of URI stats must be positive");
+        }
+    }
+
+}
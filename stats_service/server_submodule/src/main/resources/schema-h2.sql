@@ -0,0 +1,52 @@
+DROP TABLE IF EXISTS hits;
+DROP TABLE IF EXISTS hit_rollups;
+DROP TABLE IF EXISTS hit_ip_sketches;
+DROP TABLE IF EXISTS applications;
+DROP TABLE IF EXISTS uris;
+
+CREATE TABLE IF NOT EXISTS applications (
+  application_id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  name VARCHAR(255) NOT NULL,
+  CONSTRAINT UQ_APPLICATION_NAME UNIQUE (name),
+  CONSTRAINT NOT_EMPTY_APPLICATION_NAME CHECK(name <> '')
+);
+
+CREATE TABLE IF NOT EXISTS uris (
+  uri_id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  uri VARCHAR(1000) NOT NULL,
+  CONSTRAINT UQ_URI UNIQUE (uri),
+  CONSTRAINT NOT_EMPTY_URI CHECK(uri <> '')
+);
+
+CREATE TABLE IF NOT EXISTS hits (
+  hit_id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+  application_id INTEGER NOT NULL REFERENCES applications (application_id),
+  uri_id INTEGER NOT NULL REFERENCES uris (uri_id),
+  ip BINARY(16) NOT NULL,
+  hit_timestamp TIMESTAMP NOT NULL,
+  CONSTRAINT IP_LENGTH CHECK(OCTET_LENGTH(ip) = 16)
+);
+
+CREATE INDEX IF NOT EXISTS IDX_HITS_URI_TIMESTAMP ON hits (uri_id, hit_timestamp);
+CREATE INDEX IF NOT EXISTS IDX_HITS_TIMESTAMP ON hits (hit_timestamp);
+
+CREATE TABLE IF NOT EXISTS hit_rollups (
+  application VARCHAR(255) NOT NULL,
+  uri VARCHAR(1000) NOT NULL,
+  bucket_start TIMESTAMP NOT NULL,
+  hits BIGINT NOT NULL,
+  CONSTRAINT PK_HIT_ROLLUPS PRIMARY KEY (application, uri, bucket_start)
+);
+
+CREATE INDEX IF NOT EXISTS IDX_HIT_ROLLUPS_BUCKET ON hit_rollups (bucket_start);
+CREATE INDEX IF NOT EXISTS IDX_HIT_ROLLUPS_URI_BUCKET ON hit_rollups (uri, bucket_start);
+
+CREATE TABLE IF NOT EXISTS hit_ip_sketches (
+  application VARCHAR(255) NOT NULL,
+  uri VARCHAR(1000) NOT NULL,
+  bucket_start TIMESTAMP NOT NULL,
+  registers BYTEA NOT NULL,
+  CONSTRAINT PK_HIT_IP_SKETCHES PRIMARY KEY (application, uri, bucket_start)
+);
+
+CREATE INDEX IF NOT EXISTS IDX_HIT_IP_SKETCHES_BUCKET ON hit_ip_sketches (bucket_start);
\ No newline at end of file
@@ -1,10 +0,0 @@
-DROP TABLE IF EXISTS hits;
-
-CREATE TABLE IF NOT EXISTS hits (
-  hit_id BIGINT GENERATED BY DEFAULT AS IDENTITY,
-  application VARCHAR(255) NOT NULL,
-  uri VARCHAR(1000) NOT NULL,
-  ip VARCHAR(20) NOT NULL,
-  hit_timestamp TIMESTAMP NOT NULL,
-  CONSTRAINT NOT_EMPTY_VALUES CHECK(application <> '' AND uri <> '' AND ip <> '')
-);
\ No newline at end of file
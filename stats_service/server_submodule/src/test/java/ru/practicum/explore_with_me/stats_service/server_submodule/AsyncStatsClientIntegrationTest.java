@@ -0,0 +1,109 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+
+import ru.practicum.explore_with_me.stats_service.client_submodule.AsyncStatsClient;
+import ru.practicum.explore_with_me.stats_service.client_submodule.StatsClient;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EventViewsQuery;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitAcceptanceRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestCommand;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+public class AsyncStatsClientIntegrationTest {
+    private static final String DEFAULT_IP = "121.0.0.1";
+    private final AsyncStatsClient asyncStatsClient = new AsyncStatsClient("http://localhost:9090",
+            Duration.ofSeconds(2), Duration.ofSeconds(5), 2);
+
+    @Test
+    public void addNewHit_whenGetCorrectAndIncorrectParameters_thenReturnCorrectResponseEntity() {
+        ResponseEntity<HitRestView> hitResponse = asyncStatsClient.addNewHit(DEFAULT_IP, "/events/1201").join();
+
+        assertThat(hitResponse.getStatusCode(), equalTo(HttpStatus.CREATED));
+        assertThat(hitResponse.getBody(), notNullValue());
+        assertThat(hitResponse.getBody().getUri(), equalTo("/events/1201"));
+        assertThat(hitResponse.getBody().getTimestamp(), notNullValue());
+
+        ResponseEntity<HitRestView> wrongHitResponse = asyncStatsClient.addNewHit("potato", "/events/1201").join();
+        assertThat(wrongHitResponse.getStatusCode(), equalTo(HttpStatus.BAD_REQUEST));
+        assertThat(wrongHitResponse.getBody().getApplication(),
+                equalTo("Wrong method parameter: IP not in IPv4 or IPv6 format"));
+    }
+
+    @Test
+    public void getUriStats_whenRequestsExceedConcurrencyLimit_thenCompleteAllOfThem() {
+        LocalDateTime start = LocalDateTime.now().minusMinutes(1);
+        ResponseEntity<HitAcceptanceRestView[]> hitsResponse = asyncStatsClient.addNewHits(List.of(
+                HitRestCommand.builder().application("ewm-main-service").uri("/events/1202").ip(DEFAULT_IP)
+                        .timestamp(LocalDateTime.now().format(StatsClient.FORMATTER)).build(),
+                HitRestCommand.builder().application("ewm-main-service").uri("/events/1203").ip(DEFAULT_IP)
+                        .timestamp(LocalDateTime.now().format(StatsClient.FORMATTER)).build())).join();
+        assertThat(hitsResponse.getBody(), arrayWithSize(2));
+
+        List<CompletableFuture<ResponseEntity<UriStatRestView[]>>> responses = IntStream.range(0, 10)
+                .mapToObj(i -> asyncStatsClient.getUriStats(start, LocalDateTime.now().plusMinutes(1),
+                        new String[] {"/events/1202", "/events/1203"}, false, false, null))
+                .collect(Collectors.toList());
+
+        for (CompletableFuture<ResponseEntity<UriStatRestView[]>> response : responses) {
+            assertThat(response.join().getStatusCode(), equalTo(HttpStatus.OK));
+            assertThat(response.join().getBody(), arrayWithSize(2));
+        }
+        ResponseEntity<UriStatRestView[]> limitedResponse = asyncStatsClient.getUriStats(start,
+                LocalDateTime.now().plusMinutes(1), new String[] {"/events/1202", "/events/1203"}, false, false, 1)
+                .join();
+        assertThat(limitedResponse.getBody(), arrayWithSize(1));
+        ResponseEntity<UriStatRestView[]> wrongResponse = asyncStatsClient.getUriStats(LocalDateTime.now(), start,
+                null, false, false, null).join();
+        assertThat(wrongResponse.getStatusCode(), equalTo(HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    public void getEventViews_whenHitsAreSentInBinaryFormat_thenReturnViewsByEventIds() {
+        ResponseEntity<HitAcceptanceRestView[]> hitsResponse = asyncStatsClient.addNewHitsBinary(List.of(
+                HitRestCommand.builder().application("ewm-main-service").uri("/events/1204").ip(DEFAULT_IP)
+                        .timestamp(LocalDateTime.now().format(StatsClient.FORMATTER)).build(),
+                HitRestCommand.builder().application("ewm-main-service").uri("/events/1204").ip(DEFAULT_IP)
+                        .timestamp(LocalDateTime.now().format(StatsClient.FORMATTER)).build())).join();
+        assertThat(hitsResponse.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(hitsResponse.getBody(), arrayWithSize(2));
+
+        ResponseEntity<Map<Long, Long>> viewsResponse = asyncStatsClient.getEventViews(EventViewsQuery.builder()
+                .start(LocalDateTime.now().minusMinutes(1))
+                .end(LocalDateTime.now().plusMinutes(1))
+                .eventIds(List.of(1204L, 1205L))
+                .unique(true)
+                .build()).join();
+        assertThat(viewsResponse.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(viewsResponse.getBody(), equalTo(Map.of(1204L, 1L)));
+    }
+
+    @Test
+    public void getUriStats_whenServerIsUnavailable_thenCompleteExceptionally() {
+        AsyncStatsClient unavailableClient = new AsyncStatsClient("http://localhost:1",
+                Duration.ofMillis(500), Duration.ofMillis(500), 1);
+
+        CompletionException exception = assertThrows(CompletionException.class, () -> unavailableClient.getUriStats(
+                LocalDateTime.now().minusMinutes(1), LocalDateTime.now(), null, false, false, null).join());
+        assertThat(exception.getCause(), instanceOf(ResourceAccessException.class));
+    }
+
+}
@@ -0,0 +1,169 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.HitEntity;
+import ru.practicum.explore_with_me.stats_service.server_submodule.inmemory.HitColumnStore;
+import ru.practicum.explore_with_me.stats_service.server_submodule.inmemory.InMemoryStatsProperties;
+import ru.practicum.explore_with_me.stats_service.server_submodule.util.IpAddressConverter;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class HitColumnStoreTest {
+    private static final LocalDateTime DEFAULT_DATE_TIME = LocalDateTime.of(2023, 8, 1, 0, 0, 1);
+
+    @TempDir
+    Path walDirectory;
+
+    @Test
+    public void scan_whenHitsSpanSeveralPartitions_thenCountOnlyHitsInPeriod() throws IOException {
+        InMemoryStatsProperties properties = new InMemoryStatsProperties();
+        properties.setPartitionHours(1);
+        properties.setInitialPartitionCapacity(2);
+        HitColumnStore store = new HitColumnStore(properties);
+        List<HitEntity> hits = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            hits.add(createHit(i % 2 == 0 ? "/events/1" : "/events/2", DEFAULT_DATE_TIME.plusMinutes(i)));
+        }
+        store.append(hits);
+        assertThat(hits.get(299).getId(), equalTo(BigInteger.valueOf(300)));
+
+        Map<String, Long> hitsPerUri = countHitsPerUri(store, DEFAULT_DATE_TIME.plusMinutes(10),
+                DEFAULT_DATE_TIME.plusMinutes(209));
+        assertThat(hitsPerUri, allOf(hasEntry("/events/1", 100L), hasEntry("/events/2", 100L)));
+        assertThat(store.findUrisByPrefix("/events/"), contains("/events/1", "/events/2"));
+        store.close();
+    }
+
+    @Test
+    public void append_whenStoreIsReopened_thenRestoreHitsFromWriteAheadLogAndDropTornTail() throws IOException {
+        Path walPath = walDirectory.resolve("hits.wal");
+        InMemoryStatsProperties properties = new InMemoryStatsProperties();
+        properties.setWalPath(walPath.toString());
+        HitColumnStore store = new HitColumnStore(properties);
+        store.append(List.of(createHit("/events/1", DEFAULT_DATE_TIME), createHit("/events/2", DEFAULT_DATE_TIME)));
+        store.append(List.of(createHit("/events/1", DEFAULT_DATE_TIME.plusDays(3))));
+        store.close();
+        long walSize = Files.size(walPath);
+        try (FileChannel channel = FileChannel.open(walPath, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {4, 0, 0, 0}));  // Хит, оборванный при падении
+        }
+
+        HitColumnStore reopenedStore = new HitColumnStore(properties);
+        assertThat(Files.size(walPath), equalTo(walSize));
+        Map<String, Long> hitsPerUri = countHitsPerUri(reopenedStore, DEFAULT_DATE_TIME,
+                DEFAULT_DATE_TIME.plusDays(3));
+        assertThat(hitsPerUri, allOf(hasEntry("/events/1", 2L), hasEntry("/events/2", 1L)));
+
+        HitEntity hit = createHit("/events/3", DEFAULT_DATE_TIME);
+        reopenedStore.append(List.of(hit));
+        assertThat(hit.getId(), equalTo(BigInteger.valueOf(4)));  // Нумерация продолжается после восстановленных
+        reopenedStore.close();
+        assertThat(countHitsPerUri(new HitColumnStore(properties), DEFAULT_DATE_TIME, DEFAULT_DATE_TIME),
+                allOf(aMapWithSize(3), hasEntry("/events/3", 1L)));
+    }
+
+    @Test
+    public void append_whenLastBatchOfWriteAheadLogIsCorrupted_thenRestoreOnlyPreviousBatches() throws IOException {
+        Path walPath = walDirectory.resolve("hits.wal");
+        InMemoryStatsProperties properties = new InMemoryStatsProperties();
+        properties.setWalPath(walPath.toString());
+        HitColumnStore store = new HitColumnStore(properties);
+        store.append(List.of(createHit("/events/1", DEFAULT_DATE_TIME)));
+        long firstBatchSize = Files.size(walPath);
+        store.append(List.of(createHit("/events/1", DEFAULT_DATE_TIME), createHit("/events/2", DEFAULT_DATE_TIME)));
+        store.close();
+        try (FileChannel channel = FileChannel.open(walPath, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {-1}), Files.size(walPath) - 1);  // Последний байт второй пачки
+        }
+
+        HitColumnStore reopenedStore = new HitColumnStore(properties);
+        assertThat(Files.size(walPath), equalTo(firstBatchSize));  // Пачка не применена даже частично
+        assertThat(countHitsPerUri(reopenedStore, DEFAULT_DATE_TIME, DEFAULT_DATE_TIME),
+                equalTo(Map.of("/events/1", 1L)));
+        reopenedStore.close();
+        try (FileChannel channel = FileChannel.open(walPath, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {127, -1, -1, -1, 0, 0, 0, 0, 4}));  // Испорченная длина
+        }
+
+        reopenedStore = new HitColumnStore(properties);
+        assertThat(Files.size(walPath), equalTo(firstBatchSize));
+        assertThat(countHitsPerUri(reopenedStore, DEFAULT_DATE_TIME, DEFAULT_DATE_TIME),
+                equalTo(Map.of("/events/1", 1L)));
+        reopenedStore.close();
+    }
+
+    @Test
+    public void append_whenSegmentLogIsConfigured_thenRollSegmentsAndRestoreThemWithoutCorruptedTail()
+            throws IOException {
+        InMemoryStatsProperties properties = new InMemoryStatsProperties();
+        properties.setSegmentLogPath(walDirectory.toString());
+        properties.setSegmentRecords(100);
+        properties.setSegmentIndexInterval(10);
+        HitColumnStore store = new HitColumnStore(properties);
+        List<HitEntity> hits = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            hits.add(createHit("/events/" + (i % 5), DEFAULT_DATE_TIME.plusMinutes(i)));
+        }
+        store.append(hits);
+        assertThat(hits.get(249).getId(), equalTo(BigInteger.valueOf(250)));
+        assertThat(countHitsPerUri(store, DEFAULT_DATE_TIME.plusMinutes(95), DEFAULT_DATE_TIME.plusMinutes(104)),
+                allOf(aMapWithSize(5), hasEntry("/events/0", 2L)));  // Период попадает на стык двух сегментов
+        store.close();
+        Path lastSegment = walDirectory.resolve("00000000000000000200.segment");
+        assertThat(Files.exists(walDirectory.resolve("00000000000000000000.index")), is(true));
+        assertThat(Files.exists(walDirectory.resolve("00000000000000000200.index")), is(false));
+        try (FileChannel channel = FileChannel.open(lastSegment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {1}), 49L * 24 + 20);  // Контрольная сумма последнего хита
+        }
+
+        HitColumnStore reopenedStore = new HitColumnStore(properties);
+        Map<String, Long> hitsPerUri = countHitsPerUri(reopenedStore, DEFAULT_DATE_TIME,
+                DEFAULT_DATE_TIME.plusMinutes(300));
+        assertThat(hitsPerUri.values().stream().mapToLong(Long::longValue).sum(), equalTo(249L));
+        assertThat(hitsPerUri, hasEntry("/events/4", 49L));
+        HitEntity hit = createHit("/events/new", DEFAULT_DATE_TIME.plusMinutes(249));
+        reopenedStore.append(List.of(hit));
+        assertThat(hit.getId(), equalTo(BigInteger.valueOf(250)));
+        reopenedStore.close();
+        assertThat(countHitsPerUri(new HitColumnStore(properties), DEFAULT_DATE_TIME.plusMinutes(249),
+                DEFAULT_DATE_TIME.plusMinutes(249)), equalTo(Map.of("/events/new", 1L)));
+    }
+
+    private Map<String, Long> countHitsPerUri(HitColumnStore store, LocalDateTime start, LocalDateTime end) {
+        Map<Integer, Long> hitsPerUriId = store.scan(start, end, null, HashMap::new,
+                (counters, applicationId, uriId, ipId, epochSecond) -> counters.merge(uriId, 1L, Long::sum),
+                (first, second) -> {
+                    second.forEach((uriId, hits) -> first.merge(uriId, hits, Long::sum));
+                    return first;
+                });
+        Map<String, Long> hitsPerUri = new HashMap<>();
+        hitsPerUriId.forEach((uriId, hits) -> hitsPerUri.put(store.getUri(uriId), hits));
+        return hitsPerUri;
+    }
+
+    private HitEntity createHit(String uri, LocalDateTime timestamp) {
+        HitEntity hit = new HitEntity();
+        hit.setApplication("application");
+        hit.setUri(uri);
+        hit.setIp(IpAddressConverter.toBytes("10.0.0.1"));
+        hit.setTimestamp(timestamp);
+        return hit;
+    }
+
+}
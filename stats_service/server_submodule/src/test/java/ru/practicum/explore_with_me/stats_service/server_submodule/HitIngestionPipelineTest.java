@@ -0,0 +1,81 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import ru.practicum.explore_with_me.stats_service.client_submodule.StatsClient;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestCommand;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestView;
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.HitDictionaryRepository;
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.StatsRepository;
+import ru.practicum.explore_with_me.stats_service.server_submodule.ingestion.HitIngestionPipeline;
+import ru.practicum.explore_with_me.stats_service.server_submodule.service.StatsService;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "stats-server.ingestion.mode=async",
+        "stats-server.ingestion.batch-size=7",
+        "stats-server.ingestion.flush-interval-ms=50"})
+public class HitIngestionPipelineTest {
+    private static final LocalDateTime DEFAULT_DATE_TIME = LocalDateTime.of(2023, 8, 1, 0, 0, 1);
+    @Autowired
+    private StatsService statsService;
+    @Autowired
+    private StatsRepository statsRepository;
+    @Autowired
+    private HitDictionaryRepository hitDictionaryRepository;
+    @Autowired
+    private HitIngestionPipeline hitIngestionPipeline;
+
+    @BeforeEach
+    public void clearHits() {
+        hitIngestionPipeline.start();
+        statsRepository.deleteAll();
+    }
+
+    @Test
+    public void saveHit_whenIngestionIsAsync_thenHitIsSavedByBackgroundWriter() throws InterruptedException {
+        HitRestView hitRestView = statsService.saveHit(createHitRestCommand("/events/1"));
+
+        assertThat(hitRestView.getId(), nullValue());
+        assertThat(hitRestView.getUri(), equalTo("/events/1"));
+        waitUntilHitsAreSaved(1);
+        assertThat(hitDictionaryRepository.getUri(statsRepository.findAll().get(0).getUriId()), equalTo("/events/1"));
+    }
+
+    @Test
+    public void stop_whenQueueIsNotEmpty_thenDrainAllAcceptedHits() {
+        for (int i = 0; i < 100; i++) {
+            statsService.saveHit(createHitRestCommand("/events/" + i));
+        }
+
+        hitIngestionPipeline.stop();
+
+        assertEquals(0, hitIngestionPipeline.getQueueDepth());
+        assertEquals(100, statsRepository.count());
+    }
+
+    private HitRestCommand createHitRestCommand(String uri) {
+        return HitRestCommand.builder()
+                .application("application")
+                .ip("127.0.0.1")
+                .uri(uri)
+                .timestamp(DEFAULT_DATE_TIME.format(StatsClient.FORMATTER))
+                .build();
+    }
+
+    private void waitUntilHitsAreSaved(long expected) throws InterruptedException {
+        for (int i = 0; i < 100 && statsRepository.count() < expected; i++) {
+            Thread.sleep(20L);
+        }
+        assertEquals(expected, statsRepository.count());
+    }
+
+}
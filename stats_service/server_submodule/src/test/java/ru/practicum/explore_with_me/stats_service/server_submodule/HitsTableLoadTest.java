@@ -0,0 +1,115 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.HitDictionaryRepository;
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.StatsRepository;
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.UriFilter;
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.UriFilteredStatsRepository;
+import ru.practicum.explore_with_me.stats_service.server_submodule.util.IpAddressConverter;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+// Запуск: mvn test -Dbenchmarks=true -Dtest=HitsTableLoadTest [-Dload-test.table-sizes=1000000,10000000,30000000]
+// Для замера на PostgreSQL с партициями достаточно передать -Dspring.sql.init.platform=postgresql
+// и параметры подключения -Dspring.datasource.url/driverClassName/username/password
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.datasource.url=jdbc:h2:file:./target/hits-load-test;OPTIMIZE_REUSE_RESULTS=0")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class HitsTableLoadTest {
+    private static final LocalDateTime FIRST_HIT_TIME = LocalDateTime.of(2022, 1, 1, 0, 0, 0);
+    private static final int PERIOD_DAYS = 365;
+    private static final int URIS_COUNT = 1_000;
+    private static final int IPS_COUNT = 100_000;
+    private static final int INSERT_CHUNK_SIZE = 10_000;
+    private static final int MEASUREMENTS_COUNT = 10;
+    private final StatsRepository statsRepository;
+    private final UriFilteredStatsRepository uriFilteredStatsRepository;
+    private final HitDictionaryRepository hitDictionaryRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void measureQueryLatency_whenHitsTableGrows() {
+        long[] tableSizes = Arrays.stream(System.getProperty("load-test.table-sizes", "1000000,10000000,30000000")
+                        .split(","))
+                .mapToLong(size -> Long.parseLong(size.trim()))
+                .sorted()
+                .toArray();
+        jdbcTemplate.update("delete from hits");
+        int applicationId = hitDictionaryRepository.getOrCreateApplicationId("ewm-main-service");
+        int[] uriIds = new int[URIS_COUNT];
+        for (int i = 0; i < URIS_COUNT; i++) {
+            uriIds[i] = hitDictionaryRepository.getOrCreateUriId("/events/" + i);
+        }
+        UriFilter oneUri = UriFilter.ofUris(new String[] {"/events/7"}, List.of(uriIds[7]));
+        UriFilter twoUris = UriFilter.ofUris(new String[] {"/events/7", "/events/8"}, List.of(uriIds[7], uriIds[8]));
+        long insertedRows = 0;
+        List<String> report = new ArrayList<>();
+        for (long tableSize : tableSizes) {
+            insertHits(insertedRows, tableSize, applicationId, uriIds);
+            insertedRows = tableSize;
+            jdbcTemplate.execute("analyze");
+
+            LocalDateTime dayStart = FIRST_HIT_TIME.plusDays(PERIOD_DAYS / 2);
+            double rangeLatency = measure(() -> statsRepository.getAllUriStatsOrderedByHitsCount(
+                    dayStart, dayStart.plusDays(1), Pageable.unpaged()).size());
+            double uriLatency = measure(() -> uriFilteredStatsRepository.getUriStatsOrderedByHitsCount(
+                    FIRST_HIT_TIME, FIRST_HIT_TIME.plusDays(PERIOD_DAYS), oneUri, false, Pageable.unpaged()).size());
+            double uniqueLatency = measure(() -> uriFilteredStatsRepository.getUriStatsOrderedByHitsCount(
+                    dayStart, dayStart.plusDays(7), twoUris, true, Pageable.unpaged()).size());
+            report.add(String.format("%,12d rows | day range: %8.2f ms | one uri, whole year: %8.2f ms | " +
+                    "unique, two uris, week: %8.2f ms", tableSize, rangeLatency, uriLatency, uniqueLatency));
+            assertThat(uriFilteredStatsRepository.getUriStatsOrderedByHitsCount(FIRST_HIT_TIME,
+                    FIRST_HIT_TIME.plusDays(PERIOD_DAYS), oneUri, false, Pageable.unpaged()),
+                    iterableWithSize(1));
+        }
+        log.info("Query latency of hits table:\n{}", String.join("\n", report));
+        jdbcTemplate.update("delete from hits");
+    }
+
+    private void insertHits(long fromRow, long toRow, int applicationId, int[] uriIds) {
+        List<Object[]> chunk = new ArrayList<>(INSERT_CHUNK_SIZE);
+        long secondsInPeriod = PERIOD_DAYS * 24L * 3600L;
+        for (long row = fromRow; row < toRow; row++) {
+            long mixedRow = row * 2_654_435_761L;  // Хиты разных размеров таблицы равномерно ложатся на весь период
+            int ip = (int) Math.floorMod(mixedRow, IPS_COUNT);
+            chunk.add(new Object[] {
+                    applicationId,
+                    uriIds[(int) Math.floorMod(mixedRow >> 7, URIS_COUNT)],
+                    IpAddressConverter.toBytes(String.format("10.%d.%d.%d", ip >> 16, (ip >> 8) & 0xff, ip & 0xff)),
+                    Timestamp.valueOf(FIRST_HIT_TIME.plusSeconds(Math.floorMod(mixedRow >> 3, secondsInPeriod)))});
+            if (chunk.size() == INSERT_CHUNK_SIZE || row == toRow - 1) {
+                jdbcTemplate.batchUpdate("insert into hits (application_id, uri_id, ip, hit_timestamp) " +
+                        "values (?, ?, ?, ?)", chunk);
+                chunk.clear();
+            }
+        }
+    }
+
+    private double measure(Supplier<Integer> query) {
+        query.get();  // Прогрев
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < MEASUREMENTS_COUNT; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - startNanos) / (double) MEASUREMENTS_COUNT / 1_000_000.0D;
+    }
+
+}
\ No newline at end of file
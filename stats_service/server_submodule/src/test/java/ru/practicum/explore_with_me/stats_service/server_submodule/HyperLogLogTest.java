@@ -0,0 +1,50 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+
+import ru.practicum.explore_with_me.stats_service.server_submodule.util.HyperLogLog;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class HyperLogLogTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 1_000, 50_000, 300_000})
+    public void estimate_whenAddDistinctIps_thenReturnCountWithinErrorBound(int ipsCount) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < ipsCount; i++) {
+            sketch.add(createIp(i));
+            sketch.add(createIp(i));  // Повторы не должны влиять на оценку
+        }
+
+        double allowedError = Math.max(1.0D, ipsCount * HyperLogLog.RELATIVE_STANDARD_ERROR * 3);
+        assertThat((double) sketch.estimate(), closeTo(ipsCount, allowedError));
+    }
+
+    @Test
+    public void merge_whenMergeSketchesWithCommonIps_thenReturnEstimateOfUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (int i = 0; i < 20_000; i++) {
+            first.add(createIp(i));
+            second.add(createIp(i + 10_000));
+        }
+
+        first.merge(second);
+
+        assertThat((double) first.estimate(), closeTo(30_000, 30_000 * HyperLogLog.RELATIVE_STANDARD_ERROR * 3));
+    }
+
+    @Test
+    public void estimate_whenSketchIsEmpty_thenReturnZero() {
+        assertThat(new HyperLogLog().estimate(), equalTo(0L));
+    }
+
+    private String createIp(int number) {
+        return String.format("10.%d.%d.%d", (number >> 16) & 0xff, (number >> 8) & 0xff, number & 0xff);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import ru.practicum.explore_with_me.stats_service.server_submodule.service.InMemoryStatsService;
+import ru.practicum.explore_with_me.stats_service.server_submodule.service.StatsService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+
+// Те же сценарии, что и для реализации на базе данных. Унаследованные методы открывают транзакцию, поэтому
+// тестовая база остаётся в контексте, но хиты её не касаются: откатывать нечего, и хранилище пересоздаётся
+// вместе с контекстом после каждого теста
+@ActiveProfiles({"test", "in-memory"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.autoconfigure.exclude=",
+        "stats-server.in-memory.wal-path="})
+public class InMemoryStatsServiceTest extends StatsServiceTest {
+
+    @Autowired
+    public InMemoryStatsServiceTest(StatsService statsService) {
+        super(statsService);
+        assertThat(statsService, instanceOf(InMemoryStatsService.class));
+    }
+
+}
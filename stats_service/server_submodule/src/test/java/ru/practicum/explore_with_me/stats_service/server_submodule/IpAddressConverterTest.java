@@ -0,0 +1,37 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import ru.practicum.explore_with_me.stats_service.server_submodule.util.IpAddressConverter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class IpAddressConverterTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "127.0.0.1, 127.0.0.1",
+            "::ffff:192.168.0.1, 192.168.0.1",
+            "::1, ::1",
+            "::, ::",
+            "2001:DB8:0:0:0:0:0:1, 2001:db8::1",
+            "2001:db8:0:0:1:0:0:1, 2001:db8::1:0:0:1",
+            "fe80:0:0:1:2:3:4:5, fe80::1:2:3:4:5",
+            "1:2:3:4:5:6:7:8, 1:2:3:4:5:6:7:8"})
+    public void toString_whenConvertParsedIp_thenReturnCanonicalText(String ip, String expected) {
+        byte[] bytes = IpAddressConverter.toBytes(ip);
+
+        assertThat(bytes.length, equalTo(IpAddressConverter.IP_BYTES_LENGTH));
+        assertThat(IpAddressConverter.toString(bytes), equalTo(expected));
+    }
+
+    @Test
+    public void toBytes_whenGetSameIpv4InDifferentForms_thenReturnEqualBytes() {
+        assertThat(IpAddressConverter.toBytes("10.0.0.1"), equalTo(IpAddressConverter.toBytes("::ffff:10.0.0.1")));
+        assertThat(IpAddressConverter.toBytes("10.0.0.1"), not(equalTo(IpAddressConverter.toBytes("10.0.0.2"))));
+    }
+
+}
@@ -0,0 +1,73 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.HitEntity;
+import ru.practicum.explore_with_me.stats_service.server_submodule.dao.UriStatFromDb;
+import ru.practicum.explore_with_me.stats_service.server_submodule.topk.RecentTopUrisTracker;
+import ru.practicum.explore_with_me.stats_service.server_submodule.topk.TopUrisProperties;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class RecentTopUrisTrackerTest {
+    private RecentTopUrisTracker tracker;
+    private LocalDateTime firstTrackedSecond;
+
+    @BeforeEach
+    public void createTracker() {
+        tracker = new RecentTopUrisTracker(new TopUrisProperties());
+        firstTrackedSecond = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(2);
+    }
+
+    @Test
+    public void getTopUris_whenPeriodIsTracked_thenReturnMostViewedUrisInPeriod() {
+        List<HitEntity> hits = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            for (int j = 0; j < i * 10; j++) {
+                hits.add(createHit("/events/" + i, firstTrackedSecond.plusSeconds(j * 7L)));
+            }
+        }
+        hits.add(createHit("/events/1", firstTrackedSecond.plusHours(2)));  // Вне запрошенного периода
+        tracker.record(hits);
+
+        List<UriStatFromDb> top = tracker.getTopUris(firstTrackedSecond, firstTrackedSecond.plusMinutes(40),
+                null, 3).orElseThrow();
+        assertThat(top.stream().map(UriStatFromDb::getUri).collect(Collectors.toList()),
+                contains("/events/5", "/events/4", "/events/3"));
+        assertThat(top.stream().map(UriStatFromDb::getHits).collect(Collectors.toList()), contains(50L, 40L, 30L));
+
+        top = tracker.getTopUris(firstTrackedSecond.plusSeconds(7), firstTrackedSecond.plusSeconds(69),
+                Set.of("/events/1", "/events/2")::contains, 5).orElseThrow();
+        assertThat(top, iterableWithSize(2));
+        assertThat(top.get(0).getHits(), equalTo(9L));  // Хиты на 7, 14, ..., 63 секундах
+        assertThat(top.get(1).getHits(), equalTo(9L));
+    }
+
+    @Test
+    public void getTopUris_whenPeriodStartsBeforeTracking_thenReturnEmptyOptional() {
+        tracker.record(List.of(createHit("/events/1", firstTrackedSecond)));
+
+        Optional<List<UriStatFromDb>> top = tracker.getTopUris(firstTrackedSecond.minusHours(1),
+                firstTrackedSecond.plusMinutes(1), null, 10);
+        assertThat(top.isPresent(), is(false));
+    }
+
+    private HitEntity createHit(String uri, LocalDateTime timestamp) {
+        HitEntity hitEntity = new HitEntity();
+        hitEntity.setApplication("application");
+        hitEntity.setUri(uri);
+        hitEntity.setTimestamp(timestamp);
+        return hitEntity;
+    }
+
+}
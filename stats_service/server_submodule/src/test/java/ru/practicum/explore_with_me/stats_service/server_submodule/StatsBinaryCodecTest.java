@@ -0,0 +1,115 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule;
+
+import org.junit.jupiter.api.Test;
+
+import ru.practicum.explore_with_me.stats_service.dto_submodule.binary.StatsBinaryCodec;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EventViewsQuery;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitAcceptanceRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestCommand;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StatsBinaryCodecTest {
+
+    @Test
+    public void decodeHits_whenDecodeEncodedHits_thenReturnSameHits() {
+        List<HitRestCommand> hits = List.of(
+                createHit("/events/1", "121.0.0.1", "2023-08-01 12:00:05"),
+                createHit("/events/1", "121.0.0.2", "2023-08-01 12:00:04"),
+                createHit("/events/кириллица", "121.0.0.1", "1970-01-01 00:00:00"),
+                HitRestCommand.builder().uri("/events/2").ip("121.0.0.1").timestamp("2023-08-01 12:00:05").build());
+
+        assertThat(StatsBinaryCodec.decodeHits(StatsBinaryCodec.encodeHits(hits)), equalTo(hits));
+    }
+
+    @Test
+    public void encodeHits_whenHitsRepeatStrings_thenWriteEachStringOnce() {
+        List<HitRestCommand> hits = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            hits.add(createHit("/events/" + (i % 3), "121.0.0." + (i % 5), "2023-08-01 12:00:00"));
+        }
+
+        byte[] message = StatsBinaryCodec.encodeHits(hits);
+
+        assertThat(message.length, lessThan(100 * 6));  // Повторы строк и одинаковое время занимают по байту
+        assertThat(StatsBinaryCodec.decodeHits(message), equalTo(hits));
+    }
+
+    @Test
+    public void encodeHits_whenTimestampIsIncorrect_thenThrowException() {
+        List<HitRestCommand> hits = List.of(createHit("/events/1", "121.0.0.1", "01.08.2023 12:00:00"));
+
+        assertThrows(IllegalArgumentException.class, () -> StatsBinaryCodec.encodeHits(hits));
+    }
+
+    @Test
+    public void decodeHitAcceptances_whenDecodeEncodedAcceptances_thenReturnSameAcceptances() {
+        List<HitAcceptanceRestView> acceptances = List.of(
+                HitAcceptanceRestView.builder().index(0).accepted(true).build(),
+                HitAcceptanceRestView.builder().index(1).accepted(false).reason("Wrong request body").build(),
+                HitAcceptanceRestView.builder().index(300).accepted(false).reason("Wrong request body").build());
+
+        assertThat(StatsBinaryCodec.decodeHitAcceptances(StatsBinaryCodec.encodeHitAcceptances(acceptances)),
+                equalTo(acceptances));
+    }
+
+    @Test
+    public void decodeEventViewsQuery_whenDecodeEncodedQuery_thenReturnSameQuery() {
+        EventViewsQuery query = EventViewsQuery.builder()
+                .start(LocalDateTime.of(2023, 8, 1, 0, 0, 1))
+                .end(LocalDateTime.of(2035, 1, 1, 23, 59, 59))
+                .eventIds(List.of(1L, 127L, 128L, Long.MAX_VALUE))
+                .unique(true)
+                .approximate(true)
+                .build();
+
+        assertThat(StatsBinaryCodec.decodeEventViewsQuery(StatsBinaryCodec.encodeEventViewsQuery(query)),
+                equalTo(query));
+    }
+
+    @Test
+    public void decodeEventViews_whenDecodeEncodedViews_thenReturnSameViews() {
+        Map<Long, Long> views = new LinkedHashMap<>();
+        views.put(5L, 1_000_000L);
+        views.put(1L, 0L);
+
+        assertThat(StatsBinaryCodec.decodeEventViews(StatsBinaryCodec.encodeEventViews(views)), equalTo(views));
+        assertThat(StatsBinaryCodec.decodeEventViews(StatsBinaryCodec.encodeEventViews(Map.of())), anEmptyMap());
+    }
+
+    @Test
+    public void decode_whenMessageIsMalformed_thenThrowException() {
+        byte[] hits = StatsBinaryCodec.encodeHits(List.of(createHit("/events/1", "121.0.0.1", "2023-08-01 12:00:00")));
+
+        assertThrows(IllegalArgumentException.class, () -> StatsBinaryCodec.decodeHits(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> StatsBinaryCodec.decodeEventViews(hits));
+        assertThrows(IllegalArgumentException.class, () ->
+                StatsBinaryCodec.decodeHits(Arrays.copyOf(hits, hits.length - 1)));
+        assertThrows(IllegalArgumentException.class, () ->
+                StatsBinaryCodec.decodeHits(Arrays.copyOf(hits, hits.length + 1)));
+        assertThrows(IllegalArgumentException.class, () ->
+                StatsBinaryCodec.decodeHits("{\"uri\":\"/events/1\"}".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(IllegalArgumentException.class, () ->
+                StatsBinaryCodec.decodeEventViews(new byte[] {1, 4, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x7f}));
+    }
+
+    private HitRestCommand createHit(String uri, String ip, String timestamp) {
+        return HitRestCommand.builder()
+                .application("ewm-main-service")
+                .uri(uri)
+                .ip(ip)
+                .timestamp(timestamp)
+                .build();
+    }
+
+}
@@ -11,10 +11,19 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import ru.practicum.explore_with_me.stats_service.client_submodule.StatsClient;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EventViewsQuery;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitAcceptanceRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestCommand;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.TimeSeriesBucket;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatsQuery;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriTimeSeriesRestView;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -79,6 +88,134 @@ public class StatsClientIntegrationTest {
         }
     }
 
+    @Test
+    public void addNewHits_whenGetCorrectAndIncorrectHits_thenReturnAcceptanceOfEachHit() {
+        ResponseEntity<HitAcceptanceRestView[]> hitsResponse = statsClient.addNewHits(List.of(
+                statsClient.createHitRestCommand(DEFAULT_IP, "/events/888"),
+                statsClient.createHitRestCommand("potato", "/events/888"),
+                statsClient.createHitRestCommand(DEFAULT_IP, "/events/888")));
+
+        assertThat(hitsResponse.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(hitsResponse.getBody(), arrayWithSize(3));
+        assertTrue(hitsResponse.getBody()[0].isAccepted());
+        assertFalse(hitsResponse.getBody()[1].isAccepted());
+        assertThat(hitsResponse.getBody()[1].getReason(), equalTo("Wrong method parameter: " +
+                "IP not in IPv4 or IPv6 format"));
+        assertTrue(hitsResponse.getBody()[2].isAccepted());
+
+        ResponseEntity<UriStatRestView[]> uriArrayResponse = statsClient.getUriStats(
+                LocalDateTime.now().minusSeconds(1),
+                LocalDateTime.now(),
+                new String[] {"/events/888"},
+                false);
+        assertThat(uriArrayResponse.getBody(), arrayWithSize(1));
+        assertEquals(2, uriArrayResponse.getBody()[0].getHits());
+    }
+
+    @Test
+    public void getEventViews_whenHitsAreSentInBinaryFormat_thenReturnViewsByEventIds() {
+        ResponseEntity<HitAcceptanceRestView[]> hitsResponse = statsClient.addNewHitsBinary(List.of(
+                createPastHitRestCommand(DEFAULT_IP, "/events/951"),
+                createPastHitRestCommand("121.0.0.2", "/events/951"),
+                createPastHitRestCommand("potato", "/events/951"),
+                createPastHitRestCommand(DEFAULT_IP, "/events/952")));
+
+        assertThat(hitsResponse.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(hitsResponse.getBody(), arrayWithSize(4));
+        assertFalse(hitsResponse.getBody()[2].isAccepted());
+        assertThat(hitsResponse.getBody()[2].getReason(), equalTo("Wrong method parameter: " +
+                "IP not in IPv4 or IPv6 format"));
+
+        EventViewsQuery eventViewsQuery = EventViewsQuery.builder()
+                .start(LocalDateTime.now().minusHours(1))
+                .end(LocalDateTime.now().minusMinutes(1))
+                .eventIds(List.of(951L, 952L, 953L, 951L))
+                .unique(false)
+                .build();
+        ResponseEntity<Map<Long, Long>> viewsResponse = statsClient.getEventViews(eventViewsQuery);
+        assertThat(viewsResponse.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(viewsResponse.getBody(), equalTo(Map.of(951L, 2L, 952L, 1L)));
+
+        viewsResponse = statsClient.getEventViews(eventViewsQuery.toBuilder()
+                .start(eventViewsQuery.getEnd())
+                .end(eventViewsQuery.getStart())
+                .build());
+        assertThat(viewsResponse.getStatusCode(), equalTo(HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    public void queryUriStats_whenUrisDoNotFitIntoQueryString_thenReturnStatsOfRequestedUris() {
+        statsClient.addNewHits(List.of(
+                createPastHitRestCommand(DEFAULT_IP, "/events/961"),
+                createPastHitRestCommand(DEFAULT_IP, "/events/961"),
+                createPastHitRestCommand(DEFAULT_IP, "/events/962")));
+        List<String> uris = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            uris.add("/events/" + (100_000 + i));
+        }
+        uris.add("/events/961");
+        uris.add("/events/962");
+        UriStatsQuery uriStatsQuery = UriStatsQuery.builder()
+                .start(LocalDateTime.now().minusHours(1).format(StatsClient.FORMATTER))
+                .end(LocalDateTime.now().minusMinutes(1).format(StatsClient.FORMATTER))
+                .uris(uris)
+                .build();
+
+        ResponseEntity<UriStatRestView[]> uriStatsResponse = statsClient.queryUriStats(uriStatsQuery);
+        assertThat(uriStatsResponse.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(uriStatsResponse.getBody(), arrayWithSize(2));
+        assertThat(uriStatsResponse.getBody()[0].getUri(), equalTo("/events/961"));
+        assertEquals(2, uriStatsResponse.getBody()[0].getHits());
+
+        uriStatsResponse = statsClient.queryUriStats(uriStatsQuery.toBuilder().uris(null).build());
+        assertThat(uriStatsResponse.getStatusCode(), equalTo(HttpStatus.OK));
+        uriStatsResponse = statsClient.queryUriStats(uriStatsQuery.toBuilder().end(null).build());
+        assertThat(uriStatsResponse.getStatusCode(), equalTo(HttpStatus.BAD_REQUEST));
+        assertThat(uriStatsResponse.getBody()[0].getApplication(), containsString("cannot be null"));
+    }
+
+    @Test
+    public void streamUriStats_whenGetCorrectParameters_thenPassEachUriStatToConsumer() {
+        statsClient.addNewHit(DEFAULT_IP, "/events/901");
+        statsClient.addNewHit(DEFAULT_IP, "/events/901");
+        statsClient.addNewHit("121.0.0.2", "/events/901");
+        statsClient.addNewHit(DEFAULT_IP, "/events/902");
+        List<UriStatRestView> receivedStats = new ArrayList<>();
+
+        ResponseEntity<Long> streamResponse = statsClient.streamUriStats(
+                LocalDateTime.now().minusMinutes(1),
+                LocalDateTime.now(),
+                new String[] {"/events/901", "/events/902"},
+                false,
+                receivedStats::add);
+
+        assertThat(streamResponse.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(streamResponse.getBody(), equalTo(2L));
+        assertThat(receivedStats, iterableWithSize(2));
+        assertThat(receivedStats.get(0).getUri(), equalTo("/events/901"));
+        assertEquals(3, receivedStats.get(0).getHits());
+        assertThat(receivedStats.get(1).getUri(), equalTo("/events/902"));
+        assertEquals(1, receivedStats.get(1).getHits());
+
+        receivedStats.clear();
+        streamResponse = statsClient.streamUriStats(
+                LocalDateTime.now().minusMinutes(1),
+                LocalDateTime.now(),
+                new String[] {"/events/901"},
+                true,
+                receivedStats::add);
+        assertThat(streamResponse.getBody(), equalTo(1L));
+        assertEquals(2, receivedStats.get(0).getHits());
+
+        streamResponse = statsClient.streamUriStats(
+                LocalDateTime.now(),
+                LocalDateTime.now().minusMinutes(1),
+                null,
+                false,
+                receivedStats::add);
+        assertThat(streamResponse.getStatusCode(), equalTo(HttpStatus.BAD_REQUEST));
+    }
+
     @Test
     public void getUriStats_whenGetCorrectParameters_thenReturnCorrectResponseEntity() {
         statsClient.addNewHit(DEFAULT_IP, "/events");
@@ -333,4 +470,40 @@ public class StatsClientIntegrationTest {
                 "start of period for requesting cannot be after its end"));
     }
 
-}
\ No newline at end of file
+    // Хиты в прошлом не попадают в проверки тестов, которые считают все хиты последней секунды
+    @Test
+    public void getUriTimeSeries_whenGetUriPrefix_thenReturnBucketsOfMatchingUris() {
+        statsClient.addNewHits(List.of(
+                createPastHitRestCommand(DEFAULT_IP, "/events/971"),
+                createPastHitRestCommand(DEFAULT_IP, "/events/971"),
+                createPastHitRestCommand(DEFAULT_IP, "/events/972")));
+        LocalDateTime start = LocalDateTime.now().minusHours(1);
+        LocalDateTime end = LocalDateTime.now().minusMinutes(1);
+
+        ResponseEntity<UriTimeSeriesRestView[]> timeSeriesResponse = statsClient.getUriTimeSeries(start, end, null,
+                "/events/97", TimeSeriesBucket.MINUTE);
+        assertThat(timeSeriesResponse.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(timeSeriesResponse.getBody(), arrayWithSize(2));
+        assertThat(timeSeriesResponse.getBody()[0].getUriSuffix(), equalTo(1L));
+        assertEquals(2, timeSeriesResponse.getBody()[0].getHits());
+        assertThat(timeSeriesResponse.getBody()[0].getBuckets(), not(empty()));
+
+        timeSeriesResponse = statsClient.getUriTimeSeries(start, end, new String[] {"/events/972"}, null,
+                TimeSeriesBucket.DAY);
+        assertThat(timeSeriesResponse.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(timeSeriesResponse.getBody(), arrayWithSize(1));
+        assertThat(timeSeriesResponse.getBody()[0].getBuckets().get(0).getStart(),
+                equalTo(timeSeriesResponse.getBody()[0].getBuckets().get(0).getStart().substring(0, 10) +
+                        " 00:00:00"));
+
+        timeSeriesResponse = statsClient.getUriTimeSeries(end, start, null, "/events/97", TimeSeriesBucket.HOUR);
+        assertThat(timeSeriesResponse.getStatusCode(), equalTo(HttpStatus.BAD_REQUEST));
+    }
+
+    private HitRestCommand createPastHitRestCommand(String ip, String uri) {
+        return statsClient.createHitRestCommand(ip, uri).toBuilder()
+                .timestamp(LocalDateTime.now().minusMinutes(30).format(StatsClient.FORMATTER))
+                .build();
+    }
+
+}
@@ -9,9 +9,13 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.explore_with_me.stats_service.client_submodule.StatsClient;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitAcceptanceRestView;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestCommand;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitsBucketRestView;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatsQuery;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriTimeSeriesRestView;
 import ru.practicum.explore_with_me.stats_service.server_submodule.controller.StatsController;
 import ru.practicum.explore_with_me.stats_service.server_submodule.service.StatsService;
 
@@ -76,13 +80,47 @@ public class StatsControllerTest {
                 .saveHit(Mockito.any(HitRestCommand.class));
     }
 
+    @Test
+    public void saveNewHitsFromStream_whenGetNdjsonWithIncorrectLine_thenReturnAcceptanceOfEachLine() throws Exception {
+        when(statsService.saveHits(Mockito.anyList()))
+                .thenAnswer(invocation -> List.of(
+                        HitAcceptanceRestView.builder().index(0).accepted(true).build(),
+                        HitAcceptanceRestView.builder().index(1).accepted(true).build()));
+        String hit = objectMapper.writeValueAsString(HitRestCommand.builder()
+                .application("app")
+                .ip("ip")
+                .uri("uri")
+                .timestamp(DEFAULT_DATE_TIME.format(StatsClient.FORMATTER))
+                .build());
+
+        mvc.perform(post("/hits")
+                        .content(hit + "\n\n{potato\n" + hit + "\n")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(StatsController.APPLICATION_NDJSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].accepted", is(true)))
+                .andExpect(jsonPath("$[1].index", is(1)))
+                .andExpect(jsonPath("$[1].accepted", is(false)))
+                .andExpect(jsonPath("$[1].reason", endsWith("line 3")))
+                .andExpect(jsonPath("$[2].index", is(2)))
+                .andExpect(jsonPath("$[2].accepted", is(true)));
+
+        verify(statsService, Mockito.times(1))
+                .saveHits(Mockito.anyList());
+    }
+
     @Test
     public void getUriStats_whenGetCorrectHitRestCommand_thenReturnHitRestView() throws Exception {
         when(statsService.getAllUriStatsOrderedByHits(
                 Mockito.anyString(),
                 Mockito.anyString(),
                 Mockito.any(String[].class),
-                Mockito.anyBoolean()))
+                Mockito.isNull(),
+                Mockito.anyBoolean(),
+                Mockito.eq(false),
+                Mockito.isNull()))
                 .thenReturn(List.of(uriStatRestView));
 
         mvc.perform(get("/stats")
@@ -101,7 +139,93 @@ public class StatsControllerTest {
                 .getAllUriStatsOrderedByHits(Mockito.anyString(),
                         Mockito.anyString(),
                         Mockito.any(String[].class),
-                        Mockito.anyBoolean());
+                        Mockito.isNull(),
+                        Mockito.anyBoolean(),
+                        Mockito.eq(false),
+                        Mockito.isNull());
+    }
+
+    @Test
+    public void getUriStats_whenGetLimitAndUriPrefix_thenPassThemToService() throws Exception {
+        when(statsService.getAllUriStatsOrderedByHits(
+                Mockito.anyString(),
+                Mockito.anyString(),
+                Mockito.isNull(),
+                Mockito.eq("/events/"),
+                Mockito.isNull(),
+                Mockito.eq(false),
+                Mockito.eq(5)))
+                .thenReturn(List.of(uriStatRestView));
+
+        mvc.perform(get("/stats")
+                        .param("start", "start")
+                        .param("end", "end")
+                        .param("uriPrefix", "/events/")
+                        .param("limit", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].uri", is(uriStatRestView.getUri())));
+
+        verify(statsService, Mockito.times(1))
+                .getAllUriStatsOrderedByHits(Mockito.anyString(),
+                        Mockito.anyString(),
+                        Mockito.isNull(),
+                        Mockito.eq("/events/"),
+                        Mockito.isNull(),
+                        Mockito.eq(false),
+                        Mockito.eq(5));
+    }
+
+    @Test
+    public void queryUriStats_whenGetQueryInBody_thenPassItToService() throws Exception {
+        UriStatsQuery uriStatsQuery = UriStatsQuery.builder()
+                .start("2023-08-01 00:00:01")
+                .end("2023-08-02 00:00:01")
+                .uris(List.of("uri1", "uri2"))
+                .unique(true)
+                .limit(5)
+                .build();
+        when(statsService.getUriStats(uriStatsQuery))
+                .thenReturn(List.of(uriStatRestView));
+
+        mvc.perform(post("/stats/query")
+                        .content(objectMapper.writeValueAsString(uriStatsQuery))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].uri", is(uriStatRestView.getUri())));
+
+        verify(statsService, Mockito.times(1)).getUriStats(uriStatsQuery);
+    }
+
+    @Test
+    public void getUriTimeSeries_whenBucketIsNotSpecified_thenRequestHourlyBuckets() throws Exception {
+        when(statsService.getUriTimeSeries(Mockito.anyString(), Mockito.anyString(), Mockito.isNull(),
+                Mockito.eq("/events/"), Mockito.eq("HOUR")))
+                .thenReturn(List.of(UriTimeSeriesRestView.builder()
+                        .application("application")
+                        .uri("/events/1")
+                        .uriSuffix(1L)
+                        .hits(3L)
+                        .buckets(List.of(HitsBucketRestView.builder()
+                                .start("2023-08-01 00:00:00")
+                                .hits(3L)
+                                .build()))
+                        .build()));
+
+        mvc.perform(get("/stats/timeseries")
+                        .param("start", "start")
+                        .param("end", "end")
+                        .param("uriPrefix", "/events/")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].uriSuffix", is(1)))
+                .andExpect(jsonPath("$[0].buckets[0].start", is("2023-08-01 00:00:00")))
+                .andExpect(jsonPath("$[0].buckets[0].hits", is(3)));
+
+        verify(statsService, Mockito.times(1)).getUriTimeSeries(Mockito.anyString(), Mockito.anyString(),
+                Mockito.isNull(), Mockito.eq("/events/"), Mockito.eq("HOUR"));
     }
 
-}
\ No newline at end of file
+}
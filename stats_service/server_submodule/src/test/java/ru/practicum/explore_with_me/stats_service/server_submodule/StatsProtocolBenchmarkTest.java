@@ -0,0 +1,91 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+
+import ru.practicum.explore_with_me.stats_service.client_submodule.StatsClient;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.binary.StatsBinaryCodec;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.EventViewsQuery;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestCommand;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+// Запуск: mvn test -Dbenchmarks=true -Dtest=StatsProtocolBenchmarkTest
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+public class StatsProtocolBenchmarkTest {
+    private static final int EVENTS_COUNT = 200;   // Больше URI в строку GET-запроса не помещается
+    private static final int HITS_BATCH_SIZE = 500;
+    private static final int MEASUREMENTS_COUNT = 50;
+    private final StatsClient statsClient = new StatsClient(new RestTemplateBuilder());
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void compareJsonAndBinaryProtocols() throws JsonProcessingException {
+        statsClient.changRestTemplate("localhost");
+        LocalDateTime start = LocalDateTime.now().minusMinutes(1);
+        List<HitRestCommand> hits = new ArrayList<>();
+        for (int i = 0; i < HITS_BATCH_SIZE; i++) {
+            hits.add(statsClient.createHitRestCommand("10.0." + (i / 250) + "." + (i % 250),
+                    EventViewsQuery.EVENT_URI_PREFIX + (i % EVENTS_COUNT)));
+        }
+        log.info("Batch of '{}' hits takes '{}' bytes in JSON and '{}' bytes in binary format", HITS_BATCH_SIZE,
+                objectMapper.writeValueAsBytes(hits).length, StatsBinaryCodec.encodeHits(hits).length);
+        measure("JSON hits", () -> statsClient.addNewHits(hits).getBody());
+        measure("binary hits", () -> statsClient.addNewHitsBinary(hits).getBody());
+
+        LocalDateTime end = LocalDateTime.now().plusMinutes(1);
+        List<Long> eventIds = LongStream.range(0, EVENTS_COUNT).boxed().collect(Collectors.toList());
+        String[] uris = eventIds.stream()
+                .map(eventId -> EventViewsQuery.EVENT_URI_PREFIX + eventId)
+                .toArray(String[]::new);
+        EventViewsQuery eventViewsQuery = EventViewsQuery.builder()
+                .start(start)
+                .end(end)
+                .eventIds(eventIds)
+                .unique(false)
+                .build();
+        UriStatRestView[] jsonViews = measure("JSON views", () ->
+                statsClient.getUriStats(start, end, uris, false).getBody());
+        Map<Long, Long> binaryViews = measure("binary views", () ->
+                statsClient.getEventViews(eventViewsQuery).getBody());
+        log.info("Views of '{}' events take '{}' bytes of query and '{}' bytes of response in JSON, '{}' and '{}' " +
+                        "bytes in binary format", EVENTS_COUNT, String.join(",", uris).length(),
+                objectMapper.writeValueAsBytes(jsonViews).length,
+                StatsBinaryCodec.encodeEventViewsQuery(eventViewsQuery).length,
+                StatsBinaryCodec.encodeEventViews(binaryViews).length);
+
+        assertThat(binaryViews, equalTo(Arrays.stream(jsonViews).collect(Collectors.toMap(
+                uriStat -> Long.parseLong(uriStat.getUri().substring(EventViewsQuery.EVENT_URI_PREFIX.length())),
+                UriStatRestView::getHits))));
+    }
+
+    private <T> T measure(String mode, Supplier<T> request) {
+        T result = request.get();  // Прогрев
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < MEASUREMENTS_COUNT; i++) {
+            result = request.get();
+        }
+        log.info("Mean latency of {} request: {} ms", mode,
+                (System.nanoTime() - startNanos) / MEASUREMENTS_COUNT / 1_000_000.0D);
+        return result;
+    }
+
+}
@@ -10,9 +10,15 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 
 import ru.practicum.explore_with_me.stats_service.client_submodule.StatsClient;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitAcceptanceRestView;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestCommand;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitsBucketRestView;
 import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatsQuery;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriTimeSeriesRestView;
+import ru.practicum.explore_with_me.stats_service.server_submodule.exception.BadRequestBodyException;
+import ru.practicum.explore_with_me.stats_service.server_submodule.exception.BadRequestParameterException;
 import ru.practicum.explore_with_me.stats_service.server_submodule.service.StatsService;
 
 import javax.validation.ConstraintViolationException;
@@ -21,9 +27,14 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Transactional
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
@@ -86,6 +97,41 @@ public class StatsServiceTest {
                         .build()));
     }
 
+    @Test
+    public void saveHits_whenGetCorrectAndIncorrectHitRestCommands_thenReturnAcceptanceOfEachHit() {
+        HitRestCommand correctHit = HitRestCommand.builder()
+                .application("application")
+                .ip("127.0.0.1")
+                .uri("/events/555")
+                .timestamp(DEFAULT_DATE_TIME.format(StatsClient.FORMATTER))
+                .build();
+        List<HitAcceptanceRestView> results = statsService.saveHits(List.of(
+                correctHit,
+                correctHit.toBuilder().ip("potato").build(),
+                correctHit.toBuilder().uri(" ").build(),
+                correctHit.toBuilder().timestamp("01.08.2023").build(),
+                correctHit.toBuilder().ip("::1").build()));
+
+        assertThat(results, iterableWithSize(5));
+        assertTrue(results.get(0).isAccepted());
+        assertFalse(results.get(1).isAccepted());
+        assertThat(results.get(1).getReason(), equalTo("Wrong method parameter: IP not in IPv4 or IPv6 format"));
+        assertFalse(results.get(2).isAccepted());
+        assertThat(results.get(2).getReason(), startsWith("uri: "));
+        assertFalse(results.get(3).isAccepted());
+        assertThat(results.get(3).getReason(), equalTo("Wrong method parameter: timestamp is in an unsupported format"));
+        assertTrue(results.get(4).isAccepted());
+        assertThat(results.get(4).getIndex(), equalTo(4));
+
+        List<UriStatRestView> uriStats = statsService.getAllUriStatsOrderedByHits(
+                DEFAULT_DATE_TIME.minusSeconds(1).format(StatsClient.FORMATTER),
+                LocalDateTime.now().format(StatsClient.FORMATTER),
+                new String[] {"/events/555"},
+                false);
+        assertThat(uriStats, iterableWithSize(1));
+        assertThat(uriStats.get(0).getHits(), equalTo(2L));
+    }
+
     @Test
     public void getAllUriStatsOrderedByHits_whenGetCorrectParameters_thenReturnListOfUriStatsRestViews() {
         statsService.saveHit(HitRestCommand.builder()
@@ -126,6 +172,355 @@ public class StatsServiceTest {
                 .build()));
     }
 
+    @Test
+    public void getAllUriStatsOrderedByHits_whenPeriodContainsFullAndPartialBuckets_thenCountAllHitsInPeriod() {
+        LocalDateTime bucketStart = DEFAULT_DATE_TIME.withSecond(0);
+        statsService.saveHits(List.of(
+                createHitRestCommand("/events/1", bucketStart.plusMinutes(10)),
+                createHitRestCommand("/events/1", bucketStart.plusMinutes(40)),
+                createHitRestCommand("/events/1", bucketStart.plusHours(1).plusMinutes(30)),
+                createHitRestCommand("/events/1", bucketStart.plusHours(2).plusMinutes(59)),
+                createHitRestCommand("/events/2", bucketStart.plusHours(2)),
+                createHitRestCommand("/events/2", bucketStart.plusHours(2).plusMinutes(30)),
+                createHitRestCommand("/events/2", bucketStart.plusHours(3)),
+                createHitRestCommand("/events/2", bucketStart.plusHours(3).plusMinutes(1))));
+        statsService.saveHit(createHitRestCommand("/events/2", bucketStart.plusHours(1)));
+
+        List<UriStatRestView> uriStats = statsService.getAllUriStatsOrderedByHits(
+                bucketStart.plusMinutes(30).format(StatsClient.FORMATTER),
+                bucketStart.plusHours(3).format(StatsClient.FORMATTER),
+                null,
+                false);
+        assertThat(uriStats, iterableWithSize(2));
+        assertThat(uriStats.get(0).getUri(), equalTo("/events/2"));
+        assertThat(uriStats.get(0).getHits(), equalTo(4L));
+        assertThat(uriStats.get(1).getUri(), equalTo("/events/1"));
+        assertThat(uriStats.get(1).getHits(), equalTo(3L));
+
+        uriStats = statsService.getAllUriStatsOrderedByHits(
+                bucketStart.format(StatsClient.FORMATTER),
+                bucketStart.plusHours(4).format(StatsClient.FORMATTER),
+                new String[] {"/events/1"},
+                false);
+        assertThat(uriStats, iterableWithSize(1));
+        assertThat(uriStats.get(0).getHits(), equalTo(4L));
+    }
+
+    @Test
+    public void getAllUriStatsOrderedByHits_whenRequestApproximateUniqueHits_thenReturnEstimateWithErrorBound() {
+        LocalDateTime bucketStart = DEFAULT_DATE_TIME.withSecond(0);
+        List<HitRestCommand> hits = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            hits.add(createHitRestCommand("/events/1", bucketStart.plusMinutes(30 + i % 200),
+                    String.format("10.0.%d.%d", (i % 2_000) / 250, (i % 2_000) % 250)));
+        }
+        hits.add(createHitRestCommand("/events/2", bucketStart.plusHours(1), "10.1.0.1"));
+        statsService.saveHits(hits);
+
+        List<UriStatRestView> uriStats = statsService.getAllUriStatsOrderedByHits(
+                bucketStart.plusMinutes(30).format(StatsClient.FORMATTER),
+                bucketStart.plusHours(5).format(StatsClient.FORMATTER),
+                null,
+                true,
+                true);
+        assertThat(uriStats, iterableWithSize(2));
+        assertThat(uriStats.get(0).getUri(), equalTo("/events/1"));
+        assertThat(uriStats.get(0).getHitsRelativeError(), notNullValue());
+        assertThat((double) uriStats.get(0).getHits(),
+                closeTo(2_000, 2_000 * uriStats.get(0).getHitsRelativeError() * 3));
+        assertThat(uriStats.get(1).getUri(), equalTo("/events/2"));
+        assertThat(uriStats.get(1).getHits(), equalTo(1L));
+
+        uriStats = statsService.getAllUriStatsOrderedByHits(
+                bucketStart.plusMinutes(30).format(StatsClient.FORMATTER),
+                bucketStart.plusHours(5).format(StatsClient.FORMATTER),
+                new String[] {"/events/1"},
+                true);
+        assertThat(uriStats, iterableWithSize(1));
+        assertThat(uriStats.get(0).getHits(), equalTo(2_000L));
+        assertThat(uriStats.get(0).getHitsRelativeError(), nullValue());
+    }
+
+    @Test
+    public void getAllUriStatsOrderedByHits_whenBatchesHitSameBuckets_thenMergeStoredIpSketches() {
+        LocalDateTime bucketStart = DEFAULT_DATE_TIME.withMinute(0).withSecond(0).plusHours(10);
+        statsService.saveHits(List.of(
+                createHitRestCommand("/events/31", bucketStart.plusMinutes(1), "10.2.0.1"),
+                createHitRestCommand("/events/31", bucketStart.plusMinutes(2), "10.2.0.2")));
+        statsService.saveHits(List.of(
+                createHitRestCommand("/events/31", bucketStart.plusMinutes(3), "10.2.0.2"),
+                createHitRestCommand("/events/31", bucketStart.plusMinutes(4), "10.2.0.3"),
+                createHitRestCommand("/events/32", bucketStart.plusMinutes(5), "10.2.0.1")));
+        statsService.saveHits(List.of(
+                createHitRestCommand("/events/31", bucketStart.plusMinutes(6), "10.2.0.1")));
+
+        List<UriStatRestView> uriStats = statsService.getAllUriStatsOrderedByHits(
+                bucketStart.format(StatsClient.FORMATTER),
+                bucketStart.plusHours(2).format(StatsClient.FORMATTER),
+                new String[] {"/events/31", "/events/32"},
+                true,
+                true);
+        assertThat(uriStats, iterableWithSize(2));
+        assertThat(uriStats.get(0).getUri(), equalTo("/events/31"));
+        assertThat(uriStats.get(0).getHits(), equalTo(3L));
+        assertThat(uriStats.get(0).getHitsRelativeError(), notNullValue());
+        assertThat(uriStats.get(1).getHits(), equalTo(1L));
+    }
+
+    @Test
+    public void getAllUriStatsOrderedByHits_whenUrisAreUnknown_thenReturnOnlyKnownUrisStats() {
+        statsService.saveHits(List.of(
+                createHitRestCommand("/events/41", DEFAULT_DATE_TIME),
+                createHitRestCommand("/events/41", DEFAULT_DATE_TIME.plusMinutes(1)),
+                createHitRestCommand("/events/42", DEFAULT_DATE_TIME)));
+        String start = DEFAULT_DATE_TIME.minusMinutes(1).format(StatsClient.FORMATTER);
+        String end = DEFAULT_DATE_TIME.plusMinutes(2).format(StatsClient.FORMATTER);
+
+        List<UriStatRestView> uriStats = statsService.getAllUriStatsOrderedByHits(start, end,
+                new String[] {"/events/41", "/events/never-visited"}, false);
+        assertThat(uriStats, iterableWithSize(1));
+        assertThat(uriStats.get(0).getApplication(), equalTo("application"));
+        assertThat(uriStats.get(0).getUri(), equalTo("/events/41"));
+        assertThat(uriStats.get(0).getHits(), equalTo(2L));
+
+        uriStats = statsService.getAllUriStatsOrderedByHits(start, end,
+                new String[] {"/events/never-visited"}, true);
+        assertThat(uriStats, empty());
+    }
+
+    @Test
+    public void getAllUriStatsOrderedByHits_whenSameIpv6IsWrittenDifferently_thenCountItAsOneUniqueIp() {
+        statsService.saveHits(List.of(
+                createHitRestCommand("/events/51", DEFAULT_DATE_TIME, "2001:db8::1"),
+                createHitRestCommand("/events/51", DEFAULT_DATE_TIME, "2001:DB8:0:0:0:0:0:1"),
+                createHitRestCommand("/events/51", DEFAULT_DATE_TIME, "10.0.0.1"),
+                createHitRestCommand("/events/51", DEFAULT_DATE_TIME, "::ffff:10.0.0.1")));
+        HitRestView savedHit = statsService.saveHit(
+                createHitRestCommand("/events/51", DEFAULT_DATE_TIME, "2001:0db8:0000:0000:0000:0000:0000:0002"));
+        assertThat(savedHit.getIp(), equalTo("2001:db8::2"));
+
+        List<UriStatRestView> uriStats = statsService.getAllUriStatsOrderedByHits(
+                DEFAULT_DATE_TIME.minusMinutes(1).format(StatsClient.FORMATTER),
+                DEFAULT_DATE_TIME.plusMinutes(1).format(StatsClient.FORMATTER),
+                new String[] {"/events/51"},
+                true);
+        assertThat(uriStats, iterableWithSize(1));
+        assertThat(uriStats.get(0).getHits(), equalTo(3L));
+    }
+
+    @Test
+    public void getAllUriStatsOrderedByHits_whenGetLimit_thenReturnOnlyMostViewedUris() {
+        LocalDateTime bucketStart = DEFAULT_DATE_TIME.minusSeconds(1);
+        List<HitRestCommand> hits = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            for (int j = 0; j < i; j++) {
+                hits.add(createHitRestCommand("/events/6" + i, bucketStart.plusMinutes(10 + j), "10.0.0." + j));
+                hits.add(createHitRestCommand("/events/6" + i, bucketStart.plusHours(2), "10.0.0." + j));
+            }
+        }
+        statsService.saveHits(hits);
+        String start = bucketStart.format(StatsClient.FORMATTER);
+
+        for (String end : List.of(bucketStart.plusMinutes(30).format(StatsClient.FORMATTER),
+                bucketStart.plusHours(3).format(StatsClient.FORMATTER))) {
+            for (boolean unique : List.of(false, true)) {
+                List<UriStatRestView> uriStats = statsService.getAllUriStatsOrderedByHits(start, end, null, unique,
+                        false, 2);
+                assertThat(uriStats, iterableWithSize(2));
+                assertThat(uriStats.get(0).getUri(), equalTo("/events/64"));
+                assertThat(uriStats.get(1).getUri(), equalTo("/events/63"));
+
+                uriStats = statsService.getAllUriStatsOrderedByHits(start, end,
+                        new String[] {"/events/61", "/events/61", "/events/62"}, unique, false, 2);
+                assertThat(uriStats, iterableWithSize(2));
+                assertThat(uriStats.get(0).getUri(), equalTo("/events/62"));
+                assertThat(uriStats.get(1).getUri(), equalTo("/events/61"));
+            }
+        }
+        assertThrows(BadRequestParameterException.class, () -> statsService.getAllUriStatsOrderedByHits(
+                start, start, null, false, false, 0));
+    }
+
+    @Test
+    public void getAllUriStatsOrderedByHits_whenGetLimitAndEdgeHitsChangeTop_thenReturnTopOfWholePeriod() {
+        LocalDateTime bucketStart = DEFAULT_DATE_TIME.withMinute(0).withSecond(0).plusHours(20);
+        List<HitRestCommand> hits = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            hits.add(createHitRestCommand("/events/41", bucketStart.plusMinutes(i)));
+        }
+        hits.add(createHitRestCommand("/events/42", bucketStart.plusMinutes(10)));
+        hits.add(createHitRestCommand("/events/42", bucketStart.plusMinutes(11)));
+        hits.add(createHitRestCommand("/events/42", bucketStart.plusHours(1).plusMinutes(5)));  // Край периода
+        hits.add(createHitRestCommand("/events/42", bucketStart.minusMinutes(5)));  // Край периода
+        hits.add(createHitRestCommand("/events/43", bucketStart.plusMinutes(20)));
+        statsService.saveHits(hits);
+        String start = bucketStart.minusMinutes(10).format(StatsClient.FORMATTER);
+        String end = bucketStart.plusHours(1).plusMinutes(10).format(StatsClient.FORMATTER);
+
+        List<UriStatRestView> uriStats = statsService.getAllUriStatsOrderedByHits(start, end, null, false, false,
+                1);
+        assertThat(uriStats, iterableWithSize(1));
+        assertThat(uriStats.get(0).getUri(), equalTo("/events/42"));
+        assertThat(uriStats.get(0).getHits(), equalTo(4L));
+
+        uriStats = statsService.getAllUriStatsOrderedByHits(start, end, null, "/events/4", false, false, 2);
+        assertThat(uriStats, iterableWithSize(2));
+        assertThat(uriStats.get(1).getUri(), equalTo("/events/41"));
+        assertThat(uriStats.get(1).getHits(), equalTo(3L));
+    }
+
+    @Test
+    public void getUriStats_whenQueryHasRepeatedUrisOrUriPrefix_thenReturnStatsOfEachUriOnce() {
+        statsService.saveHits(List.of(
+                createHitRestCommand("/events/71", DEFAULT_DATE_TIME),
+                createHitRestCommand("/events/71", DEFAULT_DATE_TIME.plusMinutes(1)),
+                createHitRestCommand("/events/72", DEFAULT_DATE_TIME),
+                createHitRestCommand("/events_7%", DEFAULT_DATE_TIME)));
+        UriStatsQuery uriStatsQuery = UriStatsQuery.builder()
+                .start(DEFAULT_DATE_TIME.minusMinutes(1).format(StatsClient.FORMATTER))
+                .end(DEFAULT_DATE_TIME.plusMinutes(2).format(StatsClient.FORMATTER))
+                .uris(List.of("/events/71", "/events/72", "/events/71", "/events/never-visited"))
+                .build();
+
+        List<UriStatRestView> uriStats = statsService.getUriStats(uriStatsQuery);
+        assertThat(uriStats, iterableWithSize(2));
+        assertThat(uriStats.get(0).getUri(), equalTo("/events/71"));
+        assertThat(uriStats.get(0).getHits(), equalTo(2L));
+        assertThat(uriStats.get(1).getUri(), equalTo("/events/72"));
+        assertThat(statsService.getUriStats(uriStatsQuery.toBuilder()
+                        .uris(Arrays.asList("/events/72", null))
+                        .build()),
+                contains(hasProperty("uri", equalTo("/events/72"))));
+
+        uriStats = statsService.getUriStats(uriStatsQuery.toBuilder()
+                .uris(null)
+                .uriPrefix("/events/7")
+                .unique(true)
+                .build());
+        assertThat(uriStats, iterableWithSize(2));  // Символы шаблона LIKE в префиксе шаблоном не считаются
+        assertThat(uriStats.get(0).getHits(), equalTo(1L));
+        assertThat(uriStats.get(0).getUriSuffix(), equalTo(1L));
+        assertThat(uriStats.get(1).getUriSuffix(), equalTo(2L));
+        assertThat(statsService.getUriStats(uriStatsQuery.toBuilder().uris(null).uriPrefix("/events/9").build()),
+                empty());
+
+        assertThrows(BadRequestBodyException.class, () -> statsService.getUriStats(uriStatsQuery.toBuilder()
+                .uriPrefix("/events/")
+                .build()));
+        assertThrows(BadRequestBodyException.class, () -> statsService.getUriStats(uriStatsQuery.toBuilder()
+                .start("01.08.2023 00:00:00")
+                .build()));
+        assertThrows(BadRequestParameterException.class, () -> statsService.getUriStats(uriStatsQuery.toBuilder()
+                .start(null)
+                .build()));
+    }
+
+    @Test
+    public void getAllUriStatsOrderedByHits_whenGetUriPrefix_thenReturnStatsOfMatchingUrisWithNumericSuffixes() {
+        statsService.saveHits(List.of(
+                createHitRestCommand("/events/81", DEFAULT_DATE_TIME),
+                createHitRestCommand("/events/81", DEFAULT_DATE_TIME.plusMinutes(1)),
+                createHitRestCommand("/events/82/comments", DEFAULT_DATE_TIME),
+                createHitRestCommand("/events/8", DEFAULT_DATE_TIME),
+                createHitRestCommand("/events/9", DEFAULT_DATE_TIME)));
+        String start = DEFAULT_DATE_TIME.minusMinutes(1).format(StatsClient.FORMATTER);
+        String end = DEFAULT_DATE_TIME.plusMinutes(2).format(StatsClient.FORMATTER);
+
+        List<UriStatRestView> uriStats = statsService.getAllUriStatsOrderedByHits(start, end, null, "/events/8",
+                false, false, null);
+        assertThat(uriStats, iterableWithSize(3));
+        assertThat(uriStats.get(0).getUri(), equalTo("/events/81"));
+        assertThat(uriStats.get(0).getHits(), equalTo(2L));
+        assertThat(uriStats.get(0).getUriSuffix(), equalTo(1L));
+        Map<String, Long> suffixes = new HashMap<>();
+        uriStats.forEach(uriStat -> suffixes.put(uriStat.getUri(), uriStat.getUriSuffix()));
+        assertThat(suffixes, hasEntry("/events/8", null));  // Префикс совпал с URI целиком
+        assertThat(suffixes, hasEntry("/events/82/comments", null));
+
+        assertThrows(BadRequestParameterException.class, () -> statsService.getAllUriStatsOrderedByHits(start, end,
+                new String[] {"/events/81"}, "/events/", false, false, null));
+        assertThrows(BadRequestParameterException.class, () -> statsService.getAllUriStatsOrderedByHits(start, end,
+                null, "", false, false, null));
+    }
+
+    @Test
+    public void streamAllUriStatsOrderedByHits_whenGetUriPrefixOrApproximate_thenReturnSameStatsAsList() {
+        statsService.saveHits(List.of(
+                createHitRestCommand("/events/83", DEFAULT_DATE_TIME),
+                createHitRestCommand("/events/83", DEFAULT_DATE_TIME.plusMinutes(1)),
+                createHitRestCommand("/events/84", DEFAULT_DATE_TIME),
+                createHitRestCommand("/compilations/83", DEFAULT_DATE_TIME)));
+        String start = DEFAULT_DATE_TIME.minusMinutes(1).format(StatsClient.FORMATTER);
+        String end = DEFAULT_DATE_TIME.plusMinutes(2).format(StatsClient.FORMATTER);
+        List<UriStatRestView> streamedStats = new ArrayList<>();
+
+        statsService.streamAllUriStatsOrderedByHits(start, end, null, "/events/8", false, false, null,
+                streamedStats::add);
+        assertThat(streamedStats, equalTo(statsService.getAllUriStatsOrderedByHits(start, end, null, "/events/8",
+                false, false, null)));
+        assertThat(streamedStats, iterableWithSize(2));
+        assertThat(streamedStats.get(0).getUriSuffix(), equalTo(3L));
+
+        streamedStats.clear();
+        statsService.streamAllUriStatsOrderedByHits(start, end, null, "/events/8", true, true, 1,
+                streamedStats::add);
+        assertThat(streamedStats, equalTo(statsService.getAllUriStatsOrderedByHits(start, end, null, "/events/8",
+                true, true, 1)));
+
+        assertThrows(BadRequestParameterException.class, () -> statsService.streamAllUriStatsOrderedByHits(start,
+                end, new String[] {"/events/83"}, "/events/", false, false, null, streamedStats::add));
+    }
+
+    @Test
+    public void getUriTimeSeries_whenPeriodContainsFullAndPartialBuckets_thenReturnHitsOfEachBucket() {
+        LocalDateTime base = LocalDateTime.of(2023, 7, 20, 10, 0);
+        statsService.saveHits(List.of(
+                createHitRestCommand("/events/series/1", base.plusMinutes(5)),
+                createHitRestCommand("/events/series/1", base.plusMinutes(5).plusSeconds(30)),
+                createHitRestCommand("/events/series/1", base.plusHours(1).plusMinutes(15)),
+                createHitRestCommand("/events/series/1", base.plusHours(1).plusMinutes(45)),
+                createHitRestCommand("/events/series/1", base.plusHours(26)),
+                createHitRestCommand("/events/series/2", base.plusHours(2).plusMinutes(10))));
+        String[] uris = {"/events/series/1", "/events/series/2"};
+
+        List<UriTimeSeriesRestView> timeSeries = statsService.getUriTimeSeries(
+                base.plusMinutes(5).format(StatsClient.FORMATTER),
+                base.plusHours(2).plusMinutes(30).format(StatsClient.FORMATTER),
+                uris, null, "hour");
+        assertThat(timeSeries, iterableWithSize(2));
+        assertThat(timeSeries.get(0).getUri(), equalTo("/events/series/1"));
+        assertThat(timeSeries.get(0).getHits(), equalTo(4L));
+        assertThat(timeSeries.get(0).getBuckets(), contains(  // Край периода из сырых хитов и целый час из агрегата
+                createHitsBucket(base, 2L), createHitsBucket(base.plusHours(1), 2L)));
+        assertThat(timeSeries.get(1).getBuckets(), contains(createHitsBucket(base.plusHours(2), 1L)));
+
+        timeSeries = statsService.getUriTimeSeries(
+                base.minusHours(1).format(StatsClient.FORMATTER),
+                base.plusHours(30).format(StatsClient.FORMATTER),
+                null, "/events/series/", "DAY");
+        assertThat(timeSeries, iterableWithSize(2));
+        assertThat(timeSeries.get(0).getUriSuffix(), equalTo(1L));
+        assertThat(timeSeries.get(0).getBuckets(), contains(
+                createHitsBucket(base.toLocalDate().atStartOfDay(), 4L),
+                createHitsBucket(base.toLocalDate().plusDays(1).atStartOfDay(), 1L)));
+        assertThat(timeSeries.get(1).getUriSuffix(), equalTo(2L));
+
+        timeSeries = statsService.getUriTimeSeries(
+                base.format(StatsClient.FORMATTER),
+                base.plusHours(2).format(StatsClient.FORMATTER),
+                new String[] {"/events/series/1"}, null, "MINUTE");
+        assertThat(timeSeries, iterableWithSize(1));
+        assertThat(timeSeries.get(0).getBuckets(), contains(createHitsBucket(base.plusMinutes(5), 2L),
+                createHitsBucket(base.plusMinutes(75), 1L), createHitsBucket(base.plusMinutes(105), 1L)));
+
+        assertThrows(BadRequestParameterException.class, () -> statsService.getUriTimeSeries(
+                base.format(StatsClient.FORMATTER), base.plusHours(1).format(StatsClient.FORMATTER),
+                uris, null, "WEEK"));
+        assertThrows(BadRequestParameterException.class, () -> statsService.getUriTimeSeries(
+                base.format(StatsClient.FORMATTER), base.plusHours(1).format(StatsClient.FORMATTER),
+                uris, "/events/series/", "HOUR"));
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"", " ", "\n", "\t", "\r"})
     @NullSource
@@ -144,4 +539,24 @@ public class StatsServiceTest {
                         null));
     }
 
+    private HitsBucketRestView createHitsBucket(LocalDateTime start, long hits) {
+        return HitsBucketRestView.builder()
+                .start(start.format(StatsClient.FORMATTER))
+                .hits(hits)
+                .build();
+    }
+
+    private HitRestCommand createHitRestCommand(String uri, LocalDateTime timestamp) {
+        return createHitRestCommand(uri, timestamp, "127.0.0.1");
+    }
+
+    private HitRestCommand createHitRestCommand(String uri, LocalDateTime timestamp, String ip) {
+        return HitRestCommand.builder()
+                .application("application")
+                .ip(ip)
+                .uri(uri)
+                .timestamp(timestamp.format(StatsClient.FORMATTER))
+                .build();
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+package ru.practicum.explore_with_me.stats_service.server_submodule;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import ru.practicum.explore_with_me.stats_service.client_submodule.StatsClient;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.HitRestCommand;
+import ru.practicum.explore_with_me.stats_service.dto_submodule.dto.UriStatRestView;
+import ru.practicum.explore_with_me.stats_service.server_submodule.service.StatsService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+// Запуск: mvn test -Dbenchmarks=true -Dtest=UniqueHitsBenchmarkTest
+// H2 не должна отдавать сохранённый результат повторного запроса, иначе замеряется только кэш
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.datasource.url=jdbc:h2:mem:ewm_stats_benchmark;OPTIMIZE_REUSE_RESULTS=0")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class UniqueHitsBenchmarkTest {
+    private static final LocalDateTime FIRST_HIT_TIME = LocalDateTime.of(2023, 1, 1, 0, 0, 0);
+    private static final int HITS_COUNT = 600_000;
+    private static final int URIS_COUNT = 10;
+    private static final int HOURS_COUNT = 24;
+    private static final int IPS_COUNT = 30_000;
+    private static final int MEASUREMENTS_COUNT = 20;
+    private final StatsService statsService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void cleanTables() {
+        jdbcTemplate.update("delete from hits");
+        jdbcTemplate.update("delete from hit_rollups");
+        jdbcTemplate.update("delete from hit_ip_sketches");
+    }
+
+    @Test
+    public void compareExactAndApproximateUniqueHitsQueries() {
+        List<HitRestCommand> chunk = new ArrayList<>();
+        for (int i = 0; i < HITS_COUNT; i++) {
+            chunk.add(HitRestCommand.builder()
+                    .application("ewm-main-service")
+                    .uri("/events/" + (i % URIS_COUNT))
+                    .ip(createIp((int) ((i * 7919L) % IPS_COUNT)))  // Одни и те же посетители заходят повторно
+                    .timestamp(FIRST_HIT_TIME.plusSeconds((long) i * HOURS_COUNT * 3600 / HITS_COUNT)
+                            .format(StatsClient.FORMATTER))
+                    .build());
+            if (chunk.size() == 5_000) {
+                statsService.saveHits(chunk);
+                chunk.clear();
+            }
+        }
+        String start = FIRST_HIT_TIME.plusMinutes(30).format(StatsClient.FORMATTER);
+        String end = FIRST_HIT_TIME.plusHours(HOURS_COUNT).format(StatsClient.FORMATTER);
+
+        Map<String, Long> exactHits = measure("exact", () ->
+                statsService.getAllUriStatsOrderedByHits(start, end, null, true, false));
+        Map<String, Long> approximateHits = measure("approximate", () ->
+                statsService.getAllUriStatsOrderedByHits(start, end, null, true, true));
+
+        double maxRelativeError = exactHits.entrySet().stream()
+                .mapToDouble(uriHits -> Math.abs(approximateHits.get(uriHits.getKey()) - uriHits.getValue()) /
+                        (double) uriHits.getValue())
+                .max()
+                .orElse(0.0D);
+        log.info("Maximum relative error of approximate unique hits: {}", maxRelativeError);
+        assertThat(approximateHits.keySet(), equalTo(exactHits.keySet()));
+        assertThat(maxRelativeError, lessThan(0.05D));
+    }
+
+    private String createIp(int number) {
+        return String.format("10.%d.%d.%d", (number >> 16) & 0xff, (number >> 8) & 0xff, number & 0xff);
+    }
+
+    private Map<String, Long> measure(String mode, Supplier<List<UriStatRestView>> query) {
+        List<UriStatRestView> stats = query.get();  // Прогрев
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < MEASUREMENTS_COUNT; i++) {
+            stats = query.get();
+        }
+        log.info("Mean latency of {} unique hits query over {} hits: {} ms", mode, HITS_COUNT,
+                (System.nanoTime() - startNanos) / MEASUREMENTS_COUNT / 1_000_000.0D);
+        return stats.stream()
+                .collect(Collectors.toMap(UriStatRestView::getUri, UriStatRestView::getHits));
+    }
+
+}
\ No newline at end of file